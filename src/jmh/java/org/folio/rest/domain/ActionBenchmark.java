@@ -0,0 +1,39 @@
+package org.folio.rest.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looking up whether the type of a fee/fine action is an action result, as done for every
+ * action when fees/fines are loaded. Charges are the most common miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActionBenchmark {
+  @Param({"Paid partially", "Cancelled as error", "Overdue fine"})
+  private String typeAction;
+
+  @Benchmark
+  public boolean isActionResult() {
+    return Action.isActionResult(typeAction);
+  }
+
+  @Benchmark
+  public boolean isFullActionResult() {
+    return Action.isFullActionResult(typeAction);
+  }
+}
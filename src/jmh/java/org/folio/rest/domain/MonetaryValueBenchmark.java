@@ -0,0 +1,231 @@
+package org.folio.rest.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.utils.amountsplitter.SplitEvenlyRecursively;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link MonetaryValue}, which keeps amounts in minor units, with the
+ * BigDecimal-only implementation it replaced, on the work that action validation, refunds
+ * and the bulk amount splitter do for every account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonetaryValueBenchmark {
+  @Param({"30", "1000"})
+  private int accountCount;
+
+  private List<Account> accounts;
+  private String requestedAmount;
+
+  @Setup(Level.Trial)
+  public void createAccounts() {
+    Random random = new Random(42);
+    accounts = new ArrayList<>();
+    double total = 0;
+
+    for (int i = 0; i < accountCount; i++) {
+      double remaining = random.nextInt(100_00) / 100.0;
+      total += remaining;
+      accounts.add(new Account()
+        .withId(UUID.randomUUID().toString())
+        .withRemaining(remaining));
+    }
+
+    requestedAmount = BigDecimal.valueOf(total / 2).setScale(2, RoundingMode.HALF_EVEN)
+      .toString();
+  }
+
+  @Benchmark
+  public boolean validation() {
+    MonetaryValue requested = new MonetaryValue(requestedAmount);
+    MonetaryValue totalRemaining = accounts.stream()
+      .map(Account::getRemaining)
+      .map(MonetaryValue::new)
+      .reduce(MonetaryValue::add)
+      .orElse(new MonetaryValue(BigDecimal.ZERO));
+
+    return requested.isPositive() && !requested.isGreaterThan(totalRemaining)
+      && totalRemaining.subtract(requested).isPositive();
+  }
+
+  @Benchmark
+  public boolean validationBaseline() {
+    BigDecimalMonetaryValue requested = new BigDecimalMonetaryValue(
+      new BigDecimal(requestedAmount));
+    BigDecimalMonetaryValue totalRemaining = accounts.stream()
+      .map(Account::getRemaining)
+      .map(BigDecimal::valueOf)
+      .map(BigDecimalMonetaryValue::new)
+      .reduce(BigDecimalMonetaryValue::add)
+      .orElse(new BigDecimalMonetaryValue(BigDecimal.ZERO));
+
+    return requested.isPositive() && !requested.isGreaterThan(totalRemaining)
+      && totalRemaining.subtract(requested).isPositive();
+  }
+
+  @Benchmark
+  public Map<String, MonetaryValue> splitter() {
+    Map<String, MonetaryValue> actionableAmounts = accounts.stream()
+      .collect(Collectors.toMap(Account::getId,
+        account -> new MonetaryValue(account.getRemaining())));
+
+    return new SplitEvenlyRecursively()
+      .split(new MonetaryValue(requestedAmount), accounts, actionableAmounts);
+  }
+
+  @Benchmark
+  public Map<String, BigDecimalMonetaryValue> splitterBaseline() {
+    Map<String, BigDecimalMonetaryValue> actionableAmounts = accounts.stream()
+      .collect(Collectors.toMap(Account::getId,
+        account -> new BigDecimalMonetaryValue(BigDecimal.valueOf(account.getRemaining()))));
+
+    return splitEvenlyRecursively(new BigDecimalMonetaryValue(new BigDecimal(requestedAmount)),
+      actionableAmounts);
+  }
+
+  /**
+   * The four actions of a refund with the balance kept as {@link MonetaryValue} between them,
+   * as {@code RefundActionService} does.
+   */
+  @Benchmark
+  public double refundWithRunningBalance() {
+    MonetaryValue amount = new MonetaryValue(requestedAmount);
+    MonetaryValue remaining = new MonetaryValue(accounts.get(0).getRemaining());
+    double amounts = 0;
+
+    for (int i = 0; i < 4; i++) {
+      remaining = i % 2 == 0 ? remaining.subtract(amount) : remaining.add(amount);
+      amounts += amount.toDouble() + remaining.toDouble();
+    }
+
+    return amounts + remaining.toDouble();
+  }
+
+  /**
+   * The four actions of a refund with the balance written to the account as a double after
+   * every action and read back for the next one.
+   */
+  @Benchmark
+  public double refundWithDoubleRoundTrips() {
+    BigDecimalMonetaryValue amount = new BigDecimalMonetaryValue(new BigDecimal(requestedAmount));
+    double remaining = accounts.get(0).getRemaining();
+    double amounts = 0;
+
+    for (int i = 0; i < 4; i++) {
+      BigDecimalMonetaryValue before = new BigDecimalMonetaryValue(BigDecimal.valueOf(remaining));
+      BigDecimalMonetaryValue after = i % 2 == 0 ? before.subtract(amount) : before.add(amount);
+      remaining = after.getAmount().doubleValue();
+      amounts += amount.getAmount().doubleValue() + remaining;
+    }
+
+    return amounts + remaining;
+  }
+
+  /**
+   * {@code SplitEvenlyRecursively} as it was written against the BigDecimal implementation.
+   */
+  private Map<String, BigDecimalMonetaryValue> splitEvenlyRecursively(
+    BigDecimalMonetaryValue totalRequestedAmount,
+    Map<String, BigDecimalMonetaryValue> actionableAmounts) {
+
+    int numberOfAccountsToProcess = accounts.size();
+    BigDecimal amountToDistribute = totalRequestedAmount.getAmount();
+    BigDecimal evenlySplitAmount = splitEvenly(amountToDistribute, numberOfAccountsToProcess);
+
+    List<Account> accountsSorted = accounts.stream()
+      .sorted(Comparator.comparingLong(
+        account -> actionableAmounts.get(account.getId()).getAmount().longValue()))
+      .collect(Collectors.toList());
+
+    Map<String, BigDecimalMonetaryValue> result = new HashMap<>();
+
+    for (Account account : accountsSorted) {
+      if (amountToDistribute.compareTo(BigDecimal.ZERO) <= 0) {
+        break;
+      }
+
+      BigDecimal actionableAmount = actionableAmounts.get(account.getId()).getAmount();
+      numberOfAccountsToProcess--;
+
+      BigDecimal calculatedActionAmount;
+      if (actionableAmount.compareTo(evenlySplitAmount) >= 0) {
+        calculatedActionAmount = evenlySplitAmount.min(amountToDistribute);
+        amountToDistribute = amountToDistribute.subtract(calculatedActionAmount);
+      } else {
+        calculatedActionAmount = actionableAmount.min(amountToDistribute);
+        amountToDistribute = amountToDistribute.subtract(calculatedActionAmount);
+        evenlySplitAmount = splitEvenly(amountToDistribute, numberOfAccountsToProcess);
+      }
+
+      if (calculatedActionAmount.compareTo(BigDecimal.ZERO) > 0) {
+        result.put(account.getId(), new BigDecimalMonetaryValue(calculatedActionAmount));
+      }
+    }
+
+    return result;
+  }
+
+  private static BigDecimal splitEvenly(BigDecimal amount, int numberOfPieces) {
+    return amount.divide(new BigDecimal(numberOfPieces), RoundingMode.HALF_EVEN);
+  }
+
+  /**
+   * The former {@link MonetaryValue}: a BigDecimal scaled to two fraction digits on every
+   * construction.
+   */
+  public static class BigDecimalMonetaryValue {
+    private final BigDecimal amount;
+
+    BigDecimalMonetaryValue(BigDecimal amount) {
+      this.amount = amount.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    BigDecimal getAmount() {
+      return amount;
+    }
+
+    boolean isPositive() {
+      return BigDecimal.ZERO.compareTo(amount) < 0;
+    }
+
+    boolean isGreaterThan(BigDecimalMonetaryValue other) {
+      return amount.compareTo(other.amount) > 0;
+    }
+
+    BigDecimalMonetaryValue add(BigDecimalMonetaryValue other) {
+      return new BigDecimalMonetaryValue(amount.add(other.amount));
+    }
+
+    BigDecimalMonetaryValue subtract(BigDecimalMonetaryValue other) {
+      return new BigDecimalMonetaryValue(amount.subtract(other.amount));
+    }
+  }
+}
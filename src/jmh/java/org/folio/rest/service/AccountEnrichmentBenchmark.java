@@ -0,0 +1,94 @@
+package org.folio.rest.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares joining accounts to items and holdings records by ID with the nested scans
+ * that {@code AccountsAPI} used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountEnrichmentBenchmark {
+  @Param({"1000", "10000"})
+  private int accountCount;
+
+  private List<Account> accounts;
+  private List<Item> items;
+  private List<HoldingsRecord> holdingsRecords;
+
+  @Setup(Level.Trial)
+  public void createRecords() {
+    accounts = new ArrayList<>();
+    items = new ArrayList<>();
+    holdingsRecords = new ArrayList<>();
+
+    for (int i = 0; i < accountCount; i++) {
+      HoldingsRecord holdingsRecord = new HoldingsRecord()
+        .withId(randomId())
+        .withInstanceId(randomId());
+      Item item = new Item()
+        .withId(randomId())
+        .withHoldingsRecordId(holdingsRecord.getId());
+
+      holdingsRecords.add(holdingsRecord);
+      items.add(item);
+      accounts.add(new Account()
+        .withId(randomId())
+        .withItemId(item.getId()));
+    }
+  }
+
+  @Benchmark
+  public List<Account> hashJoin() {
+    AccountEnrichmentService.setAdditionalFields(accounts, items, holdingsRecords);
+    return accounts;
+  }
+
+  @Benchmark
+  public List<Account> linearScan() {
+    accounts.forEach(account -> {
+      Optional<Item> item = items.stream()
+        .filter(i -> account.getItemId().equals(i.getId()))
+        .findAny();
+
+      Optional<HoldingsRecord> holding = Optional.empty();
+      if (item.isPresent() && item.get().getHoldingsRecordId() != null) {
+        holding = holdingsRecords.stream()
+          .filter(h -> item.get().getHoldingsRecordId().equals(h.getId()))
+          .findAny();
+      }
+
+      account.setHoldingsRecordId(item.map(Item::getHoldingsRecordId).orElse(""));
+      account.setInstanceId(holding.map(HoldingsRecord::getInstanceId).orElse(""));
+    });
+    return accounts;
+  }
+
+  private static String randomId() {
+    return UUID.randomUUID().toString();
+  }
+}
@@ -0,0 +1,69 @@
+package org.folio.rest.service.action.validation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.repository.AccountRepository;
+import org.folio.test.support.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.Future;
+
+/**
+ * Validation of pay, waive and transfer requests, single and bulk, once the accounts have
+ * been fetched. The default validation does not go to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActionValidationBenchmark {
+  @Param({"1", "10", "100"})
+  private int accountCount;
+
+  private final ActionValidationService validationService =
+    new DefaultActionValidationService((AccountRepository) null);
+
+  private Map<String, Account> accounts;
+  private String requestedAmount;
+
+  @Setup(Level.Trial)
+  public void createAccounts() {
+    List<Account> generated = new BenchmarkFixtures(42).accounts(accountCount);
+
+    accounts = new LinkedHashMap<>();
+    generated.forEach(account -> accounts.put(account.getId(), account));
+
+    MonetaryValue totalRemaining = generated.stream()
+      .map(account -> new MonetaryValue(account.getRemaining()))
+      .reduce(MonetaryValue::add)
+      .orElseThrow();
+    requestedAmount = totalRemaining.getAmount()
+      .divide(BigDecimal.valueOf(2), RoundingMode.HALF_EVEN)
+      .toPlainString();
+  }
+
+  @Benchmark
+  public Future<ActionValidationResult> validate() {
+    return validationService.validate(accounts, requestedAmount);
+  }
+}
@@ -0,0 +1,108 @@
+package org.folio.rest.utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.test.support.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Encoding and decoding of accounts and fee/fine actions, the way they go to and come from
+ * the database and the HTTP API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+  private static final int RECORD_COUNT = 100;
+
+  private List<Account> accounts;
+  private List<Feefineaction> actions;
+  private List<String> encodedAccounts;
+  private List<String> encodedActions;
+
+  @Setup(Level.Trial)
+  public void createRecords() {
+    BenchmarkFixtures fixtures = new BenchmarkFixtures(42);
+
+    accounts = fixtures.accounts(RECORD_COUNT);
+    actions = accounts.stream()
+      .map(fixtures::action)
+      .collect(Collectors.toList());
+    encodedAccounts = accounts.stream()
+      .map(Json::encode)
+      .collect(Collectors.toList());
+    encodedActions = actions.stream()
+      .map(Json::encode)
+      .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public int encodeAccounts() {
+    return encode(accounts);
+  }
+
+  @Benchmark
+  public int decodeAccounts() {
+    return decode(encodedAccounts, Account.class);
+  }
+
+  @Benchmark
+  public int encodeFeeFineActions() {
+    return encode(actions);
+  }
+
+  @Benchmark
+  public int decodeFeeFineActions() {
+    return decode(encodedActions, Feefineaction.class);
+  }
+
+  /**
+   * Through {@link JsonObject}, as fee/fine actions are queued for patron notices.
+   */
+  @Benchmark
+  public int mapFeeFineActionsToJsonObjects() {
+    int size = 0;
+    for (Feefineaction action : actions) {
+      size += JsonObject.mapFrom(action).size();
+    }
+    return size;
+  }
+
+  private static int encode(List<?> records) {
+    int length = 0;
+    for (Object record : records) {
+      length += Json.encode(record).length();
+    }
+    return length;
+  }
+
+  private static int decode(List<String> encoded, Class<?> type) {
+    int count = 0;
+    for (String json : encoded) {
+      if (Json.decodeValue(json, type) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.rest.utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.folio.rest.domain.FeeFineNoticeContext;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.PatronNotice;
+import org.folio.rest.jaxrs.model.User;
+import org.folio.test.support.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the template context of a patron notice for a single action and for the
+ * aggregated notice of a bulk action over ten fees/fines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatronNoticeBuilderBenchmark {
+  private static final int BULK_ACTION_SIZE = 10;
+
+  private FeeFineNoticeContext context;
+  private List<FeeFineNoticeContext> bulkActionContexts;
+
+  @Setup(Level.Trial)
+  public void createContexts() {
+    BenchmarkFixtures fixtures = new BenchmarkFixtures(42);
+    List<Account> accounts = fixtures.accounts(BULK_ACTION_SIZE);
+    User user = fixtures.user(accounts.get(0).getUserId());
+
+    bulkActionContexts = accounts.stream()
+      .map(account -> fixtures.noticeContext(user, account))
+      .collect(Collectors.toList());
+    context = bulkActionContexts.get(0);
+  }
+
+  @Benchmark
+  public PatronNotice buildNotice() {
+    return PatronNoticeBuilder.buildNotice(context);
+  }
+
+  @Benchmark
+  public PatronNotice buildAggregatedNotice() {
+    return PatronNoticeBuilder.buildAggregatedNotice(bulkActionContexts);
+  }
+}
@@ -0,0 +1,98 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the allocation strategies of {@link AmountSplitterStrategies}, and
+ * {@link SplitEvenlyRecursively} they replaced, on synthetic patron portfolios: mostly small
+ * overdue fines with a few lost item fees among them, charged over two years. Two thirds of
+ * the total remaining amount is requested.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmountSplitterBenchmark {
+  private static final long TWO_YEARS_MILLIS = 2L * 365 * 24 * 60 * 60 * 1000;
+
+  @Param({"100", "10000", "100000"})
+  private int accountCount;
+
+  @Param({AmountSplitterStrategies.EVENLY, AmountSplitterStrategies.OLDEST_FIRST,
+    AmountSplitterStrategies.LARGEST_BALANCE_FIRST, AmountSplitterStrategies.PROPORTIONALLY})
+  private String strategyName;
+
+  private List<Account> accounts;
+  private Map<String, MonetaryValue> actionableAmounts;
+  private MonetaryValue requestedAmount;
+
+  private BulkActionAmountSplitterStrategy strategy;
+  private final BulkActionAmountSplitterStrategy splitEvenlyRecursively =
+    new SplitEvenlyRecursively();
+
+  @Setup(Level.Trial)
+  public void createAccounts() {
+    Random random = new Random(42);
+    long now = System.currentTimeMillis();
+    accounts = new ArrayList<>();
+    long totalMinorUnits = 0;
+
+    for (int i = 0; i < accountCount; i++) {
+      // one in twenty is a lost item fee
+      int remainingMinorUnits = random.nextInt(20) == 0
+        ? 20_00 + random.nextInt(150_00)
+        : 10 + random.nextInt(15_00);
+      totalMinorUnits += remainingMinorUnits;
+      accounts.add(new Account()
+        .withId(UUID.randomUUID().toString())
+        .withRemaining(remainingMinorUnits / 100.0)
+        .withMetadata(new Metadata()
+          .withCreatedDate(new Date(now - (long) (random.nextDouble() * TWO_YEARS_MILLIS)))));
+    }
+
+    actionableAmounts = accounts.stream()
+      .collect(Collectors.toMap(Account::getId,
+        account -> new MonetaryValue(account.getRemaining())));
+    requestedAmount = new MonetaryValue(BigDecimal.valueOf(totalMinorUnits * 2 / 3, 2));
+    strategy = AmountSplitterStrategies.get(strategyName).orElseThrow();
+  }
+
+  @Benchmark
+  public Map<String, MonetaryValue> split() {
+    return strategy.split(requestedAmount, accounts, actionableAmounts);
+  }
+
+  /**
+   * The strategy bulk actions used before, does not depend on {@code strategyName}.
+   */
+  @Benchmark
+  public Map<String, MonetaryValue> splitEvenlyRecursively() {
+    return splitEvenlyRecursively.split(requestedAmount, accounts, actionableAmounts);
+  }
+}
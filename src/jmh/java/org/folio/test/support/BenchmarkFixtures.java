@@ -0,0 +1,159 @@
+package org.folio.test.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.folio.rest.domain.Action;
+import org.folio.rest.domain.FeeFineNoticeContext;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Contributor;
+import org.folio.rest.jaxrs.model.EffectiveCallNumberComponents;
+import org.folio.rest.jaxrs.model.Feefine;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.Instance;
+import org.folio.rest.jaxrs.model.Item;
+import org.folio.rest.jaxrs.model.Location;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.jaxrs.model.PaymentStatus;
+import org.folio.rest.jaxrs.model.Personal;
+import org.folio.rest.jaxrs.model.Status;
+import org.folio.rest.jaxrs.model.User;
+
+/**
+ * Generates records shaped like production data for benchmarks: mostly small overdue fines
+ * with some lost item fees, partially paid or outstanding, charged over the last two years.
+ * The same seed always generates the same amounts.
+ */
+public class BenchmarkFixtures {
+  private static final long TWO_YEARS_MILLIS = 2L * 365 * 24 * 60 * 60 * 1000;
+
+  private final Random random;
+  private final long now = System.currentTimeMillis();
+
+  public BenchmarkFixtures(long seed) {
+    this.random = new Random(seed);
+  }
+
+  public List<Account> accounts(int count) {
+    String userId = randomId();
+    List<Account> accounts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      accounts.add(account(userId));
+    }
+    return accounts;
+  }
+
+  public Account account(String userId) {
+    boolean lostItemFee = random.nextInt(20) == 0;
+    int amountMinorUnits = lostItemFee
+      ? 20_00 + random.nextInt(150_00)
+      : 25 + random.nextInt(15_00);
+    int remainingMinorUnits = random.nextBoolean()
+      ? amountMinorUnits
+      : 1 + random.nextInt(amountMinorUnits);
+    Date createdDate = new Date(now - (long) (random.nextDouble() * TWO_YEARS_MILLIS));
+
+    return new Account()
+      .withId(randomId())
+      .withOwnerId(randomId())
+      .withUserId(userId)
+      .withItemId(randomId())
+      .withLoanId(randomId())
+      .withMaterialTypeId(randomId())
+      .withFeeFineId(randomId())
+      .withFeeFineType(lostItemFee ? "Lost item fee" : "Overdue fine")
+      .withFeeFineOwner("Main library")
+      .withTitle("Title " + random.nextInt(100_000))
+      .withBarcode(String.valueOf(100_000 + random.nextInt(900_000)))
+      .withCallNumber("QA76.73.J38")
+      .withLocation("Main library stacks")
+      .withMaterialType("book")
+      .withAmount(amountMinorUnits / 100.0)
+      .withRemaining(remainingMinorUnits / 100.0)
+      .withPaymentStatus(new PaymentStatus().withName(remainingMinorUnits < amountMinorUnits
+        ? Action.PAY.getPartialResult() : "Outstanding"))
+      .withStatus(new Status().withName("Open"))
+      .withMetadata(new Metadata()
+        .withCreatedDate(createdDate)
+        .withUpdatedDate(createdDate));
+  }
+
+  public Feefineaction action(Account account) {
+    double amount = Math.max(0.01, Math.floor(account.getRemaining() * 50) / 100);
+
+    return new Feefineaction()
+      .withId(randomId())
+      .withAccountId(account.getId())
+      .withUserId(account.getUserId())
+      .withTypeAction(Action.PAY.getPartialResult())
+      .withDateAction(new Date(now))
+      .withAmountAction(amount)
+      .withBalance(account.getRemaining() - amount)
+      .withPaymentMethod("Cash")
+      .withTransactionInformation("Check #" + random.nextInt(100_000))
+      .withCreatedAt(randomId())
+      .withSource("Folio, Tester")
+      .withNotify(true)
+      .withComments("STAFF : staff comment \n PATRON : patron comment");
+  }
+
+  public FeeFineNoticeContext noticeContext(User user, Account account) {
+    return new FeeFineNoticeContext()
+      .withUser(user)
+      .withAccount(account)
+      .withAction(action(account))
+      .withOwner(new Owner()
+        .withId(account.getOwnerId())
+        .withOwner(account.getFeeFineOwner())
+        .withDefaultActionNoticeId(randomId())
+        .withDefaultChargeNoticeId(randomId()))
+      .withFeefine(new Feefine()
+        .withId(account.getFeeFineId())
+        .withOwnerId(account.getOwnerId())
+        .withFeeFineType(account.getFeeFineType())
+        .withActionNoticeId(randomId()))
+      .withItem(new Item()
+        .withId(account.getItemId())
+        .withBarcode(account.getBarcode())
+        .withEnumeration("v.1")
+        .withVolume("vol.1")
+        .withChronology("2020")
+        .withYearCaption(new HashSet<>(Arrays.asList("2019", "2020")))
+        .withCopyNumber("c.1")
+        .withNumberOfPieces("1")
+        .withEffectiveCallNumberComponents(new EffectiveCallNumberComponents()
+          .withCallNumber(account.getCallNumber())))
+      .withInstance(new Instance()
+        .withTitle(account.getTitle())
+        .withContributors(Arrays.asList(
+          new Contributor().withName("Primary, Author").withPrimary(true),
+          new Contributor().withName("Second, Author").withPrimary(false))))
+      .withHoldingsRecord(new HoldingsRecord()
+        .withId(randomId())
+        .withCopyNumber("c.2"))
+      .withEffectiveLocation(new Location()
+        .withId(randomId())
+        .withName(account.getLocation()));
+  }
+
+  public User user(String userId) {
+    return new User()
+      .withId(userId)
+      .withBarcode(String.valueOf(100_000 + random.nextInt(900_000)))
+      .withPersonal(new Personal()
+        .withFirstName("First")
+        .withMiddleName("Middle")
+        .withLastName("Last"));
+  }
+
+  private static String randomId() {
+    return UUID.randomUUID().toString();
+  }
+}
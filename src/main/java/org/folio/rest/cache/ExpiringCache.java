@@ -0,0 +1,97 @@
+package org.folio.rest.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded LRU cache whose entries expire a fixed time after they were put.
+ */
+public class ExpiringCache<K, V> {
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LongSupplier nanoClock;
+  private final Map<K, Entry<V>> entries;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  public ExpiringCache(int maxSize, long ttl, TimeUnit ttlUnit) {
+    this(maxSize, ttl, ttlUnit, System::nanoTime);
+  }
+
+  ExpiringCache(int maxSize, long ttl, TimeUnit ttlUnit, LongSupplier nanoClock) {
+    this.maxSize = maxSize;
+    this.ttlNanos = ttlUnit.toNanos(ttl);
+    this.nanoClock = nanoClock;
+    this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        boolean evict = size() > ExpiringCache.this.maxSize;
+        if (evict) {
+          evictionCount++;
+        }
+        return evict;
+      }
+    };
+  }
+
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+
+    if (entry != null && nanoClock.getAsLong() - entry.createdAt >= ttlNanos) {
+      entries.remove(key);
+      evictionCount++;
+      entry = null;
+    }
+
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+
+    hitCount++;
+    return entry.value;
+  }
+
+  public synchronized void put(K key, V value) {
+    entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+  }
+
+  public synchronized void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  public synchronized void invalidateIf(Predicate<K> keyPredicate) {
+    entries.keySet().removeIf(keyPredicate);
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long createdAt;
+
+    private Entry(V value, long createdAt) {
+      this.value = value;
+      this.createdAt = createdAt;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package org.folio.rest.cache;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.folio.rest.jaxrs.model.Campus;
+import org.folio.rest.jaxrs.model.Feefine;
+import org.folio.rest.jaxrs.model.Institution;
+import org.folio.rest.jaxrs.model.Library;
+import org.folio.rest.jaxrs.model.Location;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.tools.utils.ObjectMapperTool;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+
+/**
+ * Tenant-scoped cache of rarely changing reference records, one region per record type.
+ * Hits, misses and evictions of each region are exposed by
+ * {@link org.folio.rest.metrics.FeesFinesMetrics}.
+ * Entries are invalidated by the write endpoints of this module and expire after a TTL,
+ * which bounds staleness across module instances and for records owned by other modules
+ * (locations and location units). Records are copied on the way out, so callers are free
+ * to modify what they get.
+ */
+public final class ReferenceDataCache {
+  private static final int MAX_SIZE = Integer.getInteger("feesfines.cache.maxSize", 1000);
+  private static final long TTL_SECONDS = Long.getLong("feesfines.cache.ttlSeconds", 300);
+
+  private static final Map<Class<?>, ExpiringCache<String, Object>> regions = buildRegions(
+    Feefine.class, Owner.class, Location.class, Institution.class, Campus.class, Library.class);
+
+  private ReferenceDataCache() {
+    throw new UnsupportedOperationException("Do not instantiate");
+  }
+
+  public static <T> Future<T> get(String tenantId, Class<T> type, String id,
+    Supplier<Future<T>> loader) {
+
+    ExpiringCache<String, Object> region = region(type);
+    String key = key(tenantId, id);
+
+    Object cached = region.get(key);
+    if (cached != null) {
+      return succeededFuture(copy(cached, type));
+    }
+
+    return loader.get()
+      .map(loaded -> {
+        // records that do not exist are not cached, the next request will look again
+        if (loaded != null) {
+          region.put(key, copy(loaded, type));
+        }
+        return loaded;
+      });
+  }
+
+  public static void invalidate(String tenantId, Class<?> type, String id) {
+    region(type).invalidate(key(tenantId, id));
+  }
+
+  public static void invalidateTenant(String tenantId) {
+    String prefix = key(tenantId, "");
+    regions.values().forEach(region -> region.invalidateIf(key -> key.startsWith(prefix)));
+  }
+
+  /**
+   * Wraps a response handler so that the record is invalidated once the write has completed.
+   */
+  public static <T> Handler<AsyncResult<T>> invalidateOnCompletion(
+    Handler<AsyncResult<T>> handler, String tenantId, Class<?> type, String id) {
+
+    return result -> {
+      invalidate(tenantId, type, id);
+      handler.handle(result);
+    };
+  }
+
+  public static Map<Class<?>, ExpiringCache<String, Object>> getRegions() {
+    return regions;
+  }
+
+  private static ExpiringCache<String, Object> region(Class<?> type) {
+    ExpiringCache<String, Object> region = regions.get(type);
+    if (region == null) {
+      throw new IllegalArgumentException("No cache region for " + type.getSimpleName());
+    }
+    return region;
+  }
+
+  private static String key(String tenantId, String id) {
+    return tenantId + "/" + id;
+  }
+
+  private static <T> T copy(Object value, Class<T> type) {
+    return ObjectMapperTool.getMapper().convertValue(value, type);
+  }
+
+  private static Map<Class<?>, ExpiringCache<String, Object>> buildRegions(Class<?>... types) {
+    Map<Class<?>, ExpiringCache<String, Object>> result = new HashMap<>();
+    Arrays.stream(types).forEach(type -> result.put(type,
+      new ExpiringCache<>(MAX_SIZE, TTL_SECONDS, TimeUnit.SECONDS)));
+    return Collections.unmodifiableMap(result);
+  }
+}
@@ -0,0 +1,43 @@
+package org.folio.rest.client;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.lang.String.format;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.Map;
+
+public class ConfigurationClient extends OkapiClient {
+  private static final String ENTRIES_PATH = "/configurations/entries";
+  private static final String LOCALE_SETTINGS_QUERY =
+    "(module==ORG and configName==localeSettings)";
+
+  public ConfigurationClient(Vertx vertx, Map<String, String> okapiHeaders) {
+    super(vertx, okapiHeaders);
+  }
+
+  /**
+   * Fetches the locale settings of the tenant (locale, time zone and currency), an empty
+   * object when the tenant has none.
+   */
+  public Future<JsonObject> getLocaleSettings() {
+    return get(ENTRIES_PATH, Collections.singletonMap("query", LOCALE_SETTINGS_QUERY))
+      .compose(response -> {
+        if (response.statusCode() != 200) {
+          return failedFuture(format("Failed to get locale settings. Response status code: %s",
+            response.statusCode()));
+        }
+
+        JsonArray configs = response.bodyAsJsonObject().getJsonArray("configs", new JsonArray());
+        if (configs.isEmpty()) {
+          return succeededFuture(new JsonObject());
+        }
+
+        return succeededFuture(new JsonObject(configs.getJsonObject(0).getString("value")));
+      });
+  }
+}
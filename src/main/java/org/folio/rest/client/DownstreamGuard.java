@@ -0,0 +1,244 @@
+package org.folio.rest.client;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.lang.String.format;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.web.client.HttpResponse;
+
+/**
+ * Guards the calls of one tenant to one downstream target, identified by the first segment of
+ * the request path. A bulkhead caps the requests in flight to the target, a circuit breaker
+ * fails fast after consecutive failures (errors or 5xx responses) and lets a single trial
+ * request through once the reset timeout has passed. Idempotent requests are retried with
+ * exponential backoff and jitter. Guards are kept per tenant, so a target failing for one
+ * tenant (a module not enabled for it, its storage being down) does not open the circuit for
+ * the others, and the bulkhead caps the requests of each tenant separately.
+ */
+public final class DownstreamGuard {
+  private static final Logger log = LoggerFactory.getLogger(DownstreamGuard.class);
+
+  private static final int MAX_CONCURRENT_REQUESTS =
+    Integer.getInteger("feesfines.http.bulkhead.maxConcurrentRequests", 50);
+  private static final int FAILURE_THRESHOLD =
+    Integer.getInteger("feesfines.http.circuitBreaker.failureThreshold", 5);
+  private static final long RESET_TIMEOUT_MILLIS =
+    Long.getLong("feesfines.http.circuitBreaker.resetTimeoutMillis", 30_000);
+  private static final int MAX_RETRIES = Integer.getInteger("feesfines.http.retry.maxRetries", 2);
+  private static final long RETRY_BASE_DELAY_MILLIS =
+    Long.getLong("feesfines.http.retry.baseDelayMillis", 100);
+  private static final long RETRY_MAX_DELAY_MILLIS =
+    Long.getLong("feesfines.http.retry.maxDelayMillis", 2_000);
+
+  private static final Map<String, DownstreamGuard> guards = new ConcurrentHashMap<>();
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final String tenant;
+  private final String target;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong rejectedByBulkhead = new AtomicLong();
+  private final AtomicLong rejectedByCircuitBreaker = new AtomicLong();
+  private final Map<State, AtomicLong> transitions = new EnumMap<>(State.class);
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean trialInFlight;
+
+  private DownstreamGuard(String tenant, String target) {
+    this.tenant = tenant;
+    this.target = target;
+    for (State s : State.values()) {
+      transitions.put(s, new AtomicLong());
+    }
+  }
+
+  public static DownstreamGuard forRequest(String tenant, String path) {
+    String target = targetOf(path);
+    return guards.computeIfAbsent(tenant + "/" + target,
+      key -> new DownstreamGuard(tenant, target));
+  }
+
+  /**
+   * All guards created so far, keyed by tenant and target separated by a slash.
+   */
+  public static Map<String, DownstreamGuard> getGuards() {
+    return Collections.unmodifiableMap(guards);
+  }
+
+  static String targetOf(String path) {
+    String trimmed = path.startsWith("/") ? path.substring(1) : path;
+    int end = trimmed.indexOf('/');
+    return end < 0 ? trimmed : trimmed.substring(0, end);
+  }
+
+  public Future<HttpResponse<Buffer>> execute(Vertx vertx,
+    Supplier<Future<HttpResponse<Buffer>>> request, boolean idempotent) {
+
+    return attempt(vertx, request, 0, idempotent ? MAX_RETRIES : 0);
+  }
+
+  private Future<HttpResponse<Buffer>> attempt(Vertx vertx,
+    Supplier<Future<HttpResponse<Buffer>>> request, int retry, int maxRetries) {
+
+    return executeOnce(request).compose(
+      response -> isServerError(response) && retry < maxRetries
+        ? retryLater(vertx, request, retry, maxRetries)
+        : succeededFuture(response),
+      failure -> failure instanceof RejectedRequestException || retry >= maxRetries
+        ? failedFuture(failure)
+        : retryLater(vertx, request, retry, maxRetries));
+  }
+
+  private Future<HttpResponse<Buffer>> retryLater(Vertx vertx,
+    Supplier<Future<HttpResponse<Buffer>>> request, int retry, int maxRetries) {
+
+    retries.incrementAndGet();
+    Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    vertx.setTimer(backoffDelay(retry),
+      timerId -> attempt(vertx, request, retry + 1, maxRetries).onComplete(promise));
+
+    return promise.future();
+  }
+
+  private Future<HttpResponse<Buffer>> executeOnce(
+    Supplier<Future<HttpResponse<Buffer>>> request) {
+
+    if (inFlight.incrementAndGet() > MAX_CONCURRENT_REQUESTS) {
+      inFlight.decrementAndGet();
+      rejectedByBulkhead.incrementAndGet();
+      return failedFuture(new RejectedRequestException(format(
+        "Too many concurrent requests to %s for tenant %s", target, tenant)));
+    }
+
+    if (!tryAcquirePermission()) {
+      inFlight.decrementAndGet();
+      rejectedByCircuitBreaker.incrementAndGet();
+      return failedFuture(new RejectedRequestException(format(
+        "Circuit breaker for %s is open for tenant %s", target, tenant)));
+    }
+
+    return request.get().onComplete(result -> {
+      inFlight.decrementAndGet();
+      if (result.failed() || isServerError(result.result())) {
+        onFailure();
+      } else {
+        onSuccess();
+      }
+    });
+  }
+
+  private synchronized boolean tryAcquirePermission() {
+    if (state == State.OPEN) {
+      if (System.currentTimeMillis() - openedAt < RESET_TIMEOUT_MILLIS) {
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+
+    if (state == State.HALF_OPEN) {
+      if (trialInFlight) {
+        return false;
+      }
+      trialInFlight = true;
+    }
+
+    return true;
+  }
+
+  private synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    if (state == State.HALF_OPEN) {
+      trialInFlight = false;
+      transitionTo(State.CLOSED);
+    }
+  }
+
+  private synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN
+      || (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)) {
+
+      trialInFlight = false;
+      openedAt = System.currentTimeMillis();
+      transitionTo(State.OPEN);
+    }
+  }
+
+  private void transitionTo(State newState) {
+    log.warn("Circuit breaker for {} of tenant {} changed from {} to {}", target, tenant,
+      state, newState);
+    state = newState;
+    transitions.get(newState).incrementAndGet();
+  }
+
+  static long backoffDelay(int retry) {
+    long ceiling = Math.min(RETRY_MAX_DELAY_MILLIS, RETRY_BASE_DELAY_MILLIS << Math.min(retry, 20));
+    // equal jitter: at least half of the exponential delay, so retries still back off
+    return Math.max(1, ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+  }
+
+  private static boolean isServerError(HttpResponse<Buffer> response) {
+    return response.statusCode() >= 500;
+  }
+
+  public String getTenant() {
+    return tenant;
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public long getRetries() {
+    return retries.get();
+  }
+
+  public long getRejectedByBulkhead() {
+    return rejectedByBulkhead.get();
+  }
+
+  public long getRejectedByCircuitBreaker() {
+    return rejectedByCircuitBreaker.get();
+  }
+
+  /**
+   * Number of times the circuit breaker has changed to the given state.
+   */
+  public long getTransitions(State toState) {
+    return transitions.get(toState).get();
+  }
+
+  public static class RejectedRequestException extends RuntimeException {
+    public RejectedRequestException(String message) {
+      super(message);
+    }
+  }
+}
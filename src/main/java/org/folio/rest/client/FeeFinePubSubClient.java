@@ -34,8 +34,8 @@ public class FeeFinePubSubClient {
   public CompletableFuture<Void> publishEvent(Event event) {
     final CompletableFuture<HttpResponse<Buffer>> sendResult = new CompletableFuture<>();
 
-    okapiClient.okapiPostAbs("/pubsub/publish")
-      .sendJson(event, response -> {
+    okapiClient.postJson("/pubsub/publish", event)
+      .onComplete(response -> {
         if (response.failed()) {
           sendResult.completeExceptionally(response.cause());
         } else {
@@ -53,18 +53,22 @@ public class FeeFinePubSubClient {
         return completedFuture(null);
       }
 
-      log.error("Error publishing event [{}]", response.bodyAsString());
+      final String responseBody = response.bodyAsString();
+      log.error("Error publishing event [{}]", responseBody);
 
       final CompletableFuture<Void> failureFuture = new CompletableFuture<>();
-      failureFuture.completeExceptionally(new InternalServerErrorException(response.bodyAsString()));
+      failureFuture.completeExceptionally(new InternalServerErrorException(responseBody));
       return failureFuture;
     });
   }
 
   private boolean isEventHasNoSubscribersResponse(HttpResponse<Buffer> response) {
-    return response.statusCode() == HTTP_BAD_REQUEST.toInt()
-      && response.bodyAsString() != null
-      && response.bodyAsString().toLowerCase()
+    if (response.statusCode() != HTTP_BAD_REQUEST.toInt()) {
+      return false;
+    }
+
+    final String responseBody = response.bodyAsString();
+    return responseBody != null && responseBody.toLowerCase()
       .contains("there is no subscribers registered for event type");
   }
 }
@@ -2,19 +2,20 @@ package org.folio.rest.client;
 
 import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
-import static javax.ws.rs.core.HttpHeaders.ACCEPT;
-import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
-import io.vertx.core.buffer.Buffer;
-import io.vertx.ext.web.client.HttpRequest;
-import io.vertx.ext.web.client.HttpResponse;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.folio.rest.jaxrs.model.Campus;
 import org.folio.rest.jaxrs.model.HoldingsRecord;
@@ -25,92 +26,130 @@ import org.folio.rest.jaxrs.model.Item;
 import org.folio.rest.jaxrs.model.Items;
 import org.folio.rest.jaxrs.model.Library;
 import org.folio.rest.jaxrs.model.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class InventoryClient extends OkapiClient {
 
-  private static final String ITEMS_LIMIT = "1000";
-  private static final String HOLDINGS_LIMIT = "1000";
+  private static final Logger log = LoggerFactory.getLogger(InventoryClient.class);
+
+  private static final int ID_BATCH_SIZE = Integer.getInteger("feesfines.inventory.idBatchSize", 50);
+  private static final int MAX_CONCURRENT_REQUESTS =
+    Integer.getInteger("feesfines.inventory.maxConcurrentRequests", 5);
 
   public InventoryClient(Vertx vertx, Map<String, String> okapiHeaders) {
     super(vertx, okapiHeaders);
   }
 
   public Future<Items> getItemsById(List<String> itemIds) {
-    if (itemIds.isEmpty()) {
-      return succeededFuture(new Items()
-        .withItems(new ArrayList<>())
-        .withTotalRecords(0));
+    return getByIds("/item-storage/items", "items", itemIds, Items.class,
+      Items::getItems, Item::getId)
+      .map(items -> new Items()
+        .withItems(items)
+        .withTotalRecords(items.size()));
+  }
+
+  public Future<HoldingsRecords> getHoldingsById(List<String> holdingIds) {
+    return getByIds("/holdings-storage/holdings", "holdings", holdingIds, HoldingsRecords.class,
+      HoldingsRecords::getHoldingsRecords, HoldingsRecord::getId)
+      .map(holdingsRecords -> new HoldingsRecords()
+        .withHoldingsRecords(holdingsRecords)
+        .withTotalRecords(holdingsRecords.size()));
+  }
+
+  /**
+   * Fetches records by ID in batches of {@code feesfines.inventory.idBatchSize} IDs, so that
+   * neither the URL nor the number of matching records grows with the number of IDs. At most
+   * {@code feesfines.inventory.maxConcurrentRequests} batches are requested at a time. IDs
+   * that no record was found for are logged.
+   */
+  private <C, T> Future<List<T>> getByIds(String path, String recordsName, List<String> ids,
+    Class<C> collectionType, Function<C, List<T>> recordsExtractor,
+    Function<T, String> idExtractor) {
+
+    List<String> distinctIds = ids.stream()
+      .filter(Objects::nonNull)
+      .distinct()
+      .collect(Collectors.toList());
+
+    if (distinctIds.isEmpty()) {
+      return succeededFuture(new ArrayList<>());
     }
 
-    Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    List<List<String>> batches = new ArrayList<>();
+    for (int from = 0; from < distinctIds.size(); from += ID_BATCH_SIZE) {
+      batches.add(distinctIds.subList(from, Math.min(from + ID_BATCH_SIZE, distinctIds.size())));
+    }
 
-    HttpRequest<Buffer> request = okapiGetAbs("/item-storage/items");
-    if (!itemIds.isEmpty()) {
-      request.addQueryParam("query", String.format("(id==(%s))",
-        itemIds.stream()
-          .map(id -> String.format("\"%s\"", id))
-          .collect(Collectors.joining(" or "))))
-      .addQueryParam("limit", ITEMS_LIMIT);
+    List<List<T>> batchResults = new ArrayList<>(Collections.nCopies(batches.size(), null));
+    AtomicInteger nextBatch = new AtomicInteger();
+    List<Future> workers = new ArrayList<>();
+    for (int i = 0; i < Math.min(MAX_CONCURRENT_REQUESTS, batches.size()); i++) {
+      workers.add(fetchBatches(path, recordsName, batches, nextBatch, batchResults,
+        collectionType, recordsExtractor));
     }
-    request.send(promise);
 
-    return promise.future().compose(response -> {
-      if (response.statusCode() != 200) {
-        return failedFuture("Failed to get items by IDs. Response status code: "
-          + response.statusCode());
-      }
-      else {
-        try {
-          Items items = objectMapper.readValue(response.bodyAsString(), Items.class);
-          return succeededFuture(items);
-        }
-        catch (IOException ioException) {
-          return failedFuture("Failed to parse response. Response body: "
-            + response.bodyAsString());
-        }
-      }
+    return CompositeFuture.all(workers).map(ignored -> {
+      List<T> records = new ArrayList<>();
+      batchResults.forEach(records::addAll);
+      logMissingIds(recordsName, distinctIds, records, idExtractor);
+      return records;
     });
   }
 
-  public Future<HoldingsRecords> getHoldingsById(List<String> holdingIds) {
-    if (holdingIds.isEmpty()) {
-      return succeededFuture(new HoldingsRecords()
-        .withHoldingsRecords(new ArrayList<>())
-        .withTotalRecords(0));
+  private <C, T> Future<Void> fetchBatches(String path, String recordsName,
+    List<List<String>> batches, AtomicInteger nextBatch, List<List<T>> batchResults,
+    Class<C> collectionType, Function<C, List<T>> recordsExtractor) {
+
+    int batch = nextBatch.getAndIncrement();
+    if (batch >= batches.size()) {
+      return succeededFuture();
     }
 
-    Promise<HttpResponse<Buffer>> promise = Promise.promise();
+    return fetchBatch(path, recordsName, batches.get(batch), collectionType)
+      .compose(collection -> {
+        batchResults.set(batch, recordsExtractor.apply(collection));
+        return fetchBatches(path, recordsName, batches, nextBatch, batchResults,
+          collectionType, recordsExtractor);
+      });
+  }
 
-    HttpRequest<Buffer> request = okapiGetAbs("/holdings-storage/holdings");
-    if (!holdingIds.isEmpty()) {
-      request.addQueryParam("query", String.format("(id==(%s))",
-        holdingIds.stream()
-          .map(id -> String.format("\"%s\"", id))
-          .collect(Collectors.joining(" or "))))
-        .addQueryParam("limit", HOLDINGS_LIMIT);
-    }
-    request.putHeader(ACCEPT, APPLICATION_JSON);
-    request.send(promise);
+  private <C> Future<C> fetchBatch(String path, String recordsName, List<String> ids,
+    Class<C> collectionType) {
 
-    return promise.future().compose(response -> {
+    Map<String, String> queryParameters = Map.of(
+      "query", String.format("id==(%s)", ids.stream()
+        .map(id -> String.format("\"%s\"", id))
+        .collect(Collectors.joining(" or "))),
+      "limit", String.valueOf(ids.size()));
+
+    return get(path, queryParameters).compose(response -> {
       if (response.statusCode() != 200) {
-        return failedFuture("Failed to get holdings by IDs. Response status code: "
-          + response.statusCode());
+        return failedFuture(String.format("Failed to get %s by IDs. Response status code: %s",
+          recordsName, response.statusCode()));
+      }
+      try {
+        return succeededFuture(decode(response, collectionType));
       }
-      else {
-        try {
-          HoldingsRecords holdingsRecords = objectMapper.readValue(response.bodyAsString(),
-            HoldingsRecords.class);
-          return succeededFuture(holdingsRecords);
-        }
-        catch (IOException ioException) {
-          return failedFuture("Failed to parse request. Response body: "
-            + response.bodyAsString());
-        }
+      catch (IOException ioException) {
+        return failedFuture("Failed to parse response. Response body: "
+          + response.bodyAsString());
       }
     });
   }
 
+  private static <T> void logMissingIds(String recordsName, List<String> requestedIds,
+    List<T> records, Function<T, String> idExtractor) {
+
+    Set<String> missingIds = new HashSet<>(requestedIds);
+    records.forEach(record -> missingIds.remove(idExtractor.apply(record)));
+
+    if (!missingIds.isEmpty()) {
+      log.warn("Failed to find {} {} of {} requested: {}", missingIds.size(), recordsName,
+        requestedIds.size(), missingIds);
+    }
+  }
+
   public Future<Item> getItemById(String id) {
     return getById("/item-storage/items", id, Item.class);
   }
@@ -10,39 +10,58 @@ import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
 import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
 import static org.folio.util.UuidUtil.isUuid;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.web.client.HttpRequest;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.folio.rest.metrics.FeesFinesMetrics;
+import org.folio.rest.tracing.Span;
+import org.folio.rest.tracing.SpanContext;
+import org.folio.rest.tracing.Tracing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class OkapiClient {
   private static final Logger log = LoggerFactory.getLogger(OkapiClient.class);
   private static final String OKAPI_URL_HEADER = "x-okapi-url";
-  protected static final ObjectMapper objectMapper = new ObjectMapper();
+  protected static final ObjectMapper objectMapper = new ObjectMapper()
+    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private static final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
 
+  private final Vertx vertx;
   private final WebClient webClient;
   private final String okapiUrl;
   private final String tenant;
   private final String token;
+  private final SpanContext parentContext;
 
   OkapiClient(Vertx vertx, Map<String, String> okapiHeaders) {
-    this.webClient = WebClientProvider.getWebClient(vertx) ;
+    this.vertx = vertx;
+    this.webClient = WebClientProvider.getWebClient(vertx);
     okapiUrl = okapiHeaders.get(OKAPI_URL_HEADER);
     tenant = okapiHeaders.get(OKAPI_HEADER_TENANT);
     token = okapiHeaders.get(OKAPI_HEADER_TOKEN);
+    parentContext = Tracing.extract(okapiHeaders).orElse(null);
   }
 
   HttpRequest<Buffer> okapiGetAbs(String path) {
     return webClient.getAbs(okapiUrl + path)
+      .timeout(WebClientProvider.getRequestTimeoutMillis())
       .putHeader(OKAPI_HEADER_TENANT, tenant)
       .putHeader(OKAPI_URL_HEADER, okapiUrl)
       .putHeader(OKAPI_HEADER_TOKEN, token)
@@ -51,12 +70,74 @@ public class OkapiClient {
 
   HttpRequest<Buffer> okapiPostAbs(String path) {
     return webClient.postAbs(okapiUrl + path)
+      .timeout(WebClientProvider.getRequestTimeoutMillis())
       .putHeader(ACCEPT, APPLICATION_JSON)
       .putHeader(OKAPI_HEADER_TENANT, tenant)
       .putHeader(OKAPI_URL_HEADER, okapiUrl)
       .putHeader(OKAPI_HEADER_TOKEN, token);
   }
 
+  Future<HttpResponse<Buffer>> get(String path) {
+    return get(path, Collections.emptyMap());
+  }
+
+  /**
+   * Sends a GET request through the guard of its target, failed requests and 5xx responses
+   * are retried.
+   */
+  Future<HttpResponse<Buffer>> get(String path, Map<String, String> queryParameters) {
+    HttpRequest<Buffer> request = okapiGetAbs(path);
+    queryParameters.forEach(request::addQueryParam);
+
+    return send("GET", path, request, () -> DownstreamGuard.forRequest(tenant, path).execute(vertx,
+      () -> WebClientProvider.track(request::send), true));
+  }
+
+  /**
+   * Sends a POST request through the guard of its target, it is not retried.
+   */
+  Future<HttpResponse<Buffer>> postJson(String path, Object body) {
+    HttpRequest<Buffer> request = okapiPostAbs(path);
+
+    return send("POST", path, request, () -> DownstreamGuard.forRequest(tenant, path).execute(vertx,
+      () -> WebClientProvider.track(promise -> request.sendJson(body, promise)), false));
+  }
+
+  /**
+   * Records the time until the final response, retries included, by target and status code,
+   * and traces the request as a client span whose context is sent in the {@code traceparent}
+   * header, so that the called module can continue the trace.
+   */
+  private Future<HttpResponse<Buffer>> send(String method, String path,
+    HttpRequest<Buffer> request, Supplier<Future<HttpResponse<Buffer>>> exchange) {
+
+    String target = DownstreamGuard.targetOf(path);
+    Span span = Tracing.startSpan(method + " " + target, Span.Kind.CLIENT, parentContext)
+      .setAttribute("http.method", method)
+      .setAttribute("http.target", path)
+      .setAttribute("tenant", tenant);
+    if (span.getContext().isValid()) {
+      request.putHeader(Tracing.TRACEPARENT, span.getContext().toTraceparent());
+    }
+
+    Timer.Sample sample = Timer.start(FeesFinesMetrics.getRegistry());
+
+    return span.endWith(exchange.get().onComplete(result -> {
+      String outcome = outcomeOf(result);
+      span.setAttribute("http.status_code", outcome);
+      sample.stop(FeesFinesMetrics.httpClientTimer(tenant, target, outcome));
+    }));
+  }
+
+  private static String outcomeOf(AsyncResult<HttpResponse<Buffer>> result) {
+    if (result.succeeded()) {
+      return String.valueOf(result.result().statusCode());
+    }
+    return result.cause() instanceof DownstreamGuard.RejectedRequestException
+      ? "rejected"
+      : "error";
+  }
+
   public <T> Future<T> getById(String resourcePath, String id, Class<T> objectType) {
     Optional<String> validationError = validateGetByIdArguments(resourcePath, id, objectType);
     if (validationError.isPresent()) {
@@ -66,10 +147,7 @@ public class OkapiClient {
     }
 
     final String url = resourcePath + "/" + id;
-    Promise<HttpResponse<Buffer>> promise = Promise.promise();
-    okapiGetAbs(url).send(promise);
-
-    return promise.future().compose(response -> {
+    return get(url).compose(response -> {
       if (response.statusCode() != 200) {
         final String errorMessage = format("Failed to get %s by ID. Response status code: %s",
           objectType.getSimpleName(), response.statusCode());
@@ -77,8 +155,7 @@ public class OkapiClient {
         return failedFuture(errorMessage);
       }
       try {
-        T object = objectMapper.readValue(response.bodyAsString(), objectType);
-        return succeededFuture(object);
+        return succeededFuture(decode(response, objectType));
       } catch (IOException exception) {
         final String errorMessage = format("Failed to parse response from %s. Response body: %s",
           url, response.bodyAsString());
@@ -88,6 +165,23 @@ public class OkapiClient {
     });
   }
 
+  /**
+   * Decodes the response body straight from its bytes, without copying it into a string.
+   * Readers are resolved once per type and shared, they are thread-safe.
+   */
+  protected static <T> T decode(HttpResponse<Buffer> response, Class<T> objectType)
+    throws IOException {
+
+    Buffer body = response.body();
+    if (body == null) {
+      throw new IOException("Response has no body");
+    }
+
+    try (InputStream stream = new ByteBufInputStream(body.getByteBuf())) {
+      return readers.computeIfAbsent(objectType, objectMapper::readerFor).readValue(stream);
+    }
+  }
+
   private static <T> Optional<String> validateGetByIdArguments(String path, String id,
     Class<T> objectType) {
 
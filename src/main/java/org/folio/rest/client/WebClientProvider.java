@@ -1,19 +1,163 @@
 package org.folio.rest.client;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
 
+/**
+ * Provides one web client per Vert.x instance for calls to other modules through Okapi.
+ * The pool and the timeouts are configured with {@code feesfines.http.*} system properties.
+ * Vert.x pools connections per host and every call goes to the Okapi URL, so the pool is
+ * shared by all target modules; limits per target module are applied by
+ * {@link DownstreamGuard}. Requests sent with {@link #track} are counted, so that saturation
+ * of the pool shows in {@link #getMetrics()}.
+ */
 public class WebClientProvider {
-  private static final Map<Vertx, WebClient> webClients = new HashMap<>();
+  private static final int MAX_POOL_SIZE = Integer.getInteger("feesfines.http.maxPoolSize", 20);
+  private static final int MAX_WAIT_QUEUE_SIZE =
+    Integer.getInteger("feesfines.http.maxWaitQueueSize", 200);
+  private static final int CONNECT_TIMEOUT_MILLIS =
+    Integer.getInteger("feesfines.http.connectTimeoutMillis", 5_000);
+  private static final int IDLE_TIMEOUT_SECONDS =
+    Integer.getInteger("feesfines.http.idleTimeoutSeconds", 60);
+  private static final long REQUEST_TIMEOUT_MILLIS =
+    Long.getLong("feesfines.http.requestTimeoutMillis", 30_000);
+  private static final boolean KEEP_ALIVE = Boolean.parseBoolean(
+    System.getProperty("feesfines.http.keepAlive", "true"));
+  private static final boolean PIPELINING = Boolean.getBoolean("feesfines.http.pipelining");
+  private static final boolean HTTP2 = Boolean.getBoolean("feesfines.http.http2");
+  private static final int HTTP2_MAX_POOL_SIZE =
+    Integer.getInteger("feesfines.http.http2MaxPoolSize", 1);
+  private static final int HTTP2_MULTIPLEXING_LIMIT =
+    Integer.getInteger("feesfines.http.http2MultiplexingLimit", 100);
+
+  private static final Map<Vertx, WebClient> webClients = new ConcurrentHashMap<>();
+  private static final Metrics metrics = new Metrics();
 
   private WebClientProvider() {
   }
 
   public static WebClient getWebClient(Vertx vertx) {
-    return webClients.computeIfAbsent(vertx, WebClient::create);
+    return webClients.computeIfAbsent(vertx, v -> WebClient.create(v, buildOptions()));
+  }
+
+  public static long getRequestTimeoutMillis() {
+    return REQUEST_TIMEOUT_MILLIS;
+  }
+
+  public static Metrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Sends a request and keeps count of it while it is in flight.
+   */
+  public static <T> Future<T> track(Consumer<Promise<T>> sender) {
+    metrics.requestStarted();
+
+    Promise<T> promise = Promise.promise();
+    sender.accept(promise);
+
+    return promise.future().onComplete(result -> metrics.requestCompleted(
+      result.failed() ? result.cause() : null));
+  }
+
+  static WebClientOptions buildOptions() {
+    WebClientOptions options = new WebClientOptions()
+      .setMaxPoolSize(MAX_POOL_SIZE)
+      .setMaxWaitQueueSize(MAX_WAIT_QUEUE_SIZE)
+      .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+      .setIdleTimeout(IDLE_TIMEOUT_SECONDS)
+      .setKeepAlive(KEEP_ALIVE)
+      .setPipelining(PIPELINING);
+
+    if (HTTP2) {
+      options.setProtocolVersion(HttpVersion.HTTP_2)
+        .setHttp2ClearTextUpgrade(true)
+        .setHttp2MaxPoolSize(HTTP2_MAX_POOL_SIZE)
+        .setHttp2MultiplexingLimit(HTTP2_MULTIPLEXING_LIMIT);
+    }
+
+    return options;
   }
 
+  /**
+   * Outbound request counters of the whole module. A request counts as queued while more
+   * requests are in flight than the pool has connections.
+   */
+  public static final class Metrics {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+
+    private Metrics() {
+    }
+
+    private void requestStarted() {
+      requests.incrementAndGet();
+      int current = inFlight.incrementAndGet();
+      peakInFlight.accumulateAndGet(current, Math::max);
+      if (current > MAX_POOL_SIZE) {
+        queued.incrementAndGet();
+      }
+    }
+
+    private void requestCompleted(Throwable failure) {
+      inFlight.decrementAndGet();
+      if (failure != null) {
+        failures.incrementAndGet();
+        if (failure instanceof TimeoutException) {
+          timeouts.incrementAndGet();
+        }
+      }
+    }
+
+    public int getInFlight() {
+      return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+      return peakInFlight.get();
+    }
+
+    public int getMaxPoolSize() {
+      return MAX_POOL_SIZE;
+    }
+
+    /**
+     * Share of the pool that is in use, above 1 when requests wait for a connection.
+     */
+    public double getSaturation() {
+      return (double) inFlight.get() / MAX_POOL_SIZE;
+    }
+
+    public long getRequests() {
+      return requests.get();
+    }
+
+    public long getFailures() {
+      return failures.get();
+    }
+
+    public long getTimeouts() {
+      return timeouts.get();
+    }
+
+    public long getQueued() {
+      return queued.get();
+    }
+  }
 }
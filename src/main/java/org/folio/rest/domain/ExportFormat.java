@@ -0,0 +1,31 @@
+package org.folio.rest.domain;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum ExportFormat {
+  JSON_LINES("jsonl", "application/x-ndjson"),
+  CSV("csv", "text/csv");
+
+  private final String value;
+  private final String contentType;
+
+  ExportFormat(String value, String contentType) {
+    this.value = value;
+    this.contentType = contentType;
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public static Optional<ExportFormat> from(String value) {
+    return Arrays.stream(values())
+      .filter(format -> format.value.equalsIgnoreCase(value))
+      .findFirst();
+  }
+}
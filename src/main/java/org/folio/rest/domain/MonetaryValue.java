@@ -1,29 +1,68 @@
 package org.folio.rest.domain;
 
-import static java.math.BigDecimal.ZERO;
 import static java.util.Objects.requireNonNull;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Currency;
 
+/**
+ * Amount of money rounded to the fraction digits of its currency. Amounts are kept as a
+ * {@code long} number of minor units (cents for USD), so that arithmetic and comparisons do
+ * not allocate. Amounts that do not fit into a {@code long}, and results that would overflow,
+ * fall back to {@link BigDecimal}.
+ * <p>
+ * Action services create amounts in the currency of the tenant, see
+ * {@link org.folio.rest.service.CurrencyService}. Constructors without a currency use the
+ * module-wide default, configured with the {@code feesfines.currency} system property (USD
+ * when it is not set), which is also used for tenants without locale settings.
+ */
 public class MonetaryValue {
-  private static final Currency USD = Currency.getInstance("USD");
+  private static final Currency DEFAULT_CURRENCY = Currency.getInstance(
+    System.getProperty("feesfines.currency", "USD"));
   private static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_EVEN;
-
-  private final BigDecimal amount;
+  private static final long[] POWERS_OF_TEN = {
+    1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L };
+  // doubles below this many minor units are precise well beyond a half of a minor unit
+  private static final long MAX_MINOR_UNITS_FROM_DOUBLE = 1L << 43;
+
+  private final long minorUnits;
+  // only set when the amount does not fit into minorUnits
+  private final BigDecimal bigAmount;
   private final Currency currency;
+  private final int fractionDigits;
 
   public MonetaryValue(BigDecimal amount) {
-    this(amount, USD);
+    this(amount, DEFAULT_CURRENCY);
   }
 
   public MonetaryValue(String amount) {
-    this(from(amount), USD);
+    this(amount, DEFAULT_CURRENCY);
+  }
+
+  public MonetaryValue(String amount, Currency currency) {
+    this(from(amount), currency);
   }
 
   public MonetaryValue(Double amount) {
-    this(from(amount), USD);
+    this(amount, DEFAULT_CURRENCY);
+  }
+
+  public MonetaryValue(Double amount, Currency currency) {
+    requireNonNull(amount);
+    requireNonNull(currency);
+    this.currency = currency;
+    this.fractionDigits = fractionDigits(currency);
+
+    long minor = toMinorUnitsExactly(amount, fractionDigits);
+    if (minor != Long.MIN_VALUE) {
+      this.minorUnits = minor;
+      this.bigAmount = null;
+    } else {
+      BigDecimal scaled = BigDecimal.valueOf(amount).setScale(fractionDigits, DEFAULT_ROUNDING);
+      this.minorUnits = toMinorUnits(scaled);
+      this.bigAmount = this.minorUnits == Long.MIN_VALUE ? scaled : null;
+    }
   }
 
   public MonetaryValue(BigDecimal amount, Currency currency) {
@@ -35,11 +74,43 @@ public class MonetaryValue {
     requireNonNull(currency);
     requireNonNull(rounding);
     this.currency = currency;
-    this.amount = amount.setScale(currency.getDefaultFractionDigits(), rounding);
+    this.fractionDigits = fractionDigits(currency);
+
+    BigDecimal scaled = amount.setScale(fractionDigits, rounding);
+    this.minorUnits = toMinorUnits(scaled);
+    this.bigAmount = this.minorUnits == Long.MIN_VALUE ? scaled : null;
+  }
+
+  private MonetaryValue(long minorUnits, Currency currency, int fractionDigits) {
+    this.minorUnits = minorUnits;
+    this.bigAmount = null;
+    this.currency = currency;
+    this.fractionDigits = fractionDigits;
+  }
+
+  /**
+   * Creates an amount from a number of minor units of the currency, cents for USD.
+   */
+  public static MonetaryValue ofMinorUnits(long minorUnits, Currency currency) {
+    requireNonNull(currency);
+    return new MonetaryValue(minorUnits, currency, fractionDigits(currency));
+  }
+
+  public static Currency getDefaultCurrency() {
+    return DEFAULT_CURRENCY;
   }
 
   public BigDecimal getAmount() {
-    return amount;
+    return bigAmount != null ? bigAmount : BigDecimal.valueOf(minorUnits, fractionDigits);
+  }
+
+  /**
+   * Returns the amount as a number of minor units of its currency.
+   *
+   * @throws ArithmeticException when the amount does not fit into a {@code long}
+   */
+  public long getMinorUnits() {
+    return bigAmount != null ? bigAmount.unscaledValue().longValueExact() : minorUnits;
   }
 
   public Currency getCurrency() {
@@ -47,47 +118,116 @@ public class MonetaryValue {
   }
 
   public boolean isZero() {
-    return ZERO.compareTo(amount) == 0;
+    return signum() == 0;
   }
 
   public boolean isPositive() {
-    return ZERO.compareTo(amount) < 0;
+    return signum() > 0;
   }
 
   public boolean isNegative() {
-    return ZERO.compareTo(amount) > 0;
+    return signum() < 0;
   }
 
   public boolean isGreaterThan(MonetaryValue other) {
-    return amount.compareTo(other.getAmount()) > 0;
+    return compareTo(other) > 0;
   }
 
   public MonetaryValue subtract(MonetaryValue other) {
-    return new MonetaryValue(amount.subtract(other.getAmount()));
+    if (isCompatibleFastPath(other)) {
+      try {
+        return new MonetaryValue(Math.subtractExact(minorUnits, other.minorUnits), currency,
+          fractionDigits);
+      } catch (ArithmeticException overflow) {
+        // falls back to BigDecimal below
+      }
+    }
+    return new MonetaryValue(getAmount().subtract(other.getAmount()), currency);
   }
 
   public MonetaryValue add(MonetaryValue other) {
-    return new MonetaryValue(amount.add(other.getAmount()));
+    if (isCompatibleFastPath(other)) {
+      try {
+        return new MonetaryValue(Math.addExact(minorUnits, other.minorUnits), currency,
+          fractionDigits);
+      } catch (ArithmeticException overflow) {
+        // falls back to BigDecimal below
+      }
+    }
+    return new MonetaryValue(getAmount().add(other.getAmount()), currency);
   }
 
   public MonetaryValue min(MonetaryValue other) {
-    return amount.compareTo(other.getAmount()) <= 0 ? this : other;
+    return compareTo(other) <= 0 ? this : other;
   }
 
-  private static BigDecimal from(String value) {
-    return value == null ? null : new BigDecimal(value);
+  public double toDouble() {
+    // same result as BigDecimal.doubleValue() for amounts below 2^52 minor units
+    if (bigAmount == null && Math.abs(minorUnits) < (1L << 52)) {
+      return (double) minorUnits / POWERS_OF_TEN[fractionDigits];
+    }
+    return getAmount().doubleValue();
   }
 
-  private static BigDecimal from(Double value) {
-    return value == null ? null : BigDecimal.valueOf(value);
+  @Override
+  public String toString() {
+    return getAmount().toString();
   }
 
-  public double toDouble() {
-    return amount.doubleValue();
+  private int compareTo(MonetaryValue other) {
+    if (isCompatibleFastPath(other)) {
+      return Long.compare(minorUnits, other.minorUnits);
+    }
+    return getAmount().compareTo(other.getAmount());
   }
 
-  @Override
-  public String toString() {
-    return amount.toString();
+  private int signum() {
+    return bigAmount != null ? bigAmount.signum() : Long.signum(minorUnits);
+  }
+
+  private boolean isCompatibleFastPath(MonetaryValue other) {
+    return bigAmount == null && other.bigAmount == null
+      && fractionDigits == other.fractionDigits;
+  }
+
+  private static BigDecimal from(String value) {
+    return value == null ? null : new BigDecimal(value);
+  }
+
+  /**
+   * Returns the number of minor units of the amount, {@code Long.MIN_VALUE} when it does not
+   * fit into 18 digits.
+   */
+  private static long toMinorUnits(BigDecimal scaled) {
+    if (scaled.precision() > 18) {
+      return Long.MIN_VALUE;
+    }
+    return scaled.unscaledValue().longValue();
+  }
+
+  /**
+   * Converts a double without going through its decimal string when the double is the
+   * closest one to a whole number of minor units, which is the case for amounts entered with
+   * at most as many fraction digits as the currency has. Returns {@code Long.MIN_VALUE} when
+   * the amount needs rounding or is too large, the caller then rounds with BigDecimal.
+   */
+  private static long toMinorUnitsExactly(double amount, int fractionDigits) {
+    double scale = POWERS_OF_TEN[fractionDigits];
+    double scaled = amount * scale;
+
+    if (!(Math.abs(scaled) < MAX_MINOR_UNITS_FROM_DOUBLE)) {
+      return Long.MIN_VALUE;
+    }
+
+    long minor = Math.round(scaled);
+    return minor / scale == amount ? minor : Long.MIN_VALUE;
+  }
+
+  private static int fractionDigits(Currency currency) {
+    int digits = currency.getDefaultFractionDigits();
+    if (digits < 0 || digits >= POWERS_OF_TEN.length) {
+      throw new IllegalArgumentException("Unsupported currency: " + currency.getCurrencyCode());
+    }
+    return digits;
   }
 }
@@ -0,0 +1,59 @@
+package org.folio.rest.domain;
+
+import org.folio.rest.jaxrs.model.Event;
+
+/**
+ * Event waiting in the outbox to be published. Events with the same partition key
+ * are published one by one in the order they were saved. The Okapi URL and token of the
+ * request that saved the event are kept with it, so that it can be published when no
+ * request of the tenant has been seen since the module started.
+ */
+public final class OutboxEvent {
+  private final String partitionKey;
+  private final Event event;
+  private final String okapiUrl;
+  private final String okapiToken;
+  private final int attempts;
+
+  public OutboxEvent(String partitionKey, Event event) {
+    this(partitionKey, event, null, null);
+  }
+
+  public OutboxEvent(String partitionKey, Event event, String okapiUrl, String okapiToken) {
+    this(partitionKey, event, okapiUrl, okapiToken, 0);
+  }
+
+  public OutboxEvent(String partitionKey, Event event, String okapiUrl, String okapiToken,
+    int attempts) {
+
+    this.partitionKey = partitionKey;
+    this.event = event;
+    this.okapiUrl = okapiUrl;
+    this.okapiToken = okapiToken;
+    this.attempts = attempts;
+  }
+
+  public String getId() {
+    return event.getId();
+  }
+
+  public String getPartitionKey() {
+    return partitionKey;
+  }
+
+  public Event getEvent() {
+    return event;
+  }
+
+  public String getOkapiUrl() {
+    return okapiUrl;
+  }
+
+  public String getOkapiToken() {
+    return okapiToken;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+}
@@ -0,0 +1,32 @@
+package org.folio.rest.domain;
+
+import static java.math.BigDecimal.ZERO;
+
+public final class RefundableAmount {
+  public static final RefundableAmount NONE =
+    new RefundableAmount(new MonetaryValue(ZERO), new MonetaryValue(ZERO));
+
+  private final MonetaryValue paid;
+  private final MonetaryValue transferred;
+
+  public RefundableAmount(MonetaryValue paid, MonetaryValue transferred) {
+    this.paid = paid;
+    this.transferred = transferred;
+  }
+
+  public MonetaryValue getPaid() {
+    return paid;
+  }
+
+  public MonetaryValue getTransferred() {
+    return transferred;
+  }
+
+  public MonetaryValue getTotal() {
+    return paid.add(transferred);
+  }
+
+  public RefundableAmount add(RefundableAmount other) {
+    return new RefundableAmount(paid.add(other.paid), transferred.add(other.transferred));
+  }
+}
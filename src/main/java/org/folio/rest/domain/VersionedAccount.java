@@ -0,0 +1,21 @@
+package org.folio.rest.domain;
+
+import org.folio.rest.jaxrs.model.Account;
+
+public final class VersionedAccount {
+  private final Account account;
+  private final int version;
+
+  public VersionedAccount(Account account, int version) {
+    this.account = account;
+    this.version = version;
+  }
+
+  public Account getAccount() {
+    return account;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+}
@@ -0,0 +1,7 @@
+package org.folio.rest.exception;
+
+public class AccountUpdateConflictException extends RuntimeException {
+  public AccountUpdateConflictException(String message) {
+    super(message);
+  }
+}
@@ -4,15 +4,12 @@ import static io.vertx.core.Future.succeededFuture;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 import javax.ws.rs.core.Response;
 
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.CQL2PgJSONException;
 import org.folio.rest.annotations.Validate;
-import org.folio.rest.client.InventoryClient;
 import org.folio.rest.domain.Action;
 import org.folio.rest.domain.ActionRequest;
 import org.folio.rest.exception.AccountNotFoundValidationException;
@@ -26,23 +23,17 @@ import org.folio.rest.jaxrs.model.CancelActionRequest;
 import org.folio.rest.jaxrs.model.CheckActionRequest;
 import org.folio.rest.jaxrs.model.CheckActionResponse;
 import org.folio.rest.jaxrs.model.DefaultActionRequest;
-import org.folio.rest.jaxrs.model.HoldingsRecord;
-import org.folio.rest.jaxrs.model.HoldingsRecords;
-import org.folio.rest.jaxrs.model.Item;
-import org.folio.rest.jaxrs.model.Items;
 import org.folio.rest.jaxrs.resource.Accounts;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
-import org.folio.rest.persist.PgExceptionUtil;
-import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.persist.facets.FacetField;
 import org.folio.rest.persist.facets.FacetManager;
-import org.folio.rest.repository.AccountRepository;
-import org.folio.rest.service.AccountEventPublisher;
+import org.folio.rest.repository.UserBalanceRepository;
+import org.folio.rest.service.AccountEnrichmentService;
 import org.folio.rest.service.AccountUpdateService;
 import org.folio.rest.service.action.CancelActionService;
 import org.folio.rest.service.action.PayActionService;
@@ -60,9 +51,7 @@ import org.folio.rest.utils.ActionResultAdapter;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
-import io.vertx.core.Future;
 import io.vertx.core.Handler;
-import io.vertx.core.Vertx;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
@@ -78,50 +67,6 @@ public class AccountsAPI implements Accounts {
     return new CQLWrapper(cql2pgJson, query).setLimit(new Limit(limit)).setOffset(new Offset(offset));
   }
 
-  private Future<Void> setAdditionalFields(Vertx vertx, Map<String, String> okapiHeaders,
-    List<Account> accounts) {
-
-    if (accounts == null) {
-      return succeededFuture(null);
-    }
-
-    InventoryClient inventoryClient = new InventoryClient(vertx, okapiHeaders);
-
-    List<String> itemIds = accounts.stream()
-      .map(Account::getItemId)
-      .collect(Collectors.toList());
-
-    return succeededFuture(new AdditionalFieldsContext(null, null))
-      .compose(ctx -> inventoryClient.getItemsById(itemIds)
-          .map(ctx::withItems))
-      .compose(ctx -> inventoryClient.getHoldingsById(ctx.items.getItems().stream()
-        .map(Item::getHoldingsRecordId)
-        .collect(Collectors.toList()))
-        .map(ctx::withHoldings))
-      .compose(ctx -> {
-        accounts.forEach(account -> {
-          Optional<Item> item = ctx.items.getItems().stream()
-            .filter(i -> account.getItemId().equals(i.getId()))
-            .findAny();
-
-          Optional<HoldingsRecord> holding = Optional.empty();
-          if (item.isPresent() && item.get().getHoldingsRecordId() != null) {
-            holding = ctx.holdings.getHoldingsRecords().stream()
-              .filter(h -> item.get().getHoldingsRecordId().equals(h.getId()))
-              .findAny();
-          }
-
-          String holdingRecordsId = item.map(Item::getHoldingsRecordId).orElse("");
-          String instanceId = holding.map(HoldingsRecord::getInstanceId).orElse("");
-
-          account.setHoldingsRecordId(holdingRecordsId);
-          account.setInstanceId(instanceId);
-        });
-
-        return succeededFuture(null);
-      });
-  }
-
     @Validate
     @Override
     public void getAccounts(String query, String orderBy, AccountsGetOrder order, int offset, int limit, List<String> facets, String lang,
@@ -143,7 +88,8 @@ public class AccountsAPI implements Accounts {
                                     if (reply.succeeded()) {
                                       List<Account> accounts = reply.result().getResults();
 
-                                      setAdditionalFields(vertxContext.owner(), okapiHeaders, accounts)
+                                      new AccountEnrichmentService(vertxContext.owner(), okapiHeaders)
+                                        .setAdditionalFields(accounts)
                                         .onComplete(accountsResult -> {
                                           AccountdataCollection accountCollection = new AccountdataCollection();
                                           accountCollection.setAccounts(accounts);
@@ -201,14 +147,9 @@ public class AccountsAPI implements Accounts {
                              Handler<AsyncResult<Response>> asyncResultHandler,
                              Context vertxContext) {
 
-      PgUtil.post(ACCOUNTS_TABLE, entity, okapiHeaders, vertxContext,
-        PostAccountsResponse.class, post -> {
-          if (post.succeeded()) {
-            new AccountEventPublisher(vertxContext, okapiHeaders)
-              .publishAccountBalanceChangeEvent(entity);
-          }
-          asyncResultHandler.handle(post);
-        });
+      new AccountUpdateService(okapiHeaders, vertxContext)
+        .createAccount(entity)
+        .onComplete(asyncResultHandler);
     }
 
     @Validate
@@ -247,7 +188,8 @@ public class AccountsAPI implements Accounts {
                                                         messages.getMessage(lang,
                                                                 MessageConsts.InternalServerError))));
                                     } else {
-                                          setAdditionalFields(vertxContext.owner(), okapiHeaders, accountList)
+                                          new AccountEnrichmentService(vertxContext.owner(), okapiHeaders)
+                                            .setAdditionalFields(accountList)
                                             .onComplete(accountsResult -> asyncResultHandler.handle(
                                               succeededFuture(
                                                 GetAccountsByAccountIdResponse.respond200WithApplicationJson(
@@ -273,57 +215,10 @@ public class AccountsAPI implements Accounts {
     @Override
     public void deleteAccountsByAccountId(String accountId, String lang, Map<String, String> okapiHeaders,
             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-        try {
-            vertxContext.runOnContext(v -> {
-                String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(OKAPI_HEADER_TENANT));
-                Criteria idCrit = new Criteria();
-                idCrit.addField(ACCOUNT_ID_FIELD);
-                idCrit.setOperation("=");
-                idCrit.setVal(accountId);
-                Criterion criterion = new Criterion(idCrit);
 
-                try {
-                    PostgresClient.getInstance(vertxContext.owner(), tenantId).delete(
-                            ACCOUNTS_TABLE, criterion, deleteReply -> {
-                                if (deleteReply.succeeded()) {
-                                    if (deleteReply.result().rowCount() == 1) {
-                                        new AccountEventPublisher(vertxContext, okapiHeaders)
-                                          .publishDeletedAccountBalanceChangeEvent(accountId);
-                                        asyncResultHandler.handle(succeededFuture(
-                                                DeleteAccountsByAccountIdResponse.respond204()));
-                                    } else {
-                                        asyncResultHandler.handle(succeededFuture(
-                                                DeleteAccountsByAccountIdResponse.respond404WithTextPlain("Record Not Found")));
-                                    }
-                                } else {
-                                    logger.error(deleteReply.result());
-                                    String error = PgExceptionUtil.badRequestMessage(deleteReply.cause());
-                                    logger.error(error, deleteReply.cause());
-                                    if (error == null) {
-                                        asyncResultHandler.handle(succeededFuture(DeleteAccountsByAccountIdResponse.respond500WithTextPlain(
-                                                messages.getMessage(lang, MessageConsts.InternalServerError))));
-                                    } else {
-                                        asyncResultHandler.handle(succeededFuture(DeleteAccountsByAccountIdResponse.respond400WithTextPlain(error)));
-                                    }
-                                }
-                            });
-                } catch (Exception e) {
-                    logger.error(e.getMessage());
-                    asyncResultHandler.handle(
-                            succeededFuture(
-                                    DeleteAccountsByAccountIdResponse.respond500WithTextPlain(
-                                            messages.getMessage(lang,
-                                                    MessageConsts.InternalServerError))));
-                }
-            });
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-            asyncResultHandler.handle(
-                    succeededFuture(
-                            DeleteAccountsByAccountIdResponse.respond500WithTextPlain(
-                                    messages.getMessage(lang,
-                                            MessageConsts.InternalServerError))));
-        }
+      new AccountUpdateService(okapiHeaders, vertxContext)
+        .deleteAccount(accountId)
+        .onComplete(asyncResultHandler);
     }
 
     @Validate
@@ -334,16 +229,34 @@ public class AccountsAPI implements Accounts {
 
       new AccountUpdateService(okapiHeaders, vertxContext)
         .updateAccount(accountId, entity)
-        .thenAccept(asyncResultHandler::handle);
+        .onComplete(asyncResultHandler);
     }
 
+  @Validate
+  @Override
+  public void getAccountsUsersSummaryByUserId(String userId, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    new UserBalanceRepository(PostgresClient.getInstance(vertxContext.owner(),
+      TenantTool.tenantId(okapiHeaders)))
+      .getUserBalance(userId)
+      .onSuccess(summary -> asyncResultHandler.handle(succeededFuture(
+        GetAccountsUsersSummaryByUserIdResponse.respond200WithApplicationJson(summary))))
+      .onFailure(throwable -> {
+        logger.error("Failed to get balance of user {}", throwable, userId);
+        asyncResultHandler.handle(succeededFuture(
+          GetAccountsUsersSummaryByUserIdResponse.respond500WithTextPlain(
+            throwable.getMessage())));
+      });
+  }
+
   @Override
   public void postAccountsCheckPayByAccountId(String accountId, CheckActionRequest request,
     Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
     checkAction(accountId, request, asyncResultHandler,
-      new DefaultActionValidationService(new AccountRepository(vertxContext, okapiHeaders)),
+      new DefaultActionValidationService(okapiHeaders, vertxContext),
       Action.PAY);
   }
 
@@ -353,7 +266,7 @@ public class AccountsAPI implements Accounts {
     Context vertxContext) {
 
     checkAction(accountId, request, asyncResultHandler,
-      new DefaultActionValidationService(new AccountRepository(vertxContext, okapiHeaders)),
+      new DefaultActionValidationService(okapiHeaders, vertxContext),
       Action.WAIVE);
   }
 
@@ -363,7 +276,7 @@ public class AccountsAPI implements Accounts {
     Context vertxContext) {
 
     checkAction(accountId, request, asyncResultHandler,
-      new DefaultActionValidationService(new AccountRepository(vertxContext, okapiHeaders)),
+      new DefaultActionValidationService(okapiHeaders, vertxContext),
       Action.TRANSFER);
   }
 
@@ -512,22 +425,4 @@ public class AccountsAPI implements Accounts {
       }
     }
   }
-
-  private static class AdditionalFieldsContext {
-    final Items items;
-    final HoldingsRecords holdings;
-
-    private AdditionalFieldsContext(Items items, HoldingsRecords holdings) {
-      this.items = items;
-      this.holdings = holdings;
-    }
-
-    private AdditionalFieldsContext withItems(Items items) {
-      return new AdditionalFieldsContext(items, this.holdings);
-    }
-
-    private AdditionalFieldsContext withHoldings(HoldingsRecords holdings) {
-      return new AdditionalFieldsContext(this.items, holdings);
-    }
-  }
 }
@@ -1,5 +1,7 @@
 package org.folio.rest.impl;
 
+import static org.folio.rest.cache.ReferenceDataCache.invalidateOnCompletion;
+
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -225,8 +227,11 @@ public class FeeFinesAPI implements Feefines {
     public void deleteFeefinesByFeefineId(String feefineId,
             String lang,
             Map<String, String> okapiHeaders,
-            Handler<AsyncResult<Response>> asyncResultHandler,
+            Handler<AsyncResult<Response>> resultHandler,
             Context vertxContext) {
+        Handler<AsyncResult<Response>> asyncResultHandler = invalidateOnCompletion(resultHandler,
+            TenantTool.tenantId(okapiHeaders), Feefine.class, feefineId);
+
         try {
             vertxContext.runOnContext(v -> {
                 String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(OKAPI_HEADER_TENANT));
@@ -285,8 +290,10 @@ public class FeeFinesAPI implements Feefines {
     public void putFeefinesByFeefineId(String feefineId,
             String lang, Feefine entity,
             Map<String, String> okapiHeaders,
-            Handler<AsyncResult<Response>> asyncResultHandler,
+            Handler<AsyncResult<Response>> resultHandler,
             Context vertxContext) {
+        Handler<AsyncResult<Response>> asyncResultHandler = invalidateOnCompletion(resultHandler,
+            TenantTool.tenantId(okapiHeaders), Feefine.class, feefineId);
 
         try {
             if (feefineId == null) {
@@ -0,0 +1,87 @@
+package org.folio.rest.impl;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.domain.ExportFormat;
+import org.folio.rest.jaxrs.resource.FeesfinesExport;
+import org.folio.rest.service.RecordExportService;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.web.RoutingContext;
+
+public class FeesFinesExportAPI implements FeesfinesExport {
+  private static final Logger logger = LoggerFactory.getLogger(FeesFinesExportAPI.class);
+
+  private static final String ACCOUNTS_TABLE = "accounts";
+  private static final String FEE_FINE_ACTIONS_TABLE = "feefineactions";
+
+  private static final List<String> ACCOUNT_COLUMNS = Arrays.asList("id", "userId", "ownerId",
+    "feeFineOwner", "feeFineId", "feeFineType", "amount", "remaining", "status.name",
+    "paymentStatus.name", "loanId", "itemId", "barcode", "title", "materialType",
+    "dueDate", "returnedDate", "metadata.createdDate", "metadata.updatedDate");
+
+  private static final List<String> FEE_FINE_ACTION_COLUMNS = Arrays.asList("id", "accountId",
+    "userId", "typeAction", "amountAction", "balance", "paymentMethod",
+    "transactionInformation", "notify", "dateAction", "createdAt", "source",
+    "comments");
+
+  @Validate
+  @Override
+  public void getFeesfinesExportAccounts(String query, String format, String afterId,
+    RoutingContext routingContext, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    export(new RecordExportService(okapiHeaders, vertxContext, ACCOUNTS_TABLE, ACCOUNT_COLUMNS),
+      query, format, afterId, routingContext, asyncResultHandler,
+      GetFeesfinesExportAccountsResponse::respond400WithTextPlain);
+  }
+
+  @Validate
+  @Override
+  public void getFeesfinesExportFeefineactions(String query, String format, String afterId,
+    RoutingContext routingContext, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    export(new RecordExportService(okapiHeaders, vertxContext, FEE_FINE_ACTIONS_TABLE,
+      FEE_FINE_ACTION_COLUMNS), query, format, afterId, routingContext, asyncResultHandler,
+      GetFeesfinesExportFeefineactionsResponse::respond400WithTextPlain);
+  }
+
+  private void export(RecordExportService exportService, String query, String format,
+    String afterId, RoutingContext routingContext,
+    Handler<AsyncResult<Response>> asyncResultHandler, Function<String, Response> badRequest) {
+
+    ExportFormat exportFormat = ExportFormat.from(format).orElse(null);
+    if (exportFormat == null) {
+      asyncResultHandler.handle(succeededFuture(
+        badRequest.apply("Unsupported export format: " + format)));
+      return;
+    }
+
+    final String sqlCondition;
+    try {
+      sqlCondition = exportService.toSqlCondition(query);
+    } catch (FieldException | QueryValidationException e) {
+      logger.error(e.getLocalizedMessage(), e);
+      asyncResultHandler.handle(succeededFuture(badRequest.apply(
+        "CQL Parsing Error for '" + query + "': " + e.getLocalizedMessage())));
+      return;
+    }
+
+    exportService.export(sqlCondition, afterId, exportFormat, routingContext.response());
+  }
+}
@@ -0,0 +1,30 @@
+package org.folio.rest.impl;
+
+import org.folio.rest.metrics.MetricsServerVerticle;
+import org.folio.rest.resource.interfaces.InitAPI;
+import org.folio.rest.service.EventOutboxRelayVerticle;
+import org.folio.rest.service.PatronNoticeQueueVerticle;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+public class InitAPIImpl implements InitAPI {
+
+  @Override
+  public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> handler) {
+    Promise<String> outboxRelay = Promise.promise();
+    Promise<String> noticeQueue = Promise.promise();
+    Promise<String> metricsServer = Promise.promise();
+
+    vertx.deployVerticle(EventOutboxRelayVerticle.class.getName(), outboxRelay);
+    vertx.deployVerticle(PatronNoticeQueueVerticle.class.getName(), noticeQueue);
+    vertx.deployVerticle(MetricsServerVerticle.class.getName(), metricsServer);
+
+    CompositeFuture.all(outboxRelay.future(), noticeQueue.future(), metricsServer.future())
+      .onComplete(deployment -> handler.handle(deployment.map(true)));
+  }
+}
@@ -1,5 +1,7 @@
 package org.folio.rest.impl;
 
+import static org.folio.rest.cache.ReferenceDataCache.invalidateOnCompletion;
+
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
@@ -221,7 +223,10 @@ public class OwnersAPI implements Owners {
 
     @Validate
     @Override
-    public void deleteOwnersByOwnerId(String ownerId, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    public void deleteOwnersByOwnerId(String ownerId, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> resultHandler, Context vertxContext) {
+        Handler<AsyncResult<Response>> asyncResultHandler = invalidateOnCompletion(resultHandler,
+            TenantTool.tenantId(okapiHeaders), Owner.class, ownerId);
+
         try {
             vertxContext.runOnContext(v -> {
                 String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(OKAPI_HEADER_TENANT));
@@ -279,7 +284,10 @@ public class OwnersAPI implements Owners {
 
     @Validate
     @Override
-    public void putOwnersByOwnerId(String ownerId, String lang, Owner entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    public void putOwnersByOwnerId(String ownerId, String lang, Owner entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> resultHandler, Context vertxContext) {
+        Handler<AsyncResult<Response>> asyncResultHandler = invalidateOnCompletion(resultHandler,
+            TenantTool.tenantId(okapiHeaders), Owner.class, ownerId);
+
         try {
             if (ownerId == null) {
                 logger.error("ownerId is missing ");
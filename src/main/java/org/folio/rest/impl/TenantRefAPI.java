@@ -7,9 +7,12 @@ import java.util.Map;
 
 import javax.ws.rs.core.Response;
 
+import org.folio.rest.cache.ReferenceDataCache;
 import org.folio.rest.jaxrs.model.TenantAttributes;
+import org.folio.rest.service.CurrencyService;
 import org.folio.rest.service.PubSubRegistrationService;
 import org.folio.rest.tools.utils.TenantLoading;
+import org.folio.rest.tools.utils.TenantTool;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
@@ -37,6 +40,10 @@ public class TenantRefAPI extends TenantAPI {
         return;
       }
 
+      // reference data may have been (re)loaded by the schema scripts
+      ReferenceDataCache.invalidateTenant(TenantTool.tenantId(headers));
+      CurrencyService.invalidate(TenantTool.tenantId(headers));
+
       TenantLoading tenantLoading = new TenantLoading();
       tenantLoading.withKey("loadReference").withLead("reference-data")
         .withIdContent()
@@ -0,0 +1,19 @@
+package org.folio.rest.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the database round trips made while serving one request. Repositories and services
+ * that are not given the counter of a request count into one of their own that is not read.
+ */
+public class DatabaseCallCounter {
+  private final AtomicInteger calls = new AtomicInteger();
+
+  public void count() {
+    calls.incrementAndGet();
+  }
+
+  public int getCalls() {
+    return calls.get();
+  }
+}
@@ -0,0 +1,182 @@
+package org.folio.rest.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import org.folio.rest.cache.ExpiringCache;
+import org.folio.rest.cache.ReferenceDataCache;
+import org.folio.rest.client.DownstreamGuard;
+import org.folio.rest.client.WebClientProvider;
+import org.folio.rest.service.PatronNoticeQueueVerticle;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Holds the Prometheus registry of the module. Action services record their stages and
+ * outcomes through {@link RequestMetrics}, outbound requests are timed by the Okapi client.
+ * Counters of the web client pool, the reference data cache, the downstream guards and the
+ * patron notice queues are kept by those classes and read when the registry is scraped.
+ */
+public final class FeesFinesMetrics {
+  public static final String TENANT = "tenant";
+
+  private static final PrometheusMeterRegistry registry =
+    new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+  private static final Set<String> boundGuards = ConcurrentHashMap.newKeySet();
+  private static final Set<String> boundNoticeQueues = ConcurrentHashMap.newKeySet();
+
+  static {
+    bindWebClient(WebClientProvider.getMetrics());
+    ReferenceDataCache.getRegions().forEach(FeesFinesMetrics::bindCacheRegion);
+  }
+
+  private FeesFinesMetrics() {
+  }
+
+  public static MeterRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Returns all meters in the Prometheus text format.
+   */
+  public static String scrape() {
+    DownstreamGuard.getGuards().forEach(FeesFinesMetrics::bindGuard);
+    PatronNoticeQueueVerticle.getMetrics().forEach(FeesFinesMetrics::bindNoticeQueue);
+
+    return registry.scrape();
+  }
+
+  /**
+   * Times a request to another module, by target module and response status.
+   */
+  public static Timer httpClientTimer(String tenant, String target, String outcome) {
+    return Timer.builder("feesfines.http.client.requests")
+      .description("Requests to other modules through Okapi")
+      .tag(TENANT, String.valueOf(tenant))
+      .tag("target", target)
+      .tag("outcome", outcome)
+      .register(registry);
+  }
+
+  private static void bindWebClient(WebClientProvider.Metrics metrics) {
+    Gauge.builder("feesfines.http.client.in.flight", metrics,
+      WebClientProvider.Metrics::getInFlight)
+      .register(registry);
+    Gauge.builder("feesfines.http.client.saturation", metrics,
+      WebClientProvider.Metrics::getSaturation)
+      .description("Share of the connection pool to Okapi in use")
+      .register(registry);
+    FunctionCounter.builder("feesfines.http.client.failures", metrics,
+      WebClientProvider.Metrics::getFailures)
+      .register(registry);
+    FunctionCounter.builder("feesfines.http.client.timeouts", metrics,
+      WebClientProvider.Metrics::getTimeouts)
+      .register(registry);
+    FunctionCounter.builder("feesfines.http.client.queued", metrics,
+      WebClientProvider.Metrics::getQueued)
+      .description("Requests sent while more requests were in flight than the pool holds")
+      .register(registry);
+  }
+
+  private static void bindCacheRegion(Class<?> type, ExpiringCache<String, Object> region) {
+    String name = type.getSimpleName();
+
+    Gauge.builder("feesfines.cache.size", region, ExpiringCache::size)
+      .tag("region", name)
+      .register(registry);
+    FunctionCounter.builder("feesfines.cache.gets", region, ExpiringCache::getHitCount)
+      .tag("region", name)
+      .tag("result", "hit")
+      .register(registry);
+    FunctionCounter.builder("feesfines.cache.gets", region, ExpiringCache::getMissCount)
+      .tag("region", name)
+      .tag("result", "miss")
+      .register(registry);
+    FunctionCounter.builder("feesfines.cache.evictions", region,
+      ExpiringCache::getEvictionCount)
+      .description("Entries removed because they expired or the region was full")
+      .tag("region", name)
+      .register(registry);
+  }
+
+  private static void bindGuard(String key, DownstreamGuard guard) {
+    if (!boundGuards.add(key)) {
+      return;
+    }
+
+    String tenant = String.valueOf(guard.getTenant());
+    String target = guard.getTarget();
+
+    for (DownstreamGuard.State state : DownstreamGuard.State.values()) {
+      Gauge.builder("feesfines.http.guard.state", guard, g -> g.getState() == state ? 1 : 0)
+        .tag(TENANT, tenant)
+        .tag("target", target)
+        .tag("state", state.name())
+        .register(registry);
+    }
+    Gauge.builder("feesfines.http.guard.in.flight", guard,
+      DownstreamGuard::getInFlight)
+      .tag(TENANT, tenant)
+      .tag("target", target)
+      .register(registry);
+    FunctionCounter.builder("feesfines.http.guard.retries", guard,
+      DownstreamGuard::getRetries)
+      .tag(TENANT, tenant)
+      .tag("target", target)
+      .register(registry);
+    FunctionCounter.builder("feesfines.http.guard.rejected", guard,
+      DownstreamGuard::getRejectedByBulkhead)
+      .tag(TENANT, tenant)
+      .tag("target", target)
+      .tag("by", "bulkhead")
+      .register(registry);
+    FunctionCounter.builder("feesfines.http.guard.rejected", guard,
+      DownstreamGuard::getRejectedByCircuitBreaker)
+      .tag(TENANT, tenant)
+      .tag("target", target)
+      .tag("by", "circuitBreaker")
+      .register(registry);
+  }
+
+  private static void bindNoticeQueue(String tenant, PatronNoticeQueueVerticle.Metrics metrics) {
+    if (!boundNoticeQueues.add(tenant)) {
+      return;
+    }
+
+    noticeQueueGauge("feesfines.notices.queue.depth", tenant, metrics, m -> m.getDepth());
+    noticeQueueGauge("feesfines.notices.queue.in.flight", tenant, metrics, m -> m.getInFlight());
+    noticeQueueGauge("feesfines.notices.queue.retry.pending", tenant, metrics,
+      m -> m.getRetryPending());
+    noticeQueueGauge("feesfines.notices.queue.oldest.age.millis", tenant, metrics,
+      m -> m.getOldestAgeMillis());
+    noticeQueueCounter("feesfines.notices.sent", tenant, metrics, m -> m.getSent());
+    noticeQueueCounter("feesfines.notices.failed", tenant, metrics, m -> m.getFailed());
+    noticeQueueCounter("feesfines.notices.retried", tenant, metrics, m -> m.getRetried());
+    noticeQueueCounter("feesfines.notices.dropped", tenant, metrics, m -> m.getDropped());
+  }
+
+  private static void noticeQueueGauge(String name, String tenant,
+    PatronNoticeQueueVerticle.Metrics metrics,
+    ToDoubleFunction<PatronNoticeQueueVerticle.Metrics> value) {
+
+    Gauge.builder(name, metrics, value)
+      .tag(TENANT, tenant)
+      .register(registry);
+  }
+
+  private static void noticeQueueCounter(String name, String tenant,
+    PatronNoticeQueueVerticle.Metrics metrics,
+    ToDoubleFunction<PatronNoticeQueueVerticle.Metrics> value) {
+
+    FunctionCounter.builder(name, metrics, value)
+      .tag(TENANT, tenant)
+      .register(registry);
+  }
+}
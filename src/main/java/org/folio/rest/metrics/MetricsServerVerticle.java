@@ -0,0 +1,69 @@
+package org.folio.rest.metrics;
+
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+
+import io.prometheus.client.exporter.common.TextFormat;
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Serves {@link FeesFinesMetrics} for Prometheus on {@code GET /metrics}. The endpoint listens
+ * on a port of its own, {@code feesfines.metrics.port}, so that it is scraped directly rather
+ * than through Okapi; port 0 listens on any free port and a negative port disables it.
+ * Failing to listen is logged and does not stop the module, metrics are not worth an outage.
+ */
+public class MetricsServerVerticle extends AbstractVerticle {
+  private static final Logger log = LoggerFactory.getLogger(MetricsServerVerticle.class);
+
+  public static final int PORT = Integer.getInteger("feesfines.metrics.port", 9102);
+  private static final String PATH = "/metrics";
+
+  private static volatile int actualPort = -1;
+
+  /**
+   * The port the endpoint listens on, -1 when it does not listen.
+   */
+  public static int getPort() {
+    return actualPort;
+  }
+
+  @Override
+  public void start(Promise<Void> startPromise) {
+    if (PORT < 0) {
+      startPromise.complete();
+      return;
+    }
+
+    vertx.createHttpServer()
+      .requestHandler(request -> {
+        if (!PATH.equals(request.path())) {
+          request.response().setStatusCode(404).end();
+          return;
+        }
+
+        // scraping reads every meter, keep it off the event loop
+        vertx.<String>executeBlocking(promise -> promise.complete(FeesFinesMetrics.scrape()),
+          false, scrape -> {
+            if (scrape.failed()) {
+              log.error("Failed to scrape metrics", scrape.cause());
+              request.response().setStatusCode(500).end();
+              return;
+            }
+            request.response()
+              .putHeader(CONTENT_TYPE, TextFormat.CONTENT_TYPE_004)
+              .end(scrape.result());
+          });
+      })
+      .listen(PORT, server -> {
+        if (server.succeeded()) {
+          actualPort = server.result().actualPort();
+          log.info("Serving metrics on port {}", actualPort);
+        } else {
+          log.error("Failed to serve metrics on port {}", server.cause(), PORT);
+        }
+        startPromise.complete();
+      });
+  }
+}
@@ -0,0 +1,122 @@
+package org.folio.rest.metrics;
+
+import static org.folio.rest.metrics.FeesFinesMetrics.TENANT;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.folio.rest.domain.Action;
+import org.folio.rest.exception.AccountNotFoundValidationException;
+import org.folio.rest.exception.FailedValidationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.core.Future;
+
+/**
+ * Metrics of one action request: the time spent in each stage of the action pipeline, the
+ * outcome of the request as the HTTP status it is answered with, the number of fees/fines of
+ * a bulk action and the number of database round trips made for the request.
+ */
+public class RequestMetrics {
+  private static final double[] BULK_SIZE_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+  private static final double[] DATABASE_CALLS_BUCKETS = {1, 2, 3, 4, 5, 6, 8, 10, 15, 20, 50};
+
+  private final MeterRegistry registry;
+  private final Tags tags;
+  private final DatabaseCallCounter databaseCallCounter = new DatabaseCallCounter();
+
+  public RequestMetrics(String tenant, Action action, boolean bulk) {
+    this(FeesFinesMetrics.getRegistry(), tenant, action, bulk);
+  }
+
+  RequestMetrics(MeterRegistry registry, String tenant, Action action, boolean bulk) {
+    this.registry = registry;
+    this.tags = Tags.of(TENANT, String.valueOf(tenant),
+      "action", action.name(),
+      "bulk", String.valueOf(bulk));
+  }
+
+  public DatabaseCallCounter getDatabaseCallCounter() {
+    return databaseCallCounter;
+  }
+
+  /**
+   * Times the whole request, counts it by outcome and records its database round trips.
+   */
+  public <T> Future<T> measure(Supplier<Future<T>> request) {
+    Timer.Sample sample = Timer.start(registry);
+
+    return invoke(request).onComplete(result -> {
+      sample.stop(Timer.builder("feesfines.action.requests")
+        .description("Action requests by outcome")
+        .tags(tags)
+        .tag("outcome", outcomeOf(result.cause()))
+        .publishPercentileHistogram()
+        .register(registry));
+
+      DistributionSummary.builder("feesfines.action.db.calls")
+        .description("Database round trips per action request")
+        .tags(tags)
+        .serviceLevelObjectives(DATABASE_CALLS_BUCKETS)
+        .register(registry)
+        .record(databaseCallCounter.getCalls());
+    });
+  }
+
+  /**
+   * Wraps a stage of the action pipeline so that the time until its future completes is
+   * recorded, whether it succeeds or fails.
+   */
+  public <T, R> Function<T, Future<R>> stage(String stage, Function<T, Future<R>> step) {
+    return input -> {
+      Timer.Sample sample = Timer.start(registry);
+
+      return invoke(() -> step.apply(input)).onComplete(result -> sample.stop(
+        Timer.builder("feesfines.action.stage")
+          .description("Stages of the action pipeline")
+          .tags(tags)
+          .tag("stage", stage)
+          .register(registry)));
+    };
+  }
+
+  public void recordBulkSize(int accounts) {
+    DistributionSummary.builder("feesfines.action.bulk.size")
+      .description("Fees/fines per bulk action request")
+      .tags(tags)
+      .serviceLevelObjectives(BULK_SIZE_BUCKETS)
+      .register(registry)
+      .record(accounts);
+  }
+
+  /**
+   * Status code the request is answered with, as resolved by the accounts APIs.
+   */
+  static String outcomeOf(Throwable failure) {
+    if (failure == null) {
+      return "201";
+    }
+    if (failure instanceof FailedValidationException) {
+      return "422";
+    }
+    if (failure instanceof AccountNotFoundValidationException) {
+      return "404";
+    }
+    return "500";
+  }
+
+  /**
+   * Turns exceptions thrown before the future of a step exists into a failed future, so that
+   * they are measured like any other failure.
+   */
+  private static <T> Future<T> invoke(Supplier<Future<T>> step) {
+    try {
+      return step.get();
+    } catch (RuntimeException e) {
+      return Future.failedFuture(e);
+    }
+  }
+}
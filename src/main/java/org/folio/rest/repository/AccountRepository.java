@@ -1,29 +1,73 @@
 package org.folio.rest.repository;
 
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.lang.String.format;
+
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.folio.rest.domain.FeeFineNoticeContext;
+import org.folio.rest.domain.VersionedAccount;
+import org.folio.rest.exception.AccountUpdateConflictException;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.metrics.DatabaseCallCounter;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
+import org.folio.rest.tools.utils.ObjectMapperTool;
 import org.folio.rest.tools.utils.TenantTool;
+import org.folio.rest.tracing.RequestTrace;
+import org.folio.rest.tracing.Span;
+import org.folio.util.UuidUtil;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import io.vertx.core.json.JsonArray;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 
 public class AccountRepository {
   private static final String ACCOUNTS_TABLE = "accounts";
+  private static final String SELECT_VERSIONED_ACCOUNTS_SQL =
+    "SELECT jsonb, version FROM %s.%s WHERE id = ANY($1::uuid[])";
+  private static final String UPDATE_ACCOUNTS_SQL = "UPDATE %s.%s AS accounts " +
+    "SET jsonb = updated.jsonb " +
+    "FROM (SELECT unnest($1::uuid[]) AS id, unnest($2::text[])::jsonb AS jsonb, " +
+    "unnest($3::int[]) AS version) AS updated " +
+    "WHERE accounts.id = updated.id AND accounts.version = updated.version";
+  private static final String INSERT_ACCOUNT_SQL =
+    "INSERT INTO %s.%s (id, jsonb) VALUES ($1::uuid, $2::jsonb)";
+  private static final String REPLACE_ACCOUNT_SQL =
+    "UPDATE %s.%s SET jsonb = $2::jsonb WHERE id = $1::uuid";
+  private static final String DELETE_ACCOUNT_SQL = "DELETE FROM %s.%s WHERE id = $1::uuid";
+
   private final PostgresClient pgClient;
+  private final DatabaseCallCounter databaseCallCounter;
+  private final RequestTrace requestTrace;
 
   public AccountRepository(PostgresClient pgClient) {
+    this(pgClient, new DatabaseCallCounter());
+  }
+
+  public AccountRepository(PostgresClient pgClient, DatabaseCallCounter databaseCallCounter) {
+    this(pgClient, databaseCallCounter, RequestTrace.untraced());
+  }
+
+  public AccountRepository(PostgresClient pgClient, DatabaseCallCounter databaseCallCounter,
+    RequestTrace requestTrace) {
+
     this.pgClient = pgClient;
+    this.databaseCallCounter = databaseCallCounter;
+    this.requestTrace = requestTrace;
   }
 
   public AccountRepository(Context context, Map<String, String> headers) {
@@ -44,14 +88,19 @@ public class AccountRepository {
 
   public Future<Account> getAccountById(String accountId) {
     Promise<Account> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan("AccountRepository.getAccountById");
+    databaseCallCounter.count();
     pgClient.getById(ACCOUNTS_TABLE, accountId, Account.class, promise);
-    return promise.future();
+    return span.endWith(promise.future());
   }
 
   public Future<Map<String, Account>> getAccountsById(List<String> accountIds) {
     Promise<Map<String, Account>> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan("AccountRepository.getAccountsById")
+      .setAttribute("accounts", accountIds.size());
+    databaseCallCounter.count();
     pgClient.getById(ACCOUNTS_TABLE, new JsonArray(accountIds), Account.class, promise);
-    return promise.future();
+    return span.endWith(promise.future());
   }
 
   public Future<Map<String, Account>> getAccountsByIdWithNulls(List<String> accountIds) {
@@ -62,10 +111,148 @@ public class AccountRepository {
       );
   }
 
-  public Future<Account> update(Account account) {
+  public Future<Map<String, VersionedAccount>> getVersionedAccountsByIdWithNulls(
+    List<String> accountIds) {
+
+    // keys are ALL requested IDs, value is null if not found
+    Map<String, VersionedAccount> accounts = new HashMap<>();
+    accountIds.forEach(accountId -> accounts.put(accountId, null));
+
+    // IDs that are not UUIDs cannot be cast to uuid by the query, such accounts are not found
+    String[] uuids = accountIds.stream()
+      .filter(UuidUtil::isUuid)
+      .toArray(String[]::new);
+
+    if (uuids.length == 0) {
+      return succeededFuture(accounts);
+    }
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan(
+      "AccountRepository.getVersionedAccountsByIdWithNulls")
+      .setAttribute("accounts", uuids.length);
+    databaseCallCounter.count();
+    pgClient.select(format(SELECT_VERSIONED_ACCOUNTS_SQL, getSchemaName(), ACCOUNTS_TABLE),
+      Tuple.of(uuids), promise);
+
+    return span.endWith(promise.future()).compose(rowSet -> {
+      try {
+        for (Row row : rowSet) {
+          Account account = ObjectMapperTool.getMapper()
+            .readValue(row.getValue("jsonb").toString(), Account.class);
+          accounts.put(account.getId(), new VersionedAccount(account, row.getInteger("version")));
+        }
+      } catch (IOException e) {
+        return failedFuture(e);
+      }
+
+      return succeededFuture(accounts);
+    });
+  }
+
+  /**
+   * Updates all given accounts with a single statement within the provided transaction.
+   * An account is only updated if its version still matches the one it was read with,
+   * otherwise the whole update fails with {@link AccountUpdateConflictException}.
+   */
+  public Future<List<Account>> update(AsyncResult<SQLConnection> connection,
+    List<Account> accounts, Map<String, Integer> expectedVersions) {
+
+    if (accounts.isEmpty()) {
+      return succeededFuture(accounts);
+    }
+
+    String[] ids = new String[accounts.size()];
+    String[] jsons = new String[accounts.size()];
+    Integer[] versions = new Integer[accounts.size()];
+
+    try {
+      for (int i = 0; i < accounts.size(); i++) {
+        Account account = accounts.get(i);
+        ids[i] = account.getId();
+        jsons[i] = PostgresClient.pojo2json(account);
+        versions[i] = expectedVersions.get(account.getId());
+      }
+    } catch (JsonProcessingException e) {
+      return failedFuture(e);
+    }
+
     Promise<RowSet<Row>> promise = Promise.promise();
-    pgClient.update(ACCOUNTS_TABLE, account, account.getId(), promise);
-    return promise.future().map(account);
+    Span span = requestTrace.startDatabaseSpan("AccountRepository.updateVersioned")
+      .setAttribute("accounts", accounts.size());
+    databaseCallCounter.count();
+    pgClient.execute(connection, format(UPDATE_ACCOUNTS_SQL, getSchemaName(), ACCOUNTS_TABLE),
+      Tuple.of(ids, jsons, versions), promise);
+
+    return span.endWith(promise.future()).compose(rowSet -> rowSet.rowCount() == accounts.size()
+      ? succeededFuture(accounts)
+      : failedFuture(new AccountUpdateConflictException(format(
+        "Expected to update %d fee/fine(s), but %d were updated: fee/fine was modified or " +
+          "deleted concurrently", accounts.size(), rowSet.rowCount()))));
+  }
+
+  /**
+   * Inserts the account within the provided transaction.
+   */
+  public Future<Void> save(AsyncResult<SQLConnection> connection, Account account) {
+    return execute(connection, "AccountRepository.save", INSERT_ACCOUNT_SQL, account.getId(),
+      account).mapEmpty();
+  }
+
+  /**
+   * Replaces the account within the provided transaction regardless of its version, the
+   * returned future holds {@code false} if there is no account with the ID.
+   */
+  public Future<Boolean> replace(AsyncResult<SQLConnection> connection, String accountId,
+    Account account) {
+
+    if (!UuidUtil.isUuid(accountId)) {
+      return succeededFuture(false);
+    }
+
+    return execute(connection, "AccountRepository.replace", REPLACE_ACCOUNT_SQL, accountId,
+      account).map(rowSet -> rowSet.rowCount() == 1);
+  }
+
+  /**
+   * Deletes the account within the provided transaction, the returned future holds
+   * {@code false} if there is no account with the ID.
+   */
+  public Future<Boolean> delete(AsyncResult<SQLConnection> connection, String accountId) {
+    if (!UuidUtil.isUuid(accountId)) {
+      return succeededFuture(false);
+    }
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan("AccountRepository.delete");
+    databaseCallCounter.count();
+    pgClient.execute(connection, format(DELETE_ACCOUNT_SQL, getSchemaName(), ACCOUNTS_TABLE),
+      Tuple.of(accountId), promise);
+
+    return span.endWith(promise.future()).map(rowSet -> rowSet.rowCount() == 1);
+  }
+
+  private Future<RowSet<Row>> execute(AsyncResult<SQLConnection> connection, String spanName,
+    String sql, String accountId, Account account) {
+
+    final String json;
+    try {
+      json = PostgresClient.pojo2json(account);
+    } catch (JsonProcessingException e) {
+      return failedFuture(e);
+    }
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan(spanName);
+    databaseCallCounter.count();
+    pgClient.execute(connection, format(sql, getSchemaName(), ACCOUNTS_TABLE),
+      Tuple.of(accountId, json), promise);
+
+    return span.endWith(promise.future());
+  }
+
+  private String getSchemaName() {
+    return PostgresClient.convertToPsqlStandard(pgClient.getTenantId());
   }
 
 }
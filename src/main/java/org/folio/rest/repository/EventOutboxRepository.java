@@ -0,0 +1,193 @@
+package org.folio.rest.repository;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.folio.rest.domain.OutboxEvent;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.metrics.DatabaseCallCounter;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
+import org.folio.rest.tools.utils.ObjectMapperTool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+public class EventOutboxRepository {
+  private static final String OUTBOX_TABLE = "event_outbox";
+  private static final String INSERT_SQL = "INSERT INTO %s.%s " +
+    "(id, partition_key, event, okapi_url, okapi_token) " +
+    "SELECT id, partition_key, event::jsonb, okapi_url, okapi_token " +
+    "FROM unnest($1::uuid[], $2::text[], $3::text[], $4::text[], $5::text[]) " +
+    "AS events(id, partition_key, event, okapi_url, okapi_token)";
+  private static final String CLAIM_SQL = "UPDATE %1$s.%2$s " +
+    "SET attempts = attempts + 1, next_attempt_at = now() + make_interval(secs => $2) " +
+    "WHERE id IN (SELECT id FROM %1$s.%2$s due WHERE next_attempt_at <= now() " +
+    "AND NOT EXISTS (SELECT 1 FROM %1$s.%2$s earlier " +
+    "WHERE earlier.partition_key = due.partition_key AND earlier.seq < due.seq " +
+    "AND earlier.next_attempt_at > now()) " +
+    "ORDER BY seq LIMIT $1 FOR UPDATE SKIP LOCKED) " +
+    "RETURNING seq, partition_key, event, okapi_url, okapi_token, attempts";
+  private static final String DELETE_SQL = "DELETE FROM %s.%s WHERE id = ANY($1::uuid[])";
+  private static final String SELECT_SCHEMAS_SQL = "SELECT table_schema " +
+    "FROM information_schema.tables WHERE table_name = $1 " +
+    "AND right(table_schema, length($2)) = $2";
+  private static final String RESCHEDULE_SQL = "UPDATE %s.%s " +
+    "SET next_attempt_at = now() + make_interval(secs => $2) WHERE id = ANY($1::uuid[])";
+
+  private final PostgresClient pgClient;
+  private final DatabaseCallCounter databaseCallCounter;
+
+  public EventOutboxRepository(PostgresClient pgClient) {
+    this(pgClient, new DatabaseCallCounter());
+  }
+
+  public EventOutboxRepository(PostgresClient pgClient,
+    DatabaseCallCounter databaseCallCounter) {
+
+    this.pgClient = pgClient;
+    this.databaseCallCounter = databaseCallCounter;
+  }
+
+  /**
+   * Saves events within the provided transaction, so that they are only published if the
+   * transaction is committed.
+   */
+  public Future<Void> save(AsyncResult<SQLConnection> connection, List<OutboxEvent> events) {
+    if (events.isEmpty()) {
+      return succeededFuture();
+    }
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      databaseCallCounter.count();
+      pgClient.execute(connection, sql(INSERT_SQL), insertParameters(events), promise);
+    } catch (JsonProcessingException e) {
+      return failedFuture(e);
+    }
+
+    return promise.future().mapEmpty();
+  }
+
+  public Future<Void> save(List<OutboxEvent> events) {
+    if (events.isEmpty()) {
+      return succeededFuture();
+    }
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    try {
+      databaseCallCounter.count();
+      pgClient.execute(sql(INSERT_SQL), insertParameters(events), promise);
+    } catch (JsonProcessingException e) {
+      return failedFuture(e);
+    }
+
+    return promise.future().mapEmpty();
+  }
+
+  /**
+   * Claims up to {@code limit} events that are due, oldest first. Events waiting behind an
+   * earlier event of the same partition that is not due are skipped, so that they do not
+   * overtake it. Claimed events are not returned by other claims for {@code leaseSeconds},
+   * so an event whose publisher died is picked up again once the lease expires.
+   */
+  public Future<List<OutboxEvent>> claim(int limit, long leaseSeconds) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    databaseCallCounter.count();
+    pgClient.execute(sql(CLAIM_SQL), Tuple.of(limit, (double) leaseSeconds), promise);
+
+    return promise.future().compose(rowSet -> {
+      List<Row> rows = new ArrayList<>();
+      rowSet.forEach(rows::add);
+      rows.sort(Comparator.comparing(row -> row.getLong("seq")));
+
+      List<OutboxEvent> events = new ArrayList<>();
+      try {
+        for (Row row : rows) {
+          Event event = ObjectMapperTool.getMapper()
+            .readValue(row.getValue("event").toString(), Event.class);
+          events.add(new OutboxEvent(row.getString("partition_key"), event,
+            row.getString("okapi_url"), row.getString("okapi_token"),
+            row.getInteger("attempts")));
+        }
+      } catch (IOException e) {
+        return failedFuture(e);
+      }
+
+      return succeededFuture(events);
+    });
+  }
+
+  public Future<Void> delete(List<String> eventIds) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    databaseCallCounter.count();
+    pgClient.execute(sql(DELETE_SQL), Tuple.of(eventIds.toArray(new String[0])), promise);
+    return promise.future().mapEmpty();
+  }
+
+  public Future<Void> reschedule(List<String> eventIds, long delaySeconds) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    databaseCallCounter.count();
+    pgClient.execute(sql(RESCHEDULE_SQL),
+      Tuple.of(eventIds.toArray(new String[0]), (double) delaySeconds), promise);
+    return promise.future().mapEmpty();
+  }
+
+  /**
+   * Finds the tenants that have an event outbox, using a client that is not bound to any
+   * tenant.
+   */
+  public static Future<List<String>> findTenants(PostgresClient moduleClient) {
+    String schemaSuffix = PostgresClient.convertToPsqlStandard("");
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    moduleClient.select(SELECT_SCHEMAS_SQL, Tuple.of(OUTBOX_TABLE, schemaSuffix), promise);
+
+    return promise.future().map(rowSet -> {
+      List<String> tenants = new ArrayList<>();
+      rowSet.forEach(row -> {
+        String schema = row.getString("table_schema");
+        tenants.add(schema.substring(0, schema.length() - schemaSuffix.length()));
+      });
+      return tenants;
+    });
+  }
+
+  private static Tuple insertParameters(List<OutboxEvent> events)
+    throws JsonProcessingException {
+
+    String[] ids = new String[events.size()];
+    String[] partitionKeys = new String[events.size()];
+    String[] jsons = new String[events.size()];
+    String[] okapiUrls = new String[events.size()];
+    String[] okapiTokens = new String[events.size()];
+
+    for (int i = 0; i < events.size(); i++) {
+      OutboxEvent event = events.get(i);
+      ids[i] = event.getId();
+      partitionKeys[i] = event.getPartitionKey();
+      jsons[i] = PostgresClient.pojo2json(event.getEvent());
+      okapiUrls[i] = event.getOkapiUrl();
+      okapiTokens[i] = event.getOkapiToken();
+    }
+
+    return Tuple.of(ids, partitionKeys, jsons, okapiUrls, okapiTokens);
+  }
+
+  private String sql(String template) {
+    return format(template, PostgresClient.convertToPsqlStandard(pgClient.getTenantId()),
+      OUTBOX_TABLE);
+  }
+}
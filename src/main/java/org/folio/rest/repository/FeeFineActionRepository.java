@@ -1,60 +1,148 @@
 package org.folio.rest.repository;
 
-import static java.util.stream.Collectors.toList;
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 import static org.folio.rest.domain.Action.PAY;
 import static org.folio.rest.domain.Action.TRANSFER;
-import static org.folio.rest.utils.FeeFineActionHelper.isActionOfType;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.CQL2PgJSONException;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.rest.domain.Action;
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.domain.RefundableAmount;
 import org.folio.rest.jaxrs.model.Feefineaction;
-import org.folio.rest.persist.Criteria.Criteria;
-import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.metrics.DatabaseCallCounter;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
+import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.persist.interfaces.Results;
 import org.folio.rest.tools.utils.TenantTool;
+import org.folio.rest.tracing.RequestTrace;
+import org.folio.rest.tracing.Span;
 import org.folio.rest.utils.FeeFineActionHelper;
+import org.folio.util.StringUtil;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 
 public class FeeFineActionRepository {
   private static final String ACTIONS_TABLE = "feefineactions";
+  private static final String REFUNDABLE_AMOUNTS_SQL = "SELECT jsonb->>'accountId' AS account_id, " +
+    "COALESCE(SUM((jsonb->>'amountAction')::numeric) " +
+    "FILTER (WHERE jsonb->>'typeAction' = ANY($1::text[])), 0)::text AS paid, " +
+    "COALESCE(SUM((jsonb->>'amountAction')::numeric) " +
+    "FILTER (WHERE jsonb->>'typeAction' = ANY($2::text[])), 0)::text AS transferred " +
+    "FROM %s.%s WHERE %s GROUP BY jsonb->>'accountId'";
+
   private final PostgresClient pgClient;
+  private final DatabaseCallCounter databaseCallCounter;
+  private final RequestTrace requestTrace;
 
   public FeeFineActionRepository(PostgresClient pgClient) {
+    this(pgClient, new DatabaseCallCounter());
+  }
+
+  public FeeFineActionRepository(PostgresClient pgClient,
+    DatabaseCallCounter databaseCallCounter) {
+
+    this(pgClient, databaseCallCounter, RequestTrace.untraced());
+  }
+
+  public FeeFineActionRepository(PostgresClient pgClient,
+    DatabaseCallCounter databaseCallCounter, RequestTrace requestTrace) {
+
     this.pgClient = pgClient;
+    this.databaseCallCounter = databaseCallCounter;
+    this.requestTrace = requestTrace;
   }
 
   public FeeFineActionRepository(Map<String, String> headers, Context context) {
-    pgClient = PostgresClient.getInstance(context.owner(), TenantTool.tenantId(headers));
+    this(headers, context, new DatabaseCallCounter());
+  }
+
+  public FeeFineActionRepository(Map<String, String> headers, Context context,
+    DatabaseCallCounter databaseCallCounter) {
+
+    this(PostgresClient.getInstance(context.owner(), TenantTool.tenantId(headers)),
+      databaseCallCounter);
   }
 
   public Future<List<Feefineaction>> findActionsForAccount(String accountId) {
     if (accountId == null) {
-      return Future.failedFuture(new IllegalArgumentException("Account ID is null"));
+      return failedFuture(new IllegalArgumentException("Account ID is null"));
     }
 
-    Criterion criterion = new Criterion(new Criteria()
-      .addField("'accountId'")
-      .setOperation("=")
-      .setVal(accountId));
+    // CQL is translated against the indexes declared in schema.json, so the lookup uses the
+    // accountId index instead of scanning the whole table
+    CQLWrapper cql;
+    try {
+      cql = new CQLWrapper(new CQL2PgJSON(ACTIONS_TABLE + ".jsonb"), accountIdQuery(accountId));
+    } catch (FieldException e) {
+      return failedFuture(e);
+    }
 
     Promise<Results<Feefineaction>> promise = Promise.promise();
-    pgClient.get(ACTIONS_TABLE, Feefineaction.class, criterion, false, promise);
+    Span span = requestTrace.startDatabaseSpan("FeeFineActionRepository.findActionsForAccount");
+    databaseCallCounter.count();
+    pgClient.get(ACTIONS_TABLE, Feefineaction.class, cql, false, promise);
 
-    return promise.future()
+    return span.endWith(promise.future())
       .map(Results::getResults);
   }
 
-  public Future<List<Feefineaction>> findRefundableActionsForAccount(String accountId) {
-    return findActionsForAccount(accountId)
-      .map(actions -> actions.stream()
-        .filter(action -> isActionOfType(action, PAY, TRANSFER))
-        .collect(toList())
-      );
+  /**
+   * Sums paid and transferred amounts per account in a single query. Keys are ALL requested
+   * account IDs, accounts without payments or transfers are mapped to {@link RefundableAmount#NONE}.
+   */
+  public Future<Map<String, RefundableAmount>> findRefundableAmounts(List<String> accountIds) {
+    Map<String, RefundableAmount> refundableAmounts = new HashMap<>();
+    accountIds.forEach(accountId -> refundableAmounts.put(accountId, RefundableAmount.NONE));
+
+    if (accountIds.isEmpty()) {
+      return succeededFuture(refundableAmounts);
+    }
+
+    String where;
+    try {
+      where = new CQL2PgJSON(ACTIONS_TABLE + ".jsonb")
+        .toSql(accountIdQuery(accountIds.toArray(new String[0])))
+        .getWhere();
+    } catch (CQL2PgJSONException e) {
+      return failedFuture(e);
+    }
+
+    String sql = format(REFUNDABLE_AMOUNTS_SQL,
+      PostgresClient.convertToPsqlStandard(pgClient.getTenantId()), ACTIONS_TABLE, where);
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan("FeeFineActionRepository.findRefundableAmounts")
+      .setAttribute("accounts", accountIds.size());
+    databaseCallCounter.count();
+    pgClient.select(sql, Tuple.of(actionResults(PAY), actionResults(TRANSFER)), promise);
+
+    return span.endWith(promise.future()).map(rowSet -> {
+      for (Row row : rowSet) {
+        refundableAmounts.put(row.getString("account_id"), new RefundableAmount(
+          new MonetaryValue(new BigDecimal(row.getString("paid"))),
+          new MonetaryValue(new BigDecimal(row.getString("transferred")))));
+      }
+      return refundableAmounts;
+    });
   }
 
   public Future<Feefineaction> findChargeForAccount(String accountId) {
@@ -68,8 +156,39 @@ public class FeeFineActionRepository {
 
   public Future<Feefineaction> save(Feefineaction feefineaction) {
     Promise<String> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan("FeeFineActionRepository.save");
+    databaseCallCounter.count();
     pgClient.save(ACTIONS_TABLE, feefineaction.getId(), feefineaction, promise);
 
-    return promise.future().map(feefineaction);
+    return span.endWith(promise.future()).map(feefineaction);
+  }
+
+  /**
+   * Saves all given actions with a single multi-row insert within the provided transaction.
+   */
+  public Future<List<Feefineaction>> save(AsyncResult<SQLConnection> connection,
+    List<Feefineaction> feeFineActions) {
+
+    if (feeFineActions.isEmpty()) {
+      return succeededFuture(feeFineActions);
+    }
+
+    Promise<RowSet<Row>> promise = Promise.promise();
+    Span span = requestTrace.startDatabaseSpan("FeeFineActionRepository.saveBatch")
+      .setAttribute("actions", feeFineActions.size());
+    databaseCallCounter.count();
+    pgClient.saveBatch(connection, ACTIONS_TABLE, new ArrayList<>(feeFineActions), promise);
+
+    return span.endWith(promise.future()).map(feeFineActions);
+  }
+
+  private static String accountIdQuery(String... accountIds) {
+    return "accountId==(" + Arrays.stream(accountIds)
+      .map(StringUtil::cqlEncode)
+      .collect(joining(" or ")) + ")";
+  }
+
+  private static String[] actionResults(Action action) {
+    return new String[] { action.getPartialResult(), action.getFullResult() };
   }
 }
@@ -3,6 +3,7 @@ package org.folio.rest.repository;
 
 import java.util.Optional;
 
+import org.folio.rest.cache.ReferenceDataCache;
 import org.folio.rest.domain.FeeFineNoticeContext;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.Feefine;
@@ -30,8 +31,12 @@ public class FeeFineRepository {
       return Future.failedFuture(new IllegalArgumentException("Fee fine id is not present"));
     }
 
-    Promise<Feefine> promise = Promise.promise();
-    pgClient.getById(FEEFINES_TABLE, optionalFeeFineId.get(), Feefine.class, promise);
-    return promise.future().map(context::withFeefine);
+    return ReferenceDataCache.get(pgClient.getTenantId(), Feefine.class, optionalFeeFineId.get(),
+      () -> {
+        Promise<Feefine> promise = Promise.promise();
+        pgClient.getById(FEEFINES_TABLE, optionalFeeFineId.get(), Feefine.class, promise);
+        return promise.future();
+      })
+      .map(context::withFeefine);
   }
 }
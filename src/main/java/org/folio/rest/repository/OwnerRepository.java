@@ -2,9 +2,11 @@ package org.folio.rest.repository;
 
 import java.util.Optional;
 
+import org.folio.rest.cache.ReferenceDataCache;
 import org.folio.rest.domain.FeeFineNoticeContext;
 import org.folio.rest.jaxrs.model.Feefine;
 import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.metrics.DatabaseCallCounter;
 import org.folio.rest.persist.PostgresClient;
 
 import io.vertx.core.Future;
@@ -15,9 +17,15 @@ public class OwnerRepository {
   private static final String OWNERS_TABLE = "owners";
 
   private final PostgresClient pgClient;
+  private final DatabaseCallCounter databaseCallCounter;
 
   public OwnerRepository(PostgresClient pgClient) {
+    this(pgClient, new DatabaseCallCounter());
+  }
+
+  public OwnerRepository(PostgresClient pgClient, DatabaseCallCounter databaseCallCounter) {
     this.pgClient = pgClient;
+    this.databaseCallCounter = databaseCallCounter;
   }
 
   public Future<FeeFineNoticeContext> loadOwner(FeeFineNoticeContext context) {
@@ -29,8 +37,16 @@ public class OwnerRepository {
       return Future.failedFuture(new IllegalArgumentException("Owner id is not present"));
     }
 
-    Promise<Owner> promise = Promise.promise();
-    pgClient.getById(OWNERS_TABLE, optionalOwnerId.get(), Owner.class, promise);
-    return promise.future().map(context::withOwner);
+    return getById(optionalOwnerId.get())
+      .map(context::withOwner);
+  }
+
+  public Future<Owner> getById(String ownerId) {
+    return ReferenceDataCache.get(pgClient.getTenantId(), Owner.class, ownerId, () -> {
+      Promise<Owner> promise = Promise.promise();
+      databaseCallCounter.count();
+      pgClient.getById(OWNERS_TABLE, ownerId, Owner.class, promise);
+      return promise.future();
+    });
   }
 }
@@ -0,0 +1,81 @@
+package org.folio.rest.repository;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.OwnerBalance;
+import org.folio.rest.jaxrs.model.UserBalanceSummary;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.ObjectMapperTool;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Reads the balances of users, kept up to date by a trigger on the accounts table within the
+ * transaction of every change to an account, see {@code user-balances.sql}.
+ */
+public class UserBalanceRepository {
+  private static final String SELECT_SQL = "SELECT open_count, total_owed::text AS total_owed, " +
+    "oldest_open_date, (SELECT COALESCE(jsonb_agg(jsonb_build_object('ownerId', owner_id, " +
+    "'openCount', open_count, 'totalOwed', total_owed) ORDER BY owner_id), '[]') " +
+    "FROM %1$s.user_owner_balances WHERE user_id = $1) AS owners " +
+    "FROM %1$s.user_balances WHERE user_id = $1";
+
+  private final PostgresClient pgClient;
+
+  public UserBalanceRepository(PostgresClient pgClient) {
+    this.pgClient = pgClient;
+  }
+
+  /**
+   * Balance of the open fees/fines of the user, empty when the user has none.
+   */
+  public Future<UserBalanceSummary> getUserBalance(String userId) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    pgClient.select(format(SELECT_SQL,
+      PostgresClient.convertToPsqlStandard(pgClient.getTenantId())),
+      Tuple.of(userId), promise);
+
+    return promise.future().compose(rowSet -> {
+      UserBalanceSummary summary = new UserBalanceSummary()
+        .withUserId(userId)
+        .withOpenCount(0)
+        .withTotalOwed(0.0)
+        .withOwners(new ArrayList<>());
+
+      Iterator<Row> rows = rowSet.iterator();
+      if (!rows.hasNext()) {
+        return succeededFuture(summary);
+      }
+
+      Row row = rows.next();
+      OffsetDateTime oldestOpenDate = row.getOffsetDateTime("oldest_open_date");
+
+      try {
+        return succeededFuture(summary
+          .withOpenCount(row.getInteger("open_count"))
+          .withTotalOwed(new MonetaryValue(new BigDecimal(row.getString("total_owed")))
+            .toDouble())
+          .withOldestOpenDate(oldestOpenDate == null ? null : Date.from(oldestOpenDate.toInstant()))
+          .withOwners(Arrays.asList(ObjectMapperTool.getMapper()
+            .readValue(row.getValue("owners").toString(), OwnerBalance[].class))));
+      } catch (IOException e) {
+        return failedFuture(e);
+      }
+    });
+  }
+}
@@ -0,0 +1,104 @@
+package org.folio.rest.service;
+
+import static io.vertx.core.Future.succeededFuture;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.folio.rest.client.InventoryClient;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.Item;
+import org.folio.util.UuidUtil;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+/**
+ * Sets holdings record ID and instance ID of accounts from their items. Accounts that
+ * already have both, or have no item, are left as they are. Every item and holdings record
+ * is requested once and joined to the accounts by ID.
+ */
+public class AccountEnrichmentService {
+  private final InventoryClient inventoryClient;
+
+  public AccountEnrichmentService(Vertx vertx, Map<String, String> okapiHeaders) {
+    this.inventoryClient = new InventoryClient(vertx, okapiHeaders);
+  }
+
+  public Future<Void> setAdditionalFields(List<Account> accounts) {
+    if (accounts == null) {
+      return succeededFuture();
+    }
+
+    List<Account> accountsToEnrich = accounts.stream()
+      .filter(AccountEnrichmentService::needsEnrichment)
+      .collect(toList());
+
+    if (accountsToEnrich.isEmpty()) {
+      return succeededFuture();
+    }
+
+    return inventoryClient.getItemsById(distinctIds(accountsToEnrich, Account::getItemId))
+      .compose(items -> inventoryClient.getHoldingsById(
+        distinctIds(items.getItems(), Item::getHoldingsRecordId))
+        .map(holdings -> {
+          setAdditionalFields(accountsToEnrich, items.getItems(), holdings.getHoldingsRecords());
+          return null;
+        }));
+  }
+
+  /**
+   * Sets the fields from already fetched items and holdings records, accounts whose item
+   * or holdings record is not among them get empty values.
+   */
+  public static void setAdditionalFields(List<Account> accounts, Collection<Item> items,
+    Collection<HoldingsRecord> holdingsRecords) {
+
+    Map<String, Item> itemsById = mapById(items, Item::getId);
+    Map<String, HoldingsRecord> holdingsById = mapById(holdingsRecords, HoldingsRecord::getId);
+
+    for (Account account : accounts) {
+      Item item = itemsById.get(account.getItemId());
+      String holdingsRecordId = item == null ? null : item.getHoldingsRecordId();
+      HoldingsRecord holdingsRecord = holdingsRecordId == null
+        ? null : holdingsById.get(holdingsRecordId);
+
+      account.setHoldingsRecordId(holdingsRecordId == null ? "" : holdingsRecordId);
+      account.setInstanceId(holdingsRecord == null || holdingsRecord.getInstanceId() == null
+        ? "" : holdingsRecord.getInstanceId());
+    }
+  }
+
+  private static boolean needsEnrichment(Account account) {
+    boolean enriched = isNotBlank(account.getHoldingsRecordId())
+      && isNotBlank(account.getInstanceId());
+
+    return !enriched && UuidUtil.isUuid(account.getItemId());
+  }
+
+  private static <T> List<String> distinctIds(Collection<T> objects,
+    Function<T, String> idExtractor) {
+
+    return objects.stream()
+      .map(idExtractor)
+      .filter(UuidUtil::isUuid)
+      .distinct()
+      .collect(toList());
+  }
+
+  private static <T> Map<String, T> mapById(Collection<T> objects,
+    Function<T, String> idExtractor) {
+
+    return objects.stream()
+      .filter(object -> Objects.nonNull(idExtractor.apply(object)))
+      .collect(toMap(idExtractor, identity(), (first, second) -> first));
+  }
+}
@@ -1,48 +1,141 @@
 package org.folio.rest.service;
 
+import static java.util.Collections.singletonList;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
 import static org.folio.rest.domain.EventType.FEE_FINE_BALANCE_CHANGED;
 import static org.folio.rest.domain.EventType.LOAN_RELATED_FEE_FINE_CLOSED;
 import static org.folio.rest.domain.LoanRelatedFeeFineClosedEvent.forFeeFine;
+import static org.folio.rest.utils.AccountHelper.isClosedAndHasZeroRemainingAmount;
 import static org.folio.rest.utils.JsonHelper.write;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
+import org.apache.commons.lang3.StringUtils;
+import org.folio.rest.domain.OutboxEvent;
 import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.metrics.DatabaseCallCounter;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
+import org.folio.rest.repository.EventOutboxRepository;
+import org.folio.rest.tools.utils.TenantTool;
 import org.folio.util.UuidUtil;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
+/**
+ * Account events are saved to the event outbox and published by
+ * {@link EventOutboxRelayVerticle}, so that they are not lost when pub-sub is unavailable.
+ */
 public class AccountEventPublisher {
+  private static final String OKAPI_URL_HEADER = "x-okapi-url";
+
+  private final Vertx vertx;
+  private final Map<String, String> headers;
   private final EventPublisher eventPublisher;
+  private final EventOutboxRepository outboxRepository;
+  private int unrelayedEvents;
 
   public AccountEventPublisher(Context context, Map<String, String> headers) {
-    this(context.owner(), headers);
+    this(context, headers, new DatabaseCallCounter());
+  }
+
+  public AccountEventPublisher(Context context, Map<String, String> headers,
+    DatabaseCallCounter databaseCallCounter) {
+
+    this(context.owner(), headers, databaseCallCounter);
   }
 
-  private AccountEventPublisher(Vertx vertx, Map<String, String> headers) {
+  private AccountEventPublisher(Vertx vertx, Map<String, String> headers,
+    DatabaseCallCounter databaseCallCounter) {
+
+    this.vertx = vertx;
+    this.headers = headers;
     eventPublisher = new EventPublisher(vertx, headers);
+    outboxRepository = new EventOutboxRepository(
+      PostgresClient.getInstance(vertx, TenantTool.tenantId(headers)), databaseCallCounter);
+  }
+
+  /**
+   * Saves balance changed events, and loan related fee/fine closed events where applicable,
+   * within the transaction that updates the accounts. Call {@link #relaySavedEvents()} once
+   * the transaction is committed.
+   */
+  public Future<Void> saveAccountEvents(AsyncResult<SQLConnection> connection,
+    List<Account> accounts) {
+
+    List<OutboxEvent> events = new ArrayList<>();
+    accounts.forEach(account -> addAccountEvents(events, account));
+
+    return save(connection, events);
   }
 
-  public void publishAccountBalanceChangeEvent(Account account) {
-    final String payload = createBalanceChangedPayload(account);
+  /**
+   * Saves the balance changed event of a created account within the transaction that
+   * inserts it.
+   */
+  public Future<Void> saveBalanceChangedEvent(AsyncResult<SQLConnection> connection,
+    Account account) {
 
-    eventPublisher.publishEventAsynchronously(FEE_FINE_BALANCE_CHANGED, payload);
+    return save(connection, singletonList(createBalanceChangedEvent(account)));
   }
 
-  public void publishDeletedAccountBalanceChangeEvent(String accountId) {
+  /**
+   * Saves a balance changed event with zero balance within the transaction that deletes
+   * the account.
+   */
+  public Future<Void> saveDeletedAccountBalanceChangedEvent(
+    AsyncResult<SQLConnection> connection, String accountId) {
+
     final Account account = new Account()
       .withId(accountId)
       .withRemaining(0.0);
 
-    publishAccountBalanceChangeEvent(account);
+    return saveBalanceChangedEvent(connection, account);
   }
 
-  public CompletableFuture<Void> publishLoanRelatedFeeFineClosedEvent(Account feeFine) {
-    return eventPublisher.publishEvent(LOAN_RELATED_FEE_FINE_CLOSED,
-      forFeeFine(feeFine).toJsonString());
+  /**
+   * Asks the relay to publish events that have been saved to the outbox.
+   */
+  public void relaySavedEvents() {
+    if (unrelayedEvents > 0) {
+      EventOutboxRelayVerticle.requestRelay(vertx, headers, unrelayedEvents);
+      unrelayedEvents = 0;
+    }
+  }
+
+  private Future<Void> save(AsyncResult<SQLConnection> connection, List<OutboxEvent> events) {
+    return outboxRepository.save(connection, events)
+      .onSuccess(ignored -> unrelayedEvents += events.size());
+  }
+
+  private void addAccountEvents(List<OutboxEvent> events, Account account) {
+    events.add(createBalanceChangedEvent(account));
+
+    if (isFeeFineWithLoanClosed(account)) {
+      events.add(createOutboxEvent(account, eventPublisher.createEvent(
+        LOAN_RELATED_FEE_FINE_CLOSED, forFeeFine(account).toJsonString())));
+    }
+  }
+
+  private OutboxEvent createBalanceChangedEvent(Account account) {
+    return createOutboxEvent(account, eventPublisher.createEvent(
+      FEE_FINE_BALANCE_CHANGED, createBalanceChangedPayload(account)));
+  }
+
+  /**
+   * The event keeps the Okapi URL and token of this request, so that the relay can publish
+   * it on behalf of the user that changed the account, also after a restart.
+   */
+  private OutboxEvent createOutboxEvent(Account account, Event event) {
+    return new OutboxEvent(account.getId(), event, headers.get(OKAPI_URL_HEADER),
+      headers.get(OKAPI_HEADER_TOKEN));
   }
 
   private String createBalanceChangedPayload(Account account) {
@@ -57,4 +150,9 @@ public class AccountEventPublisher {
 
     return payload.toString();
   }
+
+  private static boolean isFeeFineWithLoanClosed(Account feeFine) {
+    return StringUtils.isNotBlank(feeFine.getLoanId())
+      && isClosedAndHasZeroRemainingAmount(feeFine);
+  }
 }
@@ -1,88 +1,181 @@
 package org.folio.rest.service;
 
 import static io.vertx.core.Future.succeededFuture;
-import static java.util.concurrent.CompletableFuture.completedFuture;
-import static org.folio.HttpStatus.HTTP_NO_CONTENT;
-import static org.folio.rest.jaxrs.resource.Accounts.PutAccountsByAccountIdResponse;
-import static org.folio.rest.jaxrs.resource.Accounts.PutAccountsByAccountIdResponse.respond500WithTextPlain;
-import static org.folio.rest.persist.PgUtil.put;
-import static org.folio.rest.utils.AccountHelper.isClosedAndHasZeroRemainingAmount;
+import static java.util.Collections.singletonList;
+import static org.folio.rest.tools.utils.TenantTool.tenantId;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.UUID;
+import java.util.function.Function;
 import javax.ws.rs.core.Response;
-import org.apache.commons.lang3.StringUtils;
 import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.jaxrs.resource.Accounts.DeleteAccountsByAccountIdResponse;
+import org.folio.rest.jaxrs.resource.Accounts.PostAccountsResponse;
+import org.folio.rest.jaxrs.resource.Accounts.PutAccountsByAccountIdResponse;
+import org.folio.rest.metrics.DatabaseCallCounter;
+import org.folio.rest.persist.PgExceptionUtil;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
 import org.folio.rest.repository.AccountRepository;
+import org.folio.rest.repository.FeeFineActionRepository;
+import org.folio.rest.tracing.RequestTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class AccountUpdateService {
   private static final Logger log = LoggerFactory.getLogger(AccountUpdateService.class);
-  private static final String ACCOUNTS_TABLE = "accounts";
+  private static final String RECORD_NOT_FOUND = "Record Not Found";
 
+  private final PostgresClient pgClient;
   private final AccountRepository accountRepository;
+  private final FeeFineActionRepository feeFineActionRepository;
   private final AccountEventPublisher eventPublisher;
-  private final Map<String, String> okapiHeaders;
-  private final Context context;
+  private final DatabaseCallCounter databaseCallCounter;
 
   public AccountUpdateService(Map<String, String> okapiHeaders, Context context) {
-    this.okapiHeaders = okapiHeaders;
-    this.context = context;
-    this.accountRepository = new AccountRepository(context, okapiHeaders);
-    this.eventPublisher = new AccountEventPublisher(context, okapiHeaders);
+    this(okapiHeaders, context, new DatabaseCallCounter());
   }
 
-  public CompletableFuture<AsyncResult<Response>> updateAccount(String accountId, Account account) {
-    final CompletableFuture<AsyncResult<Response>> putCompleted = new CompletableFuture<>();
+  public AccountUpdateService(Map<String, String> okapiHeaders, Context context,
+    DatabaseCallCounter databaseCallCounter) {
 
-    put(ACCOUNTS_TABLE, account, accountId, okapiHeaders, context,
-      PutAccountsByAccountIdResponse.class, putCompleted::complete);
+    this(okapiHeaders, context, databaseCallCounter, RequestTrace.untraced());
+  }
 
-    return putCompleted.thenCompose(responseResult -> {
-      if (!isFeeFineUpdateSucceeded(responseResult)) {
-        return completedFuture(responseResult);
-      }
+  public AccountUpdateService(Map<String, String> okapiHeaders, Context context,
+    DatabaseCallCounter databaseCallCounter, RequestTrace requestTrace) {
 
-      eventPublisher.publishAccountBalanceChangeEvent(account);
+    this.databaseCallCounter = databaseCallCounter;
+    this.pgClient = PostgresClient.getInstance(context.owner(), tenantId(okapiHeaders));
+    this.accountRepository = new AccountRepository(pgClient, databaseCallCounter, requestTrace);
+    this.feeFineActionRepository = new FeeFineActionRepository(pgClient, databaseCallCounter,
+      requestTrace);
+    this.eventPublisher = new AccountEventPublisher(context, okapiHeaders, databaseCallCounter);
+  }
 
-      if (isFeeFineWithLoanClosed(account)) {
-        return eventPublisher.publishLoanRelatedFeeFineClosedEvent(account)
-          .thenApply(notUsed -> responseResult);
-      }
+  /**
+   * Inserts the account and saves its balance changed event to the outbox in a single
+   * transaction.
+   */
+  public Future<Response> createAccount(Account account) {
+    if (account.getId() == null) {
+      account.setId(UUID.randomUUID().toString());
+    }
+
+    return inTransaction(connection -> accountRepository.save(connection, account)
+      .compose(ignored -> eventPublisher.saveBalanceChangedEvent(connection, account)))
+      .onSuccess(ignored -> eventPublisher.relaySavedEvents())
+      .<Response>map(ignored -> PostAccountsResponse.respond201WithApplicationJson(account,
+        PostAccountsResponse.headersFor201().withLocation(account.getId())))
+      .otherwise(error -> writeFailed("create", account.getId(), error,
+        PostAccountsResponse::respond400WithTextPlain,
+        PostAccountsResponse::respond500WithTextPlain));
+  }
 
-      return completedFuture(responseResult);
-    }).exceptionally(error -> {
-      log.error("Cannot publish fee/fine closed event [feeFineId - {}, loanId - {}]" +
-        " error occurred {}", account.getLoanId(), account.getId(), error);
+  /**
+   * Replaces the account and saves its events to the outbox in a single transaction.
+   */
+  public Future<Response> updateAccount(String accountId, Account account) {
+    if (account.getId() == null) {
+      account.setId(accountId);
+    }
+
+    return inTransaction(connection -> accountRepository.replace(connection, accountId, account)
+      .compose(found -> found
+        ? eventPublisher.saveAccountEvents(connection, singletonList(account)).map(true)
+        : succeededFuture(false)))
+      .onSuccess(ignored -> eventPublisher.relaySavedEvents())
+      .<Response>map(found -> found
+        ? PutAccountsByAccountIdResponse.respond204()
+        : PutAccountsByAccountIdResponse.respond404WithTextPlain(RECORD_NOT_FOUND))
+      .otherwise(error -> writeFailed("update", accountId, error,
+        PutAccountsByAccountIdResponse::respond400WithTextPlain,
+        PutAccountsByAccountIdResponse::respond500WithTextPlain));
+  }
 
-      return succeededFuture(respond500WithTextPlain(error.getMessage()));
-    });
+  /**
+   * Deletes the account and saves a zero balance changed event to the outbox in a single
+   * transaction.
+   */
+  public Future<Response> deleteAccount(String accountId) {
+    return inTransaction(connection -> accountRepository.delete(connection, accountId)
+      .compose(found -> found
+        ? eventPublisher.saveDeletedAccountBalanceChangedEvent(connection, accountId).map(true)
+        : succeededFuture(false)))
+      .onSuccess(ignored -> eventPublisher.relaySavedEvents())
+      .<Response>map(found -> found
+        ? DeleteAccountsByAccountIdResponse.respond204()
+        : DeleteAccountsByAccountIdResponse.respond404WithTextPlain(RECORD_NOT_FOUND))
+      .otherwise(error -> writeFailed("delete", accountId, error,
+        DeleteAccountsByAccountIdResponse::respond400WithTextPlain,
+        DeleteAccountsByAccountIdResponse::respond500WithTextPlain));
+  }
+
+  /**
+   * Saves fee/fine actions, updates accounts and saves account events to the outbox in a
+   * single transaction, events are relayed to pub-sub after the transaction is committed.
+   * Accounts are updated only if their versions still match {@code accountVersions},
+   * otherwise the transaction is rolled back and the returned future fails with
+   * {@link org.folio.rest.exception.AccountUpdateConflictException}.
+   */
+  public Future<List<Account>> updateAccountsAndSaveActions(List<Account> accounts,
+    List<Feefineaction> feeFineActions, Map<String, Integer> accountVersions) {
+
+    return inTransaction(connection -> feeFineActionRepository.save(connection, feeFineActions)
+      .compose(ignored -> accountRepository.update(connection, accounts, accountVersions))
+      .compose(updatedAccounts -> eventPublisher.saveAccountEvents(connection, updatedAccounts)
+        .map(updatedAccounts)))
+      .onSuccess(ignored -> eventPublisher.relaySavedEvents());
   }
 
-  public Future<Account> updateAccount(Account account) {
-    return accountRepository.update(account)
-      .onSuccess(a -> {
-        eventPublisher.publishAccountBalanceChangeEvent(account);
-        if (isFeeFineWithLoanClosed(account)) {
-          eventPublisher.publishLoanRelatedFeeFineClosedEvent(account);
+  private <T> Future<T> inTransaction(
+    Function<AsyncResult<SQLConnection>, Future<T>> action) {
+
+    Promise<T> promise = Promise.promise();
+
+    databaseCallCounter.count();
+    pgClient.startTx(connection -> {
+      if (connection.failed()) {
+        promise.fail(connection.cause());
+        return;
+      }
+
+      action.apply(connection).onComplete(result -> {
+        if (result.succeeded()) {
+          databaseCallCounter.count();
+          pgClient.endTx(connection, commit -> {
+            if (commit.succeeded()) {
+              promise.complete(result.result());
+            } else {
+              promise.fail(commit.cause());
+            }
+          });
+        } else {
+          log.warn("Rolling back transaction: {}", result.cause().getMessage());
+          databaseCallCounter.count();
+          pgClient.rollbackTx(connection, rollback -> promise.fail(result.cause()));
         }
       });
-  }
+    });
 
-  private boolean isFeeFineWithLoanClosed(Account feeFine) {
-    return isFeeFineAssociatedToLoan(feeFine) && isClosedAndHasZeroRemainingAmount(feeFine);
+    return promise.future();
   }
 
-  private boolean isFeeFineAssociatedToLoan(Account feeFine) {
-    return StringUtils.isNotBlank(feeFine.getLoanId());
-  }
+  private static Response writeFailed(String operation, String accountId, Throwable error,
+    Function<String, Response> badRequest, Function<String, Response> serverError) {
+
+    String badRequestMessage = PgExceptionUtil.badRequestMessage(error);
+    if (badRequestMessage != null) {
+      return badRequest.apply(badRequestMessage);
+    }
 
-  private boolean isFeeFineUpdateSucceeded(AsyncResult<Response> responseAsyncResult) {
-    return responseAsyncResult.succeeded()
-      && responseAsyncResult.result().getStatus() == HTTP_NO_CONTENT.toInt();
+    log.error("Failed to {} fee/fine {}", operation, accountId, error);
+    return serverError.apply(error.getMessage());
   }
 }
@@ -0,0 +1,85 @@
+package org.folio.rest.service;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.cache.ExpiringCache;
+import org.folio.rest.client.ConfigurationClient;
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Resolves the currency of a tenant from its locale settings in mod-configuration, so that
+ * amounts are rounded to the fraction digits of that currency. Tenants without a currency in
+ * their locale settings use {@link MonetaryValue#getDefaultCurrency()}. Currencies are cached
+ * per tenant for {@code feesfines.cache.ttlSeconds}; when the settings cannot be read, the
+ * default currency is used for that request and nothing is cached.
+ */
+public class CurrencyService {
+  private static final Logger log = LoggerFactory.getLogger(CurrencyService.class);
+
+  private static final int MAX_SIZE = Integer.getInteger("feesfines.cache.maxSize", 1000);
+  private static final long TTL_SECONDS = Long.getLong("feesfines.cache.ttlSeconds", 300);
+  private static final String CURRENCY = "currency";
+
+  private static final ExpiringCache<String, Currency> currencies =
+    new ExpiringCache<>(MAX_SIZE, TTL_SECONDS, TimeUnit.SECONDS);
+
+  private final String tenantId;
+  private final ConfigurationClient configurationClient;
+
+  public CurrencyService(Vertx vertx, Map<String, String> okapiHeaders) {
+    this.tenantId = TenantTool.tenantId(okapiHeaders);
+    this.configurationClient = new ConfigurationClient(vertx, okapiHeaders);
+  }
+
+  public Future<Currency> getCurrency() {
+    Currency cached = currencies.get(tenantId);
+    if (cached != null) {
+      return succeededFuture(cached);
+    }
+
+    return configurationClient.getLocaleSettings()
+      .map(this::currencyOf)
+      .onSuccess(currency -> currencies.put(tenantId, currency))
+      .otherwise(error -> {
+        log.warn("Failed to get the currency of tenant {}, using {}: {}", tenantId,
+          MonetaryValue.getDefaultCurrency(), error.getMessage());
+        return MonetaryValue.getDefaultCurrency();
+      });
+  }
+
+  public static void invalidate(String tenantId) {
+    currencies.invalidate(tenantId);
+  }
+
+  private Currency currencyOf(JsonObject localeSettings) {
+    String currencyCode = localeSettings.getString(CURRENCY);
+    if (currencyCode == null) {
+      return MonetaryValue.getDefaultCurrency();
+    }
+
+    try {
+      Currency currency = Currency.getInstance(currencyCode);
+      // pseudo-currencies such as gold have no fraction digits to round to
+      if (currency.getDefaultFractionDigits() >= 0) {
+        return currency;
+      }
+    } catch (IllegalArgumentException e) {
+      // falls back to the default currency below
+    }
+
+    log.warn("Unsupported currency {} in locale settings of tenant {}, using {}", currencyCode,
+      tenantId, MonetaryValue.getDefaultCurrency());
+    return MonetaryValue.getDefaultCurrency();
+  }
+}
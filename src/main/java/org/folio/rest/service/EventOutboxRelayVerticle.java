@@ -0,0 +1,285 @@
+package org.folio.rest.service;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static java.util.Collections.singletonList;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+import static org.folio.rest.domain.EventType.FEE_FINE_BALANCE_CHANGED;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.domain.OutboxEvent;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.repository.EventOutboxRepository;
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Publishes events saved to the event outbox. Events are claimed in batches and published
+ * with a limited number of concurrent requests. Events of the same account are published
+ * one by one in the order they were saved; when publishing fails, the remaining events of
+ * that account are retried later with exponential backoff.
+ * <p>
+ * Saved events are buffered for a short window, or until a batch worth of events has been
+ * saved, before the tenant is drained. Consecutive balance changed events of one fee/fine
+ * are coalesced: only the latest balance is published, since it supersedes the earlier ones.
+ * <p>
+ * Each event is published with the Okapi URL and token of the request that saved it, which
+ * are stored in the outbox with the event. Events saved without them fall back to the
+ * headers of the latest request that saved events for the tenant. Tenants are drained when
+ * a request saves events and periodically after that, so events left over from a failed
+ * attempt are eventually published. On start, every tenant that has an outbox is drained,
+ * so events left over from before a restart do not wait for new requests of the tenant.
+ */
+public class EventOutboxRelayVerticle extends AbstractVerticle {
+  private static final Logger log = LoggerFactory.getLogger(EventOutboxRelayVerticle.class);
+
+  public static final String ADDRESS = "org.folio.feesfines.event-outbox.relay";
+
+  private static final String OKAPI_URL_HEADER = "x-okapi-url";
+  private static final String HEADERS = "headers";
+  private static final String SAVED_EVENTS = "savedEvents";
+  private static final int BATCH_SIZE = Integer.getInteger("feesfines.outbox.batchSize", 100);
+  private static final int CONCURRENCY = Integer.getInteger("feesfines.outbox.concurrency", 5);
+  private static final long FLUSH_WINDOW_MILLIS =
+    Long.getLong("feesfines.outbox.flushWindowMillis", 200);
+  private static final long POLL_INTERVAL_SECONDS =
+    Long.getLong("feesfines.outbox.pollIntervalSeconds", 30);
+  private static final long LEASE_SECONDS = Long.getLong("feesfines.outbox.leaseSeconds", 60);
+  private static final long BACKOFF_BASE_SECONDS =
+    Long.getLong("feesfines.outbox.backoffBaseSeconds", 1);
+  private static final long BACKOFF_MAX_SECONDS =
+    Long.getLong("feesfines.outbox.backoffMaxSeconds", 300);
+
+  private final Set<String> tenants = new HashSet<>();
+  private final Map<String, Map<String, String>> tenantHeaders = new HashMap<>();
+  private final Set<String> draining = new HashSet<>();
+  private final Set<String> drainRequested = new HashSet<>();
+  private final Map<String, Integer> bufferedEvents = new HashMap<>();
+  private final Map<String, Long> flushTimers = new HashMap<>();
+
+  public static void requestRelay(Vertx vertx, Map<String, String> okapiHeaders,
+    int savedEvents) {
+
+    JsonObject headers = new JsonObject()
+      .put(OKAPI_HEADER_TENANT, TenantTool.tenantId(okapiHeaders))
+      .put(OKAPI_URL_HEADER, okapiHeaders.get(OKAPI_URL_HEADER))
+      .put(OKAPI_HEADER_TOKEN, okapiHeaders.get(OKAPI_HEADER_TOKEN));
+
+    vertx.eventBus().send(ADDRESS, new JsonObject()
+      .put(HEADERS, headers)
+      .put(SAVED_EVENTS, savedEvents));
+  }
+
+  @Override
+  public void start() {
+    vertx.eventBus().<JsonObject>consumer(ADDRESS, message -> {
+      Map<String, String> headers = new HashMap<>();
+      message.body().getJsonObject(HEADERS)
+        .forEach(entry -> headers.put(entry.getKey(), (String) entry.getValue()));
+
+      String tenantId = headers.get(OKAPI_HEADER_TENANT);
+      tenants.add(tenantId);
+      tenantHeaders.put(tenantId, headers);
+      buffer(tenantId, message.body().getInteger(SAVED_EVENTS, 1));
+    });
+
+    vertx.setPeriodic(TimeUnit.SECONDS.toMillis(POLL_INTERVAL_SECONDS),
+      timerId -> new ArrayList<>(tenants).forEach(this::drain));
+
+    EventOutboxRepository.findTenants(PostgresClient.getInstance(vertx))
+      .onSuccess(found -> found.forEach(tenantId -> {
+        tenants.add(tenantId);
+        drain(tenantId);
+      }))
+      .onFailure(error -> log.error("Failed to find tenants with an event outbox", error));
+  }
+
+  private void buffer(String tenantId, int savedEvents) {
+    int buffered = bufferedEvents.merge(tenantId, savedEvents, Integer::sum);
+
+    if (buffered >= BATCH_SIZE) {
+      flush(tenantId);
+    } else if (!flushTimers.containsKey(tenantId)) {
+      flushTimers.put(tenantId, vertx.setTimer(FLUSH_WINDOW_MILLIS, timerId -> flush(tenantId)));
+    }
+  }
+
+  private void flush(String tenantId) {
+    Long timerId = flushTimers.remove(tenantId);
+    if (timerId != null) {
+      vertx.cancelTimer(timerId);
+    }
+    bufferedEvents.remove(tenantId);
+
+    drain(tenantId);
+  }
+
+  private void drain(String tenantId) {
+    if (!draining.add(tenantId)) {
+      drainRequested.add(tenantId);
+      return;
+    }
+    drainRequested.remove(tenantId);
+
+    EventOutboxRepository repository = new EventOutboxRepository(
+      PostgresClient.getInstance(vertx, tenantId));
+    Map<String, EventPublisher> publishers = new HashMap<>();
+
+    repository.claim(BATCH_SIZE, LEASE_SECONDS)
+      .compose(events -> publish(tenantId, events, repository, publishers)
+        .map(events.size()))
+      .onComplete(result -> {
+        draining.remove(tenantId);
+
+        if (result.failed()) {
+          log.error("Failed to relay events for tenant {}", result.cause(), tenantId);
+          return;
+        }
+
+        if (result.result() == BATCH_SIZE || drainRequested.remove(tenantId)) {
+          drain(tenantId);
+        }
+      });
+  }
+
+  private Future<Void> publish(String tenantId, List<OutboxEvent> events,
+    EventOutboxRepository repository, Map<String, EventPublisher> publishers) {
+
+    Map<String, List<OutboxEvent>> partitions = new LinkedHashMap<>();
+    events.forEach(event -> partitions
+      .computeIfAbsent(event.getPartitionKey(), key -> new ArrayList<>())
+      .add(event));
+
+    Iterator<List<OutboxEvent>> iterator = partitions.values().iterator();
+    List<Future> workers = new ArrayList<>();
+    for (int i = 0; i < Math.min(CONCURRENCY, partitions.size()); i++) {
+      workers.add(publishNextPartition(tenantId, iterator, repository, publishers));
+    }
+
+    return CompositeFuture.all(workers).mapEmpty();
+  }
+
+  private Future<Void> publishNextPartition(String tenantId,
+    Iterator<List<OutboxEvent>> partitions, EventOutboxRepository repository,
+    Map<String, EventPublisher> publishers) {
+
+    if (!partitions.hasNext()) {
+      return succeededFuture();
+    }
+
+    return publishPartition(tenantId, partitions.next(), 0, repository, publishers)
+      .compose(ignored -> publishNextPartition(tenantId, partitions, repository, publishers));
+  }
+
+  private Future<Void> publishPartition(String tenantId, List<OutboxEvent> events, int from,
+    EventOutboxRepository repository, Map<String, EventPublisher> publishers) {
+
+    if (from == events.size()) {
+      return succeededFuture();
+    }
+
+    // earlier balances of a run of balance changed events are superseded by the last one
+    int to = from;
+    while (to + 1 < events.size() && isBalanceChanged(events.get(to))
+      && isBalanceChanged(events.get(to + 1))) {
+      to++;
+    }
+
+    OutboxEvent event = events.get(to);
+    List<String> eventIds = new ArrayList<>();
+    events.subList(from, to + 1).forEach(published -> eventIds.add(published.getId()));
+    int next = to + 1;
+
+    Promise<Void> published = Promise.promise();
+    Map<String, String> headers = headersFor(tenantId, event);
+    if (headers == null) {
+      published.fail(new IllegalStateException(
+        "No Okapi headers to publish the event with for tenant " + tenantId));
+    } else {
+      publishers.computeIfAbsent(headers.get(OKAPI_URL_HEADER) + " " +
+        headers.get(OKAPI_HEADER_TOKEN), key -> new EventPublisher(vertx, headers))
+        .publishEvent(event.getEvent())
+        .whenComplete((notUsed, error) -> {
+          if (error == null) {
+            published.complete();
+          } else {
+            published.fail(error);
+          }
+        });
+    }
+
+    return published.future()
+      .compose(ignored -> repository.delete(eventIds))
+      .compose(ignored -> publishPartition(tenantId, events, next, repository, publishers))
+      .recover(error -> {
+        if (!published.future().succeeded()) {
+          // the remaining events of the account must not overtake the failed one
+          return reschedule(tenantId, events.subList(from, events.size()), event.getAttempts(),
+            error, repository);
+        }
+        return failedFuture(error);
+      });
+  }
+
+  private Future<Void> reschedule(String tenantId, List<OutboxEvent> events, int attempts,
+    Throwable error, EventOutboxRepository repository) {
+
+    long delaySeconds = backoffSeconds(attempts);
+    log.warn("Failed to publish event {} (attempt {}), retrying in {} seconds: {}",
+      events.get(0).getId(), attempts, delaySeconds, error.getMessage());
+
+    List<String> eventIds = new ArrayList<>();
+    events.forEach(event -> eventIds.add(event.getId()));
+
+    return repository.reschedule(eventIds, delaySeconds)
+      .onSuccess(ignored -> vertx.setTimer(TimeUnit.SECONDS.toMillis(delaySeconds),
+        timerId -> drain(tenantId)));
+  }
+
+  private Map<String, String> headersFor(String tenantId, OutboxEvent event) {
+    if (event.getOkapiUrl() == null) {
+      return tenantHeaders.get(tenantId);
+    }
+
+    Map<String, String> headers = new HashMap<>();
+    headers.put(OKAPI_HEADER_TENANT, tenantId);
+    headers.put(OKAPI_URL_HEADER, event.getOkapiUrl());
+    headers.put(OKAPI_HEADER_TOKEN, event.getOkapiToken());
+    return headers;
+  }
+
+  private static boolean isBalanceChanged(OutboxEvent event) {
+    return FEE_FINE_BALANCE_CHANGED.name().equals(event.getEvent().getEventType());
+  }
+
+  /**
+   * Exponential backoff with full jitter on the upper half, so that events of many accounts
+   * that failed together are not retried at the same moment.
+   */
+  private static long backoffSeconds(int attempts) {
+    int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+    long delay = Math.min(BACKOFF_MAX_SECONDS, BACKOFF_BASE_SECONDS << exponent);
+    long half = Math.max(delay / 2, 1);
+
+    return half + ThreadLocalRandom.current().nextLong(half + 1);
+  }
+}
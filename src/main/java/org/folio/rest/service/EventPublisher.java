@@ -3,8 +3,6 @@ package org.folio.rest.service;
 import static org.folio.rest.tools.utils.TenantTool.tenantId;
 
 import io.vertx.core.Vertx;
-import io.vertx.core.logging.Logger;
-import io.vertx.core.logging.LoggerFactory;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -15,7 +13,6 @@ import org.folio.rest.jaxrs.model.EventMetadata;
 import org.folio.util.pubsub.PubSubClientUtils;
 
 public class EventPublisher {
-  private final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
   private final FeeFinePubSubClient pubSubClient;
   private final String tenantId;
 
@@ -28,30 +25,11 @@ public class EventPublisher {
     return publishEvent(createEvent(type, payload));
   }
 
-  private CompletableFuture<Void> publishEvent(Event event) {
+  public CompletableFuture<Void> publishEvent(Event event) {
     return pubSubClient.publishEvent(event);
   }
 
-  public void publishEventAsynchronously(EventType type, String payload) {
-    publishEventAsynchronously(createEvent(type, payload));
-  }
-
-  private void publishEventAsynchronously(final Event event) {
-    publishEvent(event).whenComplete((noResult, error) -> {
-      final String id = event.getId();
-      final String type = event.getEventType();
-      final String payload = event.getEventPayload();
-
-      if (error == null) {
-        logger.info("Event {} published successfully: {}", type, id);
-      } else {
-        logger.error("Failed to publish event [id={}, type={}, payload={}]: cause {}",
-          id, type, payload, error);
-      }
-    });
-  }
-
-  private Event createEvent(EventType eventType, String payload) {
+  public Event createEvent(EventType eventType, String payload) {
     return new Event()
       .withId(UUID.randomUUID().toString())
       .withEventType(eventType.name())
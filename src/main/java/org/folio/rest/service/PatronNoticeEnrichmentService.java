@@ -0,0 +1,209 @@
+package org.folio.rest.service;
+
+import static io.vertx.core.Future.succeededFuture;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.folio.util.UuidUtil.isUuid;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.folio.rest.cache.ReferenceDataCache;
+import org.folio.rest.client.InventoryClient;
+import org.folio.rest.client.UsersClient;
+import org.folio.rest.domain.FeeFineNoticeContext;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Campus;
+import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.Instance;
+import org.folio.rest.jaxrs.model.Institution;
+import org.folio.rest.jaxrs.model.Item;
+import org.folio.rest.jaxrs.model.Library;
+import org.folio.rest.jaxrs.model.Location;
+import org.folio.rest.jaxrs.model.User;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.util.UuidUtil;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+
+/**
+ * Loads users, inventory records and locations for a group of notice contexts. Every distinct
+ * record is requested once per group, items and holdings are fetched with one query each and
+ * independent lookups run concurrently. Locations and location units are served from
+ * {@link ReferenceDataCache}.
+ */
+public class PatronNoticeEnrichmentService {
+  private final String tenantId;
+  private final UsersClient usersClient;
+  private final InventoryClient inventoryClient;
+
+  public PatronNoticeEnrichmentService(Vertx vertx, Map<String, String> okapiHeaders) {
+    tenantId = TenantTool.tenantId(okapiHeaders);
+    usersClient = new UsersClient(vertx, okapiHeaders);
+    inventoryClient = new InventoryClient(vertx, okapiHeaders);
+  }
+
+  /**
+   * Returns one future per context, in the same order. A failed lookup only fails the
+   * contexts that depend on it.
+   */
+  public List<Future<FeeFineNoticeContext>> enrich(List<FeeFineNoticeContext> contexts) {
+    Lookups lookups = new Lookups();
+
+    idsOf(contexts, FeeFineNoticeContext::getUserId)
+      .forEach(lookups::user);
+    idsOf(contexts, ctx -> ctx.getAccount().getInstanceId())
+      .forEach(lookups::instance);
+
+    Future<Map<String, Item>> items = inventoryClient.getItemsById(
+      new ArrayList<>(idsOf(contexts, ctx -> ctx.getAccount().getItemId())))
+      .map(result -> mapById(result.getItems(), Item::getId));
+
+    Set<String> accountHoldingsIds = idsOf(contexts, ctx -> ctx.getAccount().getHoldingsRecordId());
+    Future<Map<String, HoldingsRecord>> accountHoldings = fetchHoldings(accountHoldingsIds);
+
+    // holdings referenced only through items can be requested once the items are known
+    Future<Map<String, HoldingsRecord>> holdings = CompositeFuture.all(items, accountHoldings)
+      .compose(ignored -> {
+        Set<String> itemHoldingsIds = idsOf(items.result().values(), Item::getHoldingsRecordId);
+        itemHoldingsIds.removeAll(accountHoldingsIds);
+
+        return fetchHoldings(itemHoldingsIds)
+          .map(itemHoldings -> {
+            Map<String, HoldingsRecord> allHoldings = new HashMap<>(accountHoldings.result());
+            allHoldings.putAll(itemHoldings);
+            return allHoldings;
+          });
+      });
+
+    return contexts.stream()
+      .map(ctx -> enrich(ctx, lookups, items, holdings))
+      .collect(toList());
+  }
+
+  private Future<FeeFineNoticeContext> enrich(FeeFineNoticeContext context, Lookups lookups,
+    Future<Map<String, Item>> items, Future<Map<String, HoldingsRecord>> holdings) {
+
+    final Account account = context.getAccount();
+    final Future<User> user = lookups.user(context.getUserId());
+
+    final Future<Item> item = isUuid(account.getItemId())
+      ? items.map(itemsById -> itemsById.get(account.getItemId()))
+      : succeededFuture(null);
+
+    final Future<HoldingsRecord> holdingsRecord = item.compose(loadedItem -> {
+      String holdingsRecordId = Optional.of(account)
+        .map(Account::getHoldingsRecordId)
+        .filter(UuidUtil::isUuid)
+        .orElseGet(() -> Optional.ofNullable(loadedItem)
+          .map(Item::getHoldingsRecordId)
+          .orElse(null));
+
+      return isUuid(holdingsRecordId)
+        ? holdings.map(holdingsById -> holdingsById.get(holdingsRecordId))
+        : succeededFuture(null);
+    });
+
+    final Future<Instance> instance = holdingsRecord.compose(loadedHoldingsRecord -> {
+      String instanceId = Optional.of(account)
+        .map(Account::getInstanceId)
+        .filter(UuidUtil::isUuid)
+        .orElseGet(() -> Optional.ofNullable(loadedHoldingsRecord)
+          .map(HoldingsRecord::getInstanceId)
+          .orElse(null));
+
+      return isUuid(instanceId) ? lookups.instance(instanceId) : succeededFuture(null);
+    });
+
+    final Future<Location> location = item.compose(loadedItem ->
+      loadedItem != null && isUuid(loadedItem.getEffectiveLocationId())
+        ? lookups.location(loadedItem.getEffectiveLocationId())
+        : succeededFuture(null));
+
+    return CompositeFuture.all(user, item, holdingsRecord, instance, location)
+      .map(ignored -> context
+        .withUser(user.result())
+        .withItem(item.result())
+        .withHoldingsRecord(holdingsRecord.result())
+        .withInstance(instance.result())
+        .withEffectiveLocation(location.result()));
+  }
+
+  private Future<Map<String, HoldingsRecord>> fetchHoldings(Set<String> holdingsRecordIds) {
+    return inventoryClient.getHoldingsById(new ArrayList<>(holdingsRecordIds))
+      .map(result -> mapById(result.getHoldingsRecords(), HoldingsRecord::getId));
+  }
+
+  private Future<Location> fetchLocation(String locationId) {
+    return cached(Location.class, locationId, inventoryClient::getLocationById)
+      .compose(location -> {
+        Future<Institution> institution = fetchLocationUnit(location.getInstitutionId(),
+          Institution.class, inventoryClient::getInstitutionById);
+        Future<Library> library = fetchLocationUnit(location.getLibraryId(),
+          Library.class, inventoryClient::getLibraryById);
+        Future<Campus> campus = fetchLocationUnit(location.getCampusId(),
+          Campus.class, inventoryClient::getCampusById);
+
+        return CompositeFuture.all(institution, library, campus)
+          .map(ignored -> location
+            .withInstitution(institution.result())
+            .withLibrary(library.result())
+            .withCampus(campus.result()));
+      });
+  }
+
+  private <T> Future<T> fetchLocationUnit(String id, Class<T> type,
+    Function<String, Future<T>> loader) {
+
+    return isUuid(id) ? cached(type, id, loader) : succeededFuture(null);
+  }
+
+  private <T> Future<T> cached(Class<T> type, String id, Function<String, Future<T>> loader) {
+    return ReferenceDataCache.get(tenantId, type, id, () -> loader.apply(id));
+  }
+
+  private static <T> Set<String> idsOf(Collection<T> objects, Function<T, String> idExtractor) {
+    return objects.stream()
+      .filter(Objects::nonNull)
+      .map(idExtractor)
+      .filter(UuidUtil::isUuid)
+      .collect(toSet());
+  }
+
+  private static <T> Map<String, T> mapById(List<T> objects, Function<T, String> idExtractor) {
+    return objects.stream()
+      .collect(toMap(idExtractor, identity(), (first, second) -> first));
+  }
+
+  /**
+   * Single-flight lookups: concurrent requests for the same ID share one future.
+   */
+  private class Lookups {
+    private final Map<String, Future<User>> users = new HashMap<>();
+    private final Map<String, Future<Instance>> instances = new HashMap<>();
+    private final Map<String, Future<Location>> locations = new HashMap<>();
+
+    private Future<User> user(String id) {
+      return users.computeIfAbsent(id, usersClient::fetchUserById);
+    }
+
+    private Future<Instance> instance(String id) {
+      return instances.computeIfAbsent(id, inventoryClient::getInstanceById);
+    }
+
+    private Future<Location> location(String id) {
+      return locations.computeIfAbsent(id, PatronNoticeEnrichmentService.this::fetchLocation);
+    }
+  }
+}
@@ -0,0 +1,390 @@
+package org.folio.rest.service;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.folio.rest.exception.FailedValidationException;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.rest.tracing.SpanContext;
+import org.folio.rest.tracing.Tracing;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Sends patron notices from a per-tenant in-memory queue. Requests enqueue the fee/fine
+ * actions to notify about and return, the queue is drained with a limited number of notices
+ * in progress and at a limited rate, so that a bulk action does not flood users, inventory and
+ * patron notice modules. Notices that fail are retried with a growing delay, notices that can
+ * not be sent (no template, for instance) are not. When the queue is full, new notices are
+ * dropped and logged.
+ * <p>
+ * As with the event outbox relay, the Okapi headers of the latest request that enqueued
+ * notices for a tenant are used to send them. The trace context of the request is kept with
+ * each notice, notices that are sent together continue the trace of the first of them.
+ */
+public class PatronNoticeQueueVerticle extends AbstractVerticle {
+  private static final Logger log = LoggerFactory.getLogger(PatronNoticeQueueVerticle.class);
+
+  public static final String ADDRESS = "org.folio.feesfines.patron-notice.queue";
+
+  private static final String OKAPI_URL_HEADER = "x-okapi-url";
+  private static final String HEADERS = "headers";
+  private static final String ACTIONS = "actions";
+  private static final String AGGREGATED = "aggregated";
+  private static final int CAPACITY = Integer.getInteger("feesfines.notices.queueCapacity", 10_000);
+  private static final int CONCURRENCY = Integer.getInteger("feesfines.notices.concurrency", 10);
+  private static final double RATE_PER_SECOND =
+    Double.parseDouble(System.getProperty("feesfines.notices.ratePerSecond", "50"));
+  private static final int MAX_ATTEMPTS = Integer.getInteger("feesfines.notices.maxAttempts", 3);
+  private static final long RETRY_DELAY_SECONDS =
+    Long.getLong("feesfines.notices.retryDelaySeconds", 5);
+
+  private static final Map<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+  private final Map<String, TenantQueue> queues = new HashMap<>();
+  private final NoticeSender sender;
+  private final int capacity;
+  private final int concurrency;
+  private final double ratePerSecond;
+  private final int maxAttempts;
+  private final long retryDelayMillis;
+
+  public PatronNoticeQueueVerticle() {
+    this((vertx, headers, actions, aggregated) -> new PatronNoticeService(vertx, headers)
+      .deliverPatronNotices(actions, aggregated), CAPACITY, CONCURRENCY, RATE_PER_SECOND,
+      MAX_ATTEMPTS, TimeUnit.SECONDS.toMillis(RETRY_DELAY_SECONDS));
+  }
+
+  PatronNoticeQueueVerticle(NoticeSender sender, int capacity, int concurrency,
+    double ratePerSecond, int maxAttempts, long retryDelayMillis) {
+
+    this.sender = sender;
+    this.capacity = capacity;
+    this.concurrency = concurrency;
+    this.ratePerSecond = ratePerSecond;
+    this.maxAttempts = maxAttempts;
+    this.retryDelayMillis = retryDelayMillis;
+  }
+
+  /**
+   * Queues a notice for each action, or a single entry for all actions when the notices may be
+   * aggregated, so that they are sent together and can be grouped by patron where the owner of
+   * the fee/fine aggregates bulk notices.
+   */
+  public static void enqueue(Vertx vertx, Map<String, String> okapiHeaders,
+    List<Feefineaction> actions, boolean aggregated) {
+
+    if (actions.isEmpty()) {
+      return;
+    }
+
+    JsonObject headers = new JsonObject()
+      .put(OKAPI_HEADER_TENANT, TenantTool.tenantId(okapiHeaders))
+      .put(OKAPI_URL_HEADER, okapiHeaders.get(OKAPI_URL_HEADER))
+      .put(OKAPI_HEADER_TOKEN, okapiHeaders.get(OKAPI_HEADER_TOKEN));
+
+    JsonArray serializedActions = new JsonArray();
+    actions.forEach(action -> serializedActions.add(JsonObject.mapFrom(action)));
+
+    vertx.eventBus().send(ADDRESS, new JsonObject()
+      .put(HEADERS, headers)
+      .put(ACTIONS, serializedActions)
+      .put(AGGREGATED, aggregated)
+      .put(Tracing.TRACEPARENT, Tracing.extract(okapiHeaders)
+        .map(SpanContext::toTraceparent)
+        .orElse(null)));
+  }
+
+  public static Map<String, Metrics> getMetrics() {
+    return Collections.unmodifiableMap(metrics);
+  }
+
+  @Override
+  public void start() {
+    vertx.eventBus().<JsonObject>consumer(ADDRESS, message -> {
+      Map<String, String> headers = new HashMap<>();
+      message.body().getJsonObject(HEADERS)
+        .forEach(entry -> headers.put(entry.getKey(), (String) entry.getValue()));
+
+      String tenantId = headers.get(OKAPI_HEADER_TENANT);
+      TenantQueue queue = queues.computeIfAbsent(tenantId, TenantQueue::new);
+      queue.headers = headers;
+
+      List<Feefineaction> actions = message.body().getJsonArray(ACTIONS).stream()
+        .map(action -> ((JsonObject) action).mapTo(Feefineaction.class))
+        .collect(toList());
+
+      String traceparent = message.body().getString(Tracing.TRACEPARENT);
+
+      if (message.body().getBoolean(AGGREGATED, false)) {
+        queue.offer(new QueuedNotice(actions, true, traceparent));
+      } else {
+        actions.forEach(action -> queue.offer(
+          new QueuedNotice(singletonList(action), false, traceparent)));
+      }
+
+      drain(queue);
+    });
+  }
+
+  private void drain(TenantQueue queue) {
+    queue.refillTokens();
+
+    int available = Math.min(concurrency - queue.inFlight,
+      Math.min((int) queue.tokens, queue.notices.size()));
+
+    if (available <= 0) {
+      if (!queue.notices.isEmpty() && queue.inFlight < concurrency) {
+        scheduleDrain(queue);
+      }
+      queue.updateMetrics();
+      return;
+    }
+
+    List<QueuedNotice> batch = new ArrayList<>(available);
+    for (int i = 0; i < available; i++) {
+      batch.add(queue.notices.poll());
+    }
+    queue.inFlight += batch.size();
+    queue.tokens -= batch.size();
+    queue.updateMetrics();
+
+    // individual notices are sent together so that their lookups are shared
+    List<QueuedNotice> individual = new ArrayList<>();
+    batch.forEach(notice -> {
+      if (notice.aggregated) {
+        deliver(queue, singletonList(notice), true);
+      } else {
+        individual.add(notice);
+      }
+    });
+
+    if (!individual.isEmpty()) {
+      deliver(queue, individual, false);
+    }
+  }
+
+  private void deliver(TenantQueue queue, List<QueuedNotice> notices, boolean aggregated) {
+    List<Feefineaction> actions = new ArrayList<>();
+    notices.forEach(notice -> actions.addAll(notice.actions));
+
+    Map<String, String> headers = queue.headers;
+    String traceparent = notices.get(0).traceparent;
+    if (traceparent != null) {
+      headers = new HashMap<>(headers);
+      headers.put(Tracing.TRACEPARENT, traceparent);
+    }
+
+    List<Future<Void>> results = sender.send(vertx, headers, actions, aggregated);
+
+    int from = 0;
+    for (QueuedNotice notice : notices) {
+      List<Future<Void>> noticeResults = results.subList(from, from + notice.actions.size());
+      from += notice.actions.size();
+
+      CompositeFuture.join(new ArrayList<>(noticeResults)).onComplete(ignored -> {
+        queue.inFlight--;
+
+        List<Feefineaction> failedActions = new ArrayList<>();
+        Throwable cause = null;
+        for (int i = 0; i < noticeResults.size(); i++) {
+          Future<Void> result = noticeResults.get(i);
+          if (result.failed() && !(result.cause() instanceof FailedValidationException)) {
+            failedActions.add(notice.actions.get(i));
+            cause = result.cause();
+          }
+        }
+
+        if (failedActions.isEmpty()) {
+          // notices that can not be sent fail validation and are not retried
+          boolean sent = noticeResults.stream().anyMatch(Future::succeeded);
+          (sent ? queue.metrics.sent : queue.metrics.failed).incrementAndGet();
+        } else {
+          retryOrGiveUp(queue, notice.withActions(failedActions), cause);
+        }
+        drain(queue);
+      });
+    }
+  }
+
+  private void retryOrGiveUp(TenantQueue queue, QueuedNotice notice, Throwable cause) {
+    notice.attempts++;
+
+    if (notice.attempts >= maxAttempts) {
+      queue.metrics.failed.incrementAndGet();
+      log.error("Giving up on patron notice after {} attempts", cause, notice.attempts);
+      return;
+    }
+
+    log.warn("Failed to send patron notice (attempt {}), retrying: {}", notice.attempts,
+      cause.getMessage());
+
+    queue.metrics.retried.incrementAndGet();
+    queue.metrics.retryPending.incrementAndGet();
+    vertx.setTimer(retryDelayMillis * notice.attempts, timerId -> {
+      queue.metrics.retryPending.decrementAndGet();
+      queue.notices.addFirst(notice);
+      drain(queue);
+    });
+  }
+
+  private void scheduleDrain(TenantQueue queue) {
+    if (queue.drainScheduled) {
+      return;
+    }
+    queue.drainScheduled = true;
+
+    long delay = Math.max(1, (long) Math.ceil((1 - queue.tokens) * 1000 / ratePerSecond));
+    vertx.setTimer(delay, timerId -> {
+      queue.drainScheduled = false;
+      drain(queue);
+    });
+  }
+
+  /**
+   * Sends the notices of the given actions, the returned list has a result for each action.
+   */
+  interface NoticeSender {
+    List<Future<Void>> send(Vertx vertx, Map<String, String> headers,
+      List<Feefineaction> actions, boolean aggregated);
+  }
+
+  private static class QueuedNotice {
+    private final List<Feefineaction> actions;
+    private final boolean aggregated;
+    private final String traceparent;
+    private final long enqueuedAt;
+    private int attempts;
+
+    private QueuedNotice(List<Feefineaction> actions, boolean aggregated, String traceparent) {
+      this(actions, aggregated, traceparent, System.currentTimeMillis(), 0);
+    }
+
+    private QueuedNotice(List<Feefineaction> actions, boolean aggregated, String traceparent,
+      long enqueuedAt, int attempts) {
+
+      this.actions = actions;
+      this.aggregated = aggregated;
+      this.traceparent = traceparent;
+      this.enqueuedAt = enqueuedAt;
+      this.attempts = attempts;
+    }
+
+    private QueuedNotice withActions(List<Feefineaction> actions) {
+      return new QueuedNotice(actions, aggregated, traceparent, enqueuedAt, attempts);
+    }
+  }
+
+  private class TenantQueue {
+    private final Deque<QueuedNotice> notices = new ArrayDeque<>();
+    private final Metrics metrics;
+    private Map<String, String> headers;
+    private int inFlight;
+    private double tokens = Math.max(ratePerSecond, 1);
+    private long refilledAt = System.nanoTime();
+    private boolean drainScheduled;
+
+    private TenantQueue(String tenantId) {
+      metrics = PatronNoticeQueueVerticle.metrics.computeIfAbsent(tenantId, id -> new Metrics());
+    }
+
+    private void offer(QueuedNotice notice) {
+      if (notices.size() >= capacity) {
+        metrics.dropped.incrementAndGet();
+        log.error("Patron notice queue is full, notice for actions {} is dropped",
+          notice.actions.stream().map(Feefineaction::getId).collect(toList()));
+        return;
+      }
+      notices.addLast(notice);
+    }
+
+    /**
+     * Token bucket that allows bursts of up to one second worth of notices.
+     */
+    private void refillTokens() {
+      long now = System.nanoTime();
+      tokens = Math.min(Math.max(ratePerSecond, 1),
+        tokens + (now - refilledAt) * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+      refilledAt = now;
+    }
+
+    private void updateMetrics() {
+      metrics.depth.set(notices.size());
+      metrics.inFlight.set(inFlight);
+      QueuedNotice oldest = notices.peekFirst();
+      metrics.oldestEnqueuedAt.set(oldest == null ? 0 : oldest.enqueuedAt);
+    }
+  }
+
+  /**
+   * Queue metrics of one tenant, updated by the queue and safe to read from any thread.
+   */
+  public static final class Metrics {
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger retryPending = new AtomicInteger();
+    private final AtomicLong oldestEnqueuedAt = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public int getDepth() {
+      return depth.get();
+    }
+
+    public int getInFlight() {
+      return inFlight.get();
+    }
+
+    public int getRetryPending() {
+      return retryPending.get();
+    }
+
+    /**
+     * Time the oldest queued notice has been waiting, 0 when the queue is empty.
+     */
+    public long getOldestAgeMillis() {
+      long enqueuedAt = oldestEnqueuedAt.get();
+      return enqueuedAt == 0 ? 0 : System.currentTimeMillis() - enqueuedAt;
+    }
+
+    public long getSent() {
+      return sent.get();
+    }
+
+    public long getFailed() {
+      return failed.get();
+    }
+
+    public long getRetried() {
+      return retried.get();
+    }
+
+    public long getDropped() {
+      return dropped.get();
+    }
+  }
+}
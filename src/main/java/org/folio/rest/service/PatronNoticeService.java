@@ -2,26 +2,28 @@ package org.folio.rest.service;
 
 import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.folio.rest.utils.FeeFineActionHelper.isAction;
 import static org.folio.rest.utils.FeeFineActionHelper.isCharge;
-import static org.folio.util.UuidUtil.isUuid;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import org.folio.rest.client.InventoryClient;
 import org.folio.rest.client.PatronNoticeClient;
-import org.folio.rest.client.UsersClient;
 import org.folio.rest.domain.FeeFineNoticeContext;
-import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.exception.FailedValidationException;
 import org.folio.rest.jaxrs.model.Feefineaction;
-import org.folio.rest.jaxrs.model.HoldingsRecord;
-import org.folio.rest.jaxrs.model.Item;
-import org.folio.rest.jaxrs.model.Location;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.jaxrs.model.PatronNotice;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.repository.AccountRepository;
@@ -29,20 +31,24 @@ import org.folio.rest.repository.FeeFineActionRepository;
 import org.folio.rest.repository.FeeFineRepository;
 import org.folio.rest.repository.OwnerRepository;
 import org.folio.rest.utils.PatronNoticeBuilder;
-import org.folio.util.UuidUtil;
 
 public class PatronNoticeService {
   private static final Logger logger = LoggerFactory.getLogger(PatronNoticeService.class);
+  private static final boolean AGGREGATE_BULK_NOTICES =
+    Boolean.getBoolean("feesfines.notices.aggregateBulkNotices");
 
+  private final Vertx vertx;
+  private final Map<String, String> okapiHeaders;
   private final FeeFineRepository feeFineRepository;
   private final OwnerRepository ownerRepository;
   private final AccountRepository accountRepository;
   private final FeeFineActionRepository feeFineActionRepository;
   private final PatronNoticeClient patronNoticeClient;
-  private final UsersClient usersClient;
-  private final InventoryClient inventoryClient;
+  private final PatronNoticeEnrichmentService enrichmentService;
 
   public PatronNoticeService(Vertx vertx, Map<String, String> okapiHeaders) {
+    this.vertx = vertx;
+    this.okapiHeaders = okapiHeaders;
     PostgresClient pgClient = PgUtil.postgresClient(vertx.getOrCreateContext(), okapiHeaders);
 
     feeFineRepository = new FeeFineRepository(pgClient);
@@ -51,149 +57,185 @@ public class PatronNoticeService {
     feeFineActionRepository = new FeeFineActionRepository(pgClient);
 
     patronNoticeClient = new PatronNoticeClient(vertx, okapiHeaders);
-    usersClient = new UsersClient(vertx, okapiHeaders);
-    inventoryClient = new InventoryClient(vertx, okapiHeaders);
+    enrichmentService = new PatronNoticeEnrichmentService(vertx, okapiHeaders);
   }
 
   public void sendPatronNotice(Feefineaction action) {
-    createContext(action)
-      .compose(this::loadChargeIfMissing)
-      .compose(accountRepository::loadAccount)
-      .compose(feeFineRepository::loadFeefine)
-      .compose(ownerRepository::loadOwner)
-      .compose(this::refuseWhenEmptyTemplateId)
-      .compose(this::fetchUser)
-      .compose(this::fetchItem)
-      .compose(this::fetchHolding)
-      .compose(this::fetchInstance)
-      .compose(this::fetchLocation)
-      .map(PatronNoticeBuilder::buildNotice)
-      .compose(patronNoticeClient::postPatronNotice)
-      .onComplete(this::handleSendPatronNoticeResult);
+    sendPatronNotices(singletonList(action));
   }
 
-  private Future<FeeFineNoticeContext> createContext(Feefineaction action) {
-    FeeFineNoticeContext context = new FeeFineNoticeContext();
-
-    if (isAction(action)) {
-      context = context.withAction(action);
-    }
-    else if (isCharge(action)) {
-      context = context.withCharge(action);
-    }
-
-    return succeededFuture(context);
+  /**
+   * Queues one notice per action, see {@link PatronNoticeQueueVerticle}.
+   */
+  public void sendPatronNotices(List<Feefineaction> actions) {
+    PatronNoticeQueueVerticle.enqueue(vertx, okapiHeaders, actions, false);
   }
 
-  private Future<FeeFineNoticeContext> loadChargeIfMissing(FeeFineNoticeContext context) {
-    final Feefineaction action = context.getAction();
-
-    if (context.getCharge() != null || action == null) {
-      return succeededFuture(context);
-    }
-
-    return feeFineActionRepository.findChargeForAccount(action.getAccountId())
-      .map(context::withCharge);
+  /**
+   * Queues the notices of a bulk action. For owners that aggregate bulk notices, the patron gets
+   * one notice listing all fees/fines that share a template instead of one notice per fee/fine.
+   */
+  public void sendBulkPatronNotices(List<Feefineaction> actions) {
+    PatronNoticeQueueVerticle.enqueue(vertx, okapiHeaders, actions, true);
   }
 
-  private Future<FeeFineNoticeContext> fetchUser(FeeFineNoticeContext context) {
-    return usersClient.fetchUserById(context.getUserId())
-      .map(context::withUser);
+  public List<Future<Void>> deliverPatronNotices(List<Feefineaction> actions) {
+    return deliverPatronNotices(actions, false);
   }
 
-  private Future<FeeFineNoticeContext> fetchItem(FeeFineNoticeContext context) {
-    final String itemId = context.getAccount().getItemId();
-
-    if (!isUuid(itemId)) {
-      return succeededFuture(context);
-    }
-
-    return inventoryClient.getItemById(itemId)
-      .map(context::withItem);
+  /**
+   * Sends the notices for the actions and returns the outcome for every action, in the same
+   * order. Users, inventory records and locations are loaded once for all actions, so a bulk
+   * action does not repeat the same lookups for every fee/fine. When aggregated, actions with
+   * the same patron and template are sent as one notice if their owner aggregates bulk notices,
+   * see {@link #aggregatesBulkNotices(FeeFineNoticeContext)}.
+   */
+  public List<Future<Void>> deliverPatronNotices(List<Feefineaction> actions,
+    boolean aggregated) {
+
+    List<Future<FeeFineNoticeContext>> contexts = actions.stream()
+      .map(this::loadContext)
+      .collect(toList());
+
+    List<Promise<Void>> results = actions.stream()
+      .map(action -> Promise.<Void>promise())
+      .collect(toList());
+
+    CompositeFuture.join(new ArrayList<>(contexts))
+      .onComplete(ignored -> {
+        List<FeeFineNoticeContext> loadedContexts = new ArrayList<>();
+        List<Promise<Void>> loadedResults = new ArrayList<>();
+
+        for (int i = 0; i < contexts.size(); i++) {
+          Future<FeeFineNoticeContext> context = contexts.get(i);
+          if (context.succeeded()) {
+            loadedContexts.add(context.result());
+            loadedResults.add(results.get(i));
+          } else {
+            results.get(i).handle(context.mapEmpty());
+          }
+        }
+
+        List<Future<FeeFineNoticeContext>> enrichedContexts =
+          enrichmentService.enrich(loadedContexts);
+
+        List<FeeFineNoticeContext> aggregatedContexts = new ArrayList<>();
+        List<Future<FeeFineNoticeContext>> aggregatedEnrichedContexts = new ArrayList<>();
+        List<Promise<Void>> aggregatedResults = new ArrayList<>();
+
+        for (int i = 0; i < enrichedContexts.size(); i++) {
+          if (aggregated && aggregatesBulkNotices(loadedContexts.get(i))) {
+            aggregatedContexts.add(loadedContexts.get(i));
+            aggregatedEnrichedContexts.add(enrichedContexts.get(i));
+            aggregatedResults.add(loadedResults.get(i));
+            continue;
+          }
+
+          enrichedContexts.get(i)
+            .map(PatronNoticeBuilder::buildNotice)
+            .compose(patronNoticeClient::postPatronNotice)
+            .onComplete(loadedResults.get(i));
+        }
+
+        sendAggregatedNotices(aggregatedContexts, aggregatedEnrichedContexts, aggregatedResults);
+      });
+
+    return results.stream()
+      .map(Promise::future)
+      .map(result -> result.onComplete(this::handleSendPatronNoticeResult))
+      .collect(toList());
   }
 
-  private Future<FeeFineNoticeContext> fetchHolding(FeeFineNoticeContext context) {
-    final String holdingsRecordId = Optional.ofNullable(context.getAccount())
-      .map(Account::getHoldingsRecordId)
-      .filter(UuidUtil::isUuid)
-      .orElseGet(() -> Optional.ofNullable(context.getItem())
-        .map(Item::getHoldingsRecordId)
-        .orElse(null));
+  /**
+   * Owners decide whether their fees/fines are aggregated, owners that do not say so follow
+   * {@code -Dfeesfines.notices.aggregateBulkNotices} (off by default).
+   */
+  private static boolean aggregatesBulkNotices(FeeFineNoticeContext context) {
+    Owner owner = context.getOwner();
 
-    if (!isUuid(holdingsRecordId)) {
-      return succeededFuture(context);
-    }
-
-    return inventoryClient.getHoldingById(holdingsRecordId)
-      .map(context::withHoldingsRecord);
+    return owner == null || owner.getAggregateBulkNotices() == null
+      ? AGGREGATE_BULK_NOTICES
+      : owner.getAggregateBulkNotices();
   }
 
-  private Future<FeeFineNoticeContext> fetchInstance(FeeFineNoticeContext context) {
-    final String instanceId = Optional.ofNullable(context.getAccount())
-      .map(Account::getInstanceId)
-      .filter(UuidUtil::isUuid)
-      .orElseGet(() -> Optional.ofNullable(context.getHoldingsRecord())
-        .map(HoldingsRecord::getInstanceId)
-        .orElse(null));
+  private void sendAggregatedNotices(List<FeeFineNoticeContext> contexts,
+    List<Future<FeeFineNoticeContext>> enrichedContexts, List<Promise<Void>> results) {
 
-    if (!isUuid(instanceId)) {
-      return succeededFuture(context);
+    Map<String, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < contexts.size(); i++) {
+      FeeFineNoticeContext context = contexts.get(i);
+      groups.computeIfAbsent(context.getUserId() + "/" + context.getTemplateId(),
+        key -> new ArrayList<>()).add(i);
     }
 
-    return inventoryClient.getInstanceById(instanceId)
-      .map(context::withInstance);
+    groups.values().forEach(group -> {
+      List<Future> groupContexts = new ArrayList<>();
+      group.forEach(i -> groupContexts.add(enrichedContexts.get(i)));
+
+      CompositeFuture.join(groupContexts).onComplete(ignored -> {
+        List<FeeFineNoticeContext> enriched = new ArrayList<>();
+        List<Promise<Void>> enrichedResults = new ArrayList<>();
+
+        for (int i : group) {
+          Future<FeeFineNoticeContext> context = enrichedContexts.get(i);
+          if (context.succeeded()) {
+            enriched.add(context.result());
+            enrichedResults.add(results.get(i));
+          } else {
+            results.get(i).handle(context.mapEmpty());
+          }
+        }
+
+        if (enriched.isEmpty()) {
+          return;
+        }
+
+        PatronNotice notice = enriched.size() == 1
+          ? PatronNoticeBuilder.buildNotice(enriched.get(0))
+          : PatronNoticeBuilder.buildAggregatedNotice(enriched);
+
+        patronNoticeClient.postPatronNotice(notice)
+          .onComplete(post -> enrichedResults.forEach(result -> result.handle(post)));
+      });
+    });
   }
 
-  private Future<FeeFineNoticeContext> fetchLocation(FeeFineNoticeContext context) {
-    final Item item = context.getItem();
-
-    if (item == null || !isUuid(item.getEffectiveLocationId())) {
-      return succeededFuture(context);
-    }
-
-    return inventoryClient.getLocationById(item.getEffectiveLocationId())
-      .compose(this::fetchInstitution)
-      .compose(this::fetchLibrary)
-      .compose(this::fetchCampus)
-      .map(context::withEffectiveLocation);
+  private Future<FeeFineNoticeContext> loadContext(Feefineaction action) {
+    return createContext(action)
+      .compose(this::loadChargeIfMissing)
+      .compose(accountRepository::loadAccount)
+      .compose(feeFineRepository::loadFeefine)
+      .compose(ownerRepository::loadOwner)
+      .compose(this::refuseWhenEmptyTemplateId);
   }
 
-  private Future<Location> fetchInstitution(Location location) {
-    final String institutionId = location.getInstitutionId();
+  private Future<FeeFineNoticeContext> createContext(Feefineaction action) {
+    FeeFineNoticeContext context = new FeeFineNoticeContext();
 
-    if (!isUuid(institutionId)) {
-      return succeededFuture(location);
+    if (isAction(action)) {
+      context = context.withAction(action);
     }
-
-    return inventoryClient.getInstitutionById(institutionId)
-      .map(location::withInstitution);
-  }
-
-  private Future<Location> fetchLibrary(Location location) {
-    final String libraryId = location.getLibraryId();
-
-    if (!isUuid(libraryId)) {
-      return succeededFuture(location);
+    else if (isCharge(action)) {
+      context = context.withCharge(action);
     }
 
-    return inventoryClient.getLibraryById(libraryId)
-      .map(location::withLibrary);
+    return succeededFuture(context);
   }
 
-  private Future<Location> fetchCampus(Location location) {
-    final String campusId = location.getCampusId();
+  private Future<FeeFineNoticeContext> loadChargeIfMissing(FeeFineNoticeContext context) {
+    final Feefineaction action = context.getAction();
 
-    if (!isUuid(campusId)) {
-      return succeededFuture(location);
+    if (context.getCharge() != null || action == null) {
+      return succeededFuture(context);
     }
 
-    return inventoryClient.getCampusById(campusId)
-      .map(location::withCampus);
+    return feeFineActionRepository.findChargeForAccount(action.getAccountId())
+      .map(context::withCharge);
   }
 
   private Future<FeeFineNoticeContext> refuseWhenEmptyTemplateId(FeeFineNoticeContext ctx) {
     return ctx.getTemplateId() == null ?
-      failedFuture("Template not set") : succeededFuture(ctx);
+      failedFuture(new FailedValidationException("Template not set")) : succeededFuture(ctx);
   }
 
   private void handleSendPatronNoticeResult(AsyncResult<Void> post) {
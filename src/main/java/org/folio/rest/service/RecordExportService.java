@@ -0,0 +1,180 @@
+package org.folio.rest.service;
+
+import static java.lang.String.format;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.rest.domain.ExportFormat;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Writes the records of a table to an HTTP response, one line per record. Records are read
+ * in chunks ordered by ID, each chunk starting after the last ID of the previous one, so
+ * reading stays fast however far the export has got and memory use is bounded by the chunk
+ * size. The next chunk is only read once the response has accepted the previous one.
+ */
+public class RecordExportService {
+  private static final Logger log = LoggerFactory.getLogger(RecordExportService.class);
+
+  private static final int CHUNK_SIZE = Integer.getInteger("feesfines.export.chunkSize", 1000);
+  private static final String MIN_ID = "00000000-0000-0000-0000-000000000000";
+  private static final String SELECT_CHUNK_SQL = "SELECT id, jsonb FROM %s.%s " +
+    "WHERE id > $1::uuid AND (%s) ORDER BY id LIMIT $2";
+
+  private final PostgresClient pgClient;
+  private final String table;
+  private final List<String> csvColumns;
+
+  /**
+   * @param csvColumns dot separated paths of the record fields that make up the CSV columns
+   */
+  public RecordExportService(Map<String, String> okapiHeaders, Context context, String table,
+    List<String> csvColumns) {
+
+    this.pgClient = PostgresClient.getInstance(context.owner(),
+      TenantTool.tenantId(okapiHeaders));
+    this.table = table;
+    this.csvColumns = csvColumns;
+  }
+
+  /**
+   * Builds the SQL condition for the query, fails if the query is not valid CQL.
+   */
+  public String toSqlCondition(String query) throws FieldException, QueryValidationException {
+    if (isBlank(query)) {
+      return "true";
+    }
+    return new CQL2PgJSON(table + ".jsonb").toSql(query).getWhere();
+  }
+
+  public void export(String sqlCondition, String afterId, ExportFormat exportFormat,
+    HttpServerResponse response) {
+
+    String sql = format(SELECT_CHUNK_SQL,
+      PostgresClient.convertToPsqlStandard(pgClient.getTenantId()), table, sqlCondition);
+
+    exportChunk(sql, isBlank(afterId) ? MIN_ID : afterId, exportFormat, response);
+  }
+
+  /**
+   * Sends the status line and headers with the first chunk, so that the export can still
+   * fail with an error response when the first chunk cannot be read.
+   */
+  private void startExport(ExportFormat exportFormat, HttpServerResponse response) {
+    response.setChunked(true)
+      .setStatusCode(200)
+      .putHeader(CONTENT_TYPE, exportFormat.getContentType());
+
+    if (exportFormat == ExportFormat.CSV) {
+      response.write(csvLine(csvColumns));
+    }
+  }
+
+  private void exportChunk(String sql, String afterId, ExportFormat exportFormat,
+    HttpServerResponse response) {
+
+    Promise<RowSet<Row>> chunk = Promise.promise();
+    pgClient.select(sql, Tuple.of(afterId, CHUNK_SIZE), chunk);
+
+    chunk.future().onComplete(result -> {
+      if (response.closed()) {
+        log.info("Export of {} stopped after ID {}, the client has gone", table, afterId);
+        return;
+      }
+
+      if (result.failed()) {
+        log.error("Export of {} failed after ID {}", result.cause(), table, afterId);
+        if (response.headWritten()) {
+          // the status line has been sent already, closing the connection is the only way to
+          // tell the client that the response is incomplete
+          response.close();
+        } else {
+          response.setStatusCode(500)
+            .putHeader(CONTENT_TYPE, "text/plain")
+            .end(result.cause().getMessage());
+        }
+        return;
+      }
+
+      if (!response.headWritten()) {
+        startExport(exportFormat, response);
+      }
+
+      String lastId = afterId;
+      int count = 0;
+      for (Row row : result.result()) {
+        response.write(toLine(row.getValue("jsonb").toString(), exportFormat));
+        lastId = row.getValue("id").toString();
+        count++;
+      }
+
+      if (count < CHUNK_SIZE) {
+        response.end();
+        return;
+      }
+
+      String nextAfterId = lastId;
+      if (response.writeQueueFull()) {
+        response.drainHandler(ignored -> exportChunk(sql, nextAfterId, exportFormat, response));
+      } else {
+        exportChunk(sql, nextAfterId, exportFormat, response);
+      }
+    });
+  }
+
+  private String toLine(String json, ExportFormat exportFormat) {
+    if (exportFormat == ExportFormat.CSV) {
+      JsonObject record = new JsonObject(json);
+      return csvLine(csvColumns.stream()
+        .map(path -> valueAt(record, path))
+        .collect(Collectors.toList()));
+    }
+    return json + "\n";
+  }
+
+  private static String valueAt(JsonObject record, String path) {
+    Object value = record;
+    for (String field : path.split("\\.")) {
+      if (!(value instanceof JsonObject)) {
+        return null;
+      }
+      value = ((JsonObject) value).getValue(field);
+    }
+    return value == null || value instanceof JsonObject ? null : value.toString();
+  }
+
+  private static String csvLine(List<String> values) {
+    return values.stream()
+      .map(RecordExportService::csvValue)
+      .collect(Collectors.joining(",", "", "\r\n"));
+  }
+
+  private static String csvValue(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.contains(",") || value.contains("\"") || value.contains("\n")
+      || value.contains("\r")) {
+      return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    return value;
+  }
+}
@@ -1,6 +1,9 @@
 package org.folio.rest.service.action;
 
+import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.apache.commons.lang3.BooleanUtils.isTrue;
 import static org.folio.rest.domain.FeeFineStatus.CLOSED;
 import static org.folio.rest.persist.PostgresClient.getInstance;
@@ -10,14 +13,18 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 import org.folio.rest.domain.Action;
 import org.folio.rest.domain.ActionRequest;
 import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.exception.AccountUpdateConflictException;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.DefaultActionRequest;
 import org.folio.rest.jaxrs.model.Feefineaction;
 import org.folio.rest.jaxrs.model.Status;
+import org.folio.rest.metrics.DatabaseCallCounter;
+import org.folio.rest.metrics.RequestMetrics;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.repository.AccountRepository;
 import org.folio.rest.repository.FeeFineActionRepository;
@@ -25,43 +32,95 @@ import org.folio.rest.service.AccountUpdateService;
 import org.folio.rest.service.PatronNoticeService;
 import org.folio.rest.service.action.context.ActionContext;
 import org.folio.rest.service.action.validation.ActionValidationService;
+import org.folio.rest.tracing.RequestTrace;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
 
 public abstract class ActionService {
+  private static final Logger logger = LoggerFactory.getLogger(ActionService.class);
+  private static final int MAX_ATTEMPTS = 3;
+
   protected final Action action;
   protected final AccountRepository accountRepository;
   protected final FeeFineActionRepository feeFineActionRepository;
   protected final AccountUpdateService accountUpdateService;
   protected final ActionValidationService validationService;
   protected final PatronNoticeService patronNoticeService;
-
-  public ActionService(Action action, ActionValidationService validationService,
+  private final RequestMetrics requestMetrics;
+  private final RequestTrace requestTrace;
+
+  /**
+   * Services are created per request, the validation service is created with the counter of
+   * database calls of the request. Patron notices are queued with the trace of the request so
+   * that sending them continues it.
+   */
+  public ActionService(Action action,
+    Function<DatabaseCallCounter, ActionValidationService> validationServiceFactory,
     Map<String, String> headers, Context context) {
 
     PostgresClient postgresClient = getInstance(context.owner(), tenantId(headers));
 
     this.action = action;
-    this.accountRepository = new AccountRepository(postgresClient);
-    this.feeFineActionRepository = new FeeFineActionRepository(postgresClient);
-    this.accountUpdateService = new AccountUpdateService(headers, context);
-    this.patronNoticeService = new PatronNoticeService(context.owner(), headers);
-    this.validationService = validationService;
+    this.requestMetrics = new RequestMetrics(tenantId(headers), action, false);
+    this.requestTrace = new RequestTrace(action.name(), headers);
+    requestTrace.getRoot().setAttribute("action", action.name());
+
+    DatabaseCallCounter databaseCallCounter = requestMetrics.getDatabaseCallCounter();
+    this.accountRepository = new AccountRepository(postgresClient, databaseCallCounter,
+      requestTrace);
+    this.feeFineActionRepository = new FeeFineActionRepository(postgresClient,
+      databaseCallCounter, requestTrace);
+    this.accountUpdateService = new AccountUpdateService(headers, context, databaseCallCounter,
+      requestTrace);
+    this.patronNoticeService = new PatronNoticeService(context.owner(),
+      requestTrace.inject(headers));
+    this.validationService = validationServiceFactory.apply(databaseCallCounter);
   }
 
   public Future<ActionContext> performAction(String accountId, ActionRequest request) {
+    requestTrace.getRoot().setAttribute("accountId", accountId);
+
+    return requestMetrics.measure(() -> requestTrace.trace(() ->
+      performAction(accountId, request, 1)
+        .compose(stage("sendPatronNotice", this::sendPatronNotice))));
+  }
+
+  private Future<ActionContext> performAction(String accountId, ActionRequest request,
+    int attempt) {
+
     return succeededFuture(new ActionContext(accountId, request))
-      .compose(this::findAccount)
-      .compose(this::validateAction)
-      .compose(this::createFeeFineActions)
-      .compose(this::updateAccount)
-      .compose(this::sendPatronNotice);
+      .compose(stage("findAccount", this::findAccount))
+      .compose(stage("validate", this::validateAction))
+      .compose(stage("createFeeFineActions", this::createFeeFineActions))
+      .compose(stage("updateAccount", this::updateAccount))
+      .recover(error -> {
+        if (error instanceof AccountUpdateConflictException && attempt < MAX_ATTEMPTS) {
+          logger.warn("Fee/fine {} was modified concurrently, retrying {} (attempt {})",
+            accountId, action.name(), attempt + 1);
+          return performAction(accountId, request, attempt + 1);
+        }
+        return failedFuture(error);
+      });
+  }
+
+  /**
+   * Times a stage of the pipeline and traces it as a span of the request.
+   */
+  private <T> Function<T, Future<T>> stage(String name, Function<T, Future<T>> step) {
+    return requestMetrics.stage(name, requestTrace.stage(name, step));
   }
 
   private Future<ActionContext> findAccount(ActionContext context) {
-    return accountRepository.getAccountById(context.getAccountId())
-      .map(context::withAccount);
+    final String accountId = context.getAccountId();
+
+    return accountRepository.getVersionedAccountsByIdWithNulls(singletonList(accountId))
+      .map(accounts -> accounts.get(accountId))
+      .map(versionedAccount -> versionedAccount == null ? context : context
+        .withAccount(versionedAccount.getAccount())
+        .withAccountVersion(versionedAccount.getVersion()));
   }
 
   protected Future<ActionContext> validateAction(ActionContext context) {
@@ -69,7 +128,8 @@ public abstract class ActionService {
     final String amount = request.getAmount();
 
     return validationService.validate(context.getAccountId(), context.getAccount(), amount)
-      .map(result -> context.withRequestedAmount(new MonetaryValue(amount)));
+      .compose(result -> validationService.getCurrency())
+      .map(currency -> context.withRequestedAmount(new MonetaryValue(amount, currency)));
   }
 
   protected Future<ActionContext> createFeeFineActions(ActionContext context) {
@@ -77,8 +137,8 @@ public abstract class ActionService {
     final Account account = context.getAccount();
     final MonetaryValue requestedAmount = context.getRequestedAmount();
 
-    MonetaryValue remainingAmountAfterAction = new MonetaryValue(account.getRemaining())
-      .subtract(requestedAmount);
+    MonetaryValue remainingAmountAfterAction = new MonetaryValue(account.getRemaining(),
+      requestedAmount.getCurrency()).subtract(requestedAmount);
 
     boolean isFullAction = remainingAmountAfterAction.isZero();
     String actionType = isFullAction ? action.getFullResult() : action.getPartialResult();
@@ -99,11 +159,10 @@ public abstract class ActionService {
       .withDateAction(new Date())
       .withAccountId(context.getAccountId());
 
-    return feeFineActionRepository.save(feeFineAction)
-      .map(context
-        .withFeeFineAction(feeFineAction)
-        .withShouldCloseAccount(isFullAction)
-      );
+    return succeededFuture(context
+      .withFeeFineAction(feeFineAction)
+      .withShouldCloseAccount(isFullAction)
+    );
   }
 
   private Future<ActionContext> updateAccount(ActionContext context) {
@@ -126,14 +185,14 @@ public abstract class ActionService {
       account.setRemaining(lastFeeFineAction.getBalance());
     }
 
-    return accountUpdateService.updateAccount(account)
+    return accountUpdateService.updateAccountsAndSaveActions(singletonList(account),
+      feeFineActions, singletonMap(account.getId(), context.getAccountVersion()))
       .map(context);
   }
 
   private Future<ActionContext> sendPatronNotice(ActionContext context) {
     if (isTrue(context.getRequest().getNotifyPatron())) {
-      context.getFeeFineActions()
-        .forEach(patronNoticeService::sendPatronNotice);
+      patronNoticeService.sendPatronNotices(context.getFeeFineActionsToNotify());
     }
     return succeededFuture(context);
   }
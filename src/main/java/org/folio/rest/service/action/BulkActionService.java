@@ -1,9 +1,10 @@
 package org.folio.rest.service.action;
 
-import static io.vertx.core.CompositeFuture.all;
+import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.lang3.BooleanUtils.isTrue;
 import static org.folio.rest.domain.FeeFineStatus.CLOSED;
 import static org.folio.rest.persist.PostgresClient.getInstance;
@@ -11,71 +12,172 @@ import static org.folio.rest.tools.utils.TenantTool.tenantId;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 import org.folio.rest.domain.Action;
 import org.folio.rest.domain.BulkActionRequest;
 import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.exception.AccountUpdateConflictException;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.DefaultBulkActionRequest;
 import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.metrics.DatabaseCallCounter;
+import org.folio.rest.metrics.RequestMetrics;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.repository.AccountRepository;
 import org.folio.rest.repository.FeeFineActionRepository;
+import org.folio.rest.repository.OwnerRepository;
 import org.folio.rest.service.AccountUpdateService;
 import org.folio.rest.service.PatronNoticeService;
 import org.folio.rest.service.action.context.BulkActionContext;
 import org.folio.rest.service.action.validation.ActionValidationService;
+import org.folio.rest.tracing.RequestTrace;
+import org.folio.rest.utils.amountsplitter.AmountSplitterStrategies;
 import org.folio.rest.utils.amountsplitter.BulkActionAmountSplitterStrategy;
-import org.folio.rest.utils.amountsplitter.SplitEvenlyRecursively;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
 
 public abstract class BulkActionService {
+  private static final Logger logger = LoggerFactory.getLogger(BulkActionService.class);
+  private static final int MAX_ATTEMPTS = 3;
+
   protected final Action action;
   protected final AccountRepository accountRepository;
   protected final FeeFineActionRepository feeFineActionRepository;
+  protected final OwnerRepository ownerRepository;
   protected final AccountUpdateService accountUpdateService;
   protected final ActionValidationService validationService;
   protected final PatronNoticeService patronNoticeService;
-  protected final BulkActionAmountSplitterStrategy amountSplitterStrategy;
+  private final RequestMetrics requestMetrics;
+  private final RequestTrace requestTrace;
 
-  public BulkActionService(Action action, ActionValidationService validationService,
+  public BulkActionService(Action action,
+    Function<DatabaseCallCounter, ActionValidationService> validationServiceFactory,
     Map<String, String> headers, Context context) {
 
     PostgresClient postgresClient = getInstance(context.owner(), tenantId(headers));
 
     this.action = action;
-    this.accountRepository = new AccountRepository(postgresClient);
-    this.feeFineActionRepository = new FeeFineActionRepository(postgresClient);
-    this.accountUpdateService = new AccountUpdateService(headers, context);
-    this.patronNoticeService = new PatronNoticeService(context.owner(), headers);
-    this.validationService = validationService;
-    this.amountSplitterStrategy = new SplitEvenlyRecursively();
+    this.requestMetrics = new RequestMetrics(tenantId(headers), action, true);
+    this.requestTrace = new RequestTrace("BULK_" + action.name(), headers);
+    requestTrace.getRoot().setAttribute("action", action.name());
+
+    DatabaseCallCounter databaseCallCounter = requestMetrics.getDatabaseCallCounter();
+    this.accountRepository = new AccountRepository(postgresClient, databaseCallCounter,
+      requestTrace);
+    this.feeFineActionRepository = new FeeFineActionRepository(postgresClient,
+      databaseCallCounter, requestTrace);
+    this.ownerRepository = new OwnerRepository(postgresClient, databaseCallCounter);
+    this.accountUpdateService = new AccountUpdateService(headers, context, databaseCallCounter,
+      requestTrace);
+    this.patronNoticeService = new PatronNoticeService(context.owner(),
+      requestTrace.inject(headers));
+    this.validationService = validationServiceFactory.apply(databaseCallCounter);
   }
 
   public Future<BulkActionContext> performAction(BulkActionRequest request) {
+    requestMetrics.recordBulkSize(request.getAccountIds().size());
+    requestTrace.getRoot().setAttribute("accounts", request.getAccountIds().size());
+
+    return requestMetrics.measure(() -> requestTrace.trace(() -> performAction(request, 1)
+      .compose(stage("sendPatronNotice", this::sendPatronNotice))));
+  }
+
+  private Future<BulkActionContext> performAction(BulkActionRequest request, int attempt) {
     return succeededFuture(new BulkActionContext(request))
-      .compose(this::findAccounts)
-      .compose(this::validateAction)
-      .compose(this::createFeeFineActions)
-      .compose(this::updateAccounts)
-      .compose(this::sendPatronNotice);
+      .compose(stage("findAccounts", this::findAccounts))
+      .compose(stage("validate", this::validateAction))
+      .compose(stage("selectAllocationStrategy", this::selectAmountSplitterStrategy))
+      .compose(stage("createFeeFineActions", this::createFeeFineActions))
+      .compose(stage("updateAccounts", this::updateAccountsAndSaveActions))
+      .recover(error -> {
+        if (error instanceof AccountUpdateConflictException && attempt < MAX_ATTEMPTS) {
+          logger.warn("Fees/fines {} were modified concurrently, retrying bulk {} (attempt {})",
+            request.getAccountIds(), action.name(), attempt + 1);
+          return performAction(request, attempt + 1);
+        }
+        return failedFuture(error);
+      });
+  }
+
+  /**
+   * Times a stage of the pipeline and traces it as a span of the request.
+   */
+  private <T> Function<T, Future<T>> stage(String name, Function<T, Future<T>> step) {
+    return requestMetrics.stage(name, requestTrace.stage(name, step));
   }
 
   private Future<BulkActionContext> findAccounts(BulkActionContext context) {
-    return accountRepository.getAccountsByIdWithNulls(context.getRequest().getAccountIds())
-      .map(context::withAccounts);
+    return accountRepository.getVersionedAccountsByIdWithNulls(context.getRequest().getAccountIds())
+      .map(versionedAccounts -> {
+        Map<String, Account> accounts = new HashMap<>();
+        Map<String, Integer> versions = new HashMap<>();
+
+        versionedAccounts.forEach((accountId, versionedAccount) -> {
+          accounts.put(accountId, versionedAccount == null ? null : versionedAccount.getAccount());
+          if (versionedAccount != null) {
+            versions.put(accountId, versionedAccount.getVersion());
+          }
+        });
+
+        return context.withAccounts(accounts)
+          .withAccountVersions(versions);
+      });
   }
 
   protected Future<BulkActionContext> validateAction(BulkActionContext context) {
     String requestedAmount = ((DefaultBulkActionRequest) context.getRequest()).getAmount();
 
     return validationService.validate(context.getAccounts(), requestedAmount)
-      .map(ignored -> context.withRequestedAmount(new MonetaryValue(requestedAmount)));
+      .compose(ignored -> validationService.getCurrency())
+      .map(currency -> context.withRequestedAmount(new MonetaryValue(requestedAmount, currency)));
+  }
+
+  /**
+   * Uses the allocation strategy of the request, otherwise the default strategy of the owner
+   * when all fees/fines belong to the same one.
+   */
+  private Future<BulkActionContext> selectAmountSplitterStrategy(BulkActionContext context) {
+    DefaultBulkActionRequest.AllocationStrategy requestedStrategy =
+      ((DefaultBulkActionRequest) context.getRequest()).getAllocationStrategy();
+
+    if (requestedStrategy != null) {
+      return succeededFuture(context.withAmountSplitterStrategy(
+        amountSplitterStrategy(requestedStrategy.value())));
+    }
+
+    Set<String> ownerIds = context.getAccounts().values().stream()
+      .map(Account::getOwnerId)
+      .collect(toSet());
+
+    if (ownerIds.size() != 1 || ownerIds.contains(null)) {
+      return succeededFuture(
+        context.withAmountSplitterStrategy(AmountSplitterStrategies.getDefault()));
+    }
+
+    return ownerRepository.getById(ownerIds.iterator().next())
+      .map(owner -> context.withAmountSplitterStrategy(Optional.ofNullable(owner)
+        .map(Owner::getDefaultAllocationStrategy)
+        .map(strategy -> amountSplitterStrategy(strategy.value()))
+        .orElseGet(AmountSplitterStrategies::getDefault)));
+  }
+
+  /**
+   * Request and owner schemas only accept the names of registered strategies.
+   */
+  private static BulkActionAmountSplitterStrategy amountSplitterStrategy(String name) {
+    return AmountSplitterStrategies.get(name)
+      .orElseThrow(() -> new IllegalStateException("No allocation strategy " + name));
   }
 
   protected Future<BulkActionContext> createFeeFineActions(BulkActionContext context) {
@@ -84,26 +186,31 @@ public abstract class BulkActionService {
     final MonetaryValue requestedAmount = context.getRequestedAmount();
 
     Map<String, MonetaryValue> actionableAmounts = accounts.stream()
-      .collect(toMap(Account::getId, account -> new MonetaryValue(account.getRemaining())));
+      .collect(toMap(Account::getId, account -> new MonetaryValue(account.getRemaining(),
+        requestedAmount.getCurrency())));
 
-    Map<String, MonetaryValue> distributedAmounts = amountSplitterStrategy.split(
+    Map<String, MonetaryValue> distributedAmounts = context.getAmountSplitterStrategy().split(
       requestedAmount, accounts, actionableAmounts);
 
-    List<Feefineaction> feeFineActions = accounts.stream()
-      .map(account -> createFeeFineActionAndUpdateAccount(
-        account, distributedAmounts.get(account.getId()), request))
+    // strategies that cover accounts one by one may leave some of them out
+    Map<String, Account> accountsActedOn = accounts.stream()
+      .filter(account -> distributedAmounts.containsKey(account.getId()))
+      .collect(toMap(Account::getId, account -> account));
+
+    List<Feefineaction> feeFineActions = accountsActedOn.values().stream()
+      .map(account -> createFeeFineActionAndUpdateAccount(account,
+        actionableAmounts.get(account.getId()), distributedAmounts.get(account.getId()), request))
       .collect(toList());
 
-    return all(feeFineActions.stream().map(feeFineActionRepository::save).collect(toList()))
-      .map(context.withFeeFineActions(feeFineActions));
+    return succeededFuture(context.withAccounts(accountsActedOn)
+      .withFeeFineActions(feeFineActions));
   }
 
-  protected Feefineaction createFeeFineActionAndUpdateAccount(Account account, MonetaryValue amount,
-    BulkActionRequest request) {
+  protected Feefineaction createFeeFineActionAndUpdateAccount(Account account,
+    MonetaryValue remainingAmount, MonetaryValue amount, BulkActionRequest request) {
 
     final DefaultBulkActionRequest defaultRequest = (DefaultBulkActionRequest) request;
-    final MonetaryValue remainingAmountAfterAction = new MonetaryValue(account.getRemaining())
-      .subtract(amount);
+    final MonetaryValue remainingAmountAfterAction = remainingAmount.subtract(amount);
     boolean isFullAction = remainingAmountAfterAction.isZero();
     String actionType = isFullAction ? action.getFullResult() : action.getPartialResult();
 
@@ -134,20 +241,16 @@ public abstract class BulkActionService {
     return feeFineAction;
   }
 
-  private Future<BulkActionContext> updateAccounts(BulkActionContext context) {
-    return all(
-      context.getAccounts()
-        .values()
-        .stream()
-        .map(accountUpdateService::updateAccount)
-        .collect(toList())
-    ).map(context);
+  private Future<BulkActionContext> updateAccountsAndSaveActions(BulkActionContext context) {
+    return accountUpdateService.updateAccountsAndSaveActions(
+      new ArrayList<>(context.getAccounts().values()), context.getFeeFineActions(),
+      context.getAccountVersions())
+      .map(context);
   }
 
   private Future<BulkActionContext> sendPatronNotice(BulkActionContext context) {
     if (isTrue(context.getRequest().getNotifyPatron())) {
-      context.getFeeFineActions()
-        .forEach(patronNoticeService::sendPatronNotice);
+      patronNoticeService.sendBulkPatronNotices(context.getFeeFineActions());
     }
     return succeededFuture(context);
   }
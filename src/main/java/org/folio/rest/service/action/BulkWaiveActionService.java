@@ -10,6 +10,7 @@ import io.vertx.core.Context;
 public class BulkWaiveActionService extends BulkActionService {
 
   public BulkWaiveActionService(Map<String, String> headers, Context context) {
-    super(Action.WAIVE, new DefaultActionValidationService(headers, context), headers, context);
+    super(Action.WAIVE, counter -> new DefaultActionValidationService(headers, context, counter),
+      headers, context);
   }
 }
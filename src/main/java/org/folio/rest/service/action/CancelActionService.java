@@ -1,5 +1,7 @@
 package org.folio.rest.service.action;
 
+import static io.vertx.core.Future.succeededFuture;
+
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -18,7 +20,8 @@ import io.vertx.core.Future;
 public class CancelActionService extends ActionService {
 
   public CancelActionService(Map<String, String> headers, Context context) {
-    super(Action.CANCEL, new CancelActionValidationService(headers, context), headers, context);
+    super(Action.CANCEL, counter -> new CancelActionValidationService(headers, context, counter),
+      headers, context);
   }
 
   @Override
@@ -41,9 +44,8 @@ public class CancelActionService extends ActionService {
       .withDateAction(new Date())
       .withAccountId(context.getAccountId());
 
-    return feeFineActionRepository.save(feeFineAction)
-      .map(context.withFeeFineAction(feeFineAction)
-        .withShouldCloseAccount(true));
+    return succeededFuture(context.withFeeFineAction(feeFineAction)
+      .withShouldCloseAccount(true));
   }
 
   @Override
@@ -10,6 +10,7 @@ import io.vertx.core.Context;
 public class PayActionService extends ActionService {
 
   public PayActionService(Map<String, String> headers, Context context) {
-    super(Action.PAY, new DefaultActionValidationService(headers, context), headers, context);
+    super(Action.PAY, counter -> new DefaultActionValidationService(headers, context, counter),
+      headers, context);
   }
 }
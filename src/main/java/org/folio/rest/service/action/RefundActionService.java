@@ -1,17 +1,17 @@
 package org.folio.rest.service.action;
 
 import static io.vertx.core.Future.succeededFuture;
+import static java.util.Collections.singletonList;
 import static org.folio.rest.domain.Action.CREDIT;
-import static org.folio.rest.domain.Action.PAY;
 import static org.folio.rest.domain.Action.REFUND;
 
 import java.util.Date;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.folio.rest.domain.Action;
 import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.domain.RefundableAmount;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.DefaultActionRequest;
 import org.folio.rest.jaxrs.model.Feefineaction;
@@ -28,30 +28,22 @@ public class RefundActionService extends ActionService {
   private static final String REFUNDED_TO_BURSAR = "Refunded to Bursar";
 
   public RefundActionService(Map<String, String> headers, Context context) {
-    super(Action.REFUND, new RefundActionValidationService(headers, context), headers, context);
+    super(Action.REFUND, counter -> new RefundActionValidationService(headers, context, counter),
+      headers, context);
   }
 
   @Override
   protected Future<ActionContext> createFeeFineActions(ActionContext context) {
-    return feeFineActionRepository.findRefundableActionsForAccount(context.getAccountId())
-      .compose(feeFineActions -> createFeeFineActions(context, feeFineActions));
+    return feeFineActionRepository.findRefundableAmounts(singletonList(context.getAccountId()))
+      .compose(refundableAmounts -> createFeeFineActions(context,
+        refundableAmounts.get(context.getAccountId())));
   }
 
   private Future<ActionContext> createFeeFineActions(ActionContext context,
-    List<Feefineaction> refundableFeeFineActions) {
+    RefundableAmount refundableAmount) {
 
-    double refundableAmountDouble = refundableFeeFineActions.stream()
-      .mapToDouble(Feefineaction::getAmountAction)
-      .sum();
-
-    double paidAmountDouble = refundableFeeFineActions.stream()
-      .filter(ffa -> PAY.isActionForResult(ffa.getTypeAction()))
-      .mapToDouble(Feefineaction::getAmountAction)
-      .sum();
-
-    MonetaryValue refundableAmount = new MonetaryValue(refundableAmountDouble);
-    MonetaryValue paidAmount = new MonetaryValue(paidAmountDouble);
-    MonetaryValue transferredAmount = refundableAmount.subtract(paidAmount);
+    MonetaryValue paidAmount = refundableAmount.getPaid();
+    MonetaryValue transferredAmount = refundableAmount.getTransferred();
     MonetaryValue requestedAmount = context.getRequestedAmount();
     MonetaryValue refundAmountPayment = paidAmount.min(requestedAmount);
     MonetaryValue refundAmountTransfer = requestedAmount.subtract(refundAmountPayment);
@@ -59,38 +51,42 @@ public class RefundActionService extends ActionService {
     boolean isFullRefundPayment = paidAmount.subtract(refundAmountPayment).isZero();
     boolean isFullRefundTransfer = transferredAmount.subtract(refundAmountTransfer).isZero();
 
-    return succeededFuture(context)
-      .compose(ctx -> createFeeFineAction(ctx, CREDIT, refundAmountPayment, isFullRefundPayment,
-        REFUND_TO_PATRON))
-      .compose(ctx -> createFeeFineAction(ctx, CREDIT, refundAmountTransfer, isFullRefundTransfer,
-        REFUND_TO_BURSAR))
-      .compose(ctx -> createFeeFineAction(ctx, REFUND, refundAmountPayment, isFullRefundPayment,
-        REFUNDED_TO_PATRON))
-      .compose(ctx -> createFeeFineAction(ctx, REFUND, refundAmountTransfer, isFullRefundTransfer,
-        REFUNDED_TO_BURSAR));
+    // the balance is carried from action to action and written to the account once
+    MonetaryValue remainingAmount = new MonetaryValue(context.getAccount().getRemaining(),
+      requestedAmount.getCurrency());
+    remainingAmount = createFeeFineAction(context, CREDIT, refundAmountPayment,
+      isFullRefundPayment, REFUND_TO_PATRON, remainingAmount);
+    remainingAmount = createFeeFineAction(context, CREDIT, refundAmountTransfer,
+      isFullRefundTransfer, REFUND_TO_BURSAR, remainingAmount);
+    remainingAmount = createFeeFineAction(context, REFUND, refundAmountPayment,
+      isFullRefundPayment, REFUNDED_TO_PATRON, remainingAmount);
+    remainingAmount = createFeeFineAction(context, REFUND, refundAmountTransfer,
+      isFullRefundTransfer, REFUNDED_TO_BURSAR, remainingAmount);
+
+    context.getAccount().setRemaining(remainingAmount.toDouble());
+
+    return succeededFuture(context);
   }
 
-  private Future<ActionContext> createFeeFineAction(ActionContext context, Action action,
-     MonetaryValue amount, boolean isFullAction, String transactionInfo) {
+  private MonetaryValue createFeeFineAction(ActionContext context, Action action,
+    MonetaryValue amount, boolean isFullAction, String transactionInfo,
+    MonetaryValue remainingAmountBefore) {
 
     if (!amount.isPositive()) {
-      return succeededFuture(context);
+      return remainingAmountBefore;
     }
 
     Account account = context.getAccount();
     DefaultActionRequest request = (DefaultActionRequest) context.getRequest();
 
-    MonetaryValue remainingAmountBefore = new MonetaryValue(account.getRemaining());
     MonetaryValue remainingAmountAfter = action == CREDIT
       ? remainingAmountBefore.subtract(amount)
       : remainingAmountBefore.add(amount);
 
-    account.setRemaining(remainingAmountAfter.toDouble());
-
     Feefineaction feeFineAction = new Feefineaction()
       .withTypeAction(action.getResult(isFullAction))
       .withAmountAction(amount.toDouble())
-      .withBalance(account.getRemaining())
+      .withBalance(remainingAmountAfter.toDouble())
       .withComments(request.getComments())
       .withNotify(request.getNotifyPatron())
       .withTransactionInformation(transactionInfo)
@@ -98,13 +94,14 @@ public class RefundActionService extends ActionService {
       .withSource(request.getUserName())
       .withPaymentMethod(request.getPaymentMethod())
       .withAccountId(context.getAccountId())
-      .withUserId(context.getAccount().getUserId())
+      .withUserId(account.getUserId())
       .withAccountId(context.getAccountId())
       .withDateAction(new Date())
       .withId(UUID.randomUUID().toString());
 
-    return feeFineActionRepository.save(feeFineAction)
-      .map(ffa -> action == CREDIT ? context : context.withFeeFineAction(ffa));
+    context.withFeeFineAction(feeFineAction, action != CREDIT);
+
+    return remainingAmountAfter;
   }
 
 }
@@ -10,6 +10,7 @@ import io.vertx.core.Context;
 public class TransferActionService extends ActionService {
 
   public TransferActionService(Map<String, String> headers, Context context) {
-    super(Action.TRANSFER, new DefaultActionValidationService(headers, context), headers, context);
+    super(Action.TRANSFER, counter -> new DefaultActionValidationService(headers, context, counter),
+      headers, context);
   }
 }
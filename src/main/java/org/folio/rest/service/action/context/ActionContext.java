@@ -12,14 +12,17 @@ public class ActionContext {
   private final String accountId;
   private final ActionRequest request;
   private final List<Feefineaction> feeFineActions;
+  private final List<Feefineaction> feeFineActionsToNotify;
   private MonetaryValue requestedAmount;
   private Account account;
+  private Integer accountVersion;
   private boolean shouldCloseAccount;
 
   public ActionContext(String accountId, ActionRequest request) {
     this.accountId = accountId;
     this.request = request;
     this.feeFineActions = new ArrayList<>();
+    this.feeFineActionsToNotify = new ArrayList<>();
   }
 
   public ActionContext withAccount(Account account) {
@@ -27,8 +30,20 @@ public class ActionContext {
     return this;
   }
 
+  public ActionContext withAccountVersion(Integer accountVersion) {
+    this.accountVersion = accountVersion;
+    return this;
+  }
+
   public ActionContext withFeeFineAction(Feefineaction feeFineAction) {
+    return withFeeFineAction(feeFineAction, true);
+  }
+
+  public ActionContext withFeeFineAction(Feefineaction feeFineAction, boolean notifyPatron) {
     this.feeFineActions.add(feeFineAction);
+    if (notifyPatron) {
+      this.feeFineActionsToNotify.add(feeFineAction);
+    }
     return this;
   }
 
@@ -54,10 +69,18 @@ public class ActionContext {
     return account;
   }
 
+  public Integer getAccountVersion() {
+    return accountVersion;
+  }
+
   public List<Feefineaction> getFeeFineActions() {
     return feeFineActions;
   }
 
+  public List<Feefineaction> getFeeFineActionsToNotify() {
+    return feeFineActionsToNotify;
+  }
+
   public MonetaryValue getRequestedAmount() {
     return requestedAmount;
   }
@@ -9,17 +9,21 @@ import org.folio.rest.domain.BulkActionRequest;
 import org.folio.rest.domain.MonetaryValue;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.utils.amountsplitter.BulkActionAmountSplitterStrategy;
 
 public class BulkActionContext {
   private final BulkActionRequest request;
   private List<Feefineaction> feeFineActions;
   private MonetaryValue requestedAmount;
   private Map<String, Account> accounts;
+  private Map<String, Integer> accountVersions;
+  private BulkActionAmountSplitterStrategy amountSplitterStrategy;
 
   public BulkActionContext(BulkActionRequest request) {
     this.request = request;
     this.feeFineActions = new ArrayList<>();
     this.accounts = new HashMap<>();
+    this.accountVersions = new HashMap<>();
   }
 
   public BulkActionContext withAccounts(Map<String, Account> accounts) {
@@ -27,6 +31,11 @@ public class BulkActionContext {
     return this;
   }
 
+  public BulkActionContext withAccountVersions(Map<String, Integer> accountVersions) {
+    this.accountVersions = accountVersions;
+    return this;
+  }
+
   public BulkActionContext withFeeFineActions(List<Feefineaction> feeFineActions) {
     this.feeFineActions = feeFineActions;
     return this;
@@ -37,6 +46,13 @@ public class BulkActionContext {
     return this;
   }
 
+  public BulkActionContext withAmountSplitterStrategy(
+    BulkActionAmountSplitterStrategy amountSplitterStrategy) {
+
+    this.amountSplitterStrategy = amountSplitterStrategy;
+    return this;
+  }
+
   public BulkActionRequest getRequest() {
     return request;
   }
@@ -45,6 +61,10 @@ public class BulkActionContext {
     return accounts;
   }
 
+  public Map<String, Integer> getAccountVersions() {
+    return accountVersions;
+  }
+
   public List<Feefineaction> getFeeFineActions() {
     return feeFineActions;
   }
@@ -52,4 +72,8 @@ public class BulkActionContext {
   public MonetaryValue getRequestedAmount() {
     return requestedAmount;
   }
+
+  public BulkActionAmountSplitterStrategy getAmountSplitterStrategy() {
+    return amountSplitterStrategy;
+  }
 }
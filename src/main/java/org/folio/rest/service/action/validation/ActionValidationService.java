@@ -1,11 +1,13 @@
 package org.folio.rest.service.action.validation;
 
+import static io.vertx.core.Future.succeededFuture;
 import static java.lang.String.format;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Currency;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,8 +16,10 @@ import org.folio.rest.domain.MonetaryValue;
 import org.folio.rest.exception.AccountNotFoundValidationException;
 import org.folio.rest.exception.FailedValidationException;
 import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.metrics.DatabaseCallCounter;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.repository.AccountRepository;
+import org.folio.rest.service.CurrencyService;
 import org.folio.rest.tools.utils.TenantTool;
 
 import io.vertx.core.Context;
@@ -27,16 +31,35 @@ public abstract class ActionValidationService {
   private static final Logger logger = LoggerFactory.getLogger(ActionValidationService.class);
 
   private final AccountRepository accountRepository;
+  // amounts are validated in the default currency when there is no tenant to look it up for
+  private final CurrencyService currencyService;
 
   public ActionValidationService(AccountRepository accountRepository) {
     this.accountRepository = accountRepository;
+    this.currencyService = null;
   }
 
   public ActionValidationService(Map<String, String> headers, Context context) {
+    this(headers, context, new DatabaseCallCounter());
+  }
+
+  public ActionValidationService(Map<String, String> headers, Context context,
+    DatabaseCallCounter databaseCallCounter) {
+
     PostgresClient postgresClient = PostgresClient.getInstance(context.owner(),
       TenantTool.tenantId(headers));
 
-    this.accountRepository = new AccountRepository(postgresClient);
+    this.accountRepository = new AccountRepository(postgresClient, databaseCallCounter);
+    this.currencyService = new CurrencyService(context.owner(), headers);
+  }
+
+  /**
+   * The currency that requested amounts are rounded to.
+   */
+  public Future<Currency> getCurrency() {
+    return currencyService == null
+      ? succeededFuture(MonetaryValue.getDefaultCurrency())
+      : currencyService.getCurrency();
   }
 
   public Future<ActionValidationResult> validateById(String accountId, String rawAmount) {
@@ -58,21 +81,24 @@ public abstract class ActionValidationService {
     String rawAmount) {
 
     validateIfAccountsExist(accountsMap);
-    MonetaryValue requestedAmount = validateRawAmount(rawAmount);
 
-    List<Account> accounts = new ArrayList<>(accountsMap.values());
-    validateAccountStatuses(accounts);
+    return getCurrency().compose(currency -> {
+      MonetaryValue requestedAmount = validateRawAmount(rawAmount, currency);
+
+      List<Account> accounts = new ArrayList<>(accountsMap.values());
+      validateAccountStatuses(accounts);
 
-    return validateAmountMaximum(accounts, requestedAmount)
-      .compose(v -> calculateRemainingBalance(accounts, requestedAmount))
-      .map(remainingBalance -> new ActionValidationResult(remainingBalance, requestedAmount));
+      return validateAmountMaximum(accounts, requestedAmount)
+        .compose(v -> calculateRemainingBalance(accounts, requestedAmount))
+        .map(remainingBalance -> new ActionValidationResult(remainingBalance, requestedAmount));
+    });
   }
 
-  private MonetaryValue validateRawAmount(String rawAmount) {
+  private MonetaryValue validateRawAmount(String rawAmount, Currency currency) {
     MonetaryValue requestedAmount;
 
     try {
-      requestedAmount = new MonetaryValue(rawAmount);
+      requestedAmount = new MonetaryValue(rawAmount, currency);
     } catch (NumberFormatException e) {
       throw new FailedValidationException("Invalid amount entered");
     }
@@ -94,12 +120,11 @@ public abstract class ActionValidationService {
     });
   }
 
-  protected MonetaryValue calculateTotalRemaining(List<Account> accounts) {
+  protected MonetaryValue calculateTotalRemaining(List<Account> accounts, Currency currency) {
     return accounts.stream()
-      .map(Account::getRemaining)
-      .map(MonetaryValue::new)
+      .map(account -> new MonetaryValue(account.getRemaining(), currency))
       .reduce(MonetaryValue::add)
-      .orElse(new MonetaryValue(BigDecimal.ZERO));
+      .orElse(new MonetaryValue(BigDecimal.ZERO, currency));
   }
 
   protected abstract void validateAccountStatuses(List<Account> account);
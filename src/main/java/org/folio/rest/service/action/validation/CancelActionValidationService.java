@@ -11,14 +11,17 @@ import java.util.Map;
 import org.folio.rest.domain.MonetaryValue;
 import org.folio.rest.exception.FailedValidationException;
 import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.metrics.DatabaseCallCounter;
 
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 
 public class CancelActionValidationService extends ActionValidationService {
 
-  public CancelActionValidationService(Map<String, String> headers, Context context) {
-    super(headers, context);
+  public CancelActionValidationService(Map<String, String> headers, Context context,
+    DatabaseCallCounter databaseCallCounter) {
+
+    super(headers, context, databaseCallCounter);
   }
 
   @Override
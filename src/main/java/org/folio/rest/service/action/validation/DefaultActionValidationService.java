@@ -9,6 +9,7 @@ import java.util.Map;
 import org.folio.rest.domain.MonetaryValue;
 import org.folio.rest.exception.FailedValidationException;
 import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.metrics.DatabaseCallCounter;
 import org.folio.rest.repository.AccountRepository;
 
 import io.vertx.core.Context;
@@ -24,6 +25,12 @@ public class DefaultActionValidationService extends ActionValidationService {
     super(headers, context);
   }
 
+  public DefaultActionValidationService(Map<String, String> headers, Context context,
+    DatabaseCallCounter databaseCallCounter) {
+
+    super(headers, context, databaseCallCounter);
+  }
+
   @Override
   protected void validateAccountStatuses(List<Account> accounts) {
     accounts.forEach(this::validateAccountStatus);
@@ -39,7 +46,10 @@ public class DefaultActionValidationService extends ActionValidationService {
   protected Future<Void> validateAmountMaximum(List<Account> accounts,
     MonetaryValue requestedAmount) {
 
-    if (requestedAmount.isGreaterThan(calculateTotalRemaining(accounts))) {
+    MonetaryValue totalRemaining = calculateTotalRemaining(accounts,
+      requestedAmount.getCurrency());
+
+    if (requestedAmount.isGreaterThan(totalRemaining)) {
       throw new FailedValidationException("Requested amount exceeds remaining amount");
     }
 
@@ -50,6 +60,7 @@ public class DefaultActionValidationService extends ActionValidationService {
   protected Future<MonetaryValue> calculateRemainingBalance(List<Account> accounts,
     MonetaryValue requestedAmount) {
 
-    return succeededFuture(calculateTotalRemaining(accounts).subtract(requestedAmount));
+    return succeededFuture(calculateTotalRemaining(accounts, requestedAmount.getCurrency())
+      .subtract(requestedAmount));
   }
 }
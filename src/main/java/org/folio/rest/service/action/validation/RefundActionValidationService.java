@@ -1,17 +1,17 @@
 package org.folio.rest.service.action.validation;
 
-import java.math.BigDecimal;
+import static java.util.stream.Collectors.toList;
+
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.domain.RefundableAmount;
 import org.folio.rest.exception.FailedValidationException;
 import org.folio.rest.jaxrs.model.Account;
-import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.metrics.DatabaseCallCounter;
 import org.folio.rest.repository.FeeFineActionRepository;
 
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 
@@ -19,8 +19,15 @@ public class RefundActionValidationService extends ActionValidationService {
   private final FeeFineActionRepository feeFineActionRepository;
 
   public RefundActionValidationService(Map<String, String> headers, Context context) {
-    super(headers, context);
-    this.feeFineActionRepository = new FeeFineActionRepository(headers, context);
+    this(headers, context, new DatabaseCallCounter());
+  }
+
+  public RefundActionValidationService(Map<String, String> headers, Context context,
+    DatabaseCallCounter databaseCallCounter) {
+
+    super(headers, context, databaseCallCounter);
+    this.feeFineActionRepository = new FeeFineActionRepository(headers, context,
+      databaseCallCounter);
   }
 
   @Override
@@ -30,23 +37,12 @@ public class RefundActionValidationService extends ActionValidationService {
 
   private Future<MonetaryValue> getRefundableAmount(List<Account> accounts) {
     // Sum of the refundable amounts of all accounts
-    return CompositeFuture.all(
-      accounts.stream()
-        .map(this::getRefundableAmount)
-        .collect(Collectors.toList()))
-      .map(cf -> cf.list().stream()
-        .filter(MonetaryValue.class::isInstance)
-        .map(MonetaryValue.class::cast)
-        .reduce(MonetaryValue::add)
-        .orElse(new MonetaryValue(BigDecimal.ZERO)));
-  }
-
-  private Future<MonetaryValue> getRefundableAmount(Account account) {
-    return feeFineActionRepository.findRefundableActionsForAccount(account.getId())
-      .map(actions -> actions.stream()
-        .mapToDouble(Feefineaction::getAmountAction)
-        .sum())
-      .map(MonetaryValue::new);
+    return feeFineActionRepository.findRefundableAmounts(accounts.stream()
+      .map(Account::getId)
+      .collect(toList()))
+      .map(refundableAmounts -> refundableAmounts.values().stream()
+        .reduce(RefundableAmount.NONE, RefundableAmount::add)
+        .getTotal());
   }
 
   @Override
@@ -0,0 +1,33 @@
+package org.folio.rest.tracing;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Logs every span as a single JSON line, with the field names of the OpenTelemetry span
+ * model, so that spans can be collected along with the module log.
+ */
+public class LoggingSpanExporter implements SpanExporter {
+  private static final Logger log = LoggerFactory.getLogger(LoggingSpanExporter.class);
+
+  @Override
+  public void export(Span span) {
+    JsonObject json = new JsonObject()
+      .put("traceId", span.getContext().getTraceId())
+      .put("spanId", span.getContext().getSpanId())
+      .put("parentSpanId", span.getParentSpanId())
+      .put("name", span.getName())
+      .put("kind", span.getKind().name())
+      .put("startTimeUnixNano", span.getStartEpochNanos())
+      .put("durationNanos", span.getDurationNanos())
+      .put("status", span.isError() ? "ERROR" : "OK")
+      .put("attributes", new JsonObject(span.getAttributes()));
+
+    if (span.getErrorMessage() != null) {
+      json.put("statusMessage", span.getErrorMessage());
+    }
+
+    log.info(json.encode());
+  }
+}
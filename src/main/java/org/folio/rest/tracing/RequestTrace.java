@@ -0,0 +1,114 @@
+package org.folio.rest.tracing;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.vertx.core.Future;
+
+/**
+ * Spans of one request. The request is the root span, continuing the trace of the caller when
+ * it sent a {@code traceparent} header. Vert.x 3 has no context that follows a request through
+ * its futures, so the trace keeps the span that is current itself: stages of the action
+ * pipeline run one after another and each one is current until its future completes, spans
+ * started meanwhile, by repositories for instance, become its children.
+ */
+public class RequestTrace {
+  private static final String OKAPI_REQUEST_ID_HEADER = "x-okapi-request-id";
+  private static final Span UNTRACED = new Span("untraced", Span.Kind.INTERNAL,
+    SpanContext.INVALID, null, false);
+
+  private final Span root;
+  private Span current;
+
+  public RequestTrace(String name, Map<String, String> okapiHeaders) {
+    this(Tracing.startSpan(name, Span.Kind.SERVER,
+      Tracing.extract(okapiHeaders).orElse(null)));
+
+    root.setAttribute("tenant", okapiHeaders.get(OKAPI_HEADER_TENANT))
+      .setAttribute("requestId", Tracing.header(okapiHeaders, OKAPI_REQUEST_ID_HEADER));
+  }
+
+  private RequestTrace(Span root) {
+    this.root = root;
+    this.current = root;
+  }
+
+  /**
+   * Trace of repositories and services that are not given the trace of a request, its spans
+   * are not recorded.
+   */
+  public static RequestTrace untraced() {
+    return new RequestTrace(UNTRACED);
+  }
+
+  public Span getRoot() {
+    return root;
+  }
+
+  /**
+   * Starts a child of the current span, the caller ends it.
+   */
+  public Span startSpan(String name, Span.Kind kind) {
+    if (root == UNTRACED) {
+      return UNTRACED;
+    }
+    return Tracing.startSpan(name, kind, current.getContext());
+  }
+
+  /**
+   * Starts a span for a database call made by a repository.
+   */
+  public Span startDatabaseSpan(String name) {
+    return startSpan(name, Span.Kind.CLIENT)
+      .setAttribute("db.system", "postgresql");
+  }
+
+  /**
+   * Runs the whole request within the root span, which ends when the request completes.
+   */
+  public <T> Future<T> trace(Supplier<Future<T>> request) {
+    return root.endWith(invoke(request));
+  }
+
+  /**
+   * Wraps a stage of the action pipeline in a span that is current until the future of the
+   * stage completes.
+   */
+  public <T, R> Function<T, Future<R>> stage(String stage, Function<T, Future<R>> step) {
+    return input -> {
+      Span parent = current;
+      Span span = startSpan(stage, Span.Kind.INTERNAL);
+      current = span;
+
+      return span.endWith(invoke(() -> step.apply(input))
+        .onComplete(result -> current = parent));
+    };
+  }
+
+  /**
+   * Copy of the headers with the {@code traceparent} of the current span, for work that is
+   * continued outside of the request, such as patron notices.
+   */
+  public Map<String, String> inject(Map<String, String> headers) {
+    SpanContext context = current.getContext();
+    if (!context.isValid()) {
+      return headers;
+    }
+
+    Map<String, String> tracedHeaders = new HashMap<>(headers);
+    tracedHeaders.put(Tracing.TRACEPARENT, context.toTraceparent());
+    return tracedHeaders;
+  }
+
+  private static <T> Future<T> invoke(Supplier<Future<T>> step) {
+    try {
+      return step.get();
+    } catch (RuntimeException e) {
+      return Future.failedFuture(e);
+    }
+  }
+}
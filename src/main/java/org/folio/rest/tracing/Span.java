@@ -0,0 +1,134 @@
+package org.folio.rest.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.vertx.core.Future;
+
+/**
+ * A timed operation within a trace. Spans that are not sampled, or created while tracing is
+ * disabled, only carry their context and are not exported.
+ */
+public final class Span {
+  public enum Kind {
+    SERVER, INTERNAL, CLIENT
+  }
+
+  private final String name;
+  private final Kind kind;
+  private final SpanContext context;
+  private final String parentSpanId;
+  private final boolean recording;
+  private final long startEpochNanos;
+  private final long startNanos;
+  private final Map<String, Object> attributes = new LinkedHashMap<>();
+  private long durationNanos = -1;
+  private boolean error;
+  private String errorMessage;
+
+  Span(String name, Kind kind, SpanContext context, String parentSpanId, boolean recording) {
+    this.name = name;
+    this.kind = kind;
+    this.context = context;
+    this.parentSpanId = parentSpanId;
+    this.recording = recording;
+    this.startEpochNanos = recording
+      ? TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis())
+      : 0;
+    this.startNanos = recording ? System.nanoTime() : 0;
+  }
+
+  public Span setAttribute(String key, Object value) {
+    if (recording && value != null) {
+      synchronized (attributes) {
+        attributes.put(key, value);
+      }
+    }
+    return this;
+  }
+
+  public void end() {
+    end(null);
+  }
+
+  /**
+   * Ends the span, as failed when a cause is given. Only the first call has an effect.
+   */
+  public void end(Throwable cause) {
+    if (!recording) {
+      return;
+    }
+
+    synchronized (this) {
+      if (durationNanos >= 0) {
+        return;
+      }
+      durationNanos = System.nanoTime() - startNanos;
+      if (cause != null) {
+        error = true;
+        errorMessage = cause.getMessage();
+      }
+    }
+
+    Tracing.export(this);
+  }
+
+  /**
+   * Ends the span when the future completes, as failed when the future fails.
+   */
+  public <T> Future<T> endWith(Future<T> future) {
+    if (!recording) {
+      return future;
+    }
+    return future.onComplete(result -> end(result.cause()));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public SpanContext getContext() {
+    return context;
+  }
+
+  public String getParentSpanId() {
+    return parentSpanId;
+  }
+
+  public boolean isRecording() {
+    return recording;
+  }
+
+  public long getStartEpochNanos() {
+    return startEpochNanos;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public Map<String, Object> getAttributes() {
+    synchronized (attributes) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+    }
+  }
+
+  public boolean isError() {
+    return error;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  @Override
+  public String toString() {
+    return name + " " + context;
+  }
+}
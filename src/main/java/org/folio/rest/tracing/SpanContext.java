@@ -0,0 +1,99 @@
+package org.folio.rest.tracing;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies a span within its trace, propagated between modules in the W3C
+ * {@code traceparent} header so that spans of other OpenTelemetry-compatible services join the
+ * same trace.
+ */
+public final class SpanContext {
+  private static final Pattern TRACEPARENT =
+    Pattern.compile("^00-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})$");
+  private static final String INVALID_TRACE_ID = "00000000000000000000000000000000";
+  private static final String INVALID_SPAN_ID = "0000000000000000";
+
+  /**
+   * Context of spans that are not recorded because tracing is disabled, it is not propagated.
+   */
+  static final SpanContext INVALID = new SpanContext(INVALID_TRACE_ID, INVALID_SPAN_ID, false);
+
+  private final String traceId;
+  private final String spanId;
+  private final boolean sampled;
+
+  SpanContext(String traceId, String spanId, boolean sampled) {
+    this.traceId = traceId;
+    this.spanId = spanId;
+    this.sampled = sampled;
+  }
+
+  static SpanContext newTrace(boolean sampled) {
+    return new SpanContext(randomHex(16), randomHex(8), sampled);
+  }
+
+  SpanContext newChild() {
+    return new SpanContext(traceId, randomHex(8), sampled);
+  }
+
+  public String getTraceId() {
+    return traceId;
+  }
+
+  public String getSpanId() {
+    return spanId;
+  }
+
+  public boolean isSampled() {
+    return sampled;
+  }
+
+  public boolean isValid() {
+    return this != INVALID;
+  }
+
+  public String toTraceparent() {
+    return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+  }
+
+  /**
+   * Parses a {@code traceparent} header, headers of an unknown format or with all-zero IDs are
+   * ignored and start a new trace.
+   */
+  public static Optional<SpanContext> fromTraceparent(String traceparent) {
+    if (traceparent == null) {
+      return Optional.empty();
+    }
+
+    Matcher matcher = TRACEPARENT.matcher(traceparent.trim());
+    if (!matcher.matches() || INVALID_TRACE_ID.equals(matcher.group(1))
+      || INVALID_SPAN_ID.equals(matcher.group(2))) {
+      return Optional.empty();
+    }
+
+    boolean sampled = (Integer.parseInt(matcher.group(3), 16) & 1) == 1;
+    return Optional.of(new SpanContext(matcher.group(1), matcher.group(2), sampled));
+  }
+
+  private static String randomHex(int bytes) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    StringBuilder hex = new StringBuilder(bytes * 2);
+    for (int i = 0; i < bytes; i++) {
+      int value = random.nextInt(256);
+      // an all-zero ID is invalid, the first byte is never zero
+      if (i == 0 && value == 0) {
+        value = 1;
+      }
+      hex.append(Character.forDigit(value >> 4, 16)).append(Character.forDigit(value & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  @Override
+  public String toString() {
+    return toTraceparent();
+  }
+}
@@ -0,0 +1,9 @@
+package org.folio.rest.tracing;
+
+/**
+ * Receives every sampled span once it has ended. Exporters are called on the thread that ends
+ * the span, usually an event loop, and must not block it.
+ */
+public interface SpanExporter {
+  void export(Span span);
+}
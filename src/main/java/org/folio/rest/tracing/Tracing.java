@@ -0,0 +1,113 @@
+package org.folio.rest.tracing;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Creates spans and hands ended spans to the exporter of the module. The exporter is chosen with
+ * {@code feesfines.tracing.exporter}: {@code none} (the default) disables tracing,
+ * {@code logging} logs spans as JSON and any other value is the name of a {@link SpanExporter}
+ * class with a public no-argument constructor. New traces are sampled with the probability
+ * {@code feesfines.tracing.sampleRatio}, traces continued from a {@code traceparent} header keep
+ * the decision of the caller.
+ */
+public final class Tracing {
+  private static final Logger log = LoggerFactory.getLogger(Tracing.class);
+
+  public static final String TRACEPARENT = "traceparent";
+
+  private static final double SAMPLE_RATIO =
+    Double.parseDouble(System.getProperty("feesfines.tracing.sampleRatio", "1.0"));
+
+  private static volatile SpanExporter exporter =
+    createExporter(System.getProperty("feesfines.tracing.exporter", "none"));
+
+  private Tracing() {
+  }
+
+  public static SpanExporter getExporter() {
+    return exporter;
+  }
+
+  /**
+   * Replaces the exporter, {@code null} disables tracing.
+   */
+  public static void setExporter(SpanExporter spanExporter) {
+    exporter = spanExporter;
+  }
+
+  public static boolean isEnabled() {
+    return exporter != null;
+  }
+
+  /**
+   * Starts a span, a child of the given parent or the root of a new trace.
+   */
+  public static Span startSpan(String name, Span.Kind kind, SpanContext parent) {
+    if (!isEnabled()) {
+      return new Span(name, kind, parent == null ? SpanContext.INVALID : parent, null, false);
+    }
+
+    if (parent == null || !parent.isValid()) {
+      SpanContext context = SpanContext.newTrace(
+        ThreadLocalRandom.current().nextDouble() < SAMPLE_RATIO);
+      return new Span(name, kind, context, null, context.isSampled());
+    }
+
+    SpanContext context = parent.newChild();
+    return new Span(name, kind, context, parent.getSpanId(), context.isSampled());
+  }
+
+  /**
+   * Context of the caller from the {@code traceparent} header, header names are matched
+   * case-insensitively.
+   */
+  public static Optional<SpanContext> extract(Map<String, String> headers) {
+    return SpanContext.fromTraceparent(header(headers, TRACEPARENT));
+  }
+
+  static String header(Map<String, String> headers, String name) {
+    String value = headers.get(name);
+    if (value != null) {
+      return value;
+    }
+    return headers.entrySet().stream()
+      .filter(header -> name.equalsIgnoreCase(header.getKey()))
+      .map(Map.Entry::getValue)
+      .findFirst()
+      .orElse(null);
+  }
+
+  static void export(Span span) {
+    SpanExporter spanExporter = exporter;
+    if (spanExporter == null) {
+      return;
+    }
+
+    try {
+      spanExporter.export(span);
+    } catch (RuntimeException e) {
+      log.warn("Failed to export span {}", e, span);
+    }
+  }
+
+  private static SpanExporter createExporter(String name) {
+    if ("none".equals(name)) {
+      return null;
+    }
+    if ("logging".equals(name)) {
+      return new LoggingSpanExporter();
+    }
+
+    try {
+      return (SpanExporter) Class.forName(name).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      log.error("Cannot create span exporter {}, tracing is disabled", e, name);
+      return null;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import static org.folio.rest.utils.JsonHelper.writeIfDoesNotExist;
 
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -31,6 +32,7 @@ import org.folio.rest.jaxrs.model.User;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 public class PatronNoticeBuilder {
@@ -54,6 +56,29 @@ public class PatronNoticeBuilder {
       .withContext(buildContext(ctx));
   }
 
+  /**
+   * Builds one notice for several fees/fines of the same patron and template. The context has
+   * the user and a {@code feeCharges} list with the item, charge and action of every fee/fine.
+   */
+  public static PatronNotice buildAggregatedNotice(List<FeeFineNoticeContext> contexts) {
+    final FeeFineNoticeContext first = contexts.get(0);
+
+    final JsonArray feeCharges = new JsonArray();
+    contexts.forEach(ctx -> feeCharges.add(new JsonObject()
+      .put("item", buildItemContext(ctx))
+      .put("feeCharge", buildFeeChargeContext(ctx))
+      .put("feeAction", buildFeeActionContext(ctx))));
+
+    return new PatronNotice()
+      .withDeliveryChannel("email")
+      .withOutputFormat("text/html")
+      .withRecipientId(first.getUserId())
+      .withTemplateId(first.getTemplateId())
+      .withContext(new Context()
+        .withAdditionalProperty("user", buildUserContext(first))
+        .withAdditionalProperty("feeCharges", feeCharges));
+  }
+
   private static Context buildContext(FeeFineNoticeContext ctx) {
     return new Context()
       .withAdditionalProperty("item", buildItemContext(ctx))
@@ -0,0 +1,50 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Strategies that bulk actions can allocate the requested amount with, by the name used in
+ * requests and fee/fine owners. The default strategy is set with the
+ * {@code feesfines.bulk.allocationStrategy} system property, {@value #EVENLY} when it is
+ * not set.
+ */
+public final class AmountSplitterStrategies {
+  public static final String EVENLY = "evenly";
+  public static final String OLDEST_FIRST = "oldestFirst";
+  public static final String LARGEST_BALANCE_FIRST = "largestBalanceFirst";
+  public static final String PROPORTIONALLY = "proportionally";
+
+  private static final Map<String, BulkActionAmountSplitterStrategy> strategies =
+    buildStrategies();
+  private static final String DEFAULT_STRATEGY = System.getProperty(
+    "feesfines.bulk.allocationStrategy", EVENLY);
+
+  private AmountSplitterStrategies() {
+    throw new UnsupportedOperationException("Do not instantiate");
+  }
+
+  public static Optional<BulkActionAmountSplitterStrategy> get(String name) {
+    return Optional.ofNullable(name).map(strategies::get);
+  }
+
+  public static BulkActionAmountSplitterStrategy getDefault() {
+    return get(DEFAULT_STRATEGY).orElseGet(() -> strategies.get(EVENLY));
+  }
+
+  public static Set<String> getNames() {
+    return strategies.keySet();
+  }
+
+  private static Map<String, BulkActionAmountSplitterStrategy> buildStrategies() {
+    Map<String, BulkActionAmountSplitterStrategy> result = new LinkedHashMap<>();
+    result.put(EVENLY, new SplitEvenlyInOnePass());
+    result.put(OLDEST_FIRST, new SplitOldestFirst());
+    result.put(LARGEST_BALANCE_FIRST, new SplitLargestBalanceFirst());
+    result.put(PROPORTIONALLY, new SplitProportionally());
+    return Collections.unmodifiableMap(result);
+  }
+}
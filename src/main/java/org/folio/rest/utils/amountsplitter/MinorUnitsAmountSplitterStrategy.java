@@ -0,0 +1,115 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.Account;
+
+/**
+ * Base for strategies that distribute the requested amount over primitive arrays of minor
+ * units, indexed like the list of accounts. Amounts beyond the range of {@code long} minor
+ * units are split by {@link SplitEvenlyRecursively}.
+ */
+public abstract class MinorUnitsAmountSplitterStrategy
+  implements BulkActionAmountSplitterStrategy {
+
+  private final BulkActionAmountSplitterStrategy bigAmountsStrategy = new SplitEvenlyRecursively();
+
+  @Override
+  public Map<String, MonetaryValue> split(MonetaryValue totalRequestedAmount,
+    List<Account> accounts, Map<String, MonetaryValue> actionableAmounts) {
+
+    final int count = accounts.size();
+    final long[] actionable = new long[count];
+
+    try {
+      for (int i = 0; i < count; i++) {
+        actionable[i] = Math.max(0,
+          actionableAmounts.get(accounts.get(i).getId()).getMinorUnits());
+      }
+
+      long[] distributed = distribute(totalRequestedAmount.getMinorUnits(), actionable,
+        accounts);
+
+      return toAmounts(accounts, distributed, totalRequestedAmount.getCurrency());
+    } catch (ArithmeticException e) {
+      return bigAmountsStrategy.split(totalRequestedAmount, accounts, actionableAmounts);
+    }
+  }
+
+  /**
+   * Returns the minor units to act on for every account, none of them above its actionable
+   * amount.
+   *
+   * @throws ArithmeticException when intermediate results overflow
+   */
+  protected abstract long[] distribute(long requested, long[] actionable,
+    List<Account> accounts);
+
+  /**
+   * Covers accounts in full, in the given order, until the requested amount is used up.
+   */
+  protected static long[] distributeInOrder(long requested, long[] actionable, int[] order) {
+    final long[] distributed = new long[actionable.length];
+    long amountToDistribute = requested;
+
+    for (int position = 0; position < order.length && amountToDistribute > 0; position++) {
+      int index = order[position];
+      distributed[index] = Math.min(actionable[index], amountToDistribute);
+      amountToDistribute -= distributed[index];
+    }
+
+    return distributed;
+  }
+
+  /**
+   * Returns indexes of the keys in ascending order of key, equal keys in the order of their
+   * indexes.
+   */
+  protected static int[] sortedIndexes(long[] keys) {
+    final int count = keys.length;
+    final int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(count - 1, 1));
+    final long maxPackedKey = (1L << (63 - indexBits)) - 1;
+
+    if (Arrays.stream(keys).allMatch(key -> key >= 0 && key <= maxPackedKey)) {
+      // key in the high bits, index in the low bits: one primitive sort, no boxing
+      long[] packed = new long[count];
+      for (int i = 0; i < count; i++) {
+        packed[i] = keys[i] << indexBits | i;
+      }
+      Arrays.sort(packed);
+
+      int[] order = new int[count];
+      long indexMask = (1L << indexBits) - 1;
+      for (int i = 0; i < count; i++) {
+        order[i] = (int) (packed[i] & indexMask);
+      }
+      return order;
+    }
+
+    return IntStream.range(0, count)
+      .boxed()
+      .sorted(Comparator.<Integer>comparingLong(i -> keys[i]).thenComparing(i -> i))
+      .mapToInt(Integer::intValue)
+      .toArray();
+  }
+
+  private static Map<String, MonetaryValue> toAmounts(List<Account> accounts,
+    long[] distributed, Currency currency) {
+
+    Map<String, MonetaryValue> result = new HashMap<>(distributed.length * 4 / 3 + 1);
+    for (int i = 0; i < distributed.length; i++) {
+      if (distributed[i] > 0) {
+        result.put(accounts.get(i).getId(), MonetaryValue.ofMinorUnits(distributed[i], currency));
+      }
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,44 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.Account;
+
+/**
+ * Splits the requested amount evenly between accounts, accounts with less actionable amount
+ * than their share are covered in full and the rest is split evenly between the others.
+ * <p>
+ * Works on minor units: accounts are sorted once by their exact actionable amount, ties in
+ * the order of the request, and a single pass over them finds the level at which the
+ * requested amount is used up. Minor units that do not split evenly go one each to the first
+ * accounts at that level, so the whole requested amount is always distributed.
+ */
+public class SplitEvenlyInOnePass extends MinorUnitsAmountSplitterStrategy {
+  @Override
+  protected long[] distribute(long requested, long[] actionable, List<Account> accounts) {
+    final int count = actionable.length;
+    final int[] order = sortedIndexes(actionable);
+    final long[] distributed = new long[count];
+    long amountToDistribute = requested;
+
+    for (int position = 0; position < count && amountToDistribute > 0; position++) {
+      int index = order[position];
+      int accountsLeft = count - position;
+      long evenShare = amountToDistribute / accountsLeft;
+      long leftover = amountToDistribute % accountsLeft;
+
+      if (actionable[index] > evenShare || actionable[index] == evenShare && leftover == 0) {
+        // this and all following accounts can take an even share
+        for (int following = position; following < count; following++) {
+          distributed[order[following]] = evenShare + (following - position < leftover ? 1 : 0);
+        }
+        amountToDistribute = 0;
+      } else {
+        distributed[index] = actionable[index];
+        amountToDistribute -= actionable[index];
+      }
+    }
+
+    return distributed;
+  }
+}
@@ -46,7 +46,8 @@ public class SplitEvenlyRecursively implements BulkActionAmountSplitterStrategy
       }
 
       if (calculatedActionAmount.compareTo(BigDecimal.ZERO) > 0) {
-        result.put(account.getId(), new MonetaryValue(calculatedActionAmount));
+        result.put(account.getId(), new MonetaryValue(calculatedActionAmount,
+          totalRequestedAmount.getCurrency()));
       }
     }
 
@@ -0,0 +1,24 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.Account;
+
+/**
+ * Covers accounts in full from the largest to the smallest actionable amount, until the
+ * requested amount is used up.
+ */
+public class SplitLargestBalanceFirst extends MinorUnitsAmountSplitterStrategy {
+  @Override
+  protected long[] distribute(long requested, long[] actionable, List<Account> accounts) {
+    final long largest = Arrays.stream(actionable).max().orElse(0);
+    final long[] descending = new long[actionable.length];
+
+    for (int i = 0; i < actionable.length; i++) {
+      descending[i] = largest - actionable[i];
+    }
+
+    return distributeInOrder(requested, actionable, sortedIndexes(descending));
+  }
+}
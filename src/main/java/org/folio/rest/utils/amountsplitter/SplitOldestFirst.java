@@ -0,0 +1,29 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.Metadata;
+
+/**
+ * Covers accounts in full from the oldest to the newest by {@code metadata.createdDate},
+ * accounts without a creation date last, until the requested amount is used up.
+ */
+public class SplitOldestFirst extends MinorUnitsAmountSplitterStrategy {
+  @Override
+  protected long[] distribute(long requested, long[] actionable, List<Account> accounts) {
+    final long[] createdDates = new long[accounts.size()];
+
+    for (int i = 0; i < createdDates.length; i++) {
+      createdDates[i] = Optional.ofNullable(accounts.get(i).getMetadata())
+        .map(Metadata::getCreatedDate)
+        .map(Date::getTime)
+        .map(time -> Math.max(0, time))
+        .orElse(Long.MAX_VALUE);
+    }
+
+    return distributeInOrder(requested, actionable, sortedIndexes(createdDates));
+  }
+}
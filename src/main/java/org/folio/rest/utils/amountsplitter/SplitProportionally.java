@@ -0,0 +1,59 @@
+package org.folio.rest.utils.amountsplitter;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.Account;
+
+/**
+ * Splits the requested amount in proportion to the actionable amount of every account. Each
+ * account gets its share rounded down, the minor units left over go one each to the accounts
+ * with the largest fractions cut off, so the whole requested amount is distributed.
+ */
+public class SplitProportionally extends MinorUnitsAmountSplitterStrategy {
+  @Override
+  protected long[] distribute(long requested, long[] actionable, List<Account> accounts) {
+    final int count = actionable.length;
+    final long[] distributed = new long[count];
+
+    long totalActionable = 0;
+    for (long amount : actionable) {
+      totalActionable = Math.addExact(totalActionable, amount);
+    }
+
+    if (requested >= totalActionable) {
+      System.arraycopy(actionable, 0, distributed, 0, count);
+      return distributed;
+    }
+
+    // sorting by the fraction cut off, largest first
+    final long[] fractionsDescending = new long[count];
+    long leftover = requested;
+
+    for (int i = 0; i < count; i++) {
+      long fraction;
+      try {
+        long product = Math.multiplyExact(requested, actionable[i]);
+        distributed[i] = product / totalActionable;
+        fraction = product % totalActionable;
+      } catch (ArithmeticException e) {
+        BigInteger[] quotientAndRemainder = BigInteger.valueOf(requested)
+          .multiply(BigInteger.valueOf(actionable[i]))
+          .divideAndRemainder(BigInteger.valueOf(totalActionable));
+        distributed[i] = quotientAndRemainder[0].longValueExact();
+        fraction = quotientAndRemainder[1].longValueExact();
+      }
+      fractionsDescending[i] = totalActionable - 1 - fraction;
+      leftover -= distributed[i];
+    }
+
+    // each of the leftover minor units goes to an account whose share was rounded down,
+    // there are always more of those than leftover minor units
+    int[] order = sortedIndexes(fractionsDescending);
+    for (int position = 0; position < leftover; position++) {
+      distributed[order[position]]++;
+    }
+
+    return distributed;
+  }
+}
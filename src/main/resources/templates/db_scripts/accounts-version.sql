@@ -0,0 +1,13 @@
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION increment_accounts_version() RETURNS TRIGGER AS $$
+BEGIN
+  NEW.version := OLD.version + 1;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS increment_accounts_version ON accounts;
+
+CREATE TRIGGER increment_accounts_version BEFORE UPDATE ON accounts
+  FOR EACH ROW EXECUTE PROCEDURE increment_accounts_version();
@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS event_outbox (
+  seq bigserial NOT NULL,
+  id uuid PRIMARY KEY,
+  partition_key text NOT NULL,
+  event jsonb NOT NULL,
+  attempts integer NOT NULL DEFAULT 0,
+  next_attempt_at timestamptz NOT NULL DEFAULT now()
+);
+
+-- Okapi URL and token of the request that saved the event, to publish it after a restart
+ALTER TABLE event_outbox
+  ADD COLUMN IF NOT EXISTS okapi_url text,
+  ADD COLUMN IF NOT EXISTS okapi_token text;
+
+CREATE INDEX IF NOT EXISTS event_outbox_next_attempt_at_seq_idx
+  ON event_outbox (next_attempt_at, seq);
+CREATE INDEX IF NOT EXISTS event_outbox_partition_key_seq_idx
+  ON event_outbox (partition_key, seq);
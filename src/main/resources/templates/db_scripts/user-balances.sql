@@ -0,0 +1,147 @@
+CREATE TABLE IF NOT EXISTS user_balances (
+  user_id text PRIMARY KEY,
+  open_count integer NOT NULL,
+  total_owed numeric NOT NULL,
+  oldest_open_date timestamptz
+);
+
+-- balances per owner are kept in user_owner_balances, so that they can be updated in place
+ALTER TABLE user_balances DROP COLUMN IF EXISTS owners;
+
+CREATE TABLE IF NOT EXISTS user_owner_balances (
+  user_id text NOT NULL,
+  owner_id text NOT NULL,
+  open_count integer NOT NULL,
+  total_owed numeric NOT NULL,
+  PRIMARY KEY (user_id, owner_id)
+);
+
+CREATE INDEX IF NOT EXISTS accounts_open_user_id_idx
+  ON accounts ((jsonb->>'userId')) WHERE jsonb->'status'->>'name' = 'Open';
+
+DROP FUNCTION IF EXISTS refresh_user_balances(text[]);
+
+CREATE OR REPLACE FUNCTION account_open_date(account jsonb)
+  RETURNS timestamptz AS $$
+  SELECT COALESCE(account->>'dateCreated', account->'metadata'->>'createdDate')::timestamptz;
+$$ LANGUAGE sql STABLE;
+
+-- Applies the open fees/fines a statement on accounts removed and added to the balances of
+-- their users: counts and totals are adjusted by the difference, without reading the other
+-- accounts of the users. Only when the oldest open fee/fine of a user is gone are their open
+-- fees/fines read again to find the next oldest one.
+--
+-- The upserts lock the balance rows of the users in the order of their IDs until the end of
+-- the transaction, so concurrent changes for a user are applied one after the other and the
+-- oldest open fee/fine is looked up with all accounts committed before.
+CREATE OR REPLACE FUNCTION apply_user_balance_changes(removed jsonb[], added jsonb[])
+  RETURNS void AS $$
+BEGIN
+  WITH changes AS (
+    SELECT account->>'userId' AS user_id, -1 AS open_count,
+      -(account->>'remaining')::numeric AS total_owed, NULL::timestamptz AS open_date
+    FROM unnest(removed) AS account
+    UNION ALL
+    SELECT account->>'userId', 1, (account->>'remaining')::numeric, account_open_date(account)
+    FROM unnest(added) AS account
+  )
+  INSERT INTO user_balances AS balances (user_id, open_count, total_owed, oldest_open_date)
+  SELECT user_id, sum(open_count), sum(total_owed), min(open_date)
+  FROM changes
+  GROUP BY user_id
+  ORDER BY user_id
+  ON CONFLICT (user_id) DO UPDATE SET
+    open_count = balances.open_count + EXCLUDED.open_count,
+    total_owed = balances.total_owed + EXCLUDED.total_owed,
+    oldest_open_date = least(balances.oldest_open_date, EXCLUDED.oldest_open_date);
+
+  WITH changes AS (
+    SELECT account->>'userId' AS user_id, account->>'ownerId' AS owner_id, -1 AS open_count,
+      -(account->>'remaining')::numeric AS total_owed
+    FROM unnest(removed) AS account
+    UNION ALL
+    SELECT account->>'userId', account->>'ownerId', 1, (account->>'remaining')::numeric
+    FROM unnest(added) AS account
+  )
+  INSERT INTO user_owner_balances AS balances (user_id, owner_id, open_count, total_owed)
+  SELECT user_id, owner_id, sum(open_count), sum(total_owed)
+  FROM changes
+  GROUP BY user_id, owner_id
+  ORDER BY user_id, owner_id
+  ON CONFLICT (user_id, owner_id) DO UPDATE SET
+    open_count = balances.open_count + EXCLUDED.open_count,
+    total_owed = balances.total_owed + EXCLUDED.total_owed;
+
+  IF removed IS NULL THEN
+    RETURN;
+  END IF;
+
+  DELETE FROM user_owner_balances
+  WHERE open_count = 0
+    AND (user_id, owner_id) IN (
+      SELECT account->>'userId', account->>'ownerId' FROM unnest(removed) AS account);
+
+  DELETE FROM user_balances
+  WHERE open_count = 0
+    AND user_id IN (SELECT account->>'userId' FROM unnest(removed) AS account);
+
+  -- fees/fines that are still open with the same date were only updated
+  UPDATE user_balances AS balances
+  SET oldest_open_date = (
+    SELECT min(account_open_date(jsonb))
+    FROM accounts
+    WHERE jsonb->>'userId' = balances.user_id AND jsonb->'status'->>'name' = 'Open')
+  FROM (
+    SELECT account->>'userId' AS user_id, account->>'id' AS id,
+      account_open_date(account) AS open_date
+    FROM unnest(removed) AS account
+    EXCEPT
+    SELECT account->>'userId', account->>'id', account_open_date(account)
+    FROM unnest(added) AS account
+  ) AS gone
+  WHERE balances.user_id = gone.user_id AND gone.open_date <= balances.oldest_open_date;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Runs once per statement, so that a bulk action updates each of its users once.
+CREATE OR REPLACE FUNCTION update_user_balances()
+  RETURNS TRIGGER AS $$
+DECLARE
+  removed jsonb[];
+  added jsonb[];
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') THEN
+    SELECT array_agg(jsonb) INTO removed
+    FROM old_accounts WHERE jsonb->'status'->>'name' = 'Open';
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') THEN
+    SELECT array_agg(jsonb) INTO added
+    FROM new_accounts WHERE jsonb->'status'->>'name' = 'Open';
+  END IF;
+
+  IF removed IS NOT NULL OR added IS NOT NULL THEN
+    PERFORM apply_user_balance_changes(removed, added);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS update_user_balances_on_insert ON accounts;
+DROP TRIGGER IF EXISTS update_user_balances_on_update ON accounts;
+DROP TRIGGER IF EXISTS update_user_balances_on_delete ON accounts;
+
+CREATE TRIGGER update_user_balances_on_insert AFTER INSERT ON accounts
+  REFERENCING NEW TABLE AS new_accounts
+  FOR EACH STATEMENT EXECUTE PROCEDURE update_user_balances();
+CREATE TRIGGER update_user_balances_on_update AFTER UPDATE ON accounts
+  REFERENCING OLD TABLE AS old_accounts NEW TABLE AS new_accounts
+  FOR EACH STATEMENT EXECUTE PROCEDURE update_user_balances();
+CREATE TRIGGER update_user_balances_on_delete AFTER DELETE ON accounts
+  REFERENCING OLD TABLE AS old_accounts
+  FOR EACH STATEMENT EXECUTE PROCEDURE update_user_balances();
+
+-- balances are only ever adjusted by the triggers, they are rebuilt whenever this script runs
+DELETE FROM user_balances;
+DELETE FROM user_owner_balances;
+SELECT apply_user_balance_changes(NULL, array_agg(jsonb))
+  FROM accounts WHERE jsonb->'status'->>'name' = 'Open';
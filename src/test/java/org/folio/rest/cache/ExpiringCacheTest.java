@@ -0,0 +1,64 @@
+package org.folio.rest.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+  private final AtomicLong now = new AtomicLong();
+  private final ExpiringCache<String, String> cache =
+    new ExpiringCache<>(2, 10, TimeUnit.NANOSECONDS, now::get);
+
+  @Test
+  public void returnsCachedValueAndCountsHitsAndMisses() {
+    assertNull(cache.get("a"));
+    cache.put("a", "value");
+
+    assertEquals("value", cache.get("a"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void entryExpiresAfterTtl() {
+    cache.put("a", "value");
+
+    now.set(9);
+    assertEquals("value", cache.get("a"));
+
+    now.set(10);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvictedWhenFull() {
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+    cache.put("c", "3");
+
+    assertEquals("1", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("3", cache.get("c"));
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void invalidatedEntriesAreRemoved() {
+    cache.put("tenant1/a", "1");
+    cache.put("tenant2/a", "2");
+
+    cache.invalidateIf(key -> key.startsWith("tenant1/"));
+    assertNull(cache.get("tenant1/a"));
+    assertEquals("2", cache.get("tenant2/a"));
+
+    cache.invalidate("tenant2/a");
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,150 @@
+package org.folio.rest.client;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.folio.okapi.common.XOkapiHeaders.TENANT;
+import static org.folio.okapi.common.XOkapiHeaders.TOKEN;
+import static org.folio.okapi.common.XOkapiHeaders.URL;
+import static org.folio.test.support.ApiTests.OKAPI_TOKEN;
+import static org.folio.test.support.ApiTests.TENANT_NAME;
+
+import java.util.UUID;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.apache.http.HttpStatus;
+import org.folio.rest.jaxrs.model.PatronNotice;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+
+@RunWith(VertxUnitRunner.class)
+public class DownstreamGuardTest {
+  private static final int OKAPI_PORT = NetworkUtils.nextFreePort();
+  private static final String OKAPI_URL = "http://localhost:" + OKAPI_PORT;
+  private static final String USERS_PATH = "/users";
+  private static final String PATRON_NOTICE_PATH = "/patron-notice";
+
+  @Rule
+  public WireMockRule mock = new WireMockRule(OKAPI_PORT);
+
+  private final CaseInsensitiveMap<String, String> okapiHeaders = new CaseInsensitiveMap<>();
+  private final Vertx vertx = Vertx.vertx();
+
+  @Before
+  public void beforeEach() {
+    mock.resetAll();
+    okapiHeaders.put(URL, OKAPI_URL);
+    okapiHeaders.put(TENANT, TENANT_NAME);
+    okapiHeaders.put(TOKEN, OKAPI_TOKEN);
+  }
+
+  @Test
+  public void failedGetIsRetried(TestContext context) {
+    Async async = context.async();
+    String userId = UUID.randomUUID().toString();
+
+    mock.stubFor(WireMock.get(urlPathEqualTo(USERS_PATH + "/" + userId))
+      .inScenario("retry")
+      .whenScenarioStateIs(Scenario.STARTED)
+      .willReturn(aResponse().withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE))
+      .willSetStateTo("recovered"));
+
+    mock.stubFor(WireMock.get(urlPathEqualTo(USERS_PATH + "/" + userId))
+      .inScenario("retry")
+      .whenScenarioStateIs("recovered")
+      .willReturn(aResponse()
+        .withStatus(HttpStatus.SC_OK)
+        .withBody(new JsonObject().put("id", userId).encode())));
+
+    new UsersClient(vertx, okapiHeaders).fetchUserById(userId)
+      .onFailure(context::fail)
+      .onSuccess(user -> {
+        context.assertEquals(userId, user.getId());
+        mock.verify(2, getRequestedFor(urlPathEqualTo(USERS_PATH + "/" + userId)));
+        async.complete();
+      });
+  }
+
+  @Test
+  public void postIsNotRetried(TestContext context) {
+    Async async = context.async();
+
+    mock.stubFor(WireMock.post(urlPathEqualTo(PATRON_NOTICE_PATH))
+      .willReturn(aResponse().withStatus(HttpStatus.SC_SERVICE_UNAVAILABLE)));
+
+    new PatronNoticeClient(vertx, okapiHeaders).postPatronNotice(new PatronNotice())
+      .onSuccess(r -> context.fail("should have failed"))
+      .onFailure(failure -> {
+        mock.verify(1, postRequestedFor(urlPathEqualTo(PATRON_NOTICE_PATH)));
+        async.complete();
+      });
+  }
+
+  @Test
+  public void circuitOpensAfterConsecutiveFailures(TestContext context) {
+    Async async = context.async();
+    DownstreamGuard guard = DownstreamGuard.forRequest(TENANT_NAME,
+      "/unhealthy-" + UUID.randomUUID());
+
+    // default failure threshold
+    Future<HttpResponse<Buffer>> failures = succeededFuture();
+    for (int i = 0; i < 5; i++) {
+      failures = failures.compose(ignored -> failingRequest(guard),
+        ignored -> failingRequest(guard));
+    }
+
+    failures
+      .compose(ignored -> failingRequest(guard), ignored -> guard.execute(vertx, () -> {
+        context.fail("request should not have been sent");
+        return succeededFuture();
+      }, false))
+      .onSuccess(r -> context.fail("should have failed"))
+      .onFailure(failure -> {
+        context.assertTrue(failure instanceof DownstreamGuard.RejectedRequestException);
+        context.assertEquals(DownstreamGuard.State.OPEN, guard.getState());
+        context.assertEquals(1L, guard.getTransitions(DownstreamGuard.State.OPEN));
+        context.assertEquals(1L, guard.getRejectedByCircuitBreaker());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void targetIsFirstPathSegment(TestContext context) {
+    context.assertEquals("item-storage", DownstreamGuard.targetOf("/item-storage/items"));
+    context.assertEquals("patron-notice", DownstreamGuard.targetOf("/patron-notice"));
+  }
+
+  @Test
+  public void backoffGrowsWithRetries(TestContext context) {
+    // defaults: 100 ms base delay in production, 10 ms in tests, capped at 2 s
+    long first = DownstreamGuard.backoffDelay(0);
+    long capped = DownstreamGuard.backoffDelay(30);
+
+    context.assertTrue(first >= 1);
+    context.assertTrue(capped >= 1_000 && capped <= 2_000);
+  }
+
+  private Future<HttpResponse<Buffer>> failingRequest(DownstreamGuard guard) {
+    return guard.execute(vertx,
+      () -> failedFuture(new IllegalStateException("unavailable")), false);
+  }
+}
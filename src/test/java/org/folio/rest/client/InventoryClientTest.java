@@ -0,0 +1,172 @@
+package org.folio.rest.client;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static java.util.stream.Collectors.toList;
+import static org.folio.okapi.common.XOkapiHeaders.TENANT;
+import static org.folio.okapi.common.XOkapiHeaders.TOKEN;
+import static org.folio.okapi.common.XOkapiHeaders.URL;
+import static org.folio.test.support.ApiTests.OKAPI_TOKEN;
+import static org.folio.test.support.ApiTests.TENANT_NAME;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.apache.commons.collections4.map.CaseInsensitiveMap;
+import org.apache.http.HttpStatus;
+import org.folio.rest.jaxrs.model.Item;
+import org.folio.rest.jaxrs.model.Items;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class InventoryClientTest {
+  private static final int OKAPI_PORT = NetworkUtils.nextFreePort();
+  private static final String OKAPI_URL = "http://localhost:" + OKAPI_PORT;
+  private static final String ITEMS_PATH = "/item-storage/items";
+  // default feesfines.inventory.idBatchSize
+  private static final int BATCH_SIZE = 50;
+
+  @Rule
+  public WireMockRule mock = new WireMockRule(OKAPI_PORT);
+
+  private final InventoryClient inventoryClient;
+  {
+    CaseInsensitiveMap<String, String> okapiHeaders = new CaseInsensitiveMap<>();
+    okapiHeaders.put(URL, OKAPI_URL);
+    okapiHeaders.put(TENANT, TENANT_NAME);
+    okapiHeaders.put(TOKEN, OKAPI_TOKEN);
+    inventoryClient = new InventoryClient(Vertx.vertx(), okapiHeaders);
+  }
+
+  @Before
+  public void beforeEach() {
+    mock.resetAll();
+  }
+
+  @Test
+  public void itemsAreFetchedInBatches(TestContext context) {
+    Async async = context.async();
+
+    List<String> itemIds = randomIds(BATCH_SIZE * 2 + 10);
+    String missingItemId = itemIds.get(BATCH_SIZE + 1);
+
+    for (int from = 0; from < itemIds.size(); from += BATCH_SIZE) {
+      List<String> batch = itemIds.subList(from, Math.min(from + BATCH_SIZE, itemIds.size()));
+      stubItems(batch.get(0), batch.stream()
+        .filter(id -> !id.equals(missingItemId))
+        .collect(toList()));
+    }
+
+    inventoryClient.getItemsById(itemIds)
+      .onFailure(context::fail)
+      .onSuccess(items -> {
+        List<String> expectedIds = itemIds.stream()
+          .filter(id -> !id.equals(missingItemId))
+          .collect(toList());
+
+        context.assertEquals(expectedIds, items.getItems().stream()
+          .map(Item::getId)
+          .collect(toList()));
+        context.assertEquals(expectedIds.size(), items.getTotalRecords());
+        mock.verify(3, getRequestedFor(urlPathEqualTo(ITEMS_PATH)));
+        async.complete();
+      });
+  }
+
+  @Test
+  public void duplicateIdsAreRequestedOnce(TestContext context) {
+    Async async = context.async();
+
+    String itemId = UUID.randomUUID().toString();
+    stubItems(itemId, List.of(itemId));
+
+    inventoryClient.getItemsById(List.of(itemId, itemId, itemId))
+      .onFailure(context::fail)
+      .onSuccess(items -> {
+        context.assertEquals(1, items.getItems().size());
+        mock.verify(1, getRequestedFor(urlPathEqualTo(ITEMS_PATH))
+          .withQueryParam("limit", WireMock.equalTo("1")));
+        async.complete();
+      });
+  }
+
+  @Test
+  public void unknownPropertiesInResponseAreIgnored(TestContext context) {
+    Async async = context.async();
+
+    String itemId = UUID.randomUUID().toString();
+    mock.stubFor(WireMock.get(urlPathEqualTo(ITEMS_PATH))
+      .willReturn(aResponse()
+        .withStatus(HttpStatus.SC_OK)
+        .withBody(new JsonObject()
+          .put("items", new JsonArray().add(new JsonObject()
+            .put("id", itemId)
+            .put("propertyUnknownToThisModule", "value")))
+          .put("totalRecords", 1)
+          .put("resultInfo", new JsonObject())
+          .encode())));
+
+    inventoryClient.getItemsById(List.of(itemId))
+      .onFailure(context::fail)
+      .onSuccess(items -> {
+        context.assertEquals(itemId, items.getItems().get(0).getId());
+        async.complete();
+      });
+  }
+
+  @Test
+  public void failsWhenAnyBatchFails(TestContext context) {
+    Async async = context.async();
+
+    List<String> itemIds = randomIds(BATCH_SIZE + 1);
+    stubItems(itemIds.get(0), itemIds.subList(0, BATCH_SIZE));
+    mock.stubFor(WireMock.get(urlPathEqualTo(ITEMS_PATH))
+      .withQueryParam("query", containing(itemIds.get(BATCH_SIZE)))
+      .willReturn(aResponse().withStatus(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+
+    inventoryClient.getItemsById(itemIds)
+      .onSuccess(r -> context.fail("should have failed"))
+      .onFailure(failure -> {
+        context.assertEquals("Failed to get items by IDs. Response status code: 500",
+          failure.getMessage());
+        async.complete();
+      });
+  }
+
+  private void stubItems(String firstIdOfBatch, List<String> returnedIds) {
+    Items items = new Items()
+      .withItems(returnedIds.stream()
+        .map(id -> new Item().withId(id))
+        .collect(toList()))
+      .withTotalRecords(returnedIds.size());
+
+    mock.stubFor(WireMock.get(urlPathEqualTo(ITEMS_PATH))
+      .withQueryParam("query", containing(firstIdOfBatch))
+      .willReturn(aResponse()
+        .withStatus(HttpStatus.SC_OK)
+        .withBody(JsonObject.mapFrom(items).encode())));
+  }
+
+  private static List<String> randomIds(int count) {
+    return IntStream.range(0, count)
+      .mapToObj(i -> UUID.randomUUID().toString())
+      .collect(toList());
+  }
+}
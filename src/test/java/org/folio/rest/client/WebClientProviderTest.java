@@ -0,0 +1,60 @@
+package org.folio.rest.client;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClientOptions;
+
+public class WebClientProviderTest {
+
+  @Test
+  public void oneClientIsSharedPerVertxInstance() {
+    Vertx vertx = Vertx.vertx();
+    try {
+      assertThat(WebClientProvider.getWebClient(vertx),
+        sameInstance(WebClientProvider.getWebClient(vertx)));
+    } finally {
+      vertx.close();
+    }
+  }
+
+  @Test
+  public void clientIsConfiguredWithPoolDefaults() {
+    WebClientOptions options = WebClientProvider.buildOptions();
+
+    assertThat(options.getMaxPoolSize(), is(20));
+    assertThat(options.getMaxWaitQueueSize(), is(200));
+    assertThat(options.isKeepAlive(), is(true));
+  }
+
+  @Test
+  public void inFlightRequestsAreCounted() {
+    WebClientProvider.Metrics metrics = WebClientProvider.getMetrics();
+    long requests = metrics.getRequests();
+    long failures = metrics.getFailures();
+    long timeouts = metrics.getTimeouts();
+    int inFlight = metrics.getInFlight();
+
+    Promise<String> pending = Promise.promise();
+    WebClientProvider.track(promise -> pending.future().onComplete(promise));
+    assertThat(metrics.getInFlight(), is(inFlight + 1));
+
+    pending.complete("done");
+    WebClientProvider.track(promise -> promise.handle(failedFuture(new TimeoutException())));
+    WebClientProvider.track(promise -> promise.handle(succeededFuture("done")));
+
+    assertThat(metrics.getInFlight(), is(inFlight));
+    assertThat(metrics.getRequests(), is(requests + 3));
+    assertThat(metrics.getFailures(), is(failures + 1));
+    assertThat(metrics.getTimeouts(), is(timeouts + 1));
+  }
+}
@@ -3,6 +3,8 @@ package org.folio.rest.domain;
 import static org.junit.Assert.*;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -108,4 +110,67 @@ public class MonetaryValueTest {
     assertEquals(expectedResult, new MonetaryValue(source).toString());
   }
 
+  @Test
+  @Parameters({
+    "0.1", "0.2", "1.23", "-1.23", "12.345", "0.125", "0.135", "-0.135", "0.005", "0.0051",
+    "1234567.89", "99999999.99", "1.0E-7", "123456789012.345", "9.99999999999999E17"
+  })
+  public void doubleConstructorRoundsLikeBigDecimal(String value) {
+    final BigDecimal expected = BigDecimal.valueOf(Double.parseDouble(value))
+      .setScale(2, RoundingMode.HALF_EVEN);
+
+    final MonetaryValue monetaryValue = new MonetaryValue(Double.valueOf(value));
+
+    assertEquals(expected, monetaryValue.getAmount());
+    assertEquals(expected.doubleValue(), monetaryValue.toDouble(), 0.0);
+  }
+
+  @Test
+  public void arithmeticFallsBackToBigDecimalOnOverflow() {
+    // the largest amount kept in minor units, ten of them do not fit into a long
+    final MonetaryValue large = new MonetaryValue(new BigDecimal("9999999999999999.99"));
+
+    MonetaryValue sum = new MonetaryValue(BigDecimal.ZERO);
+    MonetaryValue difference = new MonetaryValue(BigDecimal.ZERO);
+    for (int i = 0; i < 10; i++) {
+      sum = sum.add(large);
+      difference = difference.subtract(large);
+    }
+
+    assertEquals(new BigDecimal("99999999999999999.90"), sum.getAmount());
+    assertEquals(new BigDecimal("-99999999999999999.90"), difference.getAmount());
+    assertTrue(sum.isGreaterThan(large));
+  }
+
+  @Test
+  public void valuesBeyondLongRangeAreCompared() {
+    final MonetaryValue huge = new MonetaryValue(new BigDecimal("123456789012345678901.23"));
+    final MonetaryValue small = new MonetaryValue("1.00");
+
+    assertTrue(huge.isGreaterThan(small));
+    assertFalse(small.isGreaterThan(huge));
+    assertEquals(small, huge.min(small));
+    assertEquals("123456789012345678902.23", huge.add(small).toString());
+  }
+
+  @Test
+  public void addAndSubtractKeepScale() {
+    final MonetaryValue sum = new MonetaryValue(0.1).add(new MonetaryValue(0.2));
+
+    assertEquals("0.30", sum.toString());
+    assertEquals("-0.10", new MonetaryValue(0.1).subtract(new MonetaryValue(0.2)).toString());
+    assertTrue(sum.subtract(new MonetaryValue("0.3")).isZero());
+  }
+
+  @Test
+  public void amountsAreRoundedToFractionDigitsOfTheirCurrency() {
+    final Currency yen = Currency.getInstance("JPY");
+    final Currency dinar = Currency.getInstance("KWD");
+
+    assertEquals("10", new MonetaryValue("10.4", yen).toString());
+    assertEquals("12", new MonetaryValue(11.5, yen).toString());
+    assertEquals("1.235", new MonetaryValue("1.2346", dinar).toString());
+    assertEquals(yen, new MonetaryValue(1.0, yen).subtract(new MonetaryValue("0.4", yen))
+      .getCurrency());
+  }
 }
@@ -1,12 +1,15 @@
 package org.folio.rest.impl;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static com.jayway.jsonpath.matchers.JsonPathMatchers.hasJsonPath;
 import static io.restassured.http.ContentType.JSON;
 import static io.vertx.core.json.Json.decodeValue;
+import static java.lang.String.format;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
 import static org.folio.test.support.EntityBuilder.buildAccount;
 import static org.folio.test.support.matcher.AccountMatchers.isPaidFully;
 import static org.hamcrest.CoreMatchers.allOf;
@@ -21,6 +24,7 @@ import static org.junit.Assert.assertNotNull;
 
 import java.util.Comparator;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,10 +34,12 @@ import org.folio.rest.domain.EventType;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.EventMetadata;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.test.support.ApiTests;
 import org.folio.test.support.matcher.TypeMappingMatcher;
 import org.folio.util.pubsub.PubSubClientUtils;
 import org.hamcrest.Matcher;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -45,7 +51,9 @@ import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 
 public class AccountsAPITest extends ApiTests {
+  private static final String SCHEMA = convertToPsqlStandard(TENANT_NAME);
   private static final String ACCOUNTS_TABLE = "accounts";
+  private static final String EVENT_OUTBOX_TABLE = "event_outbox";
   private static final String ITEM_ID = "43ec57e3-3974-4d05-a2c2-95126e087b72";
   private static final String FEEFINE_CLOSED_EVENT_NAME = "LOAN_RELATED_FEE_FINE_CLOSED";
 
@@ -58,6 +66,14 @@ public class AccountsAPITest extends ApiTests {
       .willReturn(aResponse().withBodyFile("holdings.json")));
 
     removeAllFromTable(ACCOUNTS_TABLE);
+    removeAllFromTable(EVENT_OUTBOX_TABLE);
+  }
+
+  @After
+  public void tearDown() {
+    executeSql(format("DROP TRIGGER IF EXISTS reject_outbox_event ON %s.%s",
+      SCHEMA, EVENT_OUTBOX_TABLE));
+    executeSql(format("DROP FUNCTION IF EXISTS %s.reject_outbox_event()", SCHEMA));
   }
 
   @Test
@@ -120,6 +136,26 @@ public class AccountsAPITest extends ApiTests {
       .statusCode(HttpStatus.SC_NO_CONTENT);
   }
 
+  @Test
+  public void inventoryIsNotQueriedForAccountsWithAdditionalFields() {
+    final String holdingsRecordId = randomId();
+    final String instanceId = randomId();
+    Account account = buildAccount()
+      .withHoldingsRecordId(holdingsRecordId)
+      .withInstanceId(instanceId);
+
+    accountsClient.create(account);
+
+    accountsClient.getById(account.getId())
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .body("holdingsRecordId", is(holdingsRecordId))
+      .body("instanceId", is(instanceId));
+
+    getOkapi().verify(0, getRequestedFor(urlPathMatching("/item-storage/items.*")));
+    getOkapi().verify(0, getRequestedFor(urlPathMatching("/holdings-storage/holdings.*")));
+  }
+
   @Test
   public void eventIsPublishedWhenFeeFineIsClosedWithLoanAndNoRemainingAmount() {
     final String accountId = randomId();
@@ -141,6 +177,10 @@ public class AccountsAPITest extends ApiTests {
 
     assertThat(accountsClient.getById(accountId), isPaidFully());
 
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> getLastFeeFineClosedEvent() != null);
+
     final Event event = getLastFeeFineClosedEvent();
     assertThat(event, notNullValue());
 
@@ -178,7 +218,9 @@ public class AccountsAPITest extends ApiTests {
 
     assertThat(accountsClient.getById(accountId), isPaidFully());
 
-    assertThat(getLastFeeFineClosedEvent(), notNullValue());
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> getLastFeeFineClosedEvent() != null);
   }
 
   @Test
@@ -254,10 +296,9 @@ public class AccountsAPITest extends ApiTests {
   }
 
   @Test
-  public void canForwardPubSubFailureOnFeeFineClose() {
-    final String expectedError = "Pub-sub unavailable";
+  public void eventsArePublishedInOrderWhenPubSubRecovers() {
     getOkapi().stubFor(WireMock.post(urlPathEqualTo("/pubsub/publish"))
-      .willReturn(aResponse().withStatus(500).withBody(expectedError)));
+      .willReturn(aResponse().withStatus(500).withBody("Pub-sub unavailable")));
 
     final String accountId = randomId();
     final JsonObject account = createAccountJsonObject(accountId)
@@ -274,8 +315,24 @@ public class AccountsAPITest extends ApiTests {
 
     accountsClient.attemptUpdate(accountId, updatedAccount)
       .then()
-      .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR)
-      .body(containsString(expectedError));
+      .statusCode(HttpStatus.SC_NO_CONTENT);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> getLastBalanceChangedEvent() != null);
+
+    // the closed event waits for the failed balance change events of the same fee/fine
+    assertThat(getLastFeeFineClosedEvent(), nullValue());
+
+    getOkapi().stubFor(WireMock.post(urlPathEqualTo("/pubsub/publish"))
+      .willReturn(aResponse().withStatus(204)));
+
+    Awaitility.await()
+      .atMost(10, TimeUnit.SECONDS)
+      .until(() -> getLastFeeFineClosedEvent() != null);
+
+    assertThat(getLastFeeFineClosedEvent().getEventPayload(),
+      hasJsonPath("feeFineId", is(accountId)));
   }
 
   @Test
@@ -299,6 +356,95 @@ public class AccountsAPITest extends ApiTests {
     assertFalse(eventPayload.containsKey("loanId"));
   }
 
+  @Test
+  public void accountIsNotCreatedWhenEventCannotBeSaved() {
+    Account account = buildAccount();
+    rejectOutboxEvents();
+
+    accountsClient.attemptCreate(account)
+      .then()
+      .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+    client.get("/accounts/" + account.getId())
+      .then()
+      .statusCode(HttpStatus.SC_NOT_FOUND);
+  }
+
+  @Test
+  public void accountIsNotUpdatedWhenEventCannotBeSaved() {
+    Account account = buildAccount().withRemaining(9.00);
+    accountsClient.create(account);
+    rejectOutboxEvents();
+
+    accountsClient.attemptUpdate(account.getId(), account.withRemaining(4.00))
+      .then()
+      .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+    accountsClient.getById(account.getId())
+      .then()
+      .body("remaining", is(9.0f));
+  }
+
+  @Test
+  public void accountIsNotDeletedWhenEventCannotBeSaved() {
+    Account account = buildAccount();
+    accountsClient.create(account);
+    rejectOutboxEvents();
+
+    client.delete("/accounts/" + account.getId())
+      .then()
+      .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+    accountsClient.getById(account.getId());
+  }
+
+  @Test
+  public void noEventIsSavedWhenAccountIsNotWritten() throws Exception {
+    // events stay in the outbox while pub-sub is failing
+    getOkapi().stubFor(WireMock.post(urlPathEqualTo("/pubsub/publish"))
+      .willReturn(aResponse().withStatus(500).withBody("Pub-sub unavailable")));
+
+    Account account = buildAccount();
+    accountsClient.create(account);
+
+    accountsClient.attemptCreate(account)
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+
+    accountsClient.attemptUpdate(randomId(), buildAccount())
+      .then()
+      .statusCode(HttpStatus.SC_NOT_FOUND);
+
+    client.delete("/accounts/" + randomId())
+      .then()
+      .statusCode(HttpStatus.SC_NOT_FOUND);
+
+    assertEquals(1, countOutboxEvents());
+  }
+
+  private void rejectOutboxEvents() {
+    executeSql(format("CREATE FUNCTION %s.reject_outbox_event() RETURNS TRIGGER AS $$ " +
+      "BEGIN RAISE EXCEPTION 'outbox is not available'; END; $$ LANGUAGE plpgsql", SCHEMA));
+    executeSql(format("CREATE TRIGGER reject_outbox_event BEFORE INSERT ON %1$s.%2$s " +
+      "FOR EACH STATEMENT EXECUTE PROCEDURE %1$s.reject_outbox_event()",
+      SCHEMA, EVENT_OUTBOX_TABLE));
+  }
+
+  private int countOutboxEvents() throws Exception {
+    final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+    PostgresClient.getInstance(vertx, TENANT_NAME)
+      .select(format("SELECT count(*) FROM %s.%s", SCHEMA, EVENT_OUTBOX_TABLE), result -> {
+        if (result.succeeded()) {
+          future.complete(result.result().iterator().next().getInteger(0));
+        } else {
+          future.completeExceptionally(result.cause());
+        }
+      });
+
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
   private JsonObject createAccountJsonObject(String accountID) {
     return new JsonObject()
       .put("id", accountID)
@@ -0,0 +1,139 @@
+package org.folio.rest.impl;
+
+import static java.util.stream.Collectors.toList;
+import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.folio.rest.utils.ResourceClients.accountsRefundClient;
+import static org.folio.rest.utils.ResourceClients.buildAccountPayClient;
+import static org.folio.rest.utils.ResourceClients.buildAccountTransferClient;
+import static org.folio.rest.utils.ResourceClients.buildAccountWaiveClient;
+import static org.folio.test.support.EntityBuilder.buildAccount;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.DefaultActionRequest;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.jaxrs.model.FeefineactiondataCollection;
+import org.folio.rest.utils.ResourceClient;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Posts random sequences of payments, waives, transfers and refunds to the action endpoints
+ * of seeded accounts. A running total in cents is the reference: the remaining amount of the
+ * account and the balance of every action created must match it to the cent.
+ */
+public class AccountsActionSequenceAPITests extends ApiTests {
+  private static final int SEQUENCES = 10;
+  private static final int MAX_ACTIONS = 12;
+
+  @Before
+  public void beforeEach() {
+    removeAllFromTable("feefineactions");
+    removeAllFromTable("accounts");
+  }
+
+  @Test
+  public void randomActionSequencesDoNotDrift() {
+    for (long seed = 0; seed < SEQUENCES; seed++) {
+      runSequence(new Random(seed), seed);
+    }
+  }
+
+  private void runSequence(Random random, long seed) {
+    // charges from one cent up to ten million
+    long remainingCents = 1 + (long) (random.nextDouble() * Math.pow(10, 2 + random.nextInt(8)));
+    long paidCents = 0;
+    long transferredCents = 0;
+
+    Account account = buildAccount(toDouble(remainingCents), toDouble(remainingCents));
+    accountsClient.create(account);
+
+    Set<String> seenActionIds = new HashSet<>();
+    int actions = 1 + random.nextInt(MAX_ACTIONS);
+    for (int i = 0; i < actions; i++) {
+      List<Long> expectedBalances = new ArrayList<>();
+      int kind = random.nextInt(4);
+
+      if (kind == 3 && paidCents + transferredCents > 0) {
+        long refundCents = 1 + (long) (random.nextDouble() * (paidCents + transferredCents));
+        long refundedPaymentCents = Math.min(paidCents, refundCents);
+        long refundedTransferCents = refundCents - refundedPaymentCents;
+
+        // credits first, then the refunds that bring the balance back
+        long balance = remainingCents;
+        for (long part : new long[] { -refundedPaymentCents, -refundedTransferCents,
+          refundedPaymentCents, refundedTransferCents }) {
+          if (part != 0) {
+            balance += part;
+            expectedBalances.add(balance);
+          }
+        }
+        post(accountsRefundClient(account.getId()), refundCents);
+      } else if (remainingCents > 0) {
+        long actionCents = 1 + (long) (random.nextDouble() * remainingCents);
+        remainingCents -= actionCents;
+        expectedBalances.add(remainingCents);
+
+        if (kind == 0 || kind == 3) {
+          post(buildAccountPayClient(account.getId()), actionCents);
+          paidCents += actionCents;
+        } else if (kind == 1) {
+          post(buildAccountTransferClient(account.getId()), actionCents);
+          transferredCents += actionCents;
+        } else {
+          post(buildAccountWaiveClient(account.getId()), actionCents);
+        }
+      } else {
+        break;
+      }
+
+      String message = "seed " + seed + ", action " + i;
+      Account updated = accountsClient.getById(account.getId()).as(Account.class);
+      assertThat(message, toCents(updated.getRemaining()), is(remainingCents));
+      assertThat(message, newActionBalances(account.getId(), seenActionIds),
+        containsInAnyOrder(expectedBalances.toArray()));
+    }
+  }
+
+  private static void post(ResourceClient actionClient, long cents) {
+    actionClient.post(new DefaultActionRequest()
+      .withAmount(BigDecimal.valueOf(cents, 2).toPlainString())
+      .withPaymentMethod("Cash")
+      .withServicePointId(randomId())
+      .withUserName("Folio, Tester")
+      .withNotifyPatron(false))
+      .then()
+      .statusCode(SC_CREATED);
+  }
+
+  private List<Long> newActionBalances(String accountId, Set<String> seenActionIds) {
+    List<Feefineaction> actions = client
+      .get("/feefineactions?limit=1000&query=accountId==" + accountId)
+      .as(FeefineactiondataCollection.class)
+      .getFeefineactions();
+
+    return actions.stream()
+      .filter(action -> seenActionIds.add(action.getId()))
+      .map(action -> toCents(action.getBalance()))
+      .collect(toList());
+  }
+
+  private static long toCents(Double amount) {
+    return new MonetaryValue(amount).getAmount().movePointRight(2).longValueExact();
+  }
+
+  private static double toDouble(long cents) {
+    return BigDecimal.valueOf(cents, 2).doubleValue();
+  }
+}
@@ -0,0 +1,224 @@
+package org.folio.rest.impl;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static io.vertx.core.json.JsonObject.mapFrom;
+import static java.util.stream.Collectors.toList;
+import static org.apache.http.HttpStatus.SC_CREATED;
+import static org.folio.rest.utils.ResourceClients.buildAccountBulkPayClient;
+import static org.folio.rest.utils.ResourceClients.feeFinesClient;
+import static org.folio.rest.utils.ResourceClients.ownersClient;
+import static org.folio.test.support.EntityBuilder.buildAccount;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.DefaultBulkActionRequest;
+import org.folio.rest.jaxrs.model.Feefine;
+import org.folio.rest.jaxrs.model.Items;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.jaxrs.model.Personal;
+import org.folio.rest.jaxrs.model.User;
+import org.folio.rest.utils.ResourceClient;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+public class AccountsBulkPatronNoticeAPITests extends ApiTests {
+  private static final String PATRON_NOTICE_PATH = "/patron-notice";
+
+  private final ResourceClient ownersClient = ownersClient();
+  private final ResourceClient feeFinesClient = feeFinesClient();
+
+  @Before
+  public void beforeEach() {
+    removeAllFromTable("feefineactions");
+    removeAllFromTable("accounts");
+    removeAllFromTable("feefines");
+    removeAllFromTable("owners");
+
+    getOkapi().stubFor(post(urlPathEqualTo(PATRON_NOTICE_PATH))
+      .willReturn(aResponse().withStatus(200)));
+    stubGet("/item-storage/items", new Items().withTotalRecords(0));
+  }
+
+  @Test
+  public void noticesAreAggregatedPerPatronAndTemplateWhenOwnerAggregatesThem() {
+    Owner owner = createOwner(true);
+    Feefine firstFeeFine = createFeeFine(owner);
+    Feefine secondFeeFine = createFeeFine(owner);
+    User firstUser = createUser();
+    User secondUser = createUser();
+
+    Account first = createAccount(owner, firstFeeFine, firstUser);
+    Account second = createAccount(owner, firstFeeFine, firstUser);
+    Account otherTemplate = createAccount(owner, secondFeeFine, firstUser);
+    Account otherUser = createAccount(owner, firstFeeFine, secondUser);
+    // the instance of this fee/fine cannot be loaded, so only its own notice fails
+    String missingInstanceId = randomId();
+    Account notEnriched = createAccount(owner, firstFeeFine, firstUser, missingInstanceId);
+    getOkapi().stubFor(get(urlPathEqualTo("/instance-storage/instances/" + missingInstanceId))
+      .willReturn(aResponse().withStatus(404)));
+
+    payInBulk(first, second, otherTemplate, otherUser, notEnriched);
+
+    List<JsonObject> notices = awaitNotices(3);
+
+    JsonObject aggregated = findNotice(notices, firstUser, firstFeeFine);
+    JsonArray feeCharges = aggregated.getJsonObject("context").getJsonArray("feeCharges");
+    assertThat(feeCharges.size(), is(2));
+    assertThat(feeCharges.stream()
+        .map(feeCharge -> ((JsonObject) feeCharge).getJsonObject("item").getString("title"))
+        .collect(toList()),
+      containsInAnyOrder(first.getTitle(), second.getTitle()));
+    assertThat(aggregated.getJsonObject("context").getJsonObject("user").getString("barcode"),
+      is(firstUser.getBarcode()));
+
+    // a group with a single fee/fine gets the regular notice
+    assertRegularNotice(findNotice(notices, firstUser, secondFeeFine), otherTemplate);
+    assertRegularNotice(findNotice(notices, secondUser, firstFeeFine), otherUser);
+  }
+
+  @Test
+  public void noticeIsSentPerFeeFineWhenOwnerDoesNotAggregateThem() {
+    Owner owner = createOwner(null);
+    Feefine feeFine = createFeeFine(owner);
+    User user = createUser();
+
+    Account first = createAccount(owner, feeFine, user);
+    Account second = createAccount(owner, feeFine, user);
+
+    payInBulk(first, second);
+
+    List<JsonObject> notices = awaitNotices(2);
+
+    notices.forEach(notice -> {
+      assertThat(notice.getString("recipientId"), is(user.getId()));
+      assertThat(notice.getString("templateId"), is(feeFine.getActionNoticeId()));
+      assertThat(notice.getJsonObject("context").containsKey("feeCharges"), is(false));
+    });
+  }
+
+  private void payInBulk(Account... accounts) {
+    List<String> accountIds = Arrays.stream(accounts)
+      .map(Account::getId)
+      .collect(toList());
+
+    buildAccountBulkPayClient().post(mapFrom(new DefaultBulkActionRequest()
+      .withAmount(String.format("%d.00", accounts.length))
+      .withAccountIds(accountIds)
+      .withPaymentMethod("Cash")
+      .withServicePointId(randomId())
+      .withUserName("Folio, Tester")
+      .withNotifyPatron(true)).encodePrettily())
+      .then()
+      .statusCode(SC_CREATED);
+  }
+
+  private List<JsonObject> awaitNotices(int count) {
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .untilAsserted(() -> getOkapi().verify(count,
+        postRequestedFor(urlPathEqualTo(PATRON_NOTICE_PATH))));
+
+    // no notice follows late
+    Awaitility.await()
+      .pollDelay(500, TimeUnit.MILLISECONDS)
+      .atMost(1, TimeUnit.SECONDS)
+      .untilAsserted(() -> getOkapi().verify(count,
+        postRequestedFor(urlPathEqualTo(PATRON_NOTICE_PATH))));
+
+    List<JsonObject> notices = getOkapi()
+      .findAll(postRequestedFor(urlPathEqualTo(PATRON_NOTICE_PATH))).stream()
+      .map(request -> new JsonObject(request.getBodyAsString()))
+      .collect(toList());
+    assertThat(notices, hasSize(count));
+    return notices;
+  }
+
+  private static JsonObject findNotice(List<JsonObject> notices, User user, Feefine feeFine) {
+    List<JsonObject> found = notices.stream()
+      .filter(notice -> user.getId().equals(notice.getString("recipientId")))
+      .filter(notice -> feeFine.getActionNoticeId().equals(notice.getString("templateId")))
+      .collect(toList());
+
+    assertThat(found, hasSize(1));
+    return found.get(0);
+  }
+
+  private static void assertRegularNotice(JsonObject notice, Account account) {
+    JsonObject context = notice.getJsonObject("context");
+
+    assertThat(context.containsKey("feeCharges"), is(false));
+    assertThat(context.getJsonObject("item").getString("title"), is(account.getTitle()));
+  }
+
+  private Owner createOwner(Boolean aggregateBulkNotices) {
+    Owner owner = new Owner()
+      .withId(randomId())
+      .withOwner("Owner " + randomId())
+      .withAggregateBulkNotices(aggregateBulkNotices);
+
+    ownersClient.create(owner);
+    return owner;
+  }
+
+  private Feefine createFeeFine(Owner owner) {
+    Feefine feeFine = new Feefine()
+      .withId(randomId())
+      .withOwnerId(owner.getId())
+      .withFeeFineType("Fee/fine " + randomId())
+      .withActionNoticeId(randomId());
+
+    feeFinesClient.create(feeFine);
+    return feeFine;
+  }
+
+  private User createUser() {
+    User user = new User()
+      .withId(randomId())
+      .withBarcode(randomId())
+      .withPersonal(new Personal()
+        .withFirstName("First")
+        .withLastName("Last"));
+
+    stubGet("/users/" + user.getId(), user);
+    return user;
+  }
+
+  private Account createAccount(Owner owner, Feefine feeFine, User user) {
+    return createAccount(owner, feeFine, user, null);
+  }
+
+  private Account createAccount(Owner owner, Feefine feeFine, User user, String instanceId) {
+    Account account = buildAccount(1.0, 1.0)
+      .withOwnerId(owner.getId())
+      .withFeeFineOwner(owner.getOwner())
+      .withFeeFineId(feeFine.getId())
+      .withFeeFineType(feeFine.getFeeFineType())
+      .withUserId(user.getId())
+      .withInstanceId(instanceId)
+      .withTitle("Title " + randomId());
+
+    accountsClient.create(account);
+    return account;
+  }
+
+  private void stubGet(String path, Object body) {
+    getOkapi().stubFor(get(urlPathEqualTo(path))
+      .willReturn(aResponse().withBody(mapFrom(body).encodePrettily())));
+  }
+}
@@ -9,11 +9,13 @@ import static java.lang.String.format;
 import static java.util.Collections.singletonList;
 import static org.folio.rest.domain.Action.PAY;
 import static org.folio.rest.domain.Action.WAIVE;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
 import static org.folio.rest.utils.ResourceClients.buildAccountBulkPayClient;
 import static org.folio.rest.utils.ResourceClients.buildAccountBulkWaiveClient;
 import static org.folio.rest.utils.ResourceClients.feeFineActionsClient;
 import static org.folio.test.support.matcher.FeeFineActionMatchers.feeFineAction;
 import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
@@ -37,6 +39,7 @@ import org.folio.rest.jaxrs.model.Status;
 import org.folio.rest.utils.ResourceClient;
 import org.folio.test.support.ApiTests;
 import org.folio.util.pubsub.PubSubClientUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -49,6 +52,7 @@ import io.vertx.core.json.JsonObject;
 @RunWith(value = Parameterized.class)
 public class AccountsBulkPayWaiveTransferAPITests extends ApiTests {
   private static final String FEE_FINE_ACTIONS = "feefineactions";
+  private static final String SCHEMA = convertToPsqlStandard(TENANT_NAME);
 
   private static final String AMOUNT_KEY = "amount";
   private static final String ACCOUNT_IDS_KEY = "accountIds";
@@ -80,6 +84,12 @@ public class AccountsBulkPayWaiveTransferAPITests extends ApiTests {
     resourceClient = getClient();
   }
 
+  @After
+  public void afterEach() {
+    executeSql(format("DROP TRIGGER IF EXISTS reject_account_update ON %s.accounts", SCHEMA));
+    executeSql(format("DROP FUNCTION IF EXISTS %s.reject_account_update()", SCHEMA));
+  }
+
   private ResourceClient getClient() {
     switch (action) {
     case PAY:
@@ -327,6 +337,93 @@ public class AccountsBulkPayWaiveTransferAPITests extends ApiTests {
       .put("feeFineId", account2.getId()));
   }
 
+  @Test
+  public void return400WhenAllocationStrategyIsUnknown() {
+    postAccount(createAccount(FIRST_ACCOUNT_ID, 2.0));
+
+    JsonObject request = JsonObject.mapFrom(createRequest("1.00", FIRST_ACCOUNT_ID_AS_LIST))
+      .put("allocationStrategy", "newestFirst");
+
+    resourceClient.post(request.encodePrettily())
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST)
+      .body(containsString("newestFirst"));
+  }
+
+  @Test
+  public void largestBalanceFirstLeavesSmallerFeeFineUntouched() {
+    Account account1 = createAccount(FIRST_ACCOUNT_ID, 2.0);
+    Account account2 = createAccount(SECOND_ACCOUNT_ID, 1.5);
+
+    postAccount(account1);
+    postAccount(account2);
+
+    DefaultBulkActionRequest request = createRequest("2.00", TWO_ACCOUNT_IDS)
+      .withAllocationStrategy(DefaultBulkActionRequest.AllocationStrategy.LARGEST_BALANCE_FIRST);
+
+    resourceClient.post(toJson(request))
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    actionsClient.getAll()
+      .then()
+      .body(FEE_FINE_ACTIONS, hasSize(1))
+      .body(FEE_FINE_ACTIONS, hasItem(
+        feeFineAction(FIRST_ACCOUNT_ID, account1.getUserId(), 0.0, 2.0,
+          action.getFullResult(), request.getTransactionInfo(), request)));
+
+    accountsClient.getById(FIRST_ACCOUNT_ID)
+      .then()
+      .body("remaining", is(0.0f))
+      .body("status.name", is(FeeFineStatus.CLOSED.getValue()));
+
+    accountsClient.getById(SECOND_ACCOUNT_ID)
+      .then()
+      .body("remaining", is(1.5f))
+      .body("status.name", is(FeeFineStatus.OPEN.getValue()))
+      .body("paymentStatus.name", is("Outstanding"));
+  }
+
+  @Test
+  public void nothingIsSavedWhenUpdateOfOneFeeFineFails() {
+    postAccount(createAccount(FIRST_ACCOUNT_ID, 2.0));
+    postAccount(createAccount(SECOND_ACCOUNT_ID, 1.5));
+    rejectUpdateOfAccount(SECOND_ACCOUNT_ID);
+
+    resourceClient.post(createRequestJson("3.00", TWO_ACCOUNT_IDS))
+      .then()
+      .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+    actionsClient.getAll()
+      .then()
+      .body(FEE_FINE_ACTIONS, hasSize(0));
+
+    accountsClient.getById(FIRST_ACCOUNT_ID)
+      .then()
+      .body("remaining", is(2.0f))
+      .body("status.name", is(FeeFineStatus.OPEN.getValue()))
+      .body("paymentStatus.name", is("Outstanding"));
+
+    accountsClient.getById(SECOND_ACCOUNT_ID)
+      .then()
+      .body("remaining", is(1.5f))
+      .body("status.name", is(FeeFineStatus.OPEN.getValue()))
+      .body("paymentStatus.name", is("Outstanding"));
+  }
+
+  /**
+   * Makes updates of the account fail, after the fee/fine actions of the bulk action have been
+   * saved in the same transaction.
+   */
+  private void rejectUpdateOfAccount(String accountId) {
+    executeSql(format("CREATE FUNCTION %s.reject_account_update() RETURNS TRIGGER AS $$ " +
+      "BEGIN RAISE EXCEPTION 'Fee/fine %s cannot be updated'; END; $$ LANGUAGE plpgsql",
+      SCHEMA, accountId));
+    executeSql(format("CREATE TRIGGER reject_account_update BEFORE UPDATE ON %1$s.accounts " +
+      "FOR EACH ROW WHEN (OLD.id = '%2$s') EXECUTE PROCEDURE %1$s.reject_account_update()",
+      SCHEMA, accountId));
+  }
+
   private Account createAccount(String accountId, double amount) {
     return new Account()
       .withId(accountId)
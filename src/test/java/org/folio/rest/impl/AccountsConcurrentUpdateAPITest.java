@@ -0,0 +1,220 @@
+package org.folio.rest.impl;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
+import static org.folio.rest.utils.ResourceClients.buildAccountBulkPayClient;
+import static org.folio.rest.utils.ResourceClients.buildAccountPayClient;
+import static org.folio.rest.utils.ResourceClients.feeFineActionsClient;
+import static org.folio.test.support.EntityBuilder.buildAccount;
+import static org.hamcrest.CoreMatchers.either;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.DefaultActionRequest;
+import org.folio.rest.jaxrs.model.DefaultBulkActionRequest;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.ResourceClient;
+import org.folio.test.support.ApiTests;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Fee/fine actions read an account, then update it only if its version did not change in the
+ * meantime and are retried up to three times when it did.
+ */
+public class AccountsConcurrentUpdateAPITest extends ApiTests {
+  private static final String FEE_FINE_ACTIONS = "feefineactions";
+  private static final String SCHEMA = convertToPsqlStandard(TENANT_NAME);
+  private static final int MAX_ATTEMPTS = 3;
+
+  private final ResourceClient actionsClient = feeFineActionsClient();
+
+  @Before
+  public void beforeEach() {
+    removeAllFromTable(FEE_FINE_ACTIONS);
+    removeAllFromTable("accounts");
+  }
+
+  @After
+  public void afterEach() {
+    executeSql(format("DROP TRIGGER IF EXISTS update_accounts_concurrently ON %s.%s",
+      SCHEMA, FEE_FINE_ACTIONS));
+    executeSql(format("DROP FUNCTION IF EXISTS %s.update_accounts_concurrently()", SCHEMA));
+    executeSql(format("DROP SEQUENCE IF EXISTS %s.concurrent_account_updates", SCHEMA));
+  }
+
+  @Test
+  public void payIsRetriedWhenFeeFineIsModifiedConcurrently() throws Exception {
+    Account account = postAccount(4.55);
+    modifyAccountsConcurrently(1);
+
+    buildAccountPayClient(account.getId()).post(payRequest("1.00"))
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    assertThat(attempts(), is(2));
+    actionsClient.getAll()
+      .then()
+      .body(FEE_FINE_ACTIONS, hasSize(1));
+    accountsClient.getById(account.getId())
+      .then()
+      .body("remaining", is(3.55f));
+  }
+
+  @Test
+  public void payFailsWhenFeeFineKeepsBeingModifiedConcurrently() throws Exception {
+    Account account = postAccount(4.55);
+    modifyAccountsConcurrently(Integer.MAX_VALUE);
+
+    buildAccountPayClient(account.getId()).post(payRequest("1.00"))
+      .then()
+      .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+
+    assertThat(attempts(), is(MAX_ATTEMPTS));
+    actionsClient.getAll()
+      .then()
+      .body(FEE_FINE_ACTIONS, hasSize(0));
+    accountsClient.getById(account.getId())
+      .then()
+      .body("remaining", is(4.55f))
+      .body("status.name", is("Open"));
+  }
+
+  @Test
+  public void bulkPayIsRetriedWhenFeeFinesAreModifiedConcurrently() {
+    Account first = postAccount(2.00);
+    Account second = postAccount(1.50);
+    modifyAccountsConcurrently(1);
+
+    DefaultBulkActionRequest request = new DefaultBulkActionRequest()
+      .withAmount("3.00")
+      .withAccountIds(asList(first.getId(), second.getId()))
+      .withPaymentMethod("Cash")
+      .withServicePointId(randomId())
+      .withUserName("Folio, Tester")
+      .withNotifyPatron(false);
+
+    buildAccountBulkPayClient().post(JsonObject.mapFrom(request).encode())
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    actionsClient.getAll()
+      .then()
+      .body(FEE_FINE_ACTIONS, hasSize(2));
+    accountsClient.getById(first.getId())
+      .then()
+      .body("remaining", is(0.5f));
+    accountsClient.getById(second.getId())
+      .then()
+      .body("remaining", is(0.0f));
+  }
+
+  @Test
+  public void concurrentPaymentsOfFeeFineAreNotLost() throws Exception {
+    final int payments = 5;
+    Account account = postAccount(10.00);
+    ExecutorService executor = Executors.newFixedThreadPool(payments);
+
+    List<Future<Integer>> statuses = new ArrayList<>();
+    try {
+      for (int i = 0; i < payments; i++) {
+        statuses.add(executor.submit(() -> buildAccountPayClient(account.getId())
+          .post(payRequest("1.00"))
+          .getStatusCode()));
+      }
+
+      int succeeded = 0;
+      for (Future<Integer> status : statuses) {
+        int statusCode = status.get(30, TimeUnit.SECONDS);
+        // a payment fails only when it lost the race on every attempt
+        assertThat(statusCode, either(is(HttpStatus.SC_CREATED))
+          .or(is(HttpStatus.SC_INTERNAL_SERVER_ERROR)));
+        if (statusCode == HttpStatus.SC_CREATED) {
+          succeeded++;
+        }
+      }
+
+      assertThat(succeeded, greaterThan(0));
+      actionsClient.getAll()
+        .then()
+        .body(FEE_FINE_ACTIONS, hasSize(succeeded));
+      accountsClient.getById(account.getId())
+        .then()
+        .body("remaining", is((float) (10.00 - succeeded)));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Makes the first {@code conflicts} inserts of fee/fine actions modify all accounts, which
+   * happens within the transaction of the action after it read the accounts and before it
+   * updates them. Changes rolled back with the action do not reset the sequence, so it counts
+   * the attempts.
+   */
+  private void modifyAccountsConcurrently(int conflicts) {
+    executeSql(format("CREATE SEQUENCE %s.concurrent_account_updates", SCHEMA));
+    executeSql(format("CREATE FUNCTION %1$s.update_accounts_concurrently() " +
+      "RETURNS TRIGGER AS $$ BEGIN " +
+      "IF nextval('%1$s.concurrent_account_updates') <= %2$d THEN " +
+      "UPDATE %1$s.accounts SET jsonb = jsonb; " +
+      "END IF; " +
+      "RETURN NULL; " +
+      "END; $$ LANGUAGE plpgsql", SCHEMA, conflicts));
+    executeSql(format("CREATE TRIGGER update_accounts_concurrently " +
+      "AFTER INSERT ON %1$s.%2$s FOR EACH STATEMENT " +
+      "EXECUTE PROCEDURE %1$s.update_accounts_concurrently()", SCHEMA, FEE_FINE_ACTIONS));
+  }
+
+  private int attempts() throws Exception {
+    final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+    PostgresClient.getInstance(vertx, TENANT_NAME)
+      .select(format("SELECT last_value FROM %s.concurrent_account_updates", SCHEMA),
+        result -> {
+          if (result.succeeded()) {
+            future.complete(result.result().iterator().next().getLong(0).intValue());
+          } else {
+            future.completeExceptionally(result.cause());
+          }
+        });
+
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
+  private Account postAccount(double amount) {
+    Account account = buildAccount(amount, amount);
+
+    accountsClient.create(account)
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    return account;
+  }
+
+  private static String payRequest(String amount) {
+    return JsonObject.mapFrom(new DefaultActionRequest()
+      .withAmount(amount)
+      .withPaymentMethod("Cash")
+      .withServicePointId(randomId())
+      .withUserName("Folio, Tester")
+      .withNotifyPatron(false))
+      .encode();
+  }
+}
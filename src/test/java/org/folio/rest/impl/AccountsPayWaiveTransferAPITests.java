@@ -1,6 +1,7 @@
 package org.folio.rest.impl;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.jayway.jsonpath.matchers.JsonPathMatchers.hasJsonPath;
@@ -15,11 +16,15 @@ import static org.folio.rest.utils.ResourceClients.buildAccountWaiveClient;
 import static org.folio.rest.utils.ResourceClients.feeFineActionsClient;
 import static org.folio.test.support.matcher.FeeFineActionMatchers.feeFineAction;
 import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpStatus;
@@ -35,6 +40,12 @@ import org.folio.rest.jaxrs.model.Event;
 import org.folio.rest.jaxrs.model.EventMetadata;
 import org.folio.rest.jaxrs.model.PaymentStatus;
 import org.folio.rest.jaxrs.model.Status;
+import org.folio.rest.metrics.MetricsServerVerticle;
+import org.folio.rest.service.CurrencyService;
+import org.folio.rest.tracing.InMemorySpanExporter;
+import org.folio.rest.tracing.Span;
+import org.folio.rest.tracing.SpanExporter;
+import org.folio.rest.tracing.Tracing;
 import org.folio.rest.utils.ResourceClient;
 import org.folio.test.support.ApiTests;
 import org.folio.util.pubsub.PubSubClientUtils;
@@ -44,7 +55,11 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
+import com.github.tomakehurst.wiremock.client.WireMock;
+
+import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 @RunWith(value = Parameterized.class)
@@ -69,17 +84,17 @@ public class AccountsPayWaiveTransferAPITests extends ApiTests {
   public void beforeEach() {
     removeAllFromTable(FEE_FINE_ACTIONS);
     removeAllFromTable("accounts");
-    resourceClient = getClient();
+    resourceClient = getClient(ACCOUNT_ID);
   }
 
-  private ResourceClient getClient() {
+  private ResourceClient getClient(String accountId) {
     switch (action) {
     case PAY:
-      return buildAccountPayClient(ACCOUNT_ID);
+      return buildAccountPayClient(accountId);
     case WAIVE:
-      return buildAccountWaiveClient(ACCOUNT_ID);
+      return buildAccountWaiveClient(accountId);
     case TRANSFER:
-      return buildAccountTransferClient(ACCOUNT_ID);
+      return buildAccountTransferClient(accountId);
     default:
       throw new IllegalArgumentException("Failed to get ResourceClient for action: " + action.name());
     }
@@ -94,6 +109,15 @@ public class AccountsPayWaiveTransferAPITests extends ApiTests {
       .body(equalTo(format("Fee/fine ID %s not found", ACCOUNT_ID)));
   }
 
+  @Test
+  public void return404WhenAccountIdIsNotUuid() {
+    getClient("not-a-uuid").post(createRequestJson(String.valueOf(10.0)))
+      .then()
+      .statusCode(HttpStatus.SC_NOT_FOUND)
+      .contentType(ContentType.TEXT)
+      .body(equalTo("Fee/fine ID not-a-uuid not found"));
+  }
+
   @Test
   public void return422WhenRequestedAmountIsNegative() {
     testRequestWithNonPositiveAmount(-1);
@@ -237,6 +261,43 @@ public class AccountsPayWaiveTransferAPITests extends ApiTests {
       .body("paymentStatus.name", is(expectedPaymentStatus));
   }
 
+  @Test
+  public void amountsAreRoundedToCurrencyOfTenant() {
+    JsonObject localeSettings = new JsonObject()
+      .put("locale", "ja-JP")
+      .put("timezone", "Asia/Tokyo")
+      .put("currency", "JPY");
+    getOkapi().stubFor(WireMock.get(urlPathEqualTo("/configurations/entries"))
+      .willReturn(okJson(new JsonObject()
+        .put("configs", new JsonArray().add(new JsonObject()
+          .put("module", "ORG")
+          .put("configName", "localeSettings")
+          .put("value", localeSettings.encode())))
+        .encode())));
+    CurrencyService.invalidate(TENANT_NAME);
+
+    try {
+      postAccount(createAccount(100.0));
+
+      resourceClient.post(createRequestJson("10.4"))
+        .then()
+        .statusCode(HttpStatus.SC_CREATED)
+        .body("amount", is("10"));
+
+      actionsClient.getAll()
+        .then()
+        .body(FEE_FINE_ACTIONS, hasItem(allOf(
+          hasJsonPath("amountAction", is(10.0f)),
+          hasJsonPath("balance", is(90.0f)))));
+
+      accountsClient.getById(ACCOUNT_ID)
+        .then()
+        .body("remaining", is(90.0f));
+    } finally {
+      CurrencyService.invalidate(TENANT_NAME);
+    }
+  }
+
   @Test
   public void partialActionCreatesActionAndUpdatesAccount() {
     paymentCreatesActionAndUpdatesAccount(false);
@@ -296,6 +357,76 @@ public class AccountsPayWaiveTransferAPITests extends ApiTests {
     }
   }
 
+  @Test
+  public void actionIsMeasuredByStageAndOutcome() {
+    postAccount(createAccount(3.45));
+
+    resourceClient.post(toJson(createRequest("1.00")))
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    resourceClient.post(createRequestJson("eleven"))
+      .then()
+      .statusCode(HttpStatus.SC_UNPROCESSABLE_ENTITY);
+
+    String tags = format("action=\"%s\",bulk=\"false\"", action.name());
+    String tenant = format("tenant=\"%s\"", TENANT_NAME);
+
+    RestAssured.get("http://localhost:" + MetricsServerVerticle.getPort() + "/metrics")
+      .then()
+      .statusCode(HttpStatus.SC_OK)
+      .body(containsString("feesfines_action_requests_seconds_count{" + tags
+        + ",outcome=\"201\"," + tenant))
+      .body(containsString("feesfines_action_requests_seconds_count{" + tags
+        + ",outcome=\"422\"," + tenant))
+      .body(containsString("feesfines_action_stage_seconds_count{" + tags
+        + ",stage=\"updateAccount\"," + tenant))
+      .body(containsString("feesfines_action_db_calls_count{" + tags + "," + tenant));
+  }
+
+  @Test
+  public void actionIsTracedByStageAndRepositoryCall() {
+    postAccount(createAccount(3.45));
+
+    // spans are only recorded for this test, other tests run with tracing disabled
+    SpanExporter originalExporter = Tracing.getExporter();
+    InMemorySpanExporter spanExporter = new InMemorySpanExporter();
+    Tracing.setExporter(spanExporter);
+
+    Span request;
+    try {
+      resourceClient.post(toJson(createRequest("1.00")))
+        .then()
+        .statusCode(HttpStatus.SC_CREATED);
+
+      request = Awaitility.await()
+        .atMost(5, TimeUnit.SECONDS)
+        .until(() -> findSpan(spanExporter.getFinishedSpans(), action.name()), is(notNullValue()));
+    } finally {
+      Tracing.setExporter(originalExporter);
+    }
+
+    List<Span> spans = spanExporter.getFinishedSpans(request.getContext().getTraceId());
+    Span findAccount = findSpan(spans, "findAccount");
+    Span updateAccount = findSpan(spans, "updateAccount");
+
+    assertThat(findAccount.getParentSpanId(), is(request.getContext().getSpanId()));
+    assertThat(updateAccount.getParentSpanId(), is(request.getContext().getSpanId()));
+    assertThat(findSpan(spans, "AccountRepository.getVersionedAccountsByIdWithNulls")
+      .getParentSpanId(), is(findAccount.getContext().getSpanId()));
+    assertThat(findSpan(spans, "AccountRepository.updateVersioned").getParentSpanId(),
+      is(updateAccount.getContext().getSpanId()));
+    assertThat(findSpan(spans, "FeeFineActionRepository.saveBatch").getParentSpanId(),
+      is(updateAccount.getContext().getSpanId()));
+  }
+
+  private static Span findSpan(List<Span> spans, String name) {
+    return spans.stream()
+      .filter(span -> span.getName().equals(name))
+      .findFirst()
+      .orElse(null);
+  }
+
   private Account createAccount(double amount) {
     return new Account()
       .withId(ACCOUNT_ID)
@@ -350,6 +350,15 @@ public class AccountsRefundAPITests extends ApiTests {
       .body(equalTo(format("Fee/fine ID %s not found", ACCOUNT_ID)));
   }
 
+  @Test
+  public void return404WhenAccountIdIsNotUuid() {
+    accountsRefundClient("not-a-uuid").post(toJson(createRequest(10.0)))
+      .then()
+      .statusCode(HttpStatus.SC_NOT_FOUND)
+      .contentType(ContentType.TEXT)
+      .body(equalTo("Fee/fine ID not-a-uuid not found"));
+  }
+
   @Test
   public void return422WhenRequestedAmountIsNegative() {
     DefaultActionRequest request = createRequest(-1.0);
@@ -0,0 +1,177 @@
+package org.folio.rest.impl;
+
+import static io.restassured.http.ContentType.JSON;
+import static io.vertx.core.json.Json.decodeValue;
+import static java.util.Arrays.asList;
+import static org.folio.rest.utils.ResourceClients.buildAccountBulkPayClient;
+import static org.folio.rest.utils.ResourceClients.buildAccountPayClient;
+import static org.folio.rest.utils.ResourceClients.buildUserBalanceSummaryClient;
+import static org.folio.test.support.EntityBuilder.buildAccount;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+
+import org.apache.http.HttpStatus;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.DefaultActionRequest;
+import org.folio.rest.jaxrs.model.DefaultBulkActionRequest;
+import org.folio.rest.jaxrs.model.OwnerBalance;
+import org.folio.rest.jaxrs.model.Status;
+import org.folio.rest.jaxrs.model.UserBalanceSummary;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class AccountsUserSummaryAPITest extends ApiTests {
+  private static final String ACCOUNTS_TABLE = "accounts";
+  private static final Date OLDEST_OPEN_DATE = new Date(1_577_836_800_000L);
+
+  private final String userId = randomId();
+  private final String firstOwnerId = randomId();
+  private final String secondOwnerId = randomId();
+
+  @Before
+  public void setUp() {
+    removeAllFromTable(ACCOUNTS_TABLE);
+  }
+
+  @Test
+  public void summaryIsEmptyForUserWithoutOpenFeesFines() {
+    accountsClient.create(buildClosedAccount(firstOwnerId));
+
+    UserBalanceSummary summary = getSummary();
+
+    assertEquals(userId, summary.getUserId());
+    assertEquals(0, summary.getOpenCount().intValue());
+    assertEquals(0.0, summary.getTotalOwed(), 0.001);
+    assertNull(summary.getOldestOpenDate());
+    assertEquals(0, summary.getOwners().size());
+  }
+
+  @Test
+  public void summaryFollowsCreatedUpdatedAndDeletedFeesFines() {
+    createAccount(firstOwnerId, 4.55);
+    Account second = createAccount(firstOwnerId, 1.00);
+    Account third = createAccount(secondOwnerId, 2.50);
+    accountsClient.create(buildClosedAccount(secondOwnerId));
+
+    UserBalanceSummary summary = getSummary();
+    assertEquals(3, summary.getOpenCount().intValue());
+    assertEquals(8.05, summary.getTotalOwed(), 0.001);
+    assertEquals(OLDEST_OPEN_DATE, summary.getOldestOpenDate());
+    assertOwnerBalance(summary, firstOwnerId, 2, 5.55);
+    assertOwnerBalance(summary, secondOwnerId, 1, 2.50);
+
+    buildAccountPayClient(second.getId()).post(JsonObject.mapFrom(payRequest("1.00")).encode())
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    summary = getSummary();
+    assertEquals(2, summary.getOpenCount().intValue());
+    assertEquals(7.05, summary.getTotalOwed(), 0.001);
+    assertOwnerBalance(summary, firstOwnerId, 1, 4.55);
+
+    accountsClient.update(third.getId(), third.withRemaining(1.25));
+    assertOwnerBalance(getSummary(), secondOwnerId, 1, 1.25);
+
+    accountsClient.delete(third.getId());
+
+    summary = getSummary();
+    assertEquals(1, summary.getOpenCount().intValue());
+    assertEquals(4.55, summary.getTotalOwed(), 0.001);
+    assertEquals(1, summary.getOwners().size());
+    assertOwnerBalance(summary, firstOwnerId, 1, 4.55);
+  }
+
+  @Test
+  public void oldestOpenDateMovesOnWhenOldestFeeFineIsClosed() {
+    Account oldest = createAccount(firstOwnerId, 1.00);
+    Account newer = createAccount(secondOwnerId, 2.50);
+
+    buildAccountPayClient(oldest.getId()).post(JsonObject.mapFrom(payRequest("0.50")).encode())
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+    assertEquals(OLDEST_OPEN_DATE, getSummary().getOldestOpenDate());
+
+    buildAccountPayClient(oldest.getId()).post(JsonObject.mapFrom(payRequest("0.50")).encode())
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    UserBalanceSummary summary = getSummary();
+    assertEquals(1, summary.getOpenCount().intValue());
+    assertEquals(newer.getDateCreated(), summary.getOldestOpenDate());
+    assertEquals(1, summary.getOwners().size());
+    assertOwnerBalance(summary, secondOwnerId, 1, 2.50);
+  }
+
+  @Test
+  public void summaryIsUpdatedByBulkActions() {
+    Account first = createAccount(firstOwnerId, 4.55);
+    Account second = createAccount(secondOwnerId, 2.50);
+
+    DefaultBulkActionRequest request = new DefaultBulkActionRequest()
+      .withAmount("2.00")
+      .withAccountIds(asList(first.getId(), second.getId()))
+      .withPaymentMethod("Cash")
+      .withServicePointId(randomId())
+      .withUserName("Folio, Tester")
+      .withNotifyPatron(false);
+
+    buildAccountBulkPayClient().post(JsonObject.mapFrom(request).encode())
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+
+    UserBalanceSummary summary = getSummary();
+    assertEquals(2, summary.getOpenCount().intValue());
+    assertEquals(5.05, summary.getTotalOwed(), 0.001);
+  }
+
+  private Account createAccount(String ownerId, double remaining) {
+    Account account = buildAccount(remaining, remaining)
+      .withUserId(userId)
+      .withOwnerId(ownerId)
+      .withDateCreated(ownerId.equals(firstOwnerId) ? OLDEST_OPEN_DATE : new Date());
+
+    accountsClient.create(account);
+    return account;
+  }
+
+  private Account buildClosedAccount(String ownerId) {
+    return buildAccount(3.00, 0.0)
+      .withUserId(userId)
+      .withOwnerId(ownerId)
+      .withStatus(new Status().withName("Closed"));
+  }
+
+  private UserBalanceSummary getSummary() {
+    return decodeValue(buildUserBalanceSummaryClient(userId).getAll()
+      .then()
+      .contentType(JSON)
+      .extract()
+      .asString(), UserBalanceSummary.class);
+  }
+
+  private static void assertOwnerBalance(UserBalanceSummary summary, String ownerId,
+    int openCount, double totalOwed) {
+
+    OwnerBalance owner = summary.getOwners().stream()
+      .filter(balance -> ownerId.equals(balance.getOwnerId()))
+      .findFirst()
+      .orElseThrow(() -> new AssertionError("No balance of owner " + ownerId));
+
+    assertEquals(openCount, owner.getOpenCount().intValue());
+    assertEquals(totalOwed, owner.getTotalOwed(), 0.001);
+  }
+
+  private static DefaultActionRequest payRequest(String amount) {
+    return new DefaultActionRequest()
+      .withAmount(amount)
+      .withPaymentMethod("Cash")
+      .withServicePointId(randomId())
+      .withUserName("Folio, Tester")
+      .withNotifyPatron(false);
+  }
+}
@@ -2,6 +2,7 @@ package org.folio.rest.impl;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
@@ -33,15 +34,18 @@ import org.folio.rest.jaxrs.model.EffectiveCallNumberComponents;
 import org.folio.rest.jaxrs.model.Feefine;
 import org.folio.rest.jaxrs.model.Feefineaction;
 import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.HoldingsRecords;
 import org.folio.rest.jaxrs.model.Instance;
 import org.folio.rest.jaxrs.model.Institution;
 import org.folio.rest.jaxrs.model.Item;
+import org.folio.rest.jaxrs.model.Items;
 import org.folio.rest.jaxrs.model.Library;
 import org.folio.rest.jaxrs.model.Location;
 import org.folio.rest.jaxrs.model.Owner;
 import org.folio.rest.jaxrs.model.PaymentStatus;
 import org.folio.rest.jaxrs.model.Personal;
 import org.folio.rest.jaxrs.model.User;
+import org.folio.rest.service.PatronNoticeQueueVerticle;
 import org.folio.test.support.ApiTests;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -119,9 +123,10 @@ public class FeeFineActionsAPITest extends ApiTests {
     createEntity(ACCOUNTS_PATH, account);
 
     createStub(USERS_PATH, user, user.getId());
-    createStub(ITEMS_PATH, item, item.getId());
+    createStub(ITEMS_PATH, new Items().withItems(Collections.singletonList(item)));
     createStub(LOCATIONS_PATH, location, location.getId());
-    createStub(HOLDINGS_PATH, holdingsRecord, holdingsRecord.getId());
+    createStub(HOLDINGS_PATH, new HoldingsRecords()
+      .withHoldingsRecords(Collections.singletonList(holdingsRecord)));
     createStub(INSTANCES_PATH, instance, instance.getId());
     createStub(LIBRARIES_PATH, library, getIdFromProperties(library.getAdditionalProperties()));
     createStub(CAMPUSES_PATH, campus, getIdFromProperties(campus.getAdditionalProperties()));
@@ -193,6 +198,11 @@ public class FeeFineActionsAPITest extends ApiTests {
 
     postAction(action);
     checkResult(expectedActionContext);
+
+    // location and location units are cached after the first notice
+    getOkapi().verify(1, getRequestedFor(urlPathEqualTo(LOCATIONS_PATH + "/" + location.getId())));
+    getOkapi().verify(1, getRequestedFor(urlPathEqualTo(LIBRARIES_PATH + "/"
+      + getIdFromProperties(library.getAdditionalProperties()))));
   }
 
   @Test
@@ -492,6 +502,10 @@ public class FeeFineActionsAPITest extends ApiTests {
       .untilAsserted(() -> getOkapi().verify(postRequestedFor(urlPathEqualTo("/patron-notice"))
         .withRequestBody(equalToJson(expectedRequest.encodePrettily()))
       ));
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> PatronNoticeQueueVerticle.getMetrics().get(TENANT_NAME).getSent() > 0);
   }
 }
 
@@ -0,0 +1,148 @@
+package org.folio.rest.impl;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
+import static org.folio.test.support.EntityBuilder.buildAccount;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.http.HttpStatus;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.restassured.response.Response;
+import io.vertx.core.json.JsonObject;
+
+public class FeesFinesExportAPITest extends ApiTests {
+  private static final String SCHEMA = convertToPsqlStandard(TENANT_NAME);
+  private static final String ACCOUNTS_TABLE = "accounts";
+  private static final String EXPORT_ACCOUNTS_PATH = "/feesfines-export/accounts";
+
+  @Before
+  public void setUp() {
+    removeAllFromTable(ACCOUNTS_TABLE);
+  }
+
+  @Test
+  public void accountsAreExportedAsJsonLinesInOrderOfId() {
+    List<String> accountIds = createAccounts(3);
+
+    Response response = client.get(EXPORT_ACCOUNTS_PATH);
+
+    response.then()
+      .statusCode(HttpStatus.SC_OK)
+      .contentType(startsWith("application/x-ndjson"));
+
+    List<String> exportedIds = lines(response)
+      .map(line -> new JsonObject(line).getString("id"))
+      .collect(toList());
+
+    assertThat(exportedIds, is(sorted(accountIds)));
+  }
+
+  @Test
+  public void exportCanBeFilteredAndResumed() {
+    List<String> accountIds = sorted(createAccounts(3));
+
+    Response response = client.get(EXPORT_ACCOUNTS_PATH
+      + "?afterId=" + accountIds.get(0) + "&query=status.name==Open");
+
+    List<String> exportedIds = lines(response)
+      .map(line -> new JsonObject(line).getString("id"))
+      .collect(toList());
+
+    assertThat(exportedIds, contains(accountIds.get(1), accountIds.get(2)));
+  }
+
+  @Test
+  public void accountsAreExportedAsCsv() {
+    Account account = buildAccount().withTitle("Harry Potter, \"the\" book");
+    accountsClient.create(account);
+
+    Response response = client.get(EXPORT_ACCOUNTS_PATH + "?format=csv");
+
+    response.then()
+      .statusCode(HttpStatus.SC_OK)
+      .contentType(startsWith("text/csv"));
+
+    List<String> lines = lines(response).collect(toList());
+
+    assertThat(lines.size(), is(2));
+    assertThat(lines.get(0), startsWith("id,userId,ownerId,"));
+    assertThat(lines.get(1), startsWith(account.getId() + "," + account.getUserId()));
+    assertThat(lines.get(1), containsString(",\"Harry Potter, \"\"the\"\" book\","));
+  }
+
+  @Test
+  public void feeFineActionsCanBeExported() {
+    client.get("/feesfines-export/feefineactions")
+      .then()
+      .statusCode(HttpStatus.SC_OK);
+  }
+
+  @Test
+  public void invalidQueryIsRejected() {
+    client.get(EXPORT_ACCOUNTS_PATH + "?query=status.name==")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST)
+      .body(containsString("CQL Parsing Error"));
+  }
+
+  @Test
+  public void unsupportedFormatIsRejected() {
+    client.get(EXPORT_ACCOUNTS_PATH + "?format=xml")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST)
+      .body(containsString("Unsupported export format: xml"));
+
+    client.get("/feesfines-export/feefineactions?format=xml")
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST)
+      .body(containsString("Unsupported export format: xml"));
+  }
+
+  @Test
+  public void failureBeforeFirstChunkIsReportedAsServerError() {
+    createAccounts(1);
+    executeSql(format("ALTER TABLE %s.%s RENAME TO accounts_hidden", SCHEMA, ACCOUNTS_TABLE));
+
+    try {
+      client.get(EXPORT_ACCOUNTS_PATH)
+        .then()
+        .statusCode(HttpStatus.SC_INTERNAL_SERVER_ERROR)
+        .body(containsString(ACCOUNTS_TABLE));
+    } finally {
+      executeSql(format("ALTER TABLE %s.accounts_hidden RENAME TO %s", SCHEMA, ACCOUNTS_TABLE));
+    }
+  }
+
+  private List<String> createAccounts(int count) {
+    return IntStream.range(0, count)
+      .mapToObj(index -> {
+        Account account = buildAccount();
+        accountsClient.create(account);
+        return account.getId();
+      })
+      .collect(toList());
+  }
+
+  private static Stream<String> lines(Response response) {
+    return Arrays.stream(response.body().asString().split("\r?\n"))
+      .filter(line -> !line.isEmpty());
+  }
+
+  private static List<String> sorted(List<String> ids) {
+    return ids.stream().sorted().collect(toList());
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.rest.impl;
+
+import static org.folio.rest.utils.ResourceClients.ownersClient;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+
+import org.apache.http.HttpStatus;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.rest.utils.ResourceClient;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+
+public class OwnersAPITest extends ApiTests {
+  private static final String OWNERS_TABLE = "owners";
+
+  private final ResourceClient ownersClient = ownersClient();
+
+  @Before
+  public void setUp() {
+    removeAllFromTable(OWNERS_TABLE);
+  }
+
+  @Test
+  public void ownerWithKnownAllocationStrategyIsSaved() {
+    Owner owner = new Owner()
+      .withId(randomId())
+      .withOwner("Main library")
+      .withDefaultAllocationStrategy(Owner.DefaultAllocationStrategy.OLDEST_FIRST);
+
+    ownersClient.create(owner);
+
+    ownersClient.getById(owner.getId())
+      .then()
+      .body("defaultAllocationStrategy", is("oldestFirst"));
+  }
+
+  @Test
+  public void ownerWithUnknownAllocationStrategyIsRejected() {
+    Owner owner = new Owner()
+      .withId(randomId())
+      .withOwner("Main library")
+      .withDefaultAllocationStrategy(Owner.DefaultAllocationStrategy.EVENLY);
+
+    ownersClient.create(owner);
+
+    JsonObject update = JsonObject.mapFrom(owner)
+      .put("defaultAllocationStrategy", "newestFirst");
+
+    ownersClient.attemptUpdate(owner.getId(), update.encode())
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST)
+      .body(containsString("newestFirst"));
+
+    ownersClient.getById(owner.getId())
+      .then()
+      .body("defaultAllocationStrategy", is("evenly"));
+  }
+}
@@ -2,12 +2,14 @@ package org.folio.rest.impl.accountactionchecks.bulk;
 
 import static org.folio.rest.domain.Action.PAY;
 import static org.folio.rest.domain.Action.TRANSFER;
+import static org.folio.rest.domain.Action.WAIVE;
 import static org.folio.rest.utils.ResourceClients.buildAccountBulkCheckRefundClient;
 import static org.folio.rest.utils.ResourceClients.buildAccountCheckRefundClient;
 import static org.folio.rest.utils.ResourceClients.feeFineActionsClient;
 
 import org.apache.http.HttpStatus;
 import org.folio.rest.impl.accountactionchecks.AccountsActionChecksAPITestsBase;
+import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.Feefineaction;
 import org.folio.rest.utils.ResourceClient;
 import org.junit.Before;
@@ -51,6 +53,17 @@ public class AccountsActionBulkRefundAPITests extends AccountsActionChecksAPITes
       String.valueOf(expectedRemainingAmount));
   }
 
+  @Test
+  public void checkRefundAmountIsSummedOverAllAccounts() {
+    postAction(firstAccount, PAY.getPartialResult(), 1.00);
+    postAction(firstAccount, TRANSFER.getPartialResult(), 0.50);
+    postAction(secondAccount, PAY.getFullResult(), 2.00);
+    // waived amounts are not refundable
+    postAction(secondAccount, WAIVE.getPartialResult(), 3.00);
+
+    actionShouldBeAllowed(true, accountsBulkCheckRefundClient, "2.27");
+  }
+
   @Test
   public void checkRefundAmountShouldNotBeAllowedWithExceededAmount() {
     actionCheckRefundAmountShouldNotBeAllowedWithExceededAmount(accountsCheckRefundClient);
@@ -87,4 +100,15 @@ public class AccountsActionBulkRefundAPITests extends AccountsActionChecksAPITes
     actionCheckShouldNotFailForNonExistentAccount(false, accountsCheckRefundClient);
     actionCheckShouldNotFailForNonExistentAccount(true, accountsBulkCheckRefundClient);
   }
+
+  private static void postAction(Account account, String typeAction, double amount) {
+    feeFineActionsClient()
+      .post(new Feefineaction()
+        .withAccountId(account.getId())
+        .withUserId(account.getUserId())
+        .withTypeAction(typeAction)
+        .withAmountAction(amount))
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+  }
 }
@@ -0,0 +1,44 @@
+package org.folio.rest.metrics;
+
+import static io.vertx.core.Future.succeededFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.folio.rest.cache.ReferenceDataCache;
+import org.folio.rest.jaxrs.model.Owner;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class FeesFinesMetricsTest {
+  private static final String TENANT = "metrics_tenant";
+
+  private final MeterRegistry registry = FeesFinesMetrics.getRegistry();
+
+  @Test
+  public void cacheRegionsCountHitsAndMisses() {
+    String ownerId = UUID.randomUUID().toString();
+    double hitsBefore = cacheGets("hit");
+    double missesBefore = cacheGets("miss");
+
+    ReferenceDataCache.get(TENANT, Owner.class, ownerId,
+      () -> succeededFuture(new Owner().withId(ownerId)));
+    ReferenceDataCache.get(TENANT, Owner.class, ownerId,
+      () -> succeededFuture(new Owner().withId(ownerId)));
+
+    assertEquals(hitsBefore + 1, cacheGets("hit"));
+    assertEquals(missesBefore + 1, cacheGets("miss"));
+    assertTrue(FeesFinesMetrics.scrape()
+      .contains("feesfines_cache_gets_total{region=\"Owner\",result=\"hit\""));
+  }
+
+  private double cacheGets(String result) {
+    return registry.get("feesfines.cache.gets")
+      .tag("region", "Owner")
+      .tag("result", result)
+      .functionCounter()
+      .count();
+  }
+}
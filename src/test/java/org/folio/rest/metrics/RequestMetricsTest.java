@@ -0,0 +1,95 @@
+package org.folio.rest.metrics;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.folio.rest.domain.Action;
+import org.folio.rest.exception.AccountNotFoundValidationException;
+import org.folio.rest.exception.FailedValidationException;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.Future;
+
+public class RequestMetricsTest {
+  private static final String TENANT = "test_tenant";
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  public void stagesAreTimedWhenTheyFail() {
+    RequestMetrics requestMetrics = new RequestMetrics(registry, TENANT, Action.PAY, false);
+
+    Future<String> result = succeededFuture("context")
+      .compose(requestMetrics.stage("findAccount", context -> succeededFuture(context)))
+      .compose(requestMetrics.<String, String>stage("validate", context -> {
+        throw new FailedValidationException("Invalid amount entered");
+      }));
+
+    assertTrue(result.failed());
+    assertEquals(1, stageCount("findAccount"));
+    assertEquals(1, stageCount("validate"));
+  }
+
+  @Test
+  public void requestsAreCountedByOutcome() {
+    RequestMetrics requestMetrics = new RequestMetrics(registry, TENANT, Action.WAIVE, false);
+
+    requestMetrics.measure(() -> succeededFuture("created"));
+    requestMetrics.measure(() -> failedFuture(new FailedValidationException("closed")));
+    requestMetrics.measure(() -> failedFuture(new AccountNotFoundValidationException("gone")));
+    requestMetrics.measure(() -> failedFuture(new IllegalStateException("broken")));
+    requestMetrics.measure(() -> {
+      throw new IllegalStateException("thrown");
+    });
+
+    assertEquals(1, requestCount("201"));
+    assertEquals(1, requestCount("422"));
+    assertEquals(1, requestCount("404"));
+    assertEquals(2, requestCount("500"));
+  }
+
+  @Test
+  public void databaseCallsAreRecordedPerRequest() {
+    RequestMetrics requestMetrics = new RequestMetrics(registry, TENANT, Action.PAY, true);
+
+    requestMetrics.measure(() -> {
+      requestMetrics.getDatabaseCallCounter().count();
+      requestMetrics.getDatabaseCallCounter().count();
+      requestMetrics.getDatabaseCallCounter().count();
+      return succeededFuture();
+    });
+
+    assertEquals(1, registry.get("feesfines.action.db.calls").summary().count());
+    assertEquals(3.0, registry.get("feesfines.action.db.calls").summary().totalAmount());
+  }
+
+  @Test
+  public void bulkSizeIsRecordedWithTenant() {
+    new RequestMetrics(registry, TENANT, Action.PAY, true).recordBulkSize(25);
+
+    assertEquals(25.0, registry.get("feesfines.action.bulk.size")
+      .tag(FeesFinesMetrics.TENANT, TENANT)
+      .tag("action", "PAY")
+      .summary()
+      .max());
+  }
+
+  private long stageCount(String stage) {
+    return registry.get("feesfines.action.stage")
+      .tag("stage", stage)
+      .tag(FeesFinesMetrics.TENANT, TENANT)
+      .timer()
+      .count();
+  }
+
+  private long requestCount(String outcome) {
+    return registry.get("feesfines.action.requests")
+      .tag("outcome", outcome)
+      .timer()
+      .count();
+  }
+}
@@ -0,0 +1,101 @@
+package org.folio.rest.repository;
+
+import static java.util.Arrays.asList;
+import static org.folio.rest.domain.Action.PAY;
+import static org.folio.rest.domain.Action.REFUND;
+import static org.folio.rest.domain.Action.TRANSFER;
+import static org.folio.rest.domain.Action.WAIVE;
+import static org.folio.rest.utils.ResourceClients.feeFineActionsClient;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpStatus;
+import org.folio.rest.domain.RefundableAmount;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FeeFineActionRepositoryTest extends ApiTests {
+  private static final String FEE_FINE_ACTIONS = "feefineactions";
+
+  private final String firstAccountId = randomId();
+  private final String secondAccountId = randomId();
+  private final String waivedAccountId = randomId();
+  private final String accountWithoutActionsId = randomId();
+
+  @Before
+  public void setUp() {
+    removeAllFromTable(FEE_FINE_ACTIONS);
+  }
+
+  @Test
+  public void refundableAmountsOfSeveralAccountsAreFoundInOneCall() throws Exception {
+    postAction(firstAccountId, PAY.getPartialResult(), 1.25);
+    postAction(firstAccountId, PAY.getFullResult(), 2.00);
+    postAction(firstAccountId, TRANSFER.getPartialResult(), 0.50);
+    postAction(firstAccountId, REFUND.getPartialResult(), 1.00);
+    postAction(secondAccountId, TRANSFER.getFullResult(), 4.10);
+    postAction(waivedAccountId, WAIVE.getFullResult(), 3.00);
+    postAction(randomId(), PAY.getFullResult(), 9.99);
+
+    Map<String, RefundableAmount> refundableAmounts = findRefundableAmounts(
+      firstAccountId, secondAccountId, waivedAccountId, accountWithoutActionsId);
+
+    assertEquals(4, refundableAmounts.size());
+    assertRefundableAmount(refundableAmounts.get(firstAccountId), "3.25", "0.50");
+    assertRefundableAmount(refundableAmounts.get(secondAccountId), "0.00", "4.10");
+    assertRefundableAmount(refundableAmounts.get(waivedAccountId), "0.00", "0.00");
+    assertRefundableAmount(refundableAmounts.get(accountWithoutActionsId), "0.00", "0.00");
+  }
+
+  @Test
+  public void refundableAmountIsZeroForAccountWithoutPaymentsOrTransfers() throws Exception {
+    postAction(waivedAccountId, WAIVE.getPartialResult(), 1.00);
+
+    Map<String, RefundableAmount> refundableAmounts = findRefundableAmounts(waivedAccountId);
+
+    assertEquals(1, refundableAmounts.size());
+    assertEquals("0.00", refundableAmounts.get(waivedAccountId).getTotal().toString());
+  }
+
+  private Map<String, RefundableAmount> findRefundableAmounts(String... accountIds)
+    throws Exception {
+
+    final CompletableFuture<Map<String, RefundableAmount>> future = new CompletableFuture<>();
+
+    new FeeFineActionRepository(PostgresClient.getInstance(vertx, TENANT_NAME))
+      .findRefundableAmounts(asList(accountIds))
+      .onComplete(result -> {
+        if (result.succeeded()) {
+          future.complete(result.result());
+        } else {
+          future.completeExceptionally(result.cause());
+        }
+      });
+
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
+  private static void assertRefundableAmount(RefundableAmount refundableAmount,
+    String expectedPaid, String expectedTransferred) {
+
+    assertEquals(expectedPaid, refundableAmount.getPaid().toString());
+    assertEquals(expectedTransferred, refundableAmount.getTransferred().toString());
+  }
+
+  private static void postAction(String accountId, String typeAction, double amount) {
+    feeFineActionsClient()
+      .post(new Feefineaction()
+        .withAccountId(accountId)
+        .withUserId(randomId())
+        .withTypeAction(typeAction)
+        .withAmountAction(amount))
+      .then()
+      .statusCode(HttpStatus.SC_CREATED);
+  }
+}
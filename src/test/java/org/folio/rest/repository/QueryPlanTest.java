@@ -0,0 +1,80 @@
+package org.folio.rest.repository;
+
+import static java.lang.String.format;
+import static org.folio.rest.persist.PostgresClient.convertToPsqlStandard;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.test.support.ApiTests;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.sqlclient.Row;
+
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+
+@RunWith(JUnitParamsRunner.class)
+public class QueryPlanTest extends ApiTests {
+  private static final String ID = "0c8e1c36-1b3f-4b5c-8a5a-3f7a4b2c9d10";
+
+  @Test
+  @Parameters({
+    "feefineactions | accountId==" + ID,
+    "feefineactions | userId==" + ID,
+    "feefineactions | typeAction==\"Refunded fully\"",
+    "accounts | userId==" + ID,
+    "accounts | loanId==" + ID,
+    "accounts | itemId==" + ID,
+    "accounts | ownerId==" + ID,
+    "accounts | status.name==Open",
+    "accounts | feeFineType=\"*overdue*\"",
+    "accounts | title=\"*potter*\"",
+    "accounts | barcode=\"*12345*\""
+  })
+  public void queryUsesIndex(String table, String cql) throws Exception {
+    String plan = explain(table, cql);
+
+    assertThat(plan, containsString("Index"));
+    assertThat(plan, not(containsString("Seq Scan")));
+  }
+
+  /**
+   * Sequential scans are disabled for the duration of the transaction because the tables are
+   * (nearly) empty in tests, where the planner would otherwise prefer a scan even with an index.
+   */
+  private String explain(String table, String cql) throws Exception {
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT_NAME);
+    String where = new CQL2PgJSON(table + ".jsonb").toSql(cql).getWhere();
+    String sql = format("EXPLAIN SELECT jsonb FROM %s.%s WHERE %s",
+      convertToPsqlStandard(TENANT_NAME), table, where);
+
+    CompletableFuture<String> future = new CompletableFuture<>();
+
+    pgClient.startTx(tx -> pgClient.execute(tx, "SET LOCAL enable_seqscan = off", set -> {
+      if (set.failed()) {
+        pgClient.rollbackTx(tx, ignored -> future.completeExceptionally(set.cause()));
+        return;
+      }
+      pgClient.select(tx, sql, result -> pgClient.rollbackTx(tx, ignored -> {
+        if (result.failed()) {
+          future.completeExceptionally(result.cause());
+          return;
+        }
+        StringBuilder plan = new StringBuilder();
+        for (Row row : result.result()) {
+          plan.append(row.getString(0)).append('\n');
+        }
+        future.complete(plan.toString());
+      }));
+    }));
+
+    return future.get(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,198 @@
+package org.folio.rest.service;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static io.vertx.core.json.Json.decodeValue;
+import static java.util.stream.Collectors.toList;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+import static org.folio.rest.domain.EventType.FEE_FINE_BALANCE_CHANGED;
+import static org.folio.rest.domain.EventType.LOAN_RELATED_FEE_FINE_CLOSED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.folio.rest.domain.EventType;
+import org.folio.rest.domain.OutboxEvent;
+import org.folio.rest.jaxrs.model.Event;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.repository.EventOutboxRepository;
+import org.folio.test.support.ApiTests;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+
+import io.vertx.core.json.JsonObject;
+
+public class EventOutboxRelayVerticleTest extends ApiTests {
+  private static final String EVENT_OUTBOX_TABLE = "event_outbox";
+
+  private final Map<String, String> okapiHeaders = new HashMap<>();
+  private EventPublisher eventPublisher;
+
+  @Before
+  public void setUp() {
+    removeAllFromTable(EVENT_OUTBOX_TABLE);
+
+    okapiHeaders.put(OKAPI_HEADER_TENANT, TENANT_NAME);
+    okapiHeaders.put(OKAPI_URL_HEADER, getOkapiUrl());
+    okapiHeaders.put(OKAPI_HEADER_TOKEN, OKAPI_TOKEN);
+    eventPublisher = new EventPublisher(vertx, okapiHeaders);
+  }
+
+  @Test
+  public void consecutiveBalanceChangesOfFeeFineAreCoalesced() throws Exception {
+    final String firstFeeFineId = randomId();
+    final String secondFeeFineId = randomId();
+
+    List<OutboxEvent> events = new ArrayList<>();
+    events.add(balanceChanged(firstFeeFineId, 30.0));
+    events.add(balanceChanged(secondFeeFineId, 10.0));
+    events.add(balanceChanged(firstFeeFineId, 20.0));
+    events.add(balanceChanged(firstFeeFineId, 0.0));
+    events.add(event(firstFeeFineId, LOAN_RELATED_FEE_FINE_CLOSED,
+      new JsonObject().put("feeFineId", firstFeeFineId)));
+    events.add(balanceChanged(firstFeeFineId, 5.0));
+
+    saveToOutbox(events);
+    EventOutboxRelayVerticle.requestRelay(vertx, okapiHeaders, events.size());
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> countOutboxEvents() == 0);
+
+    assertThat(publishedEvents().size(), is(4));
+    assertThat(publishedEvents(firstFeeFineId), contains(
+      "FEE_FINE_BALANCE_CHANGED:0.0",
+      "LOAN_RELATED_FEE_FINE_CLOSED",
+      "FEE_FINE_BALANCE_CHANGED:5.0"));
+    assertThat(publishedEvents(secondFeeFineId), contains(
+      "FEE_FINE_BALANCE_CHANGED:10.0"));
+  }
+
+  @Test
+  public void eventsLeftInOutboxArePublishedWhenRelayStarts() throws Exception {
+    final String feeFineId = randomId();
+
+    // saved by requests handled before a restart, the relay was never asked to publish them
+    List<OutboxEvent> events = new ArrayList<>();
+    events.add(withRequestHeaders(balanceChanged(feeFineId, 10.0)));
+    events.add(withRequestHeaders(event(feeFineId, LOAN_RELATED_FEE_FINE_CLOSED,
+      new JsonObject().put("feeFineId", feeFineId))));
+    saveToOutbox(events);
+
+    String deploymentId = deploy(new EventOutboxRelayVerticle());
+    try {
+      // well within the poll interval, so the events are published by the startup drain
+      Awaitility.await()
+        .atMost(5, TimeUnit.SECONDS)
+        .until(() -> countOutboxEvents() == 0);
+    } finally {
+      undeploy(deploymentId);
+    }
+
+    assertThat(publishedEvents(feeFineId), contains(
+      "FEE_FINE_BALANCE_CHANGED:10.0",
+      "LOAN_RELATED_FEE_FINE_CLOSED"));
+  }
+
+  private OutboxEvent withRequestHeaders(OutboxEvent event) {
+    return new OutboxEvent(event.getPartitionKey(), event.getEvent(), getOkapiUrl(),
+      OKAPI_TOKEN);
+  }
+
+  private OutboxEvent balanceChanged(String feeFineId, double balance) {
+    return event(feeFineId, FEE_FINE_BALANCE_CHANGED, new JsonObject()
+      .put("feeFineId", feeFineId)
+      .put("balance", balance));
+  }
+
+  private OutboxEvent event(String feeFineId, EventType type, JsonObject payload) {
+    return new OutboxEvent(feeFineId, eventPublisher.createEvent(type, payload.encode()));
+  }
+
+  private void saveToOutbox(List<OutboxEvent> events) throws Exception {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    new EventOutboxRepository(PostgresClient.getInstance(vertx, TENANT_NAME))
+      .save(events)
+      .onComplete(result -> {
+        if (result.succeeded()) {
+          future.complete(null);
+        } else {
+          future.completeExceptionally(result.cause());
+        }
+      });
+
+    future.get(5, TimeUnit.SECONDS);
+  }
+
+  private String deploy(EventOutboxRelayVerticle verticle) throws Exception {
+    final CompletableFuture<String> future = new CompletableFuture<>();
+
+    vertx.deployVerticle(verticle, result -> {
+      if (result.succeeded()) {
+        future.complete(result.result());
+      } else {
+        future.completeExceptionally(result.cause());
+      }
+    });
+
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
+  private void undeploy(String deploymentId) throws Exception {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    vertx.undeploy(deploymentId, result -> future.complete(null));
+
+    future.get(5, TimeUnit.SECONDS);
+  }
+
+  private int countOutboxEvents() throws Exception {
+    final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+    PostgresClient.getInstance(vertx, TENANT_NAME)
+      .select(String.format("SELECT count(*) FROM %s.%s",
+        PostgresClient.convertToPsqlStandard(TENANT_NAME), EVENT_OUTBOX_TABLE), result -> {
+        if (result.succeeded()) {
+          future.complete(result.result().iterator().next().getInteger(0));
+        } else {
+          future.completeExceptionally(result.cause());
+        }
+      });
+
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
+  private List<Event> publishedEvents() {
+    return getOkapi().findAll(postRequestedFor(urlPathEqualTo("/pubsub/publish")))
+      .stream()
+      .sorted(Comparator.comparing(LoggedRequest::getLoggedDate))
+      .map(request -> decodeValue(request.getBodyAsString(), Event.class))
+      .collect(toList());
+  }
+
+  private List<String> publishedEvents(String feeFineId) {
+    return publishedEvents().stream()
+      .filter(event -> feeFineId.equals(
+        new JsonObject(event.getEventPayload()).getString("feeFineId")))
+      .map(event -> {
+        JsonObject payload = new JsonObject(event.getEventPayload());
+        return payload.containsKey("balance")
+          ? event.getEventType() + ":" + payload.getDouble("balance")
+          : event.getEventType();
+      })
+      .collect(toList());
+  }
+}
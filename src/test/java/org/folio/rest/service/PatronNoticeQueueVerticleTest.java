@@ -0,0 +1,250 @@
+package org.folio.rest.service;
+
+import static java.util.stream.Collectors.toList;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.awaitility.Awaitility;
+import org.folio.rest.exception.FailedValidationException;
+import org.folio.rest.jaxrs.model.Feefineaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+public class PatronNoticeQueueVerticleTest {
+  private static final double UNLIMITED_RATE = 10_000;
+
+  private final Map<String, String> okapiHeaders = new HashMap<>();
+  private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+  private Vertx vertx;
+  private String tenant;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    // metrics are kept per tenant for the life of the JVM
+    tenant = "notice_queue_" + UUID.randomUUID().toString().replace("-", "");
+    okapiHeaders.put(OKAPI_HEADER_TENANT, tenant);
+    okapiHeaders.put(OKAPI_HEADER_TOKEN, "token");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CompletableFuture<Void> closed = new CompletableFuture<>();
+    vertx.close(result -> closed.complete(null));
+    closed.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void noticesInProgressAreLimited() throws Exception {
+    deploy(pendingDeliveries(), 100, 2, UNLIMITED_RATE, 3, 100);
+
+    enqueue(5);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getInFlight() == 2 && metrics().getDepth() == 3);
+    assertThat(deliveredActions(), is(2));
+
+    deliveries.get(0).complete(0);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> deliveredActions() == 3);
+    assertThat(metrics().getInFlight(), is(2));
+    assertThat(metrics().getDepth(), is(2));
+    assertThat(metrics().getSent(), is(1L));
+  }
+
+  @Test
+  public void noticesAreSentAtLimitedRate() throws Exception {
+    deploy(actions -> succeeded(actions.size()), 100, 100, 10, 3, 100);
+
+    long start = System.currentTimeMillis();
+    enqueue(30);
+
+    Awaitility.await()
+      .atMost(10, TimeUnit.SECONDS)
+      .until(() -> metrics().getSent() == 30);
+
+    // a burst of one second worth of notices, the remaining 20 at 10 per second
+    assertThat(deliveries.get(0).actions, is(10));
+    assertThat(deliveries.get(deliveries.size() - 1).deliveredAt - start,
+      greaterThanOrEqualTo(1_500L));
+  }
+
+  @Test
+  public void failedNoticeIsRetriedWithGrowingDelay() throws Exception {
+    deploy(actions -> failed(actions.size(), new RuntimeException("Patron notice failed")),
+      100, 10, UNLIMITED_RATE, 3, 200);
+
+    enqueue(1);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getFailed() == 1);
+
+    assertThat(deliveries.size(), is(3));
+    assertThat(metrics().getRetried(), is(2L));
+    assertThat(metrics().getRetryPending(), is(0));
+    assertThat(deliveries.get(1).deliveredAt - deliveries.get(0).deliveredAt,
+      greaterThanOrEqualTo(200L));
+    assertThat(deliveries.get(2).deliveredAt - deliveries.get(1).deliveredAt,
+      greaterThanOrEqualTo(400L));
+  }
+
+  @Test
+  public void noticeThatFailsValidationIsNotRetried() throws Exception {
+    deploy(actions -> failed(actions.size(), new FailedValidationException("No template")),
+      100, 10, UNLIMITED_RATE, 3, 100);
+
+    enqueue(1);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getFailed() == 1);
+
+    TimeUnit.MILLISECONDS.sleep(300);
+    assertThat(deliveries.size(), is(1));
+    assertThat(metrics().getRetried(), is(0L));
+  }
+
+  @Test
+  public void noticesAreDroppedWhenQueueIsFull() throws Exception {
+    deploy(pendingDeliveries(), 2, 1, UNLIMITED_RATE, 3, 100);
+
+    enqueue(4);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getDropped() == 2);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getInFlight() == 1);
+    assertThat(metrics().getDepth(), is(1));
+    assertThat(deliveredActions(), is(1));
+  }
+
+  @Test
+  public void ageOfOldestQueuedNoticeIsReported() throws Exception {
+    deploy(pendingDeliveries(), 100, 1, UNLIMITED_RATE, 3, 100);
+
+    enqueue(2);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getDepth() == 1);
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertThat(metrics().getOldestAgeMillis(), greaterThanOrEqualTo(100L));
+
+    deliveries.get(0).complete(0);
+
+    Awaitility.await()
+      .atMost(5, TimeUnit.SECONDS)
+      .until(() -> metrics().getDepth() == 0);
+    assertThat(metrics().getOldestAgeMillis(), is(0L));
+  }
+
+  private void deploy(Function<List<Feefineaction>, List<Promise<Void>>> results, int capacity,
+    int concurrency, double ratePerSecond, int maxAttempts, long retryDelayMillis)
+    throws Exception {
+
+    PatronNoticeQueueVerticle.NoticeSender sender = (vertx, headers, actions, aggregated) -> {
+      Delivery delivery = new Delivery(actions.size(), results.apply(actions));
+      deliveries.add(delivery);
+      return delivery.results.stream()
+        .map(Promise::future)
+        .collect(toList());
+    };
+
+    CompletableFuture<String> deployed = new CompletableFuture<>();
+    vertx.deployVerticle(new PatronNoticeQueueVerticle(sender, capacity, concurrency,
+      ratePerSecond, maxAttempts, retryDelayMillis),
+      result -> deployed.complete(result.result()));
+    deployed.get(5, TimeUnit.SECONDS);
+  }
+
+  private void enqueue(int count) {
+    List<Feefineaction> actions = IntStream.range(0, count)
+      .mapToObj(index -> new Feefineaction()
+        .withId(UUID.randomUUID().toString())
+        .withAccountId(UUID.randomUUID().toString()))
+      .collect(toList());
+
+    PatronNoticeQueueVerticle.enqueue(vertx, okapiHeaders, actions, false);
+  }
+
+  private PatronNoticeQueueVerticle.Metrics metrics() {
+    PatronNoticeQueueVerticle.Metrics metrics =
+      PatronNoticeQueueVerticle.getMetrics().get(tenant);
+    return metrics == null ? new PatronNoticeQueueVerticle.Metrics() : metrics;
+  }
+
+  private int deliveredActions() {
+    return deliveries.stream().mapToInt(delivery -> delivery.actions).sum();
+  }
+
+  /**
+   * Deliveries that stay in progress until the test completes them.
+   */
+  private static Function<List<Feefineaction>, List<Promise<Void>>> pendingDeliveries() {
+    return actions -> results(actions.size(), promise -> {});
+  }
+
+  private static List<Promise<Void>> succeeded(int count) {
+    return results(count, Promise::complete);
+  }
+
+  private static List<Promise<Void>> failed(int count, Throwable cause) {
+    return results(count, promise -> promise.fail(cause));
+  }
+
+  private static List<Promise<Void>> results(int count, Consumer<Promise<Void>> completion) {
+    List<Promise<Void>> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Promise<Void> promise = Promise.promise();
+      completion.accept(promise);
+      results.add(promise);
+    }
+    return results;
+  }
+
+  private static class Delivery {
+    private final int actions;
+    private final List<Promise<Void>> results;
+    private final long deliveredAt = System.currentTimeMillis();
+    private final Context context = Vertx.currentContext();
+
+    private Delivery(int actions, List<Promise<Void>> results) {
+      this.actions = actions;
+      this.results = results;
+    }
+
+    /**
+     * Completes a pending result on the queue's context, like a real delivery would.
+     */
+    private void complete(int index) {
+      context.runOnContext(ignored -> results.get(index).complete());
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package org.folio.rest.tracing;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps ended spans in memory so that tests can inspect them.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+  private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+
+  @Override
+  public void export(Span span) {
+    spans.add(span);
+  }
+
+  public List<Span> getFinishedSpans() {
+    return new ArrayList<>(spans);
+  }
+
+  public List<Span> getFinishedSpans(String traceId) {
+    return spans.stream()
+      .filter(span -> span.getContext().getTraceId().equals(traceId))
+      .collect(toList());
+  }
+
+  public void reset() {
+    spans.clear();
+  }
+}
@@ -0,0 +1,136 @@
+package org.folio.rest.tracing;
+
+import static io.vertx.core.Future.failedFuture;
+import static io.vertx.core.Future.succeededFuture;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.folio.rest.exception.FailedValidationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.core.Future;
+
+public class RequestTraceTest {
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String CALLER_SPAN_ID = "00f067aa0ba902b7";
+
+  private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+  private SpanExporter originalExporter;
+
+  @Before
+  public void setUp() {
+    originalExporter = Tracing.getExporter();
+    Tracing.setExporter(exporter);
+  }
+
+  @After
+  public void tearDown() {
+    Tracing.setExporter(originalExporter);
+  }
+
+  @Test
+  public void repositoryCallsAreChildrenOfTheCurrentStage() {
+    RequestTrace requestTrace = new RequestTrace("PAY", headers());
+
+    requestTrace.trace(() -> succeededFuture("context")
+      .compose(requestTrace.stage("findAccount", context -> requestTrace
+        .startDatabaseSpan("AccountRepository.getAccountById")
+        .endWith(succeededFuture(context))))
+      .compose(requestTrace.stage("updateAccount", context -> succeededFuture(context))));
+
+    Span request = span("PAY");
+    Span findAccount = span("findAccount");
+
+    assertEquals(4, exporter.getFinishedSpans().size());
+    assertNull(request.getParentSpanId());
+    assertEquals(request.getContext().getSpanId(), findAccount.getParentSpanId());
+    assertEquals(request.getContext().getSpanId(), span("updateAccount").getParentSpanId());
+    assertEquals(findAccount.getContext().getSpanId(),
+      span("AccountRepository.getAccountById").getParentSpanId());
+    assertEquals("postgresql",
+      span("AccountRepository.getAccountById").getAttributes().get("db.system"));
+  }
+
+  @Test
+  public void traceOfTheCallerIsContinued() {
+    Map<String, String> headers = headers();
+    headers.put("Traceparent", "00-" + TRACE_ID + "-" + CALLER_SPAN_ID + "-01");
+
+    RequestTrace requestTrace = new RequestTrace("PAY", headers);
+    String traceparent = requestTrace.inject(headers()).get(Tracing.TRACEPARENT);
+    requestTrace.trace(() -> succeededFuture());
+
+    Span request = span("PAY");
+    assertEquals(TRACE_ID, request.getContext().getTraceId());
+    assertEquals(CALLER_SPAN_ID, request.getParentSpanId());
+    assertEquals(request.getContext().toTraceparent(), traceparent);
+  }
+
+  @Test
+  public void failedStagesAreRecordedAsErrors() {
+    RequestTrace requestTrace = new RequestTrace("WAIVE", headers());
+
+    Future<String> result = requestTrace.trace(() -> succeededFuture("context")
+      .compose(requestTrace.<String, String>stage("validate", context -> {
+        throw new FailedValidationException("Invalid amount entered");
+      })));
+
+    assertTrue(result.failed());
+    assertTrue(span("validate").isError());
+    assertEquals("Invalid amount entered", span("WAIVE").getErrorMessage());
+  }
+
+  @Test
+  public void spansAreNotRecordedWhenTracingIsDisabled() {
+    Tracing.setExporter(null);
+    RequestTrace requestTrace = new RequestTrace("PAY", headers());
+
+    requestTrace.trace(() -> failedFuture("broken"));
+
+    assertFalse(requestTrace.getRoot().isRecording());
+    assertFalse(requestTrace.inject(headers()).containsKey(Tracing.TRACEPARENT));
+    assertTrue(exporter.getFinishedSpans().isEmpty());
+  }
+
+  @Test
+  public void untracedRepositoriesDoNotStartTraces() {
+    RequestTrace.untraced().startDatabaseSpan("AccountRepository.update").end();
+
+    assertTrue(exporter.getFinishedSpans().isEmpty());
+  }
+
+  @Test
+  public void invalidTraceparentIsIgnored() {
+    assertFalse(SpanContext.fromTraceparent("00-" + TRACE_ID + "-0000000000000000-01")
+      .isPresent());
+    assertFalse(SpanContext.fromTraceparent("01-" + TRACE_ID + "-" + CALLER_SPAN_ID + "-01")
+      .isPresent());
+    assertFalse(SpanContext.fromTraceparent("not a traceparent").isPresent());
+    assertFalse(SpanContext.fromTraceparent("00-" + TRACE_ID + "-" + CALLER_SPAN_ID + "-00")
+      .map(SpanContext::isSampled)
+      .orElse(true));
+  }
+
+  private Span span(String name) {
+    List<Span> spans = exporter.getFinishedSpans();
+    return spans.stream()
+      .filter(span -> span.getName().equals(name))
+      .findFirst()
+      .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans));
+  }
+
+  private static Map<String, String> headers() {
+    Map<String, String> headers = new HashMap<>();
+    headers.put(OKAPI_HEADER_TENANT, "test_tenant");
+    return headers;
+  }
+}
@@ -39,6 +39,7 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.junit.Test;
 
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 public class PatronNoticeBuilderTest {
@@ -177,6 +178,46 @@ public class PatronNoticeBuilderTest {
     assertEquals(account.getLocation(), itemContext.getString("effectiveLocationSpecific"));
   }
 
+  @Test
+  public void aggregatedNoticeListsEveryFeeFine() {
+    final User user = createUser();
+    final Feefine feefine = createFeeFine();
+    final Owner owner = createOwner();
+    final String userId = UUID.randomUUID().toString();
+
+    final FeeFineNoticeContext firstContext = new FeeFineNoticeContext()
+      .withUser(user)
+      .withFeefine(feefine)
+      .withOwner(owner)
+      .withAccount(createAccount().withTitle("First title"))
+      .withAction(createAction().withUserId(userId));
+
+    final FeeFineNoticeContext secondContext = new FeeFineNoticeContext()
+      .withUser(user)
+      .withFeefine(feefine)
+      .withOwner(owner)
+      .withAccount(createAccount().withTitle("Second title"))
+      .withAction(createAction().withUserId(userId));
+
+    final PatronNotice notice = PatronNoticeBuilder.buildAggregatedNotice(
+      Arrays.asList(firstContext, secondContext));
+
+    assertEquals(userId, notice.getRecipientId());
+    assertEquals(feefine.getActionNoticeId(), notice.getTemplateId());
+
+    final Map<String, Object> context = notice.getContext().getAdditionalProperties();
+    assertEquals(user.getBarcode(), ((JsonObject) context.get("user")).getString("barcode"));
+
+    final JsonArray feeCharges = (JsonArray) context.get("feeCharges");
+    assertThat(feeCharges.size(), is(2));
+    assertEquals("First title", feeCharges.getJsonObject(0)
+      .getJsonObject("item").getString("title"));
+    assertEquals("Second title", feeCharges.getJsonObject(1)
+      .getJsonObject("item").getString("title"));
+    assertEquals(ACTION_COMMENT_FOR_PATRON, feeCharges.getJsonObject(1)
+      .getJsonObject("feeAction").getString("additionalInfo"));
+  }
+
   @Test
   public void canParseSeveralComments() {
     Map<String, String> parsedComments =
@@ -46,6 +46,10 @@ public final class ResourceClients {
     return buildAccountActionClient(accountId, "refund");
   }
 
+  public static ResourceClient buildUserBalanceSummaryClient(String userId) {
+    return new ResourceClient(format("/accounts/users/%s/summary", userId));
+  }
+
   private static ResourceClient buildAccountActionClient(String accountId, String action) {
     return new ResourceClient(format("/accounts/%s/%s", accountId, action));
   }
@@ -82,6 +86,14 @@ public final class ResourceClients {
     return new ResourceClient("/feefineactions");
   }
 
+  public static ResourceClient feeFinesClient() {
+    return new ResourceClient("/feefines");
+  }
+
+  public static ResourceClient ownersClient() {
+    return new ResourceClient("/owners");
+  }
+
   public static ResourceClient tenantClient() {
     return new ResourceClient("/_/tenant");
   }
@@ -0,0 +1,153 @@
+package org.folio.rest.utils.amountsplitter;
+
+import static org.folio.rest.utils.amountsplitter.AmountSplitterStrategies.LARGEST_BALANCE_FIRST;
+import static org.folio.rest.utils.amountsplitter.AmountSplitterStrategies.OLDEST_FIRST;
+import static org.folio.rest.utils.amountsplitter.AmountSplitterStrategies.PROPORTIONALLY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.DefaultBulkActionRequest;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.model.Owner;
+import org.folio.test.support.EntityBuilder;
+import org.junit.Test;
+
+public class AmountSplitterStrategiesTest {
+
+  @Test
+  public void unknownStrategyIsNotFound() {
+    assertFalse(AmountSplitterStrategies.get("newestFirst").isPresent());
+    assertFalse(AmountSplitterStrategies.get(null).isPresent());
+    assertTrue(AmountSplitterStrategies.getDefault() instanceof SplitEvenlyInOnePass);
+  }
+
+  @Test
+  public void everyStrategyAcceptedBySchemasIsRegistered() {
+    for (DefaultBulkActionRequest.AllocationStrategy strategy :
+      DefaultBulkActionRequest.AllocationStrategy.values()) {
+
+      assertTrue(AmountSplitterStrategies.get(strategy.value()).isPresent(), strategy.value());
+    }
+    for (Owner.DefaultAllocationStrategy strategy : Owner.DefaultAllocationStrategy.values()) {
+      assertTrue(AmountSplitterStrategies.get(strategy.value()).isPresent(), strategy.value());
+    }
+    assertEquals(AmountSplitterStrategies.getNames().size(),
+      DefaultBulkActionRequest.AllocationStrategy.values().length);
+  }
+
+  @Test
+  public void oldestFeesFinesArePaidFirst() {
+    List<Account> accounts = Arrays.asList(
+      buildAccount(10.0, new Date(3_000)),
+      buildAccount(10.0, null),
+      buildAccount(5.0, new Date(1_000)),
+      buildAccount(10.0, new Date(2_000)));
+
+    Map<String, MonetaryValue> splitAmount = split(OLDEST_FIRST, 20.0, accounts);
+
+    assertEquals(3, splitAmount.size());
+    assertEquals(5.0, amountOf(splitAmount, accounts.get(2)));
+    assertEquals(10.0, amountOf(splitAmount, accounts.get(3)));
+    assertEquals(5.0, amountOf(splitAmount, accounts.get(0)));
+  }
+
+  @Test
+  public void largestBalancesArePaidFirst() {
+    List<Account> accounts = Arrays.asList(
+      buildAccount(0.5, null),
+      buildAccount(12.25, null),
+      buildAccount(7.0, null),
+      buildAccount(12.25, null));
+
+    Map<String, MonetaryValue> splitAmount = split(LARGEST_BALANCE_FIRST, 30.0, accounts);
+
+    assertEquals(3, splitAmount.size());
+    assertEquals(12.25, amountOf(splitAmount, accounts.get(1)));
+    assertEquals(12.25, amountOf(splitAmount, accounts.get(3)));
+    assertEquals(5.5, amountOf(splitAmount, accounts.get(2)));
+  }
+
+  @Test
+  public void amountIsSplitInProportionToBalances() {
+    List<Account> accounts = Arrays.asList(
+      buildAccount(10.0, null),
+      buildAccount(20.0, null),
+      buildAccount(30.0, null));
+
+    Map<String, MonetaryValue> splitAmount = split(PROPORTIONALLY, 10.0, accounts);
+
+    assertEquals(1.67, amountOf(splitAmount, accounts.get(0)));
+    assertEquals(3.33, amountOf(splitAmount, accounts.get(1)));
+    assertEquals(5.0, amountOf(splitAmount, accounts.get(2)));
+  }
+
+  @Test
+  public void everyStrategyDistributesRequestedAmountInFull() {
+    Random random = new Random(20);
+
+    for (String name : AmountSplitterStrategies.getNames()) {
+      BulkActionAmountSplitterStrategy strategy = AmountSplitterStrategies.get(name).get();
+
+      for (int run = 0; run < 500; run++) {
+        List<Account> accounts = IntStream.range(0, 1 + random.nextInt(50))
+          .mapToObj(i -> buildAccount((1 + random.nextInt(100_00)) / 100.0,
+            new Date(random.nextInt(1_000_000))))
+          .collect(Collectors.toList());
+        Map<String, MonetaryValue> actionableAmounts = buildActionableAmounts(accounts);
+        long totalMinorUnits = sumOfMinorUnits(actionableAmounts);
+        long requestedMinorUnits = 1 + (long) (random.nextDouble() * totalMinorUnits);
+
+        Map<String, MonetaryValue> splitAmount = strategy.split(
+          new MonetaryValue(BigDecimal.valueOf(requestedMinorUnits, 2)), accounts,
+          actionableAmounts);
+
+        String message = name + ", run " + run;
+        assertEquals(requestedMinorUnits, sumOfMinorUnits(splitAmount), message);
+        splitAmount.forEach((accountId, amount) -> assertTrue(
+          !amount.isGreaterThan(actionableAmounts.get(accountId)), message));
+      }
+    }
+  }
+
+  private static Map<String, MonetaryValue> split(String strategyName, double requestedAmount,
+    List<Account> accounts) {
+
+    return AmountSplitterStrategies.get(strategyName).get()
+      .split(new MonetaryValue(requestedAmount), accounts, buildActionableAmounts(accounts));
+  }
+
+  private static Account buildAccount(double remaining, Date createdDate) {
+    return EntityBuilder.buildAccount()
+      .withAmount(remaining)
+      .withRemaining(remaining)
+      .withMetadata(createdDate == null ? null : new Metadata().withCreatedDate(createdDate));
+  }
+
+  private static Map<String, MonetaryValue> buildActionableAmounts(List<Account> accounts) {
+    return accounts.stream()
+      .collect(Collectors.toMap(Account::getId,
+        account -> new MonetaryValue(account.getRemaining())));
+  }
+
+  private static long sumOfMinorUnits(Map<String, MonetaryValue> amounts) {
+    return amounts.values().stream()
+      .mapToLong(MonetaryValue::getMinorUnits)
+      .sum();
+  }
+
+  private static double amountOf(Map<String, MonetaryValue> splitAmount, Account account) {
+    return splitAmount.get(account.getId()).toDouble();
+  }
+}
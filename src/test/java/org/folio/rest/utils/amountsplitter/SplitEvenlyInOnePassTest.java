@@ -0,0 +1,192 @@
+package org.folio.rest.utils.amountsplitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.folio.rest.domain.MonetaryValue;
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.test.support.EntityBuilder;
+import org.junit.Test;
+
+public class SplitEvenlyInOnePassTest {
+  private final BulkActionAmountSplitterStrategy strategy = new SplitEvenlyInOnePass();
+
+  @Test
+  public void shouldBeSplitCorrectlyWithFullAmountsForSomeFines() {
+    List<Account> accounts = buildAccounts(100, 1, 150);
+
+    Map<String, MonetaryValue> splitAmount = split(200.0, accounts);
+
+    assertEquals(3, splitAmount.size());
+    assertEquals(1, numberOfValueOccurrences(splitAmount, 1.0));
+    assertEquals(2, numberOfValueOccurrences(splitAmount, 99.5));
+  }
+
+  @Test
+  public void shouldBeSplitCorrectlyWithPartialAmountsForAllFines() {
+    List<Account> accounts = buildAccounts(100, 100, 100);
+
+    Map<String, MonetaryValue> splitAmount = split(50.0, accounts);
+
+    assertEquals(3, splitAmount.size());
+    assertEquals(1, numberOfValueOccurrences(splitAmount, 16.66));
+    assertEquals(2, numberOfValueOccurrences(splitAmount, 16.67));
+  }
+
+  @Test
+  public void accountsAreOrderedByExactAmountIncludingCents() {
+    List<Account> accounts = buildAccounts(0.9, 0.1);
+
+    Map<String, MonetaryValue> splitAmount = split(1.0, accounts);
+
+    assertEquals(0.9, amountOf(splitAmount, accounts.get(0)));
+    assertEquals(0.1, amountOf(splitAmount, accounts.get(1)));
+  }
+
+  @Test
+  public void leftoverCentsGoToFirstAccountsWithEqualAmounts() {
+    List<Account> accounts = buildAccounts(10, 10, 10);
+
+    Map<String, MonetaryValue> splitAmount = split(10.0, accounts);
+
+    assertEquals(3.34, amountOf(splitAmount, accounts.get(0)));
+    assertEquals(3.33, amountOf(splitAmount, accounts.get(1)));
+    assertEquals(3.33, amountOf(splitAmount, accounts.get(2)));
+  }
+
+  @Test
+  public void requestedAmountIsDistributedInFullBetweenManyAccounts() {
+    Random random = new Random(19);
+    double[] amounts = IntStream.range(0, 100_000)
+      .mapToDouble(i -> (1 + random.nextInt(100_00)) / 100.0)
+      .toArray();
+    List<Account> accounts = buildAccounts(amounts);
+    long totalMinorUnits = Arrays.stream(amounts)
+      .mapToLong(amount -> Math.round(amount * 100))
+      .sum();
+    long requestedMinorUnits = totalMinorUnits / 3 + 1;
+
+    Map<String, MonetaryValue> splitAmount = strategy.split(
+      new MonetaryValue(BigDecimal.valueOf(requestedMinorUnits, 2)), accounts,
+      buildActionableAmountsEqualToRemaining(accounts));
+
+    assertEquals(requestedMinorUnits, sumOfMinorUnits(splitAmount));
+    assertEveryAmountIsActionable(splitAmount, accounts);
+  }
+
+  @Test
+  public void agreesWithSplitEvenlyRecursivelyOnWholeAmounts() {
+    BulkActionAmountSplitterStrategy existingStrategy = new SplitEvenlyRecursively();
+    Random random = new Random(20);
+    int comparedEvenSplits = 0;
+
+    for (int run = 0; run < 2_000; run++) {
+      List<Account> accounts = buildAccounts(IntStream.range(0, 1 + random.nextInt(30))
+        .mapToDouble(i -> 1 + random.nextInt(200))
+        .toArray());
+      Map<String, MonetaryValue> actionableAmounts = buildActionableAmountsEqualToRemaining(
+        accounts);
+      long totalMinorUnits = sumOfMinorUnits(actionableAmounts);
+      long requestedMinorUnits = 1 + (long) (random.nextDouble() * totalMinorUnits);
+      MonetaryValue requestedAmount = new MonetaryValue(
+        BigDecimal.valueOf(requestedMinorUnits, 2));
+
+      Map<String, MonetaryValue> splitAmount = strategy.split(requestedAmount, accounts,
+        actionableAmounts);
+      Map<String, MonetaryValue> existingSplitAmount = existingStrategy.split(requestedAmount,
+        accounts, actionableAmounts);
+
+      assertEquals(requestedMinorUnits, sumOfMinorUnits(splitAmount), "run " + run);
+      assertTrue(sumOfMinorUnits(splitAmount) >= sumOfMinorUnits(existingSplitAmount));
+      assertEveryAmountIsActionable(splitAmount, accounts);
+
+      // where the existing strategy splits the whole amount as evenly as possible both
+      // strategies can only differ in which accounts get the leftover cents
+      if (sumOfMinorUnits(existingSplitAmount) == requestedMinorUnits
+        && isEvenSplit(existingSplitAmount, actionableAmounts)) {
+
+        assertEquals(sortedMinorUnits(existingSplitAmount), sortedMinorUnits(splitAmount),
+          "run " + run);
+        comparedEvenSplits++;
+      }
+    }
+
+    assertTrue(comparedEvenSplits > 500);
+  }
+
+  private Map<String, MonetaryValue> split(double requestedAmount, List<Account> accounts) {
+    return strategy.split(new MonetaryValue(requestedAmount), accounts,
+      buildActionableAmountsEqualToRemaining(accounts));
+  }
+
+  private List<Account> buildAccounts(double... amounts) {
+    return Arrays.stream(amounts)
+      .mapToObj(amount -> EntityBuilder.buildAccount()
+        .withAmount(amount)
+        .withRemaining(amount))
+      .collect(Collectors.toList());
+  }
+
+  private Map<String, MonetaryValue> buildActionableAmountsEqualToRemaining(List<Account> accounts) {
+    return accounts.stream()
+      .collect(Collectors.toMap(Account::getId,
+        account -> new MonetaryValue(BigDecimal.valueOf(account.getRemaining()))));
+  }
+
+  private static void assertEveryAmountIsActionable(Map<String, MonetaryValue> splitAmount,
+    List<Account> accounts) {
+
+    accounts.stream()
+      .filter(account -> splitAmount.containsKey(account.getId()))
+      .forEach(account -> assertTrue(!splitAmount.get(account.getId())
+        .isGreaterThan(new MonetaryValue(account.getRemaining()))));
+  }
+
+  /**
+   * Whether amounts of accounts that were not covered in full differ by one minor unit at most.
+   */
+  private static boolean isEvenSplit(Map<String, MonetaryValue> splitAmount,
+    Map<String, MonetaryValue> actionableAmounts) {
+
+    long[] partialAmounts = actionableAmounts.entrySet().stream()
+      .filter(entry -> splitAmount.containsKey(entry.getKey()))
+      .filter(entry -> entry.getValue().isGreaterThan(splitAmount.get(entry.getKey())))
+      .mapToLong(entry -> splitAmount.get(entry.getKey()).getMinorUnits())
+      .toArray();
+
+    return partialAmounts.length == 0 || Arrays.stream(partialAmounts).max().getAsLong()
+      - Arrays.stream(partialAmounts).min().getAsLong() <= 1;
+  }
+
+  private static long sumOfMinorUnits(Map<String, MonetaryValue> amounts) {
+    return amounts.values().stream()
+      .mapToLong(MonetaryValue::getMinorUnits)
+      .sum();
+  }
+
+  private static List<Long> sortedMinorUnits(Map<String, MonetaryValue> amounts) {
+    return amounts.values().stream()
+      .map(MonetaryValue::getMinorUnits)
+      .sorted()
+      .collect(Collectors.toList());
+  }
+
+  private static double amountOf(Map<String, MonetaryValue> splitAmount, Account account) {
+    return splitAmount.get(account.getId()).toDouble();
+  }
+
+  private long numberOfValueOccurrences(Map<String, MonetaryValue> splitAmount, double value) {
+    return splitAmount.values().stream()
+      .mapToDouble(MonetaryValue::toDouble)
+      .filter(Double.valueOf(value)::equals)
+      .count();
+  }
+}
@@ -0,0 +1,376 @@
+package org.folio.test.load;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+import org.folio.rest.jaxrs.model.Account;
+import org.folio.rest.jaxrs.model.DefaultActionRequest;
+import org.folio.rest.jaxrs.model.DefaultBulkActionRequest;
+import org.folio.rest.metrics.FeesFinesMetrics;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.test.support.ApiTests;
+import org.folio.test.support.EntityBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Measures the throughput of the pay, bulk pay and account search endpoints against embedded
+ * Postgres, with WireMock standing in for users, inventory, patron notices and pub-sub. Not
+ * part of the regular build, run it with
+ * <pre>
+ * mvn test -Dtest=ActionLoadHarness -Dload.concurrency=32 -Dload.durationSeconds=60
+ * </pre>
+ * Every workload runs for {@code load.warmupSeconds} and then for {@code load.durationSeconds}
+ * with {@code load.concurrency} clients sending requests back to back. The report, written to
+ * {@code load.reportFile}, has throughput, latency percentiles and response statuses of every
+ * workload and, for the action workloads, the mean database round trips per request as
+ * counted by the module for each request ({@code feesfines.action.db.calls}).
+ */
+public class ActionLoadHarness extends ApiTests {
+  private static final String WORKLOADS = System.getProperty("load.workloads",
+    "pay,bulkPay,getAccounts");
+  private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+  private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 10);
+  private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 30);
+  private static final int ACCOUNT_COUNT = Integer.getInteger("load.accounts", 2000);
+  private static final int ACCOUNTS_PER_USER = Integer.getInteger("load.accountsPerUser", 20);
+  private static final int BULK_SIZE = Integer.getInteger("load.bulkSize", 10);
+  private static final int STUB_LATENCY_MILLIS = Integer.getInteger("load.stubLatencyMillis",
+    20);
+  private static final boolean NOTIFY_PATRON = Boolean.getBoolean("load.notifyPatron");
+  private static final String REPORT_FILE = System.getProperty("load.reportFile",
+    "target/load-report.json");
+
+  private static final String PAYMENT_AMOUNT = "0.01";
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+    .version(HttpClient.Version.HTTP_1_1)
+    .connectTimeout(Duration.ofSeconds(5))
+    .build();
+  private final AtomicLong requestCounter = new AtomicLong();
+  private List<Account> accounts;
+
+  @Before
+  public void setUpLoad() throws Exception {
+    removeAllFromTable("feefineactions");
+    removeAllFromTable("accounts");
+    stubDependencies();
+    accounts = createAccounts();
+  }
+
+  @Test
+  public void run() throws Exception {
+    JsonArray workloadReports = new JsonArray();
+
+    for (String workload : WORKLOADS.split(",")) {
+      LongFunction<HttpRequest> requests = requestsFor(workload.trim());
+
+      log.info("Warming up " + workload);
+      drive(requests, WARMUP_SECONDS);
+
+      log.info("Measuring " + workload);
+      DatabaseCalls databaseCallsBefore = DatabaseCalls.recorded();
+      Result result = drive(requests, DURATION_SECONDS);
+      // requests record their metrics once they are answered
+      TimeUnit.MILLISECONDS.sleep(500);
+      DatabaseCalls databaseCalls = DatabaseCalls.recorded().since(databaseCallsBefore);
+
+      JsonObject report = result.toJson()
+        .put("workload", workload.trim());
+      if (databaseCalls.requests > 0) {
+        report.put("dbCallsPerRequest", databaseCalls.calls / databaseCalls.requests);
+      }
+      log.info(report.encode());
+      workloadReports.add(report);
+    }
+
+    writeReport(new JsonObject()
+      .put("finishedAt", Instant.now().toString())
+      .put("config", new JsonObject()
+        .put("concurrency", CONCURRENCY)
+        .put("warmupSeconds", WARMUP_SECONDS)
+        .put("durationSeconds", DURATION_SECONDS)
+        .put("accounts", ACCOUNT_COUNT)
+        .put("accountsPerUser", ACCOUNTS_PER_USER)
+        .put("bulkSize", BULK_SIZE)
+        .put("stubLatencyMillis", STUB_LATENCY_MILLIS)
+        .put("notifyPatron", NOTIFY_PATRON))
+      .put("workloads", workloadReports));
+  }
+
+  private LongFunction<HttpRequest> requestsFor(String workload) {
+    switch (workload) {
+    case "pay":
+      return n -> postRequest("/accounts/" + account(n).getId() + "/pay",
+        new DefaultActionRequest()
+          .withAmount(PAYMENT_AMOUNT)
+          .withPaymentMethod("Cash")
+          .withServicePointId(randomId())
+          .withUserName("Load, Test")
+          .withNotifyPatron(NOTIFY_PATRON));
+    case "bulkPay":
+      return n -> {
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < BULK_SIZE; i++) {
+          accountIds.add(account(n * BULK_SIZE + i).getId());
+        }
+        return postRequest("/accounts-bulk/pay", new DefaultBulkActionRequest()
+          .withAccountIds(accountIds)
+          .withAmount(BigDecimal.valueOf(BULK_SIZE, 2).toPlainString())
+          .withPaymentMethod("Cash")
+          .withServicePointId(randomId())
+          .withUserName("Load, Test")
+          .withNotifyPatron(NOTIFY_PATRON));
+      };
+    case "getAccounts":
+      return n -> request("/accounts?limit=" + ACCOUNTS_PER_USER + "&query=userId%3D%3D"
+        + account(n * ACCOUNTS_PER_USER).getUserId())
+        .GET()
+        .build();
+    default:
+      throw new IllegalArgumentException("Unknown workload: " + workload);
+    }
+  }
+
+  private Result drive(LongFunction<HttpRequest> requests, int seconds) throws Exception {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    final ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+    final List<Future<long[]>> latencies = new ArrayList<>();
+    final long startedAt = System.nanoTime();
+
+    for (int client = 0; client < CONCURRENCY; client++) {
+      latencies.add(clients.submit(() -> {
+        long[] recorded = new long[1024];
+        int count = 0;
+
+        while (System.nanoTime() < deadline) {
+          HttpRequest request = requests.apply(requestCounter.getAndIncrement());
+          long sentAt = System.nanoTime();
+          int status;
+          try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding())
+              .statusCode();
+          } catch (IOException e) {
+            status = -1;
+          }
+
+          if (count == recorded.length) {
+            recorded = Arrays.copyOf(recorded, count * 2);
+          }
+          recorded[count++] = System.nanoTime() - sentAt;
+          statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        return Arrays.copyOf(recorded, count);
+      }));
+    }
+
+    List<long[]> recorded = new ArrayList<>();
+    for (Future<long[]> clientLatencies : latencies) {
+      recorded.add(clientLatencies.get());
+    }
+    long elapsedNanos = System.nanoTime() - startedAt;
+    clients.shutdown();
+
+    return new Result(recorded.stream().flatMapToLong(Arrays::stream).sorted().toArray(),
+      statuses, elapsedNanos);
+  }
+
+  private Account account(long n) {
+    return accounts.get((int) (n % accounts.size()));
+  }
+
+  private HttpRequest postRequest(String path, Object body) {
+    return request(path)
+      .POST(HttpRequest.BodyPublishers.ofString(Json.encode(body)))
+      .build();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(getOkapi().getVerticleUrl() + path))
+      .timeout(Duration.ofSeconds(30))
+      .header("Content-Type", "application/json")
+      .header(OKAPI_HEADER_TENANT, TENANT_NAME)
+      .header(OKAPI_URL_HEADER, getOkapiUrl())
+      .header(OKAPI_HEADER_TOKEN, OKAPI_TOKEN);
+  }
+
+  private List<Account> createAccounts() throws Exception {
+    List<Account> created = new ArrayList<>();
+    String userId = null;
+
+    for (int i = 0; i < ACCOUNT_COUNT; i++) {
+      if (i % ACCOUNTS_PER_USER == 0) {
+        userId = randomId();
+      }
+      // large enough to never be paid off while the harness runs
+      created.add(EntityBuilder.buildAccount(100_000.0, 100_000.0).withUserId(userId));
+    }
+
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    PostgresClient.getInstance(vertx, TENANT_NAME).saveBatch("accounts",
+      new ArrayList<>(created), result -> {
+        if (result.succeeded()) {
+          future.complete(null);
+        } else {
+          future.completeExceptionally(result.cause());
+        }
+      });
+    future.get(60, TimeUnit.SECONDS);
+
+    return created;
+  }
+
+  private void stubDependencies() {
+    getOkapi().stubFor(get(urlPathMatching("/users/.+"))
+      .willReturn(withLatency(new JsonObject()
+        .put("id", randomId())
+        .put("barcode", "123456")
+        .put("personal", new JsonObject().put("lastName", "Load")))));
+    getOkapi().stubFor(get(urlPathEqualTo("/item-storage/items"))
+      .willReturn(withLatency(emptyCollection("items"))));
+    getOkapi().stubFor(get(urlPathEqualTo("/holdings-storage/holdings"))
+      .willReturn(withLatency(emptyCollection("holdingsRecords"))));
+    getOkapi().stubFor(get(urlPathMatching(
+      "/(item-storage/items|holdings-storage/holdings|instance-storage/instances"
+        + "|locations|location-units/(institutions|campuses|libraries))/.+"))
+      .willReturn(withLatency(new JsonObject().put("id", randomId()))));
+    getOkapi().stubFor(post(urlPathEqualTo("/patron-notice"))
+      .willReturn(withLatency(null).withStatus(200)));
+    getOkapi().stubFor(post(urlPathEqualTo("/pubsub/publish"))
+      .atPriority(1)
+      .willReturn(withLatency(null).withStatus(204)));
+  }
+
+  private static ResponseDefinitionBuilder withLatency(JsonObject body) {
+    ResponseDefinitionBuilder response = aResponse()
+      .withStatus(200)
+      .withFixedDelay(STUB_LATENCY_MILLIS);
+
+    return body == null ? response : response
+      .withHeader("Content-Type", "application/json")
+      .withBody(body.encode());
+  }
+
+  private static JsonObject emptyCollection(String name) {
+    return new JsonObject()
+      .put(name, new JsonArray())
+      .put("totalRecords", 0);
+  }
+
+  private static void writeReport(JsonObject report) throws IOException {
+    Path path = Paths.get(REPORT_FILE);
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    Files.write(path, report.encodePrettily().getBytes(StandardCharsets.UTF_8));
+    log.info("Load report written to " + path.toAbsolutePath());
+  }
+
+  /**
+   * Action requests of the tenant and their database round trips recorded so far.
+   */
+  private static final class DatabaseCalls {
+    private final long requests;
+    private final double calls;
+
+    private DatabaseCalls(long requests, double calls) {
+      this.requests = requests;
+      this.calls = calls;
+    }
+
+    private static DatabaseCalls recorded() {
+      Collection<DistributionSummary> summaries = FeesFinesMetrics.getRegistry()
+        .find("feesfines.action.db.calls")
+        .tag(FeesFinesMetrics.TENANT, TENANT_NAME)
+        .summaries();
+
+      return new DatabaseCalls(
+        summaries.stream().mapToLong(DistributionSummary::count).sum(),
+        summaries.stream().mapToDouble(DistributionSummary::totalAmount).sum());
+    }
+
+    private DatabaseCalls since(DatabaseCalls before) {
+      return new DatabaseCalls(requests - before.requests, calls - before.calls);
+    }
+  }
+
+  private static final class Result {
+    private final long[] sortedLatencies;
+    private final Map<Integer, LongAdder> statuses;
+    private final long elapsedNanos;
+    private final long requests;
+
+    private Result(long[] sortedLatencies, Map<Integer, LongAdder> statuses,
+      long elapsedNanos) {
+
+      this.sortedLatencies = sortedLatencies;
+      this.statuses = statuses;
+      this.elapsedNanos = elapsedNanos;
+      this.requests = sortedLatencies.length;
+    }
+
+    private JsonObject toJson() {
+      JsonObject statusCounts = new JsonObject();
+      statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+
+      return new JsonObject()
+        .put("requests", requests)
+        .put("throughputPerSecond", requests / (elapsedNanos / 1e9))
+        .put("statuses", statusCounts)
+        .put("latencyMillis", new JsonObject()
+          .put("p50", percentile(0.50))
+          .put("p90", percentile(0.90))
+          .put("p99", percentile(0.99))
+          .put("max", percentile(1.0)));
+    }
+
+    private double percentile(double fraction) {
+      if (sortedLatencies.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(fraction * sortedLatencies.length) - 1;
+      return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+  }
+}
@@ -116,6 +116,24 @@ public class ApiTests {
     }
   }
 
+  protected void executeSql(String sql) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    PostgresClient.getInstance(vertx, TENANT_NAME).execute(sql, result -> {
+      if (result.succeeded()) {
+        future.complete(null);
+      } else {
+        future.completeExceptionally(result.cause());
+      }
+    });
+
+    try {
+      future.get(5, TimeUnit.SECONDS);
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
   private static String generateOkapiToken() {
     final String payload = new JsonObject()
       .put("user_id", USER_ID)
@@ -30,7 +30,7 @@ public final class OkapiDeployment extends WireMockRule {
     return baseUrl();
   }
 
-  String getVerticleUrl() {
+  public String getVerticleUrl() {
     return "http://localhost:" + getVerticlePort();
   }
 